@@ -0,0 +1,116 @@
+package app;
+
+import com.google.gson.JsonObject;
+import model.comms.util.JSONParserImpl;
+import model.db.GEDatabaseSQLite;
+import model.digest.GEDigestEngine;
+import model.digest.GEDigestSpec;
+import model.digest.GEDigestState;
+import model.items.GContent;
+import model.system.GESystem;
+import model.system.GESystemImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless application for sending scheduled digests, with no UI.
+ * Run with the path to a digest spec file.
+ * @see GEDigestSpec#fromJson(JsonObject) For the spec file format.
+ */
+public class DigestApp {
+    /**
+     * Runs the digest once, printing a summary.
+     * @param engine Engine to run.
+     */
+    private static void runDigest(GEDigestEngine engine) {
+        try {
+            Map<String, List<GContent>> sent = engine.runOnce();
+
+            int articles = sent.values().stream().mapToInt(List::size).sum();
+            System.out.println("Digest run complete; sent %d new articles for %d tags."
+                               .formatted(articles, sent.size()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Keep scheduled runs going
+            System.out.println("Digest run failed; " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: digest <spec file>");
+            return;
+        }
+
+        // Read spec
+        GEDigestSpec spec;
+
+        try {
+            JsonObject jo = new JSONParserImpl().parseResponse(
+                    Files.readString(Paths.get(args[0])));
+            spec = GEDigestSpec.fromJson(jo);
+        } catch (IOException e) {
+            System.out.println("Could not read digest spec " + args[0] + "; " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        // Same setup as the UI; cache only used when online for Guardian
+        GESystem ges = new GESystemImpl(spec.guardianOnline(),
+                                        spec.emailOnline(),
+                                        false,
+                                        spec.guardianOnline() ? new GEDatabaseSQLite("gedata.db")
+                                                              : null);
+
+        // Report errors to the terminal in place of dialogs
+        ges.addObserver(() -> {
+            if (ges.isErrorState()) {
+                System.out.println(ges.getErrorMessage());
+            }
+        });
+
+        if (!ges.checkEnvironmentVars(spec.guardianOnline(), spec.emailOnline())) {
+            return;
+        }
+
+        GEDigestState state = new GEDigestState(spec.statePath());
+
+        if (!state.load()) {
+            System.out.println("Could not read digest state " + spec.statePath());
+            return;
+        }
+
+        GEDigestEngine engine = new GEDigestEngine(ges, spec, state);
+
+        if (spec.intervalMinutes() == 0) {
+            runDigest(engine);
+            engine.shutdown();
+            ges.shutdown();
+            return;
+        }
+
+        // Scheduled; runs until the process is stopped
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            scheduler.shutdownNow();
+            engine.shutdown();
+            ges.shutdown();
+        }));
+
+        scheduler.scheduleWithFixedDelay(() -> runDigest(engine),
+                                         0,
+                                         spec.intervalMinutes(),
+                                         TimeUnit.MINUTES);
+    }
+}
@@ -3,13 +3,32 @@ package app;
 import javafx.application.Application;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import model.catalogue.GETagCatalogue;
+import model.comms.drivers.GEApiTimeouts;
+import model.comms.drivers.GECachedComms;
+import model.comms.drivers.GEComms;
+import model.comms.drivers.GEDummyComms;
+import model.comms.drivers.GEOnlineComms;
+import model.comms.emulator.GEApiEmulator;
+import model.comms.emulator.GEEmulatorSettings;
+import model.comms.replay.GEExchange;
+import model.comms.replay.GEExchangeJournal;
+import model.comms.replay.GERecordingComms;
+import model.comms.replay.GEReplayComms;
 import model.db.GEDatabaseSQLite;
+import model.db.GEEncryptedTokenFile;
+import model.db.GEOutboxSQLite;
+import model.db.GEReadingListJournal;
 import model.system.GESystem;
 import model.system.GESystemImpl;
+import model.trace.GETraceExporter;
+import model.trace.GETracer;
+import model.util.SleepModule;
 import presenter.GEPresenter;
 import presenter.GEPresenterImpl;
 import view.scenes.MainScene;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,6 +38,8 @@ public class MainApp extends Application {
     // Keep references for shutdown
     private GESystem ges;
     private GEPresenter p;
+    private GEApiEmulator emulator; // Null if not emulating the APIs
+    private GETraceExporter tracer; // Null if not tracing
 
     public void start(Stage stage) {
         // Setup
@@ -28,19 +49,26 @@ public class MainApp extends Application {
         GESystem ges;
 
         boolean gOnline;
+        boolean gCached; // Offline, but answered from data saved by online runs
         boolean eOnline;
         boolean rOnline;
 
         if (argsStr.size() <= 1) {
             // Assume all offline if bad arg amount
             gOnline = false;
+            gCached = false;
             eOnline = false;
             rOnline = false;
         } else {
+            gCached = false;
+
             if (argsStr.get(0).equals("online")) {
                 gOnline = true;
             } else if (argsStr.get(0).equals("offline")) {
                 gOnline = false;
+            } else if (argsStr.get(0).equals("cached")) {
+                gOnline = false;
+                gCached = true;
             } else {
                 System.out.println(argsStr.get(0) + " is not a valid argument!");
                 return;
@@ -81,9 +109,112 @@ public class MainApp extends Application {
             return;
         }
 
+        // Answer Guardian requests from saved data only
+        if (gCached) {
+            GETagCatalogue catalogue = new GETagCatalogue("tags.catalogue");
+
+            if (!catalogue.load()) {
+                catalogue = null;
+            }
+
+            ges.injectNewDrivers(null, new GECachedComms(new GEDatabaseSQLite("gedata.db"),
+                                                         catalogue,
+                                                         new GEDummyComms(0)));
+        }
+
+        // Online driver; the real APIs unless emulated or given other base URLs
+        GEOnlineComms online = new GEOnlineComms(
+                System.getProperty("ge.guardianUrl", GEOnlineComms.GUARDIAN_URL),
+                System.getProperty("ge.sendgridUrl", GEOnlineComms.SENDGRID_URL),
+                System.getProperty("ge.redditUrl", GEOnlineComms.REDDIT_URL),
+                System.getProperty("ge.redditOauthUrl", GEOnlineComms.REDDIT_OAUTH_URL));
+
+        if (System.getProperty("ge.emulator") != null) {
+            this.emulator = new GEApiEmulator(new GEEmulatorSettings(
+                    Long.getLong("ge.emulator.latencyMs", 0),
+                    Long.getLong("ge.emulator.jitterMs", 0),
+                    Double.parseDouble(System.getProperty("ge.emulator.errorRate", "0")),
+                    Integer.getInteger("ge.emulator.rateLimit", 0),
+                    Integer.getInteger("ge.emulator.tags", 500),
+                    Integer.getInteger("ge.emulator.articles", 100),
+                    Integer.getInteger("ge.emulator.threads", 8),
+                    Long.getLong("ge.emulator.seed", 0)));
+
+            String base = this.emulator.start(Integer.getInteger("ge.emulator", 0));
+
+            if (base == null) {
+                System.out.println("Could not start the API emulator!");
+                return;
+            }
+
+            online = new GEOnlineComms(base, base, base, base);
+        }
+
+        // Connect and request timeouts of each API
+        online.setTimeouts(timeouts("ge.guardian", GEOnlineComms.GUARDIAN_TIMEOUTS),
+                           timeouts("ge.sendgrid", GEOnlineComms.SENDGRID_TIMEOUTS),
+                           timeouts("ge.reddit", GEOnlineComms.REDDIT_TIMEOUTS));
+
+        // Record real API traffic, or serve recorded traffic back instead
+        String recordPath = System.getProperty("ge.record");
+        String replayPath = System.getProperty("ge.replay");
+
+        if (replayPath != null) {
+            List<GEExchange> recorded = new GEExchangeJournal(replayPath).load();
+
+            if (recorded == null) {
+                System.out.println("Could not read recorded traffic from " + replayPath + "!");
+                return;
+            }
+
+            // 1 for recorded latency, 0 for none, anything else scales it
+            double latencyScale = Double.parseDouble(System.getProperty("ge.replay.latencyScale",
+                                                                        "1"));
+
+            GEComms replay = new GEReplayComms(recorded, latencyScale, new SleepModule());
+            ges.injectNewDrivers(replay, replay);
+        } else if (recordPath != null) {
+            ges.injectNewDrivers(new GERecordingComms(online, new GEExchangeJournal(recordPath)),
+                                 null);
+        } else {
+            ges.injectNewDrivers(online, null);
+        }
+
+        // Trace user actions through the layers to a file
+        String tracePath = System.getProperty("ge.trace");
+
+        if (tracePath != null) {
+            this.tracer = new GETraceExporter(tracePath);
+            GETracer.setExporter(this.tracer);
+        }
+
         GEPresenter p = new GEPresenterImpl(stage, ges, getHostServices());
         ges.addObserver(p);
 
+        // Load saved reading list; kept regardless of online/offline modes
+        ges.injectReadingListStore(new GEReadingListJournal("readinglist.journal"));
+
+        // Reuse the last Reddit login until its token expires; encrypted with the API secret
+        if (rOnline && System.getenv("REDDIT_API_SECRET") != null) {
+            ges.injectRedditTokenStore(new GEEncryptedTokenFile("reddit.token",
+                                                                System.getenv("REDDIT_API_SECRET")));
+        }
+
+        // Renew the Reddit token in the background before it expires, so posts never wait on login
+        if (rOnline) {
+            ges.setRedditRefreshMargin(Long.getLong("ge.reddit.refreshMargin", 300));
+        }
+
+        // Queue emails and posts to send in the background, retrying failures, across restarts
+        if (eOnline || rOnline) {
+            ges.injectOutboxStore(new GEOutboxSQLite("gedata.db"));
+        }
+
+        // Tag catalogue for answering tag searches locally; only crawled online
+        if (gOnline) {
+            ges.injectTagCatalogue(new GETagCatalogue("tags.catalogue"));
+        }
+
         this.ges = ges;
         this.p = p;
 
@@ -100,9 +231,37 @@ public class MainApp extends Application {
     public void stop() {
         ges.shutdown();
         p.shutdown();
+
+        if (emulator != null) {
+            emulator.stop();
+        }
+
+        if (tracer != null) {
+            GETracer.setExporter(null);
+            tracer.close();
+        }
+    }
+
+    /**
+     * Reads the timeouts of an API from system properties (prefix.connectTimeoutMs
+     * and prefix.requestTimeoutMs), falling back to the defaults for each.
+     * @param prefix Prefix of the API's properties.
+     * @param defaults Timeouts to use where not given.
+     * @return Timeouts.
+     */
+    private static GEApiTimeouts timeouts(String prefix, GEApiTimeouts defaults) {
+        return GEApiTimeouts.ofMillis(
+                Long.getLong(prefix + ".connectTimeoutMs", defaults.connect().toMillis()),
+                Long.getLong(prefix + ".requestTimeoutMs", defaults.request().toMillis()));
     }
 
     public static void main(String[] args) {
+        // Headless digest mode; no UI needed
+        if (args.length > 0 && args[0].equals("digest")) {
+            DigestApp.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         launch(args);
     }
 }
@@ -0,0 +1,405 @@
+package model.catalogue;
+
+import model.items.GTag;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local catalogue of every Guardian tag, built by crawling the tags
+ * endpoint (see GETagCrawler), so tag searches can be answered without
+ * requests. Saved to disk as gzipped tab-separated lines, along with how
+ * far the current crawl has got so that it can resume after interruption.
+ * Searching uses a trigram index over tag titles and IDs, so searches
+ * match on word prefixes and tolerate small typos.
+ * <p>
+ * Each crawl is a new generation; tags are stamped with the generation
+ * that last saw them, and tags not seen by a finished crawl are dropped.
+ * All methods are thread safe, and searches are never blocked by a crawl.
+ */
+public class GETagCatalogue {
+    /**
+     * How long after a finished crawl the catalogue is used for searches.
+     */
+    public static final Duration MAX_AGE = Duration.ofDays(7);
+
+    /**
+     * How long after a finished crawl the catalogue should be refreshed.
+     */
+    public static final Duration REFRESH_AGE = Duration.ofDays(1);
+
+    // First line of a catalogue file, followed by its state
+    private static final String HEADER = "GETAGS1";
+    // Fraction of a search's trigrams a tag must have to match
+    private static final double MIN_SCORE = 0.6;
+
+    /**
+     * A catalogued tag and the crawl generation that last saw it.
+     * @param generation Generation that last saw the tag.
+     * @param tag Tag.
+     */
+    private record Entry(int generation, GTag tag) { }
+
+    /**
+     * Immutable search index over a set of tags.
+     * @param tags Tags indexed.
+     * @param grams Trigram -> indices of tags with that trigram.
+     */
+    private record Index(List<GTag> tags, Map<String, int[]> grams) { }
+
+    private Path path;
+    private Map<String, Entry> entries; // Tag ID -> entry; guarded by this
+    private int generation; // Generation of the current/last crawl
+    private int nextPage; // Next page to crawl; 1 if no crawl in progress
+    private Instant completedAt; // When the last crawl finished; null if never
+    private volatile Index index; // Replaced (not modified) on each checkpoint
+
+    /**
+     * Creates an empty tag catalogue saved to the given file.
+     * @param path Path to catalogue file.
+     */
+    public GETagCatalogue(String path) {
+        this.path = Paths.get(path);
+        this.entries = new LinkedHashMap<>();
+        this.generation = 0;
+        this.nextPage = 1;
+        this.completedAt = null;
+        this.index = new Index(List.of(), Map.of());
+    }
+
+    // Utilities
+    /**
+     * Normalises text for indexing and searching.
+     * @param s Text to normalise.
+     * @return Lowercase words of the text, separated by single spaces.
+     */
+    private static String normalise(String s) {
+        if (s == null) {
+            return "";
+        }
+
+        return s.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .strip();
+    }
+
+    /**
+     * Returns the trigrams of each word of some normalised text. Words are
+     * padded with a space at the start, so prefixes of words match.
+     * Indexed text is also padded at the end, so whole words score higher,
+     * and has each word's first letter as a gram, so single letter
+     * searches match too.
+     * @param text Normalised text.
+     * @param indexing Whether the text is being indexed, or searched for.
+     * @return Trigrams of the text.
+     */
+    private static Set<String> trigrams(String text, boolean indexing) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+
+            String padded = " " + word + (indexing ? " " : "");
+
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                ret.add(padded.substring(i, i + 3));
+            }
+
+            if (indexing) {
+                ret.add(padded.substring(0, 2));
+            } else if (padded.length() < 3) {
+                ret.add(padded); // Single letter search
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the text a tag is searchable by; its title and the parts of its ID.
+     * @param tag Tag.
+     * @return Normalised searchable text.
+     */
+    private static String searchText(GTag tag) {
+        return normalise(tag.webTitle() + " " + tag.id());
+    }
+
+    /**
+     * Builds a search index over the given tags.
+     * @param tags Tags to index.
+     * @return Search index.
+     */
+    private static Index buildIndex(List<GTag> tags) {
+        Map<String, List<Integer>> building = new HashMap<>();
+
+        for (int i = 0; i < tags.size(); i++) {
+            for (String gram : trigrams(searchText(tags.get(i)), true)) {
+                building.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> grams = new HashMap<>();
+
+        for (Map.Entry<String, List<Integer>> e : building.entrySet()) {
+            grams.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        return new Index(List.copyOf(tags), grams);
+    }
+
+    /**
+     * Makes a single field safe to store in a tab-separated line.
+     * @param s Field.
+     * @return Field with no tabs/newlines.
+     */
+    private static String field(String s) {
+        return s == null ? "" : s.replaceAll("[\\t\\r\\n]", " ");
+    }
+
+    // Persistence
+    /**
+     * Loads the catalogue from its file. A missing file is treated as an
+     * empty catalogue that has never been crawled.
+     * @return Whether load was successful or not.
+     */
+    public synchronized boolean load() {
+        Map<String, Entry> loaded = new LinkedHashMap<>();
+        int loadedGeneration = 0;
+        int loadedNextPage = 1;
+        Instant loadedCompletedAt = null;
+
+        if (Files.exists(this.path)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(this.path)),
+                    StandardCharsets.UTF_8))) {
+                String[] header = reader.readLine().split("\t");
+
+                if (!header[0].equals(HEADER)) {
+                    return false;
+                }
+
+                loadedGeneration = Integer.parseInt(header[1]);
+                loadedNextPage = Integer.parseInt(header[2]);
+                loadedCompletedAt = header[3].equals("-") ? null : Instant.parse(header[3]);
+
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split("\t", -1);
+
+                    if (parts.length != 6) {
+                        continue; // Bad line; skip it
+                    }
+
+                    GTag tag = new GTag(parts[1], parts[2], parts[3], parts[4], parts[5]);
+                    loaded.put(tag.id(), new Entry(Integer.parseInt(parts[0]), tag));
+                }
+            } catch (IOException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        this.entries = loaded;
+        this.generation = loadedGeneration;
+        this.nextPage = loadedNextPage;
+        this.completedAt = loadedCompletedAt;
+        this.index = buildIndex(this.currentTags());
+
+        return true;
+    }
+
+    /**
+     * Saves the catalogue to its file. The file is written in full to a
+     * temporary file first and then moved over the old one.
+     * @return Whether save was successful or not.
+     */
+    private boolean save() {
+        Path tmp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp)),
+                StandardCharsets.UTF_8))) {
+            writer.write(String.join("\t",
+                                     HEADER,
+                                     String.valueOf(this.generation),
+                                     String.valueOf(this.nextPage),
+                                     this.completedAt == null ? "-" : this.completedAt.toString()));
+            writer.newLine();
+
+            for (Entry e : this.entries.values()) {
+                writer.write(String.join("\t",
+                                         String.valueOf(e.generation()),
+                                         field(e.tag().id()),
+                                         field(e.tag().type()),
+                                         field(e.tag().webTitle()),
+                                         field(e.tag().webUrl()),
+                                         field(e.tag().apiUrl())));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        try {
+            Files.move(tmp, this.path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns all tags currently in the catalogue.
+     * @return Tags in the catalogue.
+     */
+    private List<GTag> currentTags() {
+        return this.entries.values().stream().map(Entry::tag).toList();
+    }
+
+    // Crawl State
+    /**
+     * Returns whether the catalogue is recent enough to answer searches.
+     * @param now Current time.
+     * @return Whether the catalogue is fresh.
+     */
+    public synchronized boolean isFresh(Instant now) {
+        return this.completedAt != null && now.isBefore(this.completedAt.plus(MAX_AGE));
+    }
+
+    /**
+     * Returns whether a crawl should be run; i.e. one was interrupted,
+     * or the last finished crawl is old enough to refresh.
+     * @param now Current time.
+     * @return Whether a crawl is due.
+     */
+    public synchronized boolean isCrawlDue(Instant now) {
+        return this.nextPage > 1 ||
+               this.completedAt == null ||
+               !now.isBefore(this.completedAt.plus(REFRESH_AGE));
+    }
+
+    /**
+     * Starts a crawl, or resumes the interrupted one.
+     * @return Page to start crawling from.
+     */
+    public synchronized int startCrawl() {
+        if (this.nextPage <= 1) {
+            this.generation++;
+            this.nextPage = 1;
+        }
+
+        return this.nextPage;
+    }
+
+    /**
+     * Adds a crawled page of tags to the catalogue. Not searchable or
+     * saved until the next checkpoint.
+     * @param tags Tags on the page.
+     * @param nextPage Next page to crawl.
+     */
+    public synchronized void addPage(List<GTag> tags, int nextPage) {
+        for (GTag tag : tags) {
+            if (tag != null && tag.id() != null) {
+                this.entries.put(tag.id(), new Entry(this.generation, tag));
+            }
+        }
+
+        this.nextPage = nextPage;
+    }
+
+    /**
+     * Makes added pages searchable and saves the catalogue, so an
+     * interrupted crawl resumes from here.
+     * @return Whether the save was successful or not.
+     */
+    public synchronized boolean checkpoint() {
+        this.index = buildIndex(this.currentTags());
+        return this.save();
+    }
+
+    /**
+     * Finishes a crawl; dropping tags it didn't see, and saving.
+     * @param now Time the crawl finished.
+     * @return Whether the save was successful or not.
+     */
+    public synchronized boolean finishCrawl(Instant now) {
+        this.entries.values().removeIf(e -> e.generation() < this.generation);
+        this.nextPage = 1;
+        this.completedAt = now;
+
+        return this.checkpoint();
+    }
+
+    /**
+     * Returns the number of tags searchable in the catalogue.
+     * @return Number of tags.
+     */
+    public int size() {
+        return this.index.tags().size();
+    }
+
+    // Searching
+    /**
+     * Searches the catalogue. Tags are ranked by how much of the query they
+     * match, then by shortest title; so an exact or prefix match comes before
+     * a fuzzy one.
+     * @param query Query to search. Blank matches nothing.
+     * @return Matching tags, best first.
+     */
+    public List<GTag> search(String query) {
+        Index idx = this.index; // Same snapshot for whole search
+        Set<String> queryGrams = trigrams(normalise(query), false);
+
+        if (queryGrams.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Count matching trigrams per tag
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        for (String gram : queryGrams) {
+            for (int i : idx.grams().getOrDefault(gram, new int[0])) {
+                counts.merge(i, 1, Integer::sum);
+            }
+        }
+
+        int needed = (int) Math.ceil(queryGrams.size() * MIN_SCORE);
+
+        return counts.entrySet()
+                     .stream()
+                     .filter(e -> e.getValue() >= needed)
+                     .sorted(Comparator.<Map.Entry<Integer, Integer>>comparingInt(
+                                               e -> -e.getValue())
+                                       .thenComparingInt(
+                                               e -> idx.tags().get(e.getKey()).webTitle().length())
+                                       .thenComparing(
+                                               e -> idx.tags().get(e.getKey()).id()))
+                     .map(e -> idx.tags().get(e.getKey()))
+                     .toList();
+    }
+}
@@ -0,0 +1,162 @@
+package model.catalogue;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import model.comms.exceptions.GECommsException;
+import model.comms.manager.GECommsManager;
+import model.items.GTag;
+import model.util.SleepModule;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Crawls every page of the Guardian tags endpoint into a tag catalogue.
+ * Requests are paced to stay within the API's rate limit, and a rate
+ * limited request is retried after backing off. Progress is checkpointed
+ * to the catalogue as it goes, so an interrupted or failed crawl resumes
+ * where it left off the next time it runs.
+ */
+public class GETagCrawler {
+    /**
+     * Tags asked for per page; the largest page size the API allows.
+     */
+    public static final int PAGE_SIZE = 200;
+
+    // Least time between requests, to stay within the API's rate limit
+    private static final long REQUEST_INTERVAL_MS = 1000;
+    // How long to back off for when rate limited, doubled on each retry
+    private static final long BACKOFF_MS = 30000;
+    // Most retries of a rate limited page before giving up until the next run
+    private static final int MAX_RETRIES = 3;
+    // Pages between checkpoints
+    private static final int CHECKPOINT_PAGES = 10;
+
+    private GECommsManager comms;
+    private GETagCatalogue catalogue;
+    private SleepModule sleeper;
+
+    /**
+     * Creates a tag crawler.
+     * @param comms Comms manager to request tags with.
+     * @param catalogue Catalogue to crawl into.
+     * @param sleeper Sleep module for pacing requests.
+     */
+    public GETagCrawler(GECommsManager comms, GETagCatalogue catalogue, SleepModule sleeper) {
+        this.comms = comms;
+        this.catalogue = catalogue;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Parses the tags out of a tags response.
+     * @param data Tags response.
+     * @return Tags.
+     */
+    private static List<GTag> parseTags(JsonObject data) {
+        List<GTag> ret = new ArrayList<>();
+
+        for (JsonElement je : data.getAsJsonArray("results")) {
+            JsonObject jo = je.getAsJsonObject();
+            ret.add(new GTag(
+                    jo.get("id").getAsString(),
+                    jo.get("type").getAsString(),
+                    jo.get("webTitle").getAsString(),
+                    jo.get("webUrl").getAsString(),
+                    jo.get("apiUrl").getAsString()
+            ));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Requests a page of tags, backing off and retrying if rate limited.
+     * @param page Page to request.
+     * @return Response for the page, null if failed or interrupted.
+     */
+    private JsonObject requestPage(int page) {
+        long backoff = BACKOFF_MS;
+
+        for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
+            try {
+                return this.comms.listTags(page, PAGE_SIZE).getAsJsonObject("response");
+            } catch (GECommsException e) {
+                if (e.getCode() != 429 || !this.sleeper.sleep(backoff)) {
+                    return null;
+                }
+
+                backoff *= 2;
+            } catch (IllegalStateException | NullPointerException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Runs a crawl, or resumes an interrupted one, if one is due.
+     * @return Whether the catalogue is now fully crawled and up to date.
+     */
+    public boolean crawlIfDue() {
+        if (!this.catalogue.isCrawlDue(Instant.now())) {
+            return true;
+        }
+
+        return this.crawl();
+    }
+
+    /**
+     * Crawls from the catalogue's next page to the last page, then finishes
+     * the crawl. Stops early (checkpointing progress) if a request fails or
+     * the thread is interrupted.
+     * @return Whether the crawl finished or not.
+     */
+    public boolean crawl() {
+        int page = this.catalogue.startCrawl();
+        int sinceCheckpoint = 0;
+
+        while (true) {
+            JsonObject data = this.requestPage(page);
+
+            if (data == null || Thread.currentThread().isInterrupted()) {
+                this.catalogue.checkpoint();
+                return false;
+            }
+
+            List<GTag> tags;
+            int pages;
+
+            try {
+                tags = parseTags(data);
+                pages = data.get("pages").getAsInt();
+            } catch (IllegalStateException | NullPointerException |
+                     UnsupportedOperationException e) {
+                this.catalogue.checkpoint();
+                return false;
+            }
+
+            if (page >= pages) {
+                this.catalogue.addPage(tags, 1);
+                return this.catalogue.finishCrawl(Instant.now());
+            }
+
+            page++;
+            this.catalogue.addPage(tags, page);
+
+            if (++sinceCheckpoint >= CHECKPOINT_PAGES) {
+                this.catalogue.checkpoint();
+                sinceCheckpoint = 0;
+            }
+
+            // Pace requests
+            if (!this.sleeper.sleep(REQUEST_INTERVAL_MS)) {
+                this.catalogue.checkpoint();
+                return false;
+            }
+        }
+    }
+}
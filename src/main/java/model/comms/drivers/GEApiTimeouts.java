@@ -0,0 +1,23 @@
+package model.comms.drivers;
+
+import java.time.Duration;
+
+/**
+ * Timeouts for requests to one API.
+ * @param connect Longest to wait for a connection to be made.
+ * @param request Longest to wait for a whole response, once sent.
+ */
+public record GEApiTimeouts(
+        Duration connect,
+        Duration request
+) {
+    /**
+     * Creates timeouts from milliseconds.
+     * @param connectMs Longest to wait for a connection to be made (milliseconds).
+     * @param requestMs Longest to wait for a whole response, once sent (milliseconds).
+     * @return Timeouts.
+     */
+    public static GEApiTimeouts ofMillis(long connectMs, long requestMs) {
+        return new GEApiTimeouts(Duration.ofMillis(connectMs), Duration.ofMillis(requestMs));
+    }
+}
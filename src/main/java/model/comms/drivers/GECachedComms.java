@@ -0,0 +1,191 @@
+package model.comms.drivers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import model.catalogue.GETagCatalogue;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.*;
+import model.db.GEDatabase;
+import model.items.GTag;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Acts as an offline Guardian API, answering only from data already saved
+ * by previous online runs: content from the content cache, and tags from
+ * the tag catalogue plus any tag with cached content. Anything not saved
+ * gets the same 404 response the API gives for a missing resource.
+ * Email and Reddit requests are passed to another driver.
+ */
+public class GECachedComms implements GEComms {
+    // Response the API gives when nothing is found
+    private static final String NOT_FOUND_BODY =
+            "{\"response\": {\"status\": \"error\", " +
+            "\"message\": \"The requested resource could not be found.\"}}";
+
+    private GEDatabase db;
+    private GETagCatalogue catalogue; // Null if none
+    private GEComms others;
+
+    /**
+     * Creates a cache-backed communicator.
+     * @param db Database with cached content. Cannot be null.
+     * @param catalogue Loaded tag catalogue to search tags in; null if none.
+     * @param others Driver for email and Reddit requests. Cannot be null.
+     */
+    public GECachedComms(GEDatabase db, GETagCatalogue catalogue, GEComms others) {
+        this.db = db;
+        this.catalogue = catalogue;
+        this.others = others;
+    }
+
+    // Utilities
+    /**
+     * Makes a tags response, in the same form as the API's, from a page
+     * of locally found tags.
+     * @param payload Payload of the search.
+     * @param found All tags found by the search.
+     * @return JsonObject with the page of results.
+     */
+    public static JsonObject tagsResponse(GTagPayload payload, List<GTag> found) {
+        int pageSize = Math.max(payload.pageSize(), 1);
+        int pages = Math.max((found.size() + pageSize - 1) / pageSize, 1);
+        int start = Math.min((Math.max(payload.page(), 1) - 1) * pageSize, found.size());
+
+        JsonArray results = new JsonArray();
+
+        for (GTag tag : found.subList(start, Math.min(start + pageSize, found.size()))) {
+            JsonObject jo = new JsonObject();
+            jo.add("id", new JsonPrimitive(tag.id()));
+            jo.add("type", new JsonPrimitive(tag.type()));
+            jo.add("webTitle", new JsonPrimitive(tag.webTitle()));
+            jo.add("webUrl", new JsonPrimitive(tag.webUrl()));
+            jo.add("apiUrl", new JsonPrimitive(tag.apiUrl()));
+            results.add(jo);
+        }
+
+        JsonObject response = new JsonObject();
+        response.add("status", new JsonPrimitive("ok"));
+        response.add("total", new JsonPrimitive(found.size()));
+        response.add("startIndex", new JsonPrimitive(start + 1));
+        response.add("pageSize", new JsonPrimitive(pageSize));
+        response.add("currentPage", new JsonPrimitive(payload.page()));
+        response.add("pages", new JsonPrimitive(pages));
+        response.add("results", results);
+
+        JsonObject ret = new JsonObject();
+        ret.add("response", response);
+
+        return ret;
+    }
+
+    // The Guardian Data
+    /**
+     * Searches saved tags: the catalogue first (best match first), then
+     * tags with cached content whose ID contains the query.
+     * @param payload Payload to pass to request.
+     * @return Response data; 404 if no tags found.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getTags(GTagPayload payload) throws GECommsException {
+        String query = payload.query() == null ? "" : payload.query().strip().toLowerCase(Locale.ROOT);
+        Map<String, GTag> found = new LinkedHashMap<>();
+
+        if (this.catalogue != null) {
+            for (GTag tag : this.catalogue.search(query)) {
+                found.putIfAbsent(tag.id(), tag);
+            }
+        }
+
+        List<String> cachedIds = this.db.getCachedTagIds();
+
+        if (cachedIds == null) {
+            throw new GECommsException(-1, "Critical DB error during cached tag getting.");
+        }
+
+        for (String id : cachedIds) {
+            if (id.toLowerCase(Locale.ROOT).contains(query)) {
+                // Only the ID is known; enough to get the tag's cached content
+                found.putIfAbsent(id, new GTag(id, "keyword", id, "", ""));
+            }
+        }
+
+        if (found.isEmpty()) {
+            return new GEResponse(NOT_FOUND_BODY, 404);
+        }
+
+        return new GEResponse(tagsResponse(payload, List.copyOf(found.values())).toString(), 200);
+    }
+
+    /**
+     * Returns cached content for the payload's tag, query and page.
+     * @param payload Payload to pass to request.
+     * @return Response data; 404 if nothing cached.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getContent(GContentPayload payload) throws GECommsException {
+        String cached = this.db.getCachedContent(payload.tag(),
+                                                 payload.query() == null ? "" : payload.query(),
+                                                 payload.page());
+
+        if (cached == null) {
+            throw new GECommsException(-1, "Critical DB error during content cache getting.");
+        } else if (cached.isEmpty()) {
+            return new GEResponse(NOT_FOUND_BODY, 404);
+        }
+
+        return new GEResponse(cached, 200);
+    }
+
+    // Email Data
+    /**
+     * Makes an email send request, using the other driver.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendEmail(ESendPayload payload) throws GECommsException {
+        return this.others.sendEmail(payload);
+    }
+
+    /**
+     * Makes a bulk email send request, using the other driver.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) throws GECommsException {
+        return this.others.sendBulkEmail(payload);
+    }
+
+    // Reddit
+    /**
+     * Gets a reddit access token, using the other driver.
+     * @param payload Access data.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getRedditToken(RTokenPayload payload) throws GECommsException {
+        return this.others.getRedditToken(payload);
+    }
+
+    /**
+     * Sends a request to post to reddit, using the other driver.
+     * @param payload Data to make request with.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse postReddit(RPostPayload payload) throws GECommsException {
+        return this.others.postReddit(payload);
+    }
+}
@@ -11,6 +11,12 @@ import java.util.List;
  * General system for communicating with the APIs.
  */
 public interface GEComms {
+    /**
+     * Most recipients a single bulk email request can have
+     * (SendGrid's personalizations limit).
+     */
+    public static final int MAX_EMAIL_RECIPIENTS = 1000;
+
     // The Guardian Data
     /**
      * Requests tags based on the payload.
@@ -37,6 +43,16 @@ public interface GEComms {
      */
     public GEResponse sendEmail(ESendPayload payload) throws GECommsException;
 
+    /**
+     * Makes a single email send request that sends the email separately
+     * to each recipient.
+     * @param payload Data to make request with. Should have at most
+     *                MAX_EMAIL_RECIPIENTS recipients.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) throws GECommsException;
+
     // Reddit
     /**
      * Gets a reddit access token.
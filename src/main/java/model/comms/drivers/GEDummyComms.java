@@ -30,7 +30,8 @@ public class GEDummyComms implements GEComms {
         try {
             Thread.sleep(delay);
         } catch (InterruptedException e) {
-            // Everything fine just skip sleep then
+            // Everything fine just skip sleep then; keep interrupt for caller
+            Thread.currentThread().interrupt();
         }
 
         String json =
@@ -74,7 +75,8 @@ public class GEDummyComms implements GEComms {
         try {
             Thread.sleep(delay);
         } catch (InterruptedException e) {
-            // Everything fine just skip sleep then
+            // Everything fine just skip sleep then; keep interrupt for caller
+            Thread.currentThread().interrupt();
         }
 
         String json =
@@ -100,7 +102,7 @@ public class GEDummyComms implements GEComms {
                                 "apiUrl": "https://content.guardianapis.com/politics/blog/2014/feb/17/alex-salmond-speech-first-minister-scottish-independence-eu-currency-live"
                             },
                             {
-                                "id": "politics/blog/2014/feb/17/alex-salmond-speech-first-minister-scottish-independence-eu-currency-live",
+                                "id": "politics/2014/feb/17/pingu-president-antarctic",
                                 "sectionId": "politics",
                                 "sectionName": "Politics",
                                 "webPublicationDate": "2014-02-17T12:05:47Z",
@@ -129,10 +131,44 @@ public class GEDummyComms implements GEComms {
         try {
             Thread.sleep(delay);
         } catch (InterruptedException e) {
-            // Everything fine just skip sleep then
+            // Everything fine just skip sleep then; keep interrupt for caller
+            Thread.currentThread().interrupt();
+        }
+
+        // Print to terminal what would be output
+        System.out.println(makeOutputContentBody(payload.tag(), payload.content(), false));
+
+        // Simulate how SendGrid email works; response body is empty if all ok
+        return new GEResponse("", 200);
+    }
+
+    /**
+     * Makes a single email send request that sends the email separately
+     * to each recipient. Like SendGrid, rejects requests with more than
+     * MAX_EMAIL_RECIPIENTS recipients.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     */
+    @Override
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) {
+        // Simulate delay; one request no matter how many recipients
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            // Everything fine just skip sleep then; keep interrupt for caller
+            Thread.currentThread().interrupt();
+        }
+
+        // Simulate SendGrid's personalizations limit
+        if (payload.recipients().size() > MAX_EMAIL_RECIPIENTS) {
+            return new GEResponse("{\"errors\": [{" +
+                                  "\"message\": \"The personalizations field " +
+                                  "cannot have more than %d items.\", ".formatted(MAX_EMAIL_RECIPIENTS) +
+                                  "\"field\": \"personalizations\"}]}", 400);
         }
 
         // Print to terminal what would be output
+        System.out.println("To %d recipients:".formatted(payload.recipients().size()));
         System.out.println(makeOutputContentBody(payload.tag(), payload.content(), false));
 
         // Simulate how SendGrid email works; response body is empty if all ok
@@ -165,7 +201,8 @@ public class GEDummyComms implements GEComms {
         try {
             Thread.sleep(delay);
         } catch (InterruptedException e) {
-            // Everything fine just skip sleep then
+            // Everything fine just skip sleep then; keep interrupt for caller
+            Thread.currentThread().interrupt();
         }
 
         // Print to terminal what would be output
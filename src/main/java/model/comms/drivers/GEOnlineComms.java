@@ -2,30 +2,207 @@ package model.comms.drivers;
 
 import com.google.gson.*;
 import model.comms.exceptions.GECommsException;
+import model.comms.exceptions.GETimeoutException;
 import model.comms.payloads.*;
+import model.comms.util.GEDeadline;
 import model.comms.util.RedditAuthenticator;
 import model.env.Environment;
+import model.items.GContent;
+import model.items.GTag;
+import model.jfr.GEHttpEvent;
 
 import java.io.IOException;
 import java.net.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Online-enabled Guardian-Email communicator.
  */
 public class GEOnlineComms implements GEComms {
-    private static final String GUARDIAN_URL = "https://content.guardianapis.com";
-    private static final String SENDGRID_URL = "https://api.sendgrid.com";
-    private static final String REDDIT_URL = "https://www.reddit.com";
-    private static final String REDDIT_OAUTH_URL = "https://oauth.reddit.com";
+    /**
+     * Base URL of The Guardian's API.
+     */
+    public static final String GUARDIAN_URL = "https://content.guardianapis.com";
+    /**
+     * Base URL of SendGrid's API.
+     */
+    public static final String SENDGRID_URL = "https://api.sendgrid.com";
+    /**
+     * Base URL of Reddit (for getting access tokens).
+     */
+    public static final String REDDIT_URL = "https://www.reddit.com";
+    /**
+     * Base URL of Reddit's OAuth API.
+     */
+    public static final String REDDIT_OAUTH_URL = "https://oauth.reddit.com";
+    /**
+     * Header an idempotency key is sent in, for APIs (or emulators) that
+     * honour one by not repeating a request they have already done.
+     */
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    /**
+     * Default timeouts of requests to The Guardian's API.
+     */
+    public static final GEApiTimeouts GUARDIAN_TIMEOUTS = GEApiTimeouts.ofMillis(5000, 15000);
+    /**
+     * Default timeouts of requests to SendGrid's API.
+     */
+    public static final GEApiTimeouts SENDGRID_TIMEOUTS = GEApiTimeouts.ofMillis(5000, 30000);
+    /**
+     * Default timeouts of requests to Reddit.
+     */
+    public static final GEApiTimeouts REDDIT_TIMEOUTS = GEApiTimeouts.ofMillis(5000, 20000);
+
     private static final String REDDIT_USER_AGENT = "GEClient/0.1";
     private static Environment env = new Environment();
 
+    private String guardianUrl;
+    private String sendgridUrl;
+    private String redditUrl;
+    private String redditOauthUrl;
+    private volatile GEApiTimeouts guardianTimeouts = GUARDIAN_TIMEOUTS;
+    private volatile GEApiTimeouts sendgridTimeouts = SENDGRID_TIMEOUTS;
+    private volatile GEApiTimeouts redditTimeouts = REDDIT_TIMEOUTS;
+
+    /**
+     * Creates a communicator for the real APIs.
+     */
+    public GEOnlineComms() {
+        this(GUARDIAN_URL, SENDGRID_URL, REDDIT_URL, REDDIT_OAUTH_URL);
+    }
+
+    /**
+     * Creates a communicator for APIs at the given base URLs (e.g. an emulator).
+     * @param guardianUrl Base URL of The Guardian's API.
+     * @param sendgridUrl Base URL of SendGrid's API.
+     * @param redditUrl Base URL of Reddit (for getting access tokens).
+     * @param redditOauthUrl Base URL of Reddit's OAuth API.
+     */
+    public GEOnlineComms(String guardianUrl,
+                         String sendgridUrl,
+                         String redditUrl,
+                         String redditOauthUrl) {
+        this.guardianUrl = guardianUrl;
+        this.sendgridUrl = sendgridUrl;
+        this.redditUrl = redditUrl;
+        this.redditOauthUrl = redditOauthUrl;
+    }
+
+    /**
+     * Sets the timeouts of requests to each API.
+     * @param guardian Timeouts for The Guardian's API. Cannot be null.
+     * @param sendgrid Timeouts for SendGrid's API. Cannot be null.
+     * @param reddit Timeouts for Reddit. Cannot be null.
+     * @return Whether the timeouts were set or not.
+     */
+    public boolean setTimeouts(GEApiTimeouts guardian,
+                               GEApiTimeouts sendgrid,
+                               GEApiTimeouts reddit) {
+        if (guardian == null || sendgrid == null || reddit == null) {
+            return false;
+        }
+
+        this.guardianTimeouts = guardian;
+        this.sendgridTimeouts = sendgrid;
+        this.redditTimeouts = reddit;
+
+        return true;
+    }
+
     // Utilities
+    /**
+     * Sends a request and waits for its response, for no longer than the
+     * request timeout (or what is left of the current deadline, if sooner).
+     * The request is sent asynchronously so that if it times out, or the
+     * waiting thread is interrupted (i.e. the operation was cancelled), the
+     * request itself is aborted too rather than left running in the
+     * background. The thread's interrupt status is kept.
+     * @param client Client to send with; connect timeout already set.
+     * @param builder Request to send, unbuilt so its timeout can be set.
+     * @param timeout Longest to wait for the response.
+     * @return Response.
+     * @throws GETimeoutException If the request or current deadline times out.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static GEResponse send(HttpClient client,
+                                   HttpRequest.Builder builder,
+                                   Duration timeout)
+            throws GETimeoutException, IOException, InterruptedException {
+        Duration bounded = GEDeadline.bound(timeout);
+        HttpRequest req = builder.timeout(bounded).build();
+
+        GEHttpEvent event = new GEHttpEvent();
+        event.begin();
+        event.statusCode = -1;
+
+        CompletableFuture<HttpResponse<String>> future =
+                client.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+
+        try {
+            // The request's own timeout doesn't cover connecting; this does
+            HttpResponse<String> res = future.get(bounded.toNanos(), TimeUnit.NANOSECONDS);
+            event.statusCode = res.statusCode();
+
+            if (event.shouldCommit() && res.body() != null) {
+                event.responseBytes = res.body().getBytes(StandardCharsets.UTF_8).length;
+            }
+
+            return new GEResponse(res.body(), res.statusCode());
+        } catch (InterruptedException e) {
+            event.error = "Interrupted";
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (TimeoutException e) {
+            event.error = "Timed out";
+            future.cancel(true);
+            throw new GETimeoutException("No response from %s in %d ms."
+                    .formatted(req.uri().getHost(), bounded.toMillis()));
+        } catch (ExecutionException e) {
+            event.error = String.valueOf(e.getCause());
+
+            // Includes timing out connecting
+            if (e.getCause() instanceof HttpTimeoutException) {
+                throw new GETimeoutException("%s timed out; %s"
+                        .formatted(req.uri().getHost(), e.getCause().getMessage()));
+            } else if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+
+            throw new IOException(e.getCause());
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.method = req.method();
+                event.endpoint = req.uri().getHost() + req.uri().getPath();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Makes a client that gives up connecting after the given timeouts.
+     * @param timeouts Timeouts of the API being requested.
+     * @return Client builder, to add to or build.
+     */
+    private static HttpClient.Builder client(GEApiTimeouts timeouts) {
+        return HttpClient.newBuilder().connectTimeout(timeouts.connect());
+    }
+
     /**
      * Makes an HTTP POST request to The Guardian's API (i.e. formatting auth and token
      * for use with it).
@@ -35,11 +212,11 @@ public class GEOnlineComms implements GEComms {
      *                          (client error, server error, or other)
      * @return Response.
      */
-    public static GEResponse gHttpGetRequest(String endpoint,
-                                                       Map<String, String> body) throws GECommsException {
+    public GEResponse gHttpGetRequest(String endpoint,
+                                      Map<String, String> body) throws GECommsException {
         try {
             // Setup URL with query string for parameters
-            StringBuilder sb = new StringBuilder(GUARDIAN_URL + endpoint);
+            StringBuilder sb = new StringBuilder(this.guardianUrl + endpoint);
             sb.append("?api-key=").append(env.getenv("INPUT_API_KEY"));
 
             for (Map.Entry<String, String> param : body.entrySet()) {
@@ -47,14 +224,12 @@ public class GEOnlineComms implements GEComms {
             }
 
             // Do the request
-            HttpClient client = HttpClient.newBuilder().build();
-            HttpRequest req = HttpRequest.newBuilder(new URI(sb.toString()))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            GEApiTimeouts timeouts = this.guardianTimeouts;
+            HttpClient client = client(timeouts).build();
+            HttpRequest.Builder req = HttpRequest.newBuilder(new URI(sb.toString()))
+                    .GET();
 
-            return new GEResponse(res.body(), res.statusCode());
+            return send(client, req, timeouts.request());
         } catch (IOException | InterruptedException | IllegalStateException e) {
             throw new GECommsException(-1,
                     "IOException/InterruptedException/IllegalStateException thrown; " +
@@ -74,22 +249,39 @@ public class GEOnlineComms implements GEComms {
      *                          (client error, server error, or other)
      * @return Response.
      */
-    public static GEResponse eHttpPostRequest(String endpoint,
-                                                        String body) throws GECommsException {
+    public GEResponse eHttpPostRequest(String endpoint,
+                                       String body) throws GECommsException {
+        return eHttpPostRequest(endpoint, body, null);
+    }
+
+    /**
+     * Makes an HTTP POST request to SendGrid's email API, with an idempotency key.
+     * @param endpoint Endpoint to send it to; NOT full URL (i.e. just /content, /tags, etc.).
+     * @param body Body content to send in the POST request; expected JSON format
+     * @param idempotencyKey Sent as the Idempotency-Key header; null for none.
+     * @throws GECommsException In any case something goes wrong
+     *                          (client error, server error, or other)
+     * @return Response.
+     */
+    public GEResponse eHttpPostRequest(String endpoint,
+                                       String body,
+                                       String idempotencyKey) throws GECommsException {
         try {
-            HttpRequest req = HttpRequest.newBuilder(new URI(SENDGRID_URL + endpoint))
+            HttpRequest.Builder builder = HttpRequest.newBuilder(new URI(this.sendgridUrl + endpoint))
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .setHeader("Authorization", "Bearer " +
                                 env.getenv("SENDGRID_API_KEY"))
-                    .setHeader("Content-Type", "application/json")
-                    .build();
+                    .setHeader("Content-Type", "application/json");
 
-            // Do the request
-            HttpClient client = HttpClient.newBuilder().build();
+            if (idempotencyKey != null) {
+                builder.setHeader(IDEMPOTENCY_HEADER, idempotencyKey);
+            }
 
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            // Do the request
+            GEApiTimeouts timeouts = this.sendgridTimeouts;
+            HttpClient client = client(timeouts).build();
 
-            return new GEResponse(res.body(), res.statusCode());
+            return send(client, builder, timeouts.request());
         } catch (IOException | InterruptedException | IllegalStateException e) {
             throw new GECommsException(-1,
                     "IOException/InterruptedException/IllegalStateException thrown; " +
@@ -108,24 +300,22 @@ public class GEOnlineComms implements GEComms {
      *                          (client error, server error, or other)
      * @return Response from request.
      */
-    public static GEResponse rGetAuthToken(String username,
-                                                     String password) throws GECommsException {
+    public GEResponse rGetAuthToken(String username,
+                                    String password) throws GECommsException {
         try {
-            HttpRequest req = HttpRequest.newBuilder(new URI(REDDIT_URL + "/api/v1/access_token"))
+            HttpRequest.Builder req = HttpRequest.newBuilder(new URI(this.redditUrl + "/api/v1/access_token"))
                     .POST(HttpRequest.BodyPublishers.ofString("grant_type=password" +
                                                               "&username=" + username +
                                                               "&password=" + password))
-                    .setHeader("user-agent", REDDIT_USER_AGENT)
-                    .build();
+                    .setHeader("user-agent", REDDIT_USER_AGENT);
 
             // Do the request
-            HttpClient client = HttpClient.newBuilder()
+            GEApiTimeouts timeouts = this.redditTimeouts;
+            HttpClient client = client(timeouts)
                     .authenticator(new RedditAuthenticator())
                     .build();
 
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
-
-            return new GEResponse(res.body(), res.statusCode());
+            return send(client, req, timeouts.request());
         } catch (IOException | InterruptedException | IllegalStateException e) {
             throw new GECommsException(-1,
                     "IOException/InterruptedException/IllegalStateException thrown; " +
@@ -144,22 +334,40 @@ public class GEOnlineComms implements GEComms {
      * @return Response.
      * @throws GECommsException If something goes wrong.
      */
-    public static GEResponse rHttpPostRequest(String endpoint,
-                                                        String data,
-                                                        String token) throws GECommsException {
+    public GEResponse rHttpPostRequest(String endpoint,
+                                       String data,
+                                       String token) throws GECommsException {
+        return rHttpPostRequest(endpoint, data, token, null);
+    }
+
+    /**
+     * Makes a POST type request to Reddit (OAuth API), with an idempotency key.
+     * @param endpoint Endpoint to make request to.
+     * @param data Data to send with request.
+     * @param token OAuth token to pass in.
+     * @param idempotencyKey Sent as the Idempotency-Key header; null for none.
+     * @return Response.
+     * @throws GECommsException If something goes wrong.
+     */
+    public GEResponse rHttpPostRequest(String endpoint,
+                                       String data,
+                                       String token,
+                                       String idempotencyKey) throws GECommsException {
         try {
-            HttpRequest req = HttpRequest.newBuilder(new URI(REDDIT_OAUTH_URL + endpoint))
+            HttpRequest.Builder builder = HttpRequest.newBuilder(new URI(this.redditOauthUrl + endpoint))
                     .POST(HttpRequest.BodyPublishers.ofString(data))
                     .setHeader("Authorization", "bearer " + token)
-                    .setHeader("User-Agent", REDDIT_USER_AGENT)
-                    .build();
+                    .setHeader("User-Agent", REDDIT_USER_AGENT);
 
-            // Do the request
-            HttpClient client = HttpClient.newBuilder().build();
+            if (idempotencyKey != null) {
+                builder.setHeader(IDEMPOTENCY_HEADER, idempotencyKey);
+            }
 
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            // Do the request
+            GEApiTimeouts timeouts = this.redditTimeouts;
+            HttpClient client = client(timeouts).build();
 
-            return new GEResponse(res.body(), res.statusCode());
+            return send(client, builder, timeouts.request());
         } catch (IOException | InterruptedException | IllegalStateException e) {
             throw new GECommsException(-1,
                     "IOException/InterruptedException/IllegalStateException thrown; " +
@@ -200,7 +408,7 @@ public class GEOnlineComms implements GEComms {
      */
     @Override
     public GEResponse getContent(GContentPayload payload) throws GECommsException {
-        Map<String, String> body = Map.ofEntries(
+        Map<String, String> body = new HashMap<>(Map.ofEntries(
                 Map.entry("q", URLEncoder.encode(payload.query(),
                                                     StandardCharsets.UTF_8)),
                 Map.entry("tag", URLEncoder.encode(payload.tag().id(),
@@ -210,20 +418,25 @@ public class GEOnlineComms implements GEComms {
                 Map.entry("page-size", URLEncoder.encode(String.valueOf(payload.pageSize()),
                                                     StandardCharsets.UTF_8)),
                 Map.entry("format", "json")
-        );
+        ));
+
+        if (payload.orderBy() != null) {
+            body.put("order-by", URLEncoder.encode(payload.orderBy(), StandardCharsets.UTF_8));
+        }
 
         return gHttpGetRequest("/search", body);
     }
 
     // Email Data
     /**
-     * Makes an email send request.
-     * @param payload Data to make request with.
-     * @return Response data; if successful, should be empty.
-     * @throws GECommsException If something goes wrong (code or request related).
+     * Makes the JSON for an email send request, with each recipient
+     * getting their own personalization (so recipients don't see each other).
+     * @param recipients Email addresses of recipients.
+     * @param tag Tag associated with content being sent.
+     * @param content Content to send.
+     * @return JSON data for request.
      */
-    @Override
-    public GEResponse sendEmail(ESendPayload payload) throws GECommsException {
+    private JsonObject makeEmailData(List<String> recipients, GTag tag, List<GContent> content) {
         // Construct JSON to send; format of:
         /*
         {
@@ -254,19 +467,22 @@ public class GEOnlineComms implements GEComms {
         */
         JsonObject data = new JsonObject();
 
-        // Personalizations; setting up recipient
-        JsonArray pArr = new JsonArray(1);
-        JsonArray toArr = new JsonArray(1);
+        // Personalizations; setting up recipients
+        JsonArray pArr = new JsonArray(recipients.size());
+
+        for (String r : recipients) {
+            JsonArray toArr = new JsonArray(1);
 
-        JsonObject recipient = new JsonObject();
-        recipient.add("email", new JsonPrimitive(payload.recipient()));
+            JsonObject recipient = new JsonObject();
+            recipient.add("email", new JsonPrimitive(r));
 
-        toArr.add(recipient);
+            toArr.add(recipient);
 
-        JsonObject to = new JsonObject();
-        to.add("to", toArr);
+            JsonObject to = new JsonObject();
+            to.add("to", toArr);
 
-        pArr.add(to);
+            pArr.add(to);
+        }
 
         data.add("personalizations", pArr);
 
@@ -278,24 +494,56 @@ public class GEOnlineComms implements GEComms {
 
         // Subject
         data.add("subject",
-                new JsonPrimitive("GE Client: Articles for tag " + payload.tag().id()));
+                new JsonPrimitive("GE Client: Articles for tag " + tag.id()));
 
         // Content
-        String contentStr = makeOutputContentBody(payload.tag(), payload.content(), false);
+        String contentStr = makeOutputContentBody(tag, content, false);
 
         JsonArray cArr = new JsonArray(1);
 
-        JsonObject content = new JsonObject();
-        content.add("type", new JsonPrimitive("text/plain"));
-        content.add("value", new JsonPrimitive(contentStr));
+        JsonObject contentObj = new JsonObject();
+        contentObj.add("type", new JsonPrimitive("text/plain"));
+        contentObj.add("value", new JsonPrimitive(contentStr));
 
-        cArr.add(content);
+        cArr.add(contentObj);
 
         data.add("content", cArr);
 
+        return data;
+    }
+
+    /**
+     * Makes an email send request.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendEmail(ESendPayload payload) throws GECommsException {
+        JsonObject data = makeEmailData(List.of(payload.recipient()),
+                                        payload.tag(),
+                                        payload.content());
+
         return eHttpPostRequest("/v3/mail/send", data.toString());
     }
 
+    /**
+     * Makes a single email send request that sends the email separately
+     * to each recipient.
+     * @param payload Data to make request with. Should have at most
+     *                MAX_EMAIL_RECIPIENTS recipients.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) throws GECommsException {
+        JsonObject data = makeEmailData(payload.recipients(),
+                                        payload.tag(),
+                                        payload.content());
+
+        return eHttpPostRequest("/v3/mail/send", data.toString(), payload.idempotencyKey());
+    }
+
     // Reddit
     /**
      * Gets a reddit access token.
@@ -321,6 +569,6 @@ public class GEOnlineComms implements GEComms {
                     "&text=" + makeOutputContentBody(payload.tag(), payload.content(), true) +
                     "&kind=self";
 
-        return rHttpPostRequest("/api/submit", sb, payload.token());
+        return rHttpPostRequest("/api/submit", sb, payload.token(), payload.idempotencyKey());
     }
 }
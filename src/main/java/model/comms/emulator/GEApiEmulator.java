@@ -0,0 +1,675 @@
+package model.comms.emulator;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.comms.drivers.GEOnlineComms;
+import model.items.GTag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local emulator of The Guardian, SendGrid and Reddit APIs, for exercising
+ * and load testing the real networking code without the internet. Serves
+ * every endpoint the application uses on one local server, from generated
+ * data, with configurable latency, error rate and rate limit. Responses
+ * follow the shape (and status codes) of the real APIs' responses.
+ * @see GEEmulatorSettings
+ */
+public class GEApiEmulator {
+    // Sections and words synthetic tags are made from
+    private static final String[] SECTIONS = {
+            "world", "environment", "science", "travel", "sport", "politics"
+    };
+    private static final String[] WORDS = {
+            "penguins", "antarctica", "icebergs", "snow", "glaciers", "seals",
+            "whales", "krill", "blizzards", "emperors", "rookeries", "ice-shelves"
+    };
+    // Words synthetic article titles start with
+    private static final String[] ADJECTIVES = {
+            "Chilly", "Remarkable", "Frozen", "Surprising", "Windswept", "Noisy"
+    };
+    // Publication time of the newest synthetic article
+    private static final Instant NEWEST = Instant.parse("2022-06-01T12:00:00Z");
+    // Largest page size the Guardian API allows
+    private static final int MAX_PAGE_SIZE = 200;
+    // Most recipients SendGrid allows in one request
+    private static final int MAX_RECIPIENTS = 1000;
+
+    private GEEmulatorSettings settings;
+    private Map<String, GTag> tags; // Synthetic tags by ID, in generated order
+    private Random random;
+    private AtomicLong requests; // Requests received, including rejected ones
+    private AtomicLong tokens; // Access tokens handed out
+    private Map<String, Reply> done; // Successful replies by idempotency key
+
+    private long windowStart; // Start of current rate limit second (ms)
+    private int windowCount; // Requests served in current rate limit second
+
+    private HttpServer server; // Null if not running
+    private ExecutorService pool; // Null if not running
+
+    /**
+     * Creates an emulator. It isn't running until started.
+     * @param settings Settings to emulate with.
+     */
+    public GEApiEmulator(GEEmulatorSettings settings) {
+        this.settings = settings;
+        this.tags = new LinkedHashMap<>();
+        this.random = new Random(settings.seed());
+        this.requests = new AtomicLong();
+        this.tokens = new AtomicLong();
+        this.done = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < settings.tagCount(); i++) {
+            GTag tag = makeTag(i);
+            this.tags.put(tag.id(), tag);
+        }
+    }
+
+    // Synthetic Data
+    /**
+     * Capitalises the first letter of a string.
+     * @param s String.
+     * @return Capitalised string.
+     */
+    private static String capitalise(String s) {
+        return s.isEmpty() ? s : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    /**
+     * Makes the i-th synthetic tag. Every i gives a different tag.
+     * @param i Index of tag.
+     * @return Synthetic tag.
+     */
+    private static GTag makeTag(int i) {
+        String section = SECTIONS[i % SECTIONS.length];
+        String word = WORDS[(i / SECTIONS.length) % WORDS.length];
+        int round = i / (SECTIONS.length * WORDS.length);
+
+        String id = section + "/" + word + (round > 0 ? "-" + round : "");
+        String title = capitalise(word.replace('-', ' ')) + (round > 0 ? " " + round : "");
+
+        return new GTag(id, "keyword", title,
+                        "https://www.theguardian.com/" + id,
+                        "https://content.guardianapis.com/" + id);
+    }
+
+    /**
+     * Makes the synthetic articles of a tag, newest first.
+     * @param tag Tag of articles.
+     * @return Articles as they appear in API results.
+     */
+    private List<JsonObject> makeArticles(GTag tag) {
+        List<JsonObject> ret = new ArrayList<>(this.settings.articlesPerTag());
+        String section = tag.id().substring(0, tag.id().indexOf('/'));
+        int offset = Math.floorMod(tag.id().hashCode(), 6);
+
+        for (int k = 0; k < this.settings.articlesPerTag(); k++) {
+            String id = tag.id() + "/2022/article-" + (k + 1);
+
+            JsonObject jo = new JsonObject();
+            jo.add("id", new JsonPrimitive(id));
+            jo.add("type", new JsonPrimitive("article"));
+            jo.add("sectionId", new JsonPrimitive(section));
+            jo.add("sectionName", new JsonPrimitive(capitalise(section)));
+            jo.add("webPublicationDate",
+                   new JsonPrimitive(NEWEST.minus(Duration.ofHours(k * 6L + offset)).toString()));
+            jo.add("webTitle", new JsonPrimitive(ADJECTIVES[(k + offset) % ADJECTIVES.length] +
+                                                 " " + tag.webTitle().toLowerCase(Locale.ROOT) +
+                                                 " story " + (k + 1)));
+            jo.add("webUrl", new JsonPrimitive("https://www.theguardian.com/" + id));
+            jo.add("apiUrl", new JsonPrimitive("https://content.guardianapis.com/" + id));
+            ret.add(jo);
+        }
+
+        return ret;
+    }
+
+    // Server
+    /**
+     * Starts serving on the loopback address.
+     * @param port Port to serve on; 0 for any free port.
+     * @return Base URL of every emulated API; null if the server could not start.
+     */
+    public synchronized String start(int port) {
+        if (this.server != null) {
+            return this.getBaseUrl();
+        }
+
+        try {
+            this.server = HttpServer.create(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            this.server = null;
+            return null;
+        }
+
+        this.server.createContext("/tags", ex -> this.serve(ex, "GET", this::tags));
+        this.server.createContext("/search", ex -> this.serve(ex, "GET", this::search));
+        this.server.createContext("/v3/mail/send", ex -> this.serve(ex, "POST", this::sendMail));
+        this.server.createContext("/api/v1/access_token",
+                                  ex -> this.serve(ex, "POST", this::accessToken));
+        this.server.createContext("/api/submit", ex -> this.serve(ex, "POST", this::submit));
+
+        this.pool = Executors.newFixedThreadPool(Math.max(this.settings.threads(), 1), runnable -> {
+            Thread t = new Thread(runnable);
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(this.pool);
+        this.server.start();
+
+        return this.getBaseUrl();
+    }
+
+    /**
+     * Stops serving. Requests in progress are given a moment to finish.
+     */
+    public synchronized void stop() {
+        if (this.server != null) {
+            this.server.stop(1);
+            this.pool.shutdownNow();
+            this.server = null;
+            this.pool = null;
+        }
+    }
+
+    /**
+     * Returns the base URL of every emulated API.
+     * @return Base URL; null if not running.
+     */
+    public synchronized String getBaseUrl() {
+        if (this.server == null) {
+            return null;
+        }
+
+        InetSocketAddress address = this.server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Returns the number of requests received so far, including rejected ones.
+     * @return Number of requests received.
+     */
+    public long getRequestCount() {
+        return this.requests.get();
+    }
+
+    // Request Handling
+    /**
+     * Handles a request to an endpoint. Returns status code and body.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        /**
+         * Handles a request.
+         * @param ex Exchange of request.
+         * @param params Query string parameters.
+         * @return Response to give.
+         * @throws IOException If the request body can't be read.
+         */
+        Reply handle(HttpExchange ex, Map<String, String> params) throws IOException;
+    }
+
+    /**
+     * Response to give to a request.
+     * @param statusCode Status code.
+     * @param body Body; empty for none.
+     */
+    private record Reply(
+            int statusCode,
+            String body
+    ) { }
+
+    /**
+     * Serves a request: rate limits, delays, fails at random, then hands
+     * it to its endpoint. A request with an idempotency key that has
+     * already succeeded gets the same reply again, without being redone.
+     * @param ex Exchange of request.
+     * @param method HTTP method the endpoint takes.
+     * @param endpoint Endpoint to hand the request to.
+     * @throws IOException If the response can't be sent.
+     */
+    private void serve(HttpExchange ex, String method, Endpoint endpoint) throws IOException {
+        this.requests.incrementAndGet();
+
+        try (ex) {
+            Reply reply;
+            String key = ex.getRequestHeaders().getFirst(GEOnlineComms.IDEMPOTENCY_HEADER);
+
+            if (!ex.getRequestMethod().equalsIgnoreCase(method)) {
+                reply = new Reply(405, errorBody("Method not allowed"));
+            } else if (key != null && this.done.containsKey(key)) {
+                reply = this.done.get(key);
+            } else if (!this.withinRateLimit()) {
+                reply = new Reply(429, "{\"message\": \"API rate limit exceeded\"}");
+            } else {
+                if (!this.delay()) {
+                    return; // Stopping
+                }
+
+                if (this.randomFailure()) {
+                    reply = new Reply(500, errorBody("Internal server error"));
+                } else {
+                    reply = endpoint.handle(ex, parseParams(ex.getRequestURI().getRawQuery()));
+
+                    if (key != null && reply.statusCode() < 300) {
+                        this.done.put(key, reply);
+                    }
+                }
+            }
+
+            respond(ex, reply);
+        }
+    }
+
+    /**
+     * Counts a request against the rate limit.
+     * @return Whether the request is within the rate limit.
+     */
+    private synchronized boolean withinRateLimit() {
+        if (this.settings.rateLimit() <= 0) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (now - this.windowStart >= 1000) {
+            this.windowStart = now;
+            this.windowCount = 0;
+        }
+
+        return ++this.windowCount <= this.settings.rateLimit();
+    }
+
+    /**
+     * Waits for the configured latency (plus jitter).
+     * @return Whether waited the full time (i.e. not interrupted).
+     */
+    private boolean delay() {
+        long ms = this.settings.latencyMs();
+
+        if (this.settings.jitterMs() > 0) {
+            synchronized (this.random) {
+                ms += (long) (this.random.nextDouble() * this.settings.jitterMs());
+            }
+        }
+
+        if (ms <= 0) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Decides at random whether a request fails, by the configured error rate.
+     * @return Whether the request fails.
+     */
+    private boolean randomFailure() {
+        synchronized (this.random) {
+            return this.random.nextDouble() < this.settings.errorRate();
+        }
+    }
+
+    /**
+     * Parses a raw query string.
+     * @param rawQuery Raw query string; may be null.
+     * @return Decoded parameters.
+     */
+    private static Map<String, String> parseParams(String rawQuery) {
+        Map<String, String> ret = new HashMap<>();
+
+        if (rawQuery == null) {
+            return ret;
+        }
+
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+
+            if (eq > 0) {
+                ret.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Reads a request's body.
+     * @param ex Exchange of request.
+     * @return Body.
+     * @throws IOException If the body can't be read.
+     */
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Sends a response.
+     * @param ex Exchange of request.
+     * @param reply Response to give.
+     * @throws IOException If the response can't be sent.
+     */
+    private static void respond(HttpExchange ex, Reply reply) throws IOException {
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(reply.statusCode(), body.length == 0 ? -1 : body.length);
+
+        if (body.length > 0) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Makes a Guardian style error body.
+     * @param message Error message.
+     * @return Error body.
+     */
+    private static String errorBody(String message) {
+        JsonObject response = new JsonObject();
+        response.add("status", new JsonPrimitive("error"));
+        response.add("message", new JsonPrimitive(message));
+
+        JsonObject ret = new JsonObject();
+        ret.add("response", response);
+
+        return ret.toString();
+    }
+
+    /**
+     * Reads a positive integer parameter.
+     * @param params Parameters.
+     * @param name Name of parameter.
+     * @param fallback Value if missing.
+     * @return Value; -1 if not a positive integer.
+     */
+    private static int intParam(Map<String, String> params, String name, int fallback) {
+        try {
+            int value = Integer.parseInt(params.getOrDefault(name, String.valueOf(fallback)));
+            return value >= 1 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Makes a Guardian style page of results, or an error if the page is out of range.
+     * @param all All results.
+     * @param params Request parameters (page, page-size).
+     * @param orderBy Order of results to report; null to not report one.
+     * @return Response to give.
+     */
+    private static Reply page(List<JsonObject> all, Map<String, String> params, String orderBy) {
+        int page = intParam(params, "page", 1);
+        int pageSize = intParam(params, "page-size", 10);
+
+        if (page < 1 || pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return new Reply(400, errorBody("Invalid page or page-size"));
+        }
+
+        int pages = (all.size() + pageSize - 1) / pageSize;
+
+        if (page > Math.max(pages, 1)) {
+            return new Reply(400, errorBody("requested page is beyond the number of available pages"));
+        }
+
+        int start = (page - 1) * pageSize;
+        JsonArray results = new JsonArray();
+        all.subList(start, Math.min(start + pageSize, all.size())).forEach(results::add);
+
+        JsonObject response = new JsonObject();
+        response.add("status", new JsonPrimitive("ok"));
+        response.add("userTier", new JsonPrimitive("developer"));
+        response.add("total", new JsonPrimitive(all.size()));
+        response.add("startIndex", new JsonPrimitive(start + 1));
+        response.add("pageSize", new JsonPrimitive(pageSize));
+        response.add("currentPage", new JsonPrimitive(page));
+        response.add("pages", new JsonPrimitive(pages));
+
+        if (orderBy != null) {
+            response.add("orderBy", new JsonPrimitive(orderBy));
+        }
+
+        response.add("results", results);
+
+        JsonObject ret = new JsonObject();
+        ret.add("response", response);
+
+        return new Reply(200, ret.toString());
+    }
+
+    // The Guardian
+    /**
+     * Handles a tags search; tags whose ID or title contains the query.
+     * @param ex Exchange of request.
+     * @param params Query string parameters.
+     * @return Response to give.
+     */
+    private Reply tags(HttpExchange ex, Map<String, String> params) {
+        if (params.getOrDefault("api-key", "").isEmpty()) {
+            return new Reply(401, "{\"message\": \"Unauthorized\"}");
+        }
+
+        String q = params.getOrDefault("q", "").strip().toLowerCase(Locale.ROOT);
+        List<JsonObject> found = new ArrayList<>();
+
+        for (GTag tag : this.tags.values()) {
+            if (tag.id().contains(q) || tag.webTitle().toLowerCase(Locale.ROOT).contains(q)) {
+                JsonObject jo = new JsonObject();
+                jo.add("id", new JsonPrimitive(tag.id()));
+                jo.add("type", new JsonPrimitive(tag.type()));
+                jo.add("webTitle", new JsonPrimitive(tag.webTitle()));
+                jo.add("webUrl", new JsonPrimitive(tag.webUrl()));
+                jo.add("apiUrl", new JsonPrimitive(tag.apiUrl()));
+                found.add(jo);
+            }
+        }
+
+        return page(found, params, null);
+    }
+
+    /**
+     * Handles a content search; a tag's articles whose title contains the query.
+     * @param ex Exchange of request.
+     * @param params Query string parameters.
+     * @return Response to give.
+     */
+    private Reply search(HttpExchange ex, Map<String, String> params) {
+        if (params.getOrDefault("api-key", "").isEmpty()) {
+            return new Reply(401, "{\"message\": \"Unauthorized\"}");
+        }
+
+        GTag tag = this.tags.get(params.getOrDefault("tag", ""));
+        String q = params.getOrDefault("q", "").strip().toLowerCase(Locale.ROOT);
+        String orderBy = params.getOrDefault("order-by", "newest");
+        List<JsonObject> found = new ArrayList<>();
+
+        if (tag != null) {
+            for (JsonObject article : this.makeArticles(tag)) {
+                if (article.get("webTitle").getAsString().toLowerCase(Locale.ROOT).contains(q)) {
+                    found.add(article);
+                }
+            }
+        }
+
+        if (orderBy.equals("oldest")) {
+            Collections.reverse(found);
+        }
+
+        return page(found, params, orderBy);
+    }
+
+    // SendGrid
+    /**
+     * Handles an email send; accepted if authorised and well formed.
+     * @param ex Exchange of request.
+     * @param params Query string parameters.
+     * @return Response to give; empty 202 if accepted.
+     * @throws IOException If the request body can't be read.
+     */
+    private Reply sendMail(HttpExchange ex, Map<String, String> params) throws IOException {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+
+        if (auth == null || !auth.startsWith("Bearer ")) {
+            return new Reply(401, sendGridError("The provided authorization grant is invalid, " +
+                                                "expired, or revoked", null));
+        }
+
+        JsonArray personalizations;
+
+        try {
+            personalizations = JsonParser.parseString(readBody(ex))
+                                         .getAsJsonObject()
+                                         .getAsJsonArray("personalizations");
+        } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+            return new Reply(400, sendGridError("Bad Request", null));
+        }
+
+        if (personalizations == null || personalizations.isEmpty()) {
+            return new Reply(400, sendGridError("The personalizations field is required.",
+                                                "personalizations"));
+        } else if (personalizations.size() > MAX_RECIPIENTS) {
+            return new Reply(400, sendGridError("The personalizations field cannot have more " +
+                                                "than %d items.".formatted(MAX_RECIPIENTS),
+                                                "personalizations"));
+        }
+
+        return new Reply(202, "");
+    }
+
+    /**
+     * Makes a SendGrid style error body.
+     * @param message Error message.
+     * @param field Field the error is about; null if none.
+     * @return Error body.
+     */
+    private static String sendGridError(String message, String field) {
+        JsonObject error = new JsonObject();
+        error.add("message", new JsonPrimitive(message));
+
+        if (field != null) {
+            error.add("field", new JsonPrimitive(field));
+        }
+
+        JsonArray errors = new JsonArray();
+        errors.add(error);
+
+        JsonObject ret = new JsonObject();
+        ret.add("errors", errors);
+
+        return ret.toString();
+    }
+
+    // Reddit
+    /**
+     * Handles an access token request. Like Reddit, asks for basic auth
+     * (the app's client ID and secret) if not given.
+     * @param ex Exchange of request.
+     * @param params Query string parameters.
+     * @return Response to give.
+     * @throws IOException If the request body can't be read.
+     */
+    private Reply accessToken(HttpExchange ex, Map<String, String> params) throws IOException {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+
+        if (auth == null || !auth.startsWith("Basic ")) {
+            ex.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"reddit\"");
+            return new Reply(401, "{\"message\": \"Unauthorized\", \"error\": 401}");
+        }
+
+        Map<String, String> form = parseParams(readBody(ex));
+
+        if (!"password".equals(form.get("grant_type")) ||
+            form.getOrDefault("username", "").isEmpty() ||
+            form.getOrDefault("password", "").isEmpty()) {
+            return new Reply(200, "{\"error\": \"invalid_grant\"}");
+        }
+
+        JsonObject ret = new JsonObject();
+        ret.add("access_token", new JsonPrimitive("emulated-" + this.tokens.incrementAndGet()));
+        ret.add("token_type", new JsonPrimitive("bearer"));
+        ret.add("expires_in", new JsonPrimitive(86400));
+        ret.add("scope", new JsonPrimitive("*"));
+
+        return new Reply(200, ret.toString());
+    }
+
+    /**
+     * Handles a post submission; accepted if it has a token and a title.
+     * @param ex Exchange of request.
+     * @param params Query string parameters.
+     * @return Response to give.
+     * @throws IOException If the request body can't be read.
+     */
+    private Reply submit(HttpExchange ex, Map<String, String> params) throws IOException {
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+
+        if (auth == null || !auth.toLowerCase(Locale.ROOT).startsWith("bearer ")) {
+            return new Reply(401, "{\"message\": \"Unauthorized\", \"error\": 401}");
+        }
+
+        String body = readBody(ex);
+        String id = Long.toString(this.requests.get(), 36);
+
+        JsonObject data = new JsonObject();
+        data.add("url", new JsonPrimitive("https://www.reddit.com/comments/" + id));
+        data.add("id", new JsonPrimitive(id));
+        data.add("name", new JsonPrimitive("t3_" + id));
+
+        JsonObject json = new JsonObject();
+        json.add("errors", new JsonArray());
+
+        if (!body.contains("title=")) {
+            JsonArray error = new JsonArray();
+            error.add("NO_TEXT");
+            error.add("we need something here");
+            error.add("title");
+            json.getAsJsonArray("errors").add(error);
+        } else {
+            json.add("data", data);
+        }
+
+        JsonObject ret = new JsonObject();
+        ret.add("json", json);
+
+        return new Reply(200, ret.toString());
+    }
+}
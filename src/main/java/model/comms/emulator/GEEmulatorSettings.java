@@ -0,0 +1,31 @@
+package model.comms.emulator;
+
+/**
+ * Settings for an API emulator.
+ * @param latencyMs Delay added to every response (milliseconds).
+ * @param jitterMs Most extra random delay added on top of the latency (milliseconds).
+ * @param errorRate Fraction of requests (0 to 1) that fail with a server error.
+ * @param rateLimit Most requests served per second before rate limiting; 0 for no limit.
+ * @param tagCount Number of synthetic tags.
+ * @param articlesPerTag Number of synthetic articles for each tag.
+ * @param threads Number of threads serving requests.
+ * @param seed Seed for random delays and errors.
+ */
+public record GEEmulatorSettings(
+        long latencyMs,
+        long jitterMs,
+        double errorRate,
+        int rateLimit,
+        int tagCount,
+        int articlesPerTag,
+        int threads,
+        long seed
+) {
+    /**
+     * Creates settings with no latency, errors or rate limit, and a
+     * moderate amount of synthetic data.
+     */
+    public GEEmulatorSettings() {
+        this(0, 0, 0, 0, 500, 100, 8, 0);
+    }
+}
@@ -28,6 +28,14 @@ public class GECommsException extends Exception {
         return this.code;
     }
 
+    /**
+     * Returns the message given, without the code.
+     * @return Message given.
+     */
+    public String getMsg() {
+        return this.msg;
+    }
+
     /**
      * Returns the message for this exception.
      * @return Message for this exception.
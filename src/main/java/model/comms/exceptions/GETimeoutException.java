@@ -0,0 +1,28 @@
+package model.comms.exceptions;
+
+/**
+ * Exception for a request (or the operation it was part of) running out of
+ * time; i.e. the connection or response took too long, or the operation's
+ * deadline passed. The request is abandoned when this is thrown. The code
+ * is always -1, as there is no response.
+ */
+public class GETimeoutException extends GECommsException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a timeout exception.
+     * @param msg Message to use; what timed out, and after how long.
+     */
+    public GETimeoutException(String msg) {
+        super(-1, msg);
+    }
+
+    /**
+     * Returns the message for this exception.
+     * @return Message for this exception.
+     */
+    @Override
+    public String getMessage() {
+        return String.format("Communications Timeout | %s", this.getMsg());
+    }
+}
@@ -1,14 +1,18 @@
 package model.comms.manager;
 
 import com.google.gson.JsonObject;
+import model.catalogue.GETagCatalogue;
 import model.comms.drivers.GEComms;
 import model.comms.exceptions.GECommsException;
 import model.comms.payloads.*;
 import model.comms.util.JSONParser;
 import model.db.GEDatabase;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.RedditToken;
 
+import java.util.List;
+
 /**
  * Allows for managing communications systems,
  * including cache usage and such.
@@ -45,6 +49,13 @@ public interface GECommsManager {
      */
     public void injectNewEnvironment(Environment env);
 
+    /**
+     * Injects a tag catalogue to answer tag searches from while it is fresh.
+     * If null, tag searches always use the API.
+     * @param catalogue Tag catalogue to use, or null for none.
+     */
+    public void injectTagCatalogue(GETagCatalogue catalogue);
+
     /**
      * Sets whether to use online or offline mode each
      * API. True means online, false means use the dummy version.
@@ -54,6 +65,12 @@ public interface GECommsManager {
      */
     public void setOnline(boolean guardian, boolean email, boolean reddit);
 
+    /**
+     * Shuts down the comms manager's threads, cancelling anything still
+     * being sent. Should be called when the manager is no longer used.
+     */
+    public void shutdown();
+
     // The Guardian Operations
     /**
      * Requests tags based on the payload.
@@ -63,13 +80,23 @@ public interface GECommsManager {
      */
     public JsonObject getTags(GTagPayload payload) throws GECommsException;
 
+    /**
+     * Requests a page of all tags, always from the API (never the catalogue).
+     * @param page Page to request.
+     * @param pageSize Number of tags per page.
+     * @return JsonObject with returned data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    public JsonObject listTags(int page, int pageSize) throws GECommsException;
+
     /**
      * If the database is set, checks whether there is cached
      * content for the given payload.
      * @param payload Payload to check caching for.
      * @return Whether there is cached content or not.
-     *         Always returns false if no DB set, or if offline
-     *         comms are in use.
+     *         Always returns false if no DB set, if offline
+     *         comms are in use, or if the payload has an ordering
+     *         (only default ordered content is cached).
      */
     public boolean isContentCached(GContentPayload payload);
 
@@ -100,6 +127,17 @@ public interface GECommsManager {
      */
     public boolean sendEmail(ESendPayload payload) throws GECommsException;
 
+    /**
+     * Sends the same email separately to each recipient. Recipients are
+     * de-duplicated and packed into as few requests as possible, which
+     * are sent concurrently.
+     * @param payload Data to make requests with.
+     * @return Result for each distinct recipient.
+     * @throws GECommsException If something goes wrong before any sending (i.e.
+     *                          bad payload or missing environment variables).
+     */
+    public List<ESendResult> sendBulkEmail(ESendBulkPayload payload) throws GECommsException;
+
     // Reddit Operations
     /**
      * Attempts to get a Reddit access token; if successful, stores it internally for
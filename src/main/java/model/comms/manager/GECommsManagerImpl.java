@@ -2,23 +2,41 @@ package model.comms.manager;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import model.catalogue.GETagCatalogue;
+import model.comms.drivers.GECachedComms;
 import model.comms.drivers.GEComms;
 import model.comms.drivers.GEDummyComms;
 import model.comms.drivers.GEOnlineComms;
 import model.comms.drivers.GEResponse;
 import model.comms.exceptions.GECommsException;
 import model.comms.payloads.*;
+import model.comms.util.GEDeadline;
 import model.comms.util.JSONParser;
 import model.comms.util.JSONParserImpl;
 import model.db.GEDatabase;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.RedditToken;
+import model.trace.GESpan;
+import model.trace.GETracer;
+import model.util.GEBulkhead;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Communications management implementation.
  * @see model.comms.manager.GECommsManager
  */
 public class GECommsManagerImpl implements GECommsManager {
+    // Most bulk email requests to have in flight at once
+    private static final int BULK_EMAIL_THREADS = 4;
+
     private boolean gOnline;
     private boolean eOnline;
     private boolean rOnline;
@@ -27,6 +45,8 @@ public class GECommsManagerImpl implements GECommsManager {
     private GEDatabase db;
     private JSONParser parser;
     private Environment env;
+    private GEBulkhead bulkPool;
+    private GETagCatalogue tagCatalogue; // Null if tag searches always use the API
 
     /**
      * Constructs a new communications manager.
@@ -46,6 +66,9 @@ public class GECommsManagerImpl implements GECommsManager {
         this.db = null;
         this.parser = new JSONParserImpl();
         this.env = new Environment();
+        this.tagCatalogue = null;
+
+        this.bulkPool = new GEBulkhead("sendgrid-batch", BULK_EMAIL_THREADS);
     }
 
     // Module Injection/System State
@@ -101,6 +124,16 @@ public class GECommsManagerImpl implements GECommsManager {
         }
     }
 
+    /**
+     * Injects a tag catalogue to answer tag searches from while it is fresh.
+     * If null, tag searches always use the API.
+     * @param catalogue Tag catalogue to use, or null for none.
+     */
+    @Override
+    public void injectTagCatalogue(GETagCatalogue catalogue) {
+        this.tagCatalogue = catalogue;
+    }
+
     /**
      * Sets whether to use online or offline mode each
      * API. True means online, false means use the dummy version.
@@ -114,15 +147,125 @@ public class GECommsManagerImpl implements GECommsManager {
         this.rOnline = reddit;
     }
 
+    /**
+     * Shuts down the comms manager's threads, cancelling anything still
+     * being sent. Should be called when the manager is no longer used.
+     */
+    @Override
+    public void shutdown() {
+        this.bulkPool.shutdownNow();
+    }
+
+    // Tracing
+    /**
+     * A request made on a comms driver.
+     * @param <T> Type of response.
+     */
+    @FunctionalInterface
+    private interface DriverRequest<T> {
+        /**
+         * Makes the request.
+         * @param comms Driver to make it on.
+         * @return Response.
+         * @throws GECommsException If the driver fails.
+         */
+        T request(GEComms comms) throws GECommsException;
+    }
+
+    /**
+     * Makes a request on the online or offline driver, traced as a
+     * network stage. Not made if the current deadline has already passed.
+     * @param online Whether to use the online driver.
+     * @param operation Name of the request.
+     * @param request Request to make.
+     * @return Response.
+     * @throws GECommsException If the driver fails, or the deadline passes
+     *                          (GETimeoutException).
+     */
+    private GEResponse send(boolean online,
+                            String operation,
+                            DriverRequest<GEResponse> request) throws GECommsException {
+        GEComms comms = online ? this.onlineComms : this.offlineComms;
+        GEDeadline.check();
+
+        try (GESpan span = GETracer.span("network", "comms")) {
+            span.attribute("operation", operation)
+                .attribute("driver", comms.getClass().getSimpleName());
+
+            try {
+                GEResponse ret = request.request(comms);
+                span.attribute("status", ret.statusCode());
+                return ret;
+            } catch (GECommsException e) {
+                span.attribute("error", e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Parses a response body, traced as a parse stage.
+     * @param body Body to parse.
+     * @return Parsed body; null if unparsable.
+     */
+    private JsonObject parse(String body) {
+        try (GESpan span = GETracer.span("parse", "comms")) {
+            span.attribute("length", body == null ? 0 : body.length());
+
+            return this.parser.parseResponse(body);
+        }
+    }
+
+    /**
+     * Looks up cached content for a payload, traced as a cache probe stage.
+     * Database must be set.
+     * @param payload Payload to look up.
+     * @return Cached content; empty string if none, null if a DB error occurred.
+     */
+    private String probeCache(GContentPayload payload) {
+        try (GESpan span = GETracer.span("cache probe", "comms")) {
+            String ret = this.db.getCachedContent(payload.tag(), payload.query(), payload.page());
+            span.attribute("hit", ret != null && !ret.equals(""));
+
+            return ret;
+        }
+    }
+
+    /**
+     * Caches content for a payload, traced as a cache write stage.
+     * Database must be set.
+     * @param payload Payload the content is for.
+     * @param content Content to cache.
+     */
+    private void writeCache(GContentPayload payload, JsonObject content) {
+        try (GESpan span = GETracer.span("cache write", "comms")) {
+            span.attribute("page", payload.page());
+
+            this.db.cacheContent(payload.tag(), payload.query(), payload.page(), content.toString());
+        }
+    }
+
     // The Guardian Operations
     /**
-     * Requests tags based on the payload.
+     * Gets the error message from a Guardian error response. Most errors
+     * have it inside the response object, but some (e.g. rate limiting)
+     * have it at the top level.
+     * @param ret Parsed error response.
+     * @return Error message.
+     */
+    private static String guardianErrorMessage(JsonObject ret) {
+        JsonObject holder = ret.has("response") ? ret.getAsJsonObject("response") : ret;
+
+        return holder.has("message") ? holder.get("message").getAsString() : ret.toString();
+    }
+
+    /**
+     * Requests tags from the API (or dummy API if offline).
      * @param payload Payload to pass to request.
      * @return JsonObject with returned data.
      * @throws GECommsException If something goes wrong (code or request related).
      */
-    @Override
-    public JsonObject getTags(GTagPayload payload) throws GECommsException {
+    private JsonObject requestTags(GTagPayload payload) throws GECommsException {
         // If online, ensure we have API key
         if (this.gOnline && this.env.getenv("INPUT_API_KEY") == null) {
             throw new GECommsException(-1,
@@ -130,35 +273,62 @@ public class GECommsManagerImpl implements GECommsManager {
         }
 
         // Get response
-        GEResponse response;
-
-        if (this.gOnline) {
-            response = this.onlineComms.getTags(payload);
-        } else {
-            response = this.offlineComms.getTags(payload);
-        }
+        GEResponse response = this.send(this.gOnline, "getTags", comms -> comms.getTags(payload));
 
         // Parse
-        JsonObject ret = this.parser.parseResponse(response.body());
+        JsonObject ret = this.parse(response.body());
 
         // Check for errors, throw if any
         if (ret == null) {
             throw new GECommsException(-1, "Unparsable tags response: " + response.body());
         } else if (response.statusCode() >= 400 && response.statusCode() <= 599) {
-            throw new GECommsException(response.statusCode(),
-                    ret.get("response").getAsJsonObject().get("message").getAsString());
+            throw new GECommsException(response.statusCode(), guardianErrorMessage(ret));
         }
 
         return ret;
     }
 
+    /**
+     * Requests tags based on the payload. If online and a fresh tag
+     * catalogue is set, the catalogue answers (non-blank) queries instead
+     * of the API.
+     * @param payload Payload to pass to request.
+     * @return JsonObject with returned data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public JsonObject getTags(GTagPayload payload) throws GECommsException {
+        if (this.gOnline &&
+            this.tagCatalogue != null &&
+            this.tagCatalogue.isFresh(Instant.now()) &&
+            payload.query() != null &&
+            !payload.query().isBlank()) {
+            return GECachedComms.tagsResponse(payload, this.tagCatalogue.search(payload.query()));
+        }
+
+        return this.requestTags(payload);
+    }
+
+    /**
+     * Requests a page of all tags, always from the API (never the catalogue).
+     * @param page Page to request.
+     * @param pageSize Number of tags per page.
+     * @return JsonObject with returned data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public JsonObject listTags(int page, int pageSize) throws GECommsException {
+        return this.requestTags(new GTagPayload("", page, pageSize));
+    }
+
     /**
      * If the database is set, checks whether there is cached
      * content for the given payload.
      * @param payload Payload to check caching for.
      * @return Whether there is cached content or not.
-     *         Always returns false if no DB set, or if offline
-     *         comms are in use.
+     *         Always returns false if no DB set, if offline
+     *         comms are in use, or if the payload has an ordering
+     *         (only default ordered content is cached).
      */
     @Override
     public boolean isContentCached(GContentPayload payload) {
@@ -166,12 +336,10 @@ public class GECommsManagerImpl implements GECommsManager {
             return false;
         }
 
-        if (this.db == null) {
+        if (this.db == null || payload.orderBy() != null) {
             return false;
         } else {
-            String ret = this.db.getCachedContent(payload.tag(),
-                                                  payload.query(),
-                                                  payload.page());
+            String ret = this.probeCache(payload);
 
             if (ret == null) {
                 return false;
@@ -209,14 +377,13 @@ public class GECommsManagerImpl implements GECommsManager {
      */
     private JsonObject parseValidateContent(GEResponse response) throws GECommsException {
         // Parse
-        JsonObject request = this.parser.parseResponse(response.body());
+        JsonObject request = this.parse(response.body());
 
         // Check for errors, throw if any
         if (request == null) {
             throw new GECommsException(-1, "Unparsable content response: " + response.body());
         } else if (response.statusCode() >= 400 && response.statusCode() <= 599) {
-            throw new GECommsException(response.statusCode(),
-                    request.get("response").getAsJsonObject().get("message").getAsString());
+            throw new GECommsException(response.statusCode(), guardianErrorMessage(request));
         }
 
         return request;
@@ -239,17 +406,18 @@ public class GECommsManagerImpl implements GECommsManager {
         }
 
         if (this.gOnline) {
-            if (useCache && this.db != null) {
-                String ret = this.db.getCachedContent(payload.tag(),
-                                                      payload.query(),
-                                                      payload.page());
+            // Cache is keyed without ordering, so only default ordered content is cached
+            boolean cacheable = this.db != null && payload.orderBy() == null;
+
+            if (useCache && cacheable) {
+                String ret = this.probeCache(payload);
 
                 if (ret == null) {
                     // Critical DB error!
                     throw new GECommsException(-1,
                                                "Critical DB error during content cache getting.");
                 } else if (!ret.equals("")) {
-                    JsonObject jsonRet = this.parser.parseResponse(ret);
+                    JsonObject jsonRet = this.parse(ret);
 
                     if (jsonRet == null) {
                         throw new GECommsException(-1, "Cached content could not be parsed.");
@@ -258,34 +426,30 @@ public class GECommsManagerImpl implements GECommsManager {
                     }
                 } else {
                     // Nothing in cache; do normal request
-                    GEResponse response = this.onlineComms.getContent(payload);
+                    GEResponse response = this.send(true, "getContent",
+                                                    comms -> comms.getContent(payload));
 
                     // Parse + Validate
                     JsonObject request = this.parseValidateContent(response);
 
                     // Try automatically cache
-                    if (this.db != null) {
-                        this.db.cacheContent(payload.tag(),
-                                payload.query(),
-                                payload.page(),
-                                request.toString());
+                    if (cacheable) {
+                        this.writeCache(payload, request);
                     }
 
                     return request;
                 }
             } else {
                 // Not using cache; do normal request
-                GEResponse response = this.onlineComms.getContent(payload);
+                GEResponse response = this.send(true, "getContent",
+                                                comms -> comms.getContent(payload));
 
                 // Parse + Validate
                 JsonObject request = this.parseValidateContent(response);
 
                 // Try automatically cache if DB present (in case want to use cache later!)
-                if (this.db != null) {
-                    this.db.cacheContent(payload.tag(),
-                                         payload.query(),
-                                         payload.page(),
-                                         request.toString());
+                if (cacheable) {
+                    this.writeCache(payload, request);
                 }
 
                 return request;
@@ -293,7 +457,7 @@ public class GECommsManagerImpl implements GECommsManager {
         }
 
         // If not online, do offline
-        GEResponse response = this.offlineComms.getContent(payload);
+        GEResponse response = this.send(false, "getContent", comms -> comms.getContent(payload));
 
         // Parse + Validate
         return this.parseValidateContent(response);
@@ -301,14 +465,11 @@ public class GECommsManagerImpl implements GECommsManager {
 
     // Email Operations
     /**
-     * Makes an email send request.
-     * @param payload Data to make request with.
-     * @return Whether send was successful or not (if no errors should always be true)
-     * @throws GECommsException If something goes wrong (code or request related).
+     * If online, checks that the environment variables needed for
+     * sending emails are present.
+     * @throws GECommsException If any are missing.
      */
-    @Override
-    public boolean sendEmail(ESendPayload payload) throws GECommsException {
-        // If online, ensure we have API keys
+    private void checkEmailEnvironment() throws GECommsException {
         if (this.eOnline) {
             if (this.env.getenv("SENDGRID_API_KEY") == null) {
                 throw new GECommsException(-1,
@@ -318,23 +479,22 @@ public class GECommsManagerImpl implements GECommsManager {
                         "Required environment variable SENDGRID_API_EMAIL is missing.");
             }
         }
+    }
 
-        // Get response
-        GEResponse response;
-
-        if (this.eOnline) {
-            response = this.onlineComms.sendEmail(payload);
-        } else {
-            response = this.offlineComms.sendEmail(payload);
-        }
-
+    /**
+     * Utility method for validating the response for an email send request.
+     * @param response Response to validate.
+     * @return Whether send was successful or not (if no errors should always be true)
+     * @throws GECommsException If invalid.
+     */
+    private boolean validateEmailResponse(GEResponse response) throws GECommsException {
         // If empty response, success!
         if (response.body().equals("")) {
             return true;
         }
 
         // Error Case; check the response
-        JsonObject ret = this.parser.parseResponse(response.body());
+        JsonObject ret = this.parse(response.body());
 
         if (ret == null) {
             throw new GECommsException(-1, "Unparsable email send response: " + response.body());
@@ -367,6 +527,134 @@ public class GECommsManagerImpl implements GECommsManager {
         }
     }
 
+    /**
+     * Makes an email send request.
+     * @param payload Data to make request with.
+     * @return Whether send was successful or not (if no errors should always be true)
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public boolean sendEmail(ESendPayload payload) throws GECommsException {
+        // If online, ensure we have API keys
+        this.checkEmailEnvironment();
+
+        // Get response
+        GEResponse response = this.send(this.eOnline, "sendEmail",
+                                        comms -> comms.sendEmail(payload));
+
+        return this.validateEmailResponse(response);
+    }
+
+    /**
+     * Sends a single bulk email request for a batch of recipients.
+     * Never throws; failures are reported in the results instead.
+     * @param batch Batch to send. Should have at most
+     *              GEComms.MAX_EMAIL_RECIPIENTS recipients.
+     * @return Result for each recipient in the batch.
+     */
+    private List<ESendResult> sendEmailBatch(ESendBulkPayload batch) {
+        String error = null;
+
+        try {
+            GEResponse response = this.send(this.eOnline, "sendBulkEmail",
+                                            comms -> comms.sendBulkEmail(batch));
+
+            this.validateEmailResponse(response);
+        } catch (GECommsException | IllegalStateException | NullPointerException e) {
+            error = e.getMessage();
+        }
+
+        List<ESendResult> ret = new ArrayList<>(batch.recipients().size());
+
+        for (String recipient : batch.recipients()) {
+            ret.add(new ESendResult(recipient, error == null, error));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Makes the idempotency key of a batch of a bulk email send.
+     * @param key Idempotency key of the whole send; null if none.
+     * @param batch Index of the batch.
+     * @param recipients Number of recipients in the whole send.
+     * @return Key of the batch; the key itself if there is only one batch.
+     */
+    private static String batchKey(String key, int batch, int recipients) {
+        if (key == null || recipients <= GEComms.MAX_EMAIL_RECIPIENTS) {
+            return key;
+        }
+
+        return key + "-" + batch;
+    }
+
+    /**
+     * Sends the same email separately to each recipient. Recipients are
+     * de-duplicated and packed into as few requests as possible
+     * (up to GEComms.MAX_EMAIL_RECIPIENTS each), which are sent concurrently.
+     * @param payload Data to make requests with.
+     * @return Result for each distinct recipient, in the order given.
+     * @throws GECommsException If something goes wrong before any sending (i.e.
+     *                          bad payload or missing environment variables).
+     */
+    @Override
+    public List<ESendResult> sendBulkEmail(ESendBulkPayload payload) throws GECommsException {
+        if (payload == null || payload.recipients() == null) {
+            throw new GECommsException(-1, "No recipients given for bulk email send.");
+        }
+
+        // If online, ensure we have API keys
+        this.checkEmailEnvironment();
+
+        // De-duplicate, keeping order; reject blank recipients up front
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(payload.recipients());
+        List<String> recipients = new ArrayList<>();
+        Map<String, ESendResult> results = new HashMap<>();
+
+        for (String recipient : distinct) {
+            if (recipient == null || recipient.isBlank()) {
+                results.put(recipient, new ESendResult(recipient, false, "Blank recipient."));
+            } else {
+                recipients.add(recipient);
+            }
+        }
+
+        // Pack into batches, send concurrently
+        List<CompletableFuture<List<ESendResult>>> batches = new ArrayList<>();
+
+        for (int i = 0; i < recipients.size(); i += GEComms.MAX_EMAIL_RECIPIENTS) {
+            List<String> batchRecipients =
+                    List.copyOf(recipients.subList(i, Math.min(i + GEComms.MAX_EMAIL_RECIPIENTS,
+                                                               recipients.size())));
+            ESendBulkPayload batch = new ESendBulkPayload(batchRecipients,
+                                                          payload.tag(),
+                                                          payload.content(),
+                                                          batchKey(payload.idempotencyKey(),
+                                                                   i / GEComms.MAX_EMAIL_RECIPIENTS,
+                                                                   recipients.size()));
+
+            batches.add(CompletableFuture.supplyAsync(
+                    GEDeadline.wrapSupplier(
+                            GETracer.wrapSupplier("emailBatch", "comms", () -> this.sendEmailBatch(batch))),
+                    this.bulkPool));
+        }
+
+        // Gather results, in the order recipients were given
+        for (CompletableFuture<List<ESendResult>> batch : batches) {
+            for (ESendResult result : batch.join()) {
+                results.put(result.recipient(), result);
+            }
+        }
+
+        List<ESendResult> ret = new ArrayList<>(distinct.size());
+
+        for (String recipient : distinct) {
+            ret.add(results.get(recipient));
+        }
+
+        return ret;
+    }
+
     // Reddit Operations
     /**
      * Attempts to get a Reddit access token; if successful, stores it internally for
@@ -389,16 +677,11 @@ public class GECommsManagerImpl implements GECommsManager {
         }
 
         // Get token response
-        GEResponse tokResponse;
-
-        if (this.rOnline) {
-            tokResponse = this.onlineComms.getRedditToken(tokenPayload);
-        } else {
-            tokResponse = this.offlineComms.getRedditToken(tokenPayload);
-        }
+        GEResponse tokResponse = this.send(this.rOnline, "getRedditToken",
+                                           comms -> comms.getRedditToken(tokenPayload));
 
         // Parse token response
-        JsonObject tokRet = this.parser.parseResponse(tokResponse.body());
+        JsonObject tokRet = this.parse(tokResponse.body());
 
         // Check for errors
         if (tokRet == null) {
@@ -447,13 +730,8 @@ public class GECommsManagerImpl implements GECommsManager {
         }
 
         // Get post response
-        GEResponse postResponse;
-
-        if (this.rOnline) {
-            postResponse = this.onlineComms.postReddit(postPayload);
-        } else {
-            postResponse = this.offlineComms.postReddit(postPayload);
-        }
+        GEResponse postResponse = this.send(this.rOnline, "postReddit",
+                                            comms -> comms.postReddit(postPayload));
 
         // Check for errors
         if (postResponse.statusCode() >= 400 && postResponse.statusCode() <= 599) {
@@ -0,0 +1,32 @@
+package model.comms.payloads;
+
+import model.items.GContent;
+import model.items.GTag;
+
+import java.util.List;
+
+/**
+ * Data content to send with a bulk email send request; the same
+ * email is sent separately to each recipient.
+ * @param recipients Email addresses of recipients.
+ * @param tag Tag associated with content being sent.
+ * @param content List of content items to send.
+ * @param idempotencyKey Key identifying this send, the same on every retry of
+ *                       it, so APIs honouring it send it only once. Null if none.
+ */
+public record ESendBulkPayload(
+        List<String> recipients,
+        GTag tag,
+        List<GContent> content,
+        String idempotencyKey
+) {
+    /**
+     * Creates a payload without an idempotency key.
+     * @param recipients Email addresses of recipients.
+     * @param tag Tag associated with content being sent.
+     * @param content List of content items to send.
+     */
+    public ESendBulkPayload(List<String> recipients, GTag tag, List<GContent> content) {
+        this(recipients, tag, content, null);
+    }
+}
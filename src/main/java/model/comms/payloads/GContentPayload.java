@@ -8,10 +8,23 @@ import model.items.GTag;
  * @param query Query for content.
  * @param page Page of content to search on.
  * @param pageSize How big a page should be.
+ * @param orderBy Order of content (e.g. "newest"); null for the API's default.
  */
 public record GContentPayload(
         GTag tag,
         String query,
         int page,
-        int pageSize
-) { }
+        int pageSize,
+        String orderBy
+) {
+    /**
+     * Creates a payload for content in the API's default order.
+     * @param tag Tag for content being searched for.
+     * @param query Query for content.
+     * @param page Page of content to search on.
+     * @param pageSize How big a page should be.
+     */
+    public GContentPayload(GTag tag, String query, int page, int pageSize) {
+        this(tag, query, page, pageSize, null);
+    }
+}
@@ -11,10 +11,24 @@ import java.util.List;
  * @param token Token to authenticate with. If null, means no token.
  * @param tag Tag associated with the content.
  * @param content List of content to post.
+ * @param idempotencyKey Key identifying this post, the same on every retry of
+ *                       it, so APIs honouring it post it only once. Null if none.
  */
 public record RPostPayload (
         String username,
         String token,
         GTag tag,
-        List<GContent> content
-){ }
+        List<GContent> content,
+        String idempotencyKey
+){
+    /**
+     * Creates a payload without an idempotency key.
+     * @param username Username of posting account.
+     * @param token Token to authenticate with. If null, means no token.
+     * @param tag Tag associated with the content.
+     * @param content List of content to post.
+     */
+    public RPostPayload(String username, String token, GTag tag, List<GContent> content) {
+        this(username, token, tag, content, null);
+    }
+}
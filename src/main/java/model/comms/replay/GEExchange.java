@@ -0,0 +1,19 @@
+package model.comms.replay;
+
+/**
+ * A recorded request to an API and what came back.
+ * @param method Driver method the request was made with (e.g. "getTags").
+ * @param request Key identifying the request within its method.
+ * @param statusCode Status code of the response, or the exception's code if failed.
+ * @param latencyMicros How long the request took, in microseconds.
+ * @param body Body of the response, or the exception's message if failed.
+ * @param failed Whether the request failed with an exception rather than giving a response.
+ */
+public record GEExchange(
+        String method,
+        String request,
+        int statusCode,
+        long latencyMicros,
+        String body,
+        boolean failed
+) { }
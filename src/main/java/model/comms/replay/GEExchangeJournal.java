@@ -0,0 +1,259 @@
+package model.comms.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import model.comms.payloads.*;
+import model.items.GContent;
+import model.items.GTag;
+import model.util.GEJournalFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal file of recorded API exchanges. Each line of the
+ * journal is a compact JSON object holding one exchange. Requests are
+ * identified by keys made from their payloads; keys leave out secrets
+ * (passwords, access tokens), so journals are safe to share.
+ */
+public class GEExchangeJournal {
+    private Path path; // Path to journal file
+    private BufferedWriter writer; // Open appending writer; null until first needed
+
+    /**
+     * Creates an exchange journal. The file is created on the first
+     * write if it doesn't exist.
+     * @param path Path to journal file.
+     */
+    public GEExchangeJournal(String path) {
+        this.path = Paths.get(path);
+        this.writer = null;
+    }
+
+    // Request Keys
+    /**
+     * Makes the key of a tags request.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(GTagPayload payload) {
+        JsonObject jo = new JsonObject();
+        jo.add("query", new JsonPrimitive(String.valueOf(payload.query())));
+        jo.add("page", new JsonPrimitive(payload.page()));
+        jo.add("pageSize", new JsonPrimitive(payload.pageSize()));
+
+        return jo.toString();
+    }
+
+    /**
+     * Makes the key of a content request.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(GContentPayload payload) {
+        JsonObject jo = new JsonObject();
+        jo.add("tag", new JsonPrimitive(tagId(payload.tag())));
+        jo.add("query", new JsonPrimitive(String.valueOf(payload.query())));
+        jo.add("page", new JsonPrimitive(payload.page()));
+        jo.add("pageSize", new JsonPrimitive(payload.pageSize()));
+        jo.add("orderBy", new JsonPrimitive(String.valueOf(payload.orderBy())));
+
+        return jo.toString();
+    }
+
+    /**
+     * Makes the key of an email request.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(ESendPayload payload) {
+        JsonObject jo = new JsonObject();
+        jo.add("recipient", new JsonPrimitive(String.valueOf(payload.recipient())));
+        jo.add("tag", new JsonPrimitive(tagId(payload.tag())));
+        jo.add("content", contentIds(payload.content()));
+
+        return jo.toString();
+    }
+
+    /**
+     * Makes the key of a bulk email request.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(ESendBulkPayload payload) {
+        JsonArray recipients = new JsonArray();
+        payload.recipients().forEach(recipients::add);
+
+        JsonObject jo = new JsonObject();
+        jo.add("recipients", recipients);
+        jo.add("tag", new JsonPrimitive(tagId(payload.tag())));
+        jo.add("content", contentIds(payload.content()));
+
+        return jo.toString();
+    }
+
+    /**
+     * Makes the key of a Reddit token request. The password is left out.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(RTokenPayload payload) {
+        JsonObject jo = new JsonObject();
+        jo.add("username", new JsonPrimitive(String.valueOf(payload.username())));
+
+        return jo.toString();
+    }
+
+    /**
+     * Makes the key of a Reddit post request. The token is left out.
+     * @param payload Payload of request.
+     * @return Request key.
+     */
+    public static String requestKey(RPostPayload payload) {
+        JsonObject jo = new JsonObject();
+        jo.add("username", new JsonPrimitive(String.valueOf(payload.username())));
+        jo.add("tag", new JsonPrimitive(tagId(payload.tag())));
+        jo.add("content", contentIds(payload.content()));
+
+        return jo.toString();
+    }
+
+    /**
+     * Returns a tag's ID for a request key.
+     * @param tag Tag.
+     * @return Tag's ID; "null" if no tag.
+     */
+    private static String tagId(GTag tag) {
+        return tag == null ? "null" : String.valueOf(tag.id());
+    }
+
+    /**
+     * Returns the IDs of content for a request key.
+     * @param content Content.
+     * @return Array of content IDs.
+     */
+    private static JsonArray contentIds(List<GContent> content) {
+        JsonArray ret = new JsonArray();
+
+        if (content != null) {
+            for (GContent c : content) {
+                ret.add(c.id());
+            }
+        }
+
+        return ret;
+    }
+
+    // Journal Methods
+    /**
+     * Appends an exchange to the journal. If the journal ends with an
+     * unfinished line, it is ended first, so the exchange isn't joined onto it.
+     * @param exchange Exchange to append. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    public synchronized boolean append(GEExchange exchange) {
+        if (exchange == null) {
+            return false;
+        }
+
+        JsonObject record = new JsonObject();
+        record.add("m", new JsonPrimitive(exchange.method()));
+        record.add("q", new JsonPrimitive(exchange.request()));
+        record.add("s", new JsonPrimitive(exchange.statusCode()));
+        record.add("l", new JsonPrimitive(exchange.latencyMicros()));
+        record.add("b", new JsonPrimitive(exchange.body() == null ? "" : exchange.body()));
+
+        if (exchange.failed()) {
+            record.add("f", new JsonPrimitive(true));
+        }
+
+        try {
+            if (this.writer == null) {
+                boolean torn = GEJournalFiles.endsMidLine(this.path);
+                this.writer = Files.newBufferedWriter(this.path,
+                                                      StandardCharsets.UTF_8,
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.APPEND);
+
+                if (torn) {
+                    this.writer.newLine();
+                }
+            }
+
+            this.writer.write(record.toString());
+            this.writer.newLine();
+            this.writer.flush();
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads every exchange in the journal, in the order recorded.
+     * Unreadable records (e.g. a line cut short by a crash) are skipped.
+     * @return Exchanges recorded. Empty list if nothing recorded,
+     *         null if an error occurred.
+     */
+    public synchronized List<GEExchange> load() {
+        List<GEExchange> ret = new ArrayList<>();
+
+        if (!Files.exists(this.path)) {
+            return ret;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(this.path, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+                    ret.add(new GEExchange(
+                            record.get("m").getAsString(),
+                            record.get("q").getAsString(),
+                            record.get("s").getAsInt(),
+                            record.get("l").getAsLong(),
+                            record.get("b").getAsString(),
+                            record.has("f") && record.get("f").getAsBoolean()
+                    ));
+                } catch (JsonParseException | IllegalStateException |
+                         NullPointerException | UnsupportedOperationException |
+                         NumberFormatException e) {
+                    // Bad record; skip it
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Closes the journal file.
+     */
+    public synchronized void close() {
+        if (this.writer != null) {
+            try {
+                this.writer.close();
+            } catch (IOException e) {
+                // Nothing more to do; writer is unusable either way
+            }
+
+            this.writer = null;
+        }
+    }
+}
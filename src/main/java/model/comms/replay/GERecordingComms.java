@@ -0,0 +1,177 @@
+package model.comms.replay;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import model.comms.drivers.GEComms;
+import model.comms.drivers.GEResponse;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.*;
+
+/**
+ * Wraps another driver (normally the online one), recording each request
+ * made through it, along with its response (or failure) and how long it
+ * took, to an exchange journal. Responses are passed back unchanged.
+ * Access tokens in Reddit token responses are replaced in the journal.
+ * @see GEReplayComms For serving recorded exchanges back.
+ */
+public class GERecordingComms implements GEComms {
+    // Stands in for recorded access tokens
+    private static final String RECORDED_TOKEN = "recorded-token";
+
+    /**
+     * A request to the wrapped driver.
+     */
+    @FunctionalInterface
+    private interface Request {
+        /**
+         * Makes the request.
+         * @return Response data.
+         * @throws GECommsException If something goes wrong (code or request related).
+         */
+        GEResponse make() throws GECommsException;
+    }
+
+    private GEComms wrapped;
+    private GEExchangeJournal journal;
+
+    /**
+     * Creates a recording driver.
+     * @param wrapped Driver to make requests with.
+     * @param journal Journal to record exchanges to.
+     */
+    public GERecordingComms(GEComms wrapped, GEExchangeJournal journal) {
+        this.wrapped = wrapped;
+        this.journal = journal;
+    }
+
+    /**
+     * Makes a request through the wrapped driver, timing and recording it.
+     * @param method Name of driver method.
+     * @param key Request key.
+     * @param request Request to make.
+     * @return Response data.
+     * @throws GECommsException If the wrapped driver throws; recorded first.
+     */
+    private GEResponse record(String method, String key, Request request) throws GECommsException {
+        long start = System.nanoTime();
+
+        try {
+            GEResponse response = request.make();
+            long micros = (System.nanoTime() - start) / 1000;
+
+            String body = method.equals("getRedditToken") && response.body() != null ?
+                          redactToken(response.body()) :
+                          response.body();
+
+            this.journal.append(new GEExchange(method, key, response.statusCode(),
+                                               micros, body, false));
+
+            return response;
+        } catch (GECommsException e) {
+            long micros = (System.nanoTime() - start) / 1000;
+            this.journal.append(new GEExchange(method, key, e.getCode(),
+                                               micros, e.getMsg(), true));
+
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the access token in a token response.
+     * @param body Token response body.
+     * @return Body without the real access token; as is if not JSON.
+     */
+    private static String redactToken(String body) {
+        try {
+            JsonElement je = JsonParser.parseString(body);
+
+            if (je.isJsonObject() && je.getAsJsonObject().has("access_token")) {
+                JsonObject jo = je.getAsJsonObject();
+                jo.add("access_token", new JsonPrimitive(RECORDED_TOKEN));
+                return jo.toString();
+            }
+        } catch (JsonParseException e) {
+            // Not JSON; nothing to redact
+        }
+
+        return body;
+    }
+
+    // The Guardian Data
+    /**
+     * Requests tags based on the payload, recording the exchange.
+     * @param payload Payload to pass to request.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getTags(GTagPayload payload) throws GECommsException {
+        return this.record("getTags", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.getTags(payload));
+    }
+
+    /**
+     * Requests content based on the payload, recording the exchange.
+     * @param payload Payload to pass to request.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getContent(GContentPayload payload) throws GECommsException {
+        return this.record("getContent", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.getContent(payload));
+    }
+
+    // Email Data
+    /**
+     * Makes an email send request, recording the exchange.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendEmail(ESendPayload payload) throws GECommsException {
+        return this.record("sendEmail", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.sendEmail(payload));
+    }
+
+    /**
+     * Makes a bulk email send request, recording the exchange.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) throws GECommsException {
+        return this.record("sendBulkEmail", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.sendBulkEmail(payload));
+    }
+
+    // Reddit
+    /**
+     * Gets a reddit access token, recording the exchange (without the token).
+     * @param payload Access data.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getRedditToken(RTokenPayload payload) throws GECommsException {
+        return this.record("getRedditToken", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.getRedditToken(payload));
+    }
+
+    /**
+     * Sends a request to post to reddit, recording the exchange.
+     * @param payload Data to make request with.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse postReddit(RPostPayload payload) throws GECommsException {
+        return this.record("postReddit", GEExchangeJournal.requestKey(payload),
+                           () -> this.wrapped.postReddit(payload));
+    }
+}
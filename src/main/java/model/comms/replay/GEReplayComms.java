@@ -0,0 +1,157 @@
+package model.comms.replay;
+
+import model.comms.drivers.GEComms;
+import model.comms.drivers.GEResponse;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.*;
+import model.util.SleepModule;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acts as the APIs by serving back recorded exchanges, so that the rest
+ * of the application can be run and timed against real traffic without
+ * network access. Each request gets the response recorded for the same
+ * request; a request recorded several times gets its responses in the
+ * order recorded, then keeps getting the last one. Recorded failures are
+ * thrown again. Recorded latency can be reproduced as is, scaled, or left
+ * out entirely.
+ * @see GERecordingComms For recording exchanges.
+ */
+public class GEReplayComms implements GEComms {
+    // Response given to requests never recorded
+    private static final String NOT_RECORDED_BODY =
+            "{\"response\": {\"status\": \"error\", " +
+            "\"message\": \"No response was recorded for this request.\"}}";
+
+    private Map<String, Deque<GEExchange>> exchanges; // "method request" -> exchanges left
+    private double latencyScale;
+    private SleepModule sleeper;
+
+    /**
+     * Creates a replay driver.
+     * @param recorded Exchanges to serve, in the order recorded.
+     * @param latencyScale Multiplier of recorded latency; 1 for as recorded,
+     *                     0 for no delay at all.
+     * @param sleeper Sleep module for reproducing latency.
+     */
+    public GEReplayComms(List<GEExchange> recorded, double latencyScale, SleepModule sleeper) {
+        this.exchanges = new HashMap<>();
+        this.latencyScale = Math.max(latencyScale, 0);
+        this.sleeper = sleeper;
+
+        for (GEExchange exchange : recorded) {
+            this.exchanges.computeIfAbsent(exchange.method() + " " + exchange.request(),
+                                           k -> new ArrayDeque<>())
+                          .addLast(exchange);
+        }
+    }
+
+    /**
+     * Serves the next recorded exchange for a request, after its (scaled) latency.
+     * @param method Name of driver method.
+     * @param key Request key.
+     * @return Recorded response; 404 if none recorded.
+     * @throws GECommsException If the recorded request failed.
+     */
+    private GEResponse replay(String method, String key) throws GECommsException {
+        GEExchange exchange;
+
+        synchronized (this.exchanges) {
+            Deque<GEExchange> left = this.exchanges.get(method + " " + key);
+
+            if (left == null) {
+                return new GEResponse(NOT_RECORDED_BODY, 404);
+            }
+
+            // Keep the last one to serve to any repeats
+            exchange = left.size() > 1 ? left.pollFirst() : left.peekFirst();
+        }
+
+        long delayMs = Math.round(exchange.latencyMicros() * this.latencyScale / 1000);
+
+        if (delayMs > 0 && !this.sleeper.sleep(delayMs)) {
+            // Keep interrupt for caller
+            Thread.currentThread().interrupt();
+        }
+
+        if (exchange.failed()) {
+            throw new GECommsException(exchange.statusCode(), exchange.body());
+        }
+
+        return new GEResponse(exchange.body(), exchange.statusCode());
+    }
+
+    // The Guardian Data
+    /**
+     * Serves the recorded tags response for the payload.
+     * @param payload Payload to pass to request.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getTags(GTagPayload payload) throws GECommsException {
+        return this.replay("getTags", GEExchangeJournal.requestKey(payload));
+    }
+
+    /**
+     * Serves the recorded content response for the payload.
+     * @param payload Payload to pass to request.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getContent(GContentPayload payload) throws GECommsException {
+        return this.replay("getContent", GEExchangeJournal.requestKey(payload));
+    }
+
+    // Email Data
+    /**
+     * Serves the recorded email send response for the payload.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendEmail(ESendPayload payload) throws GECommsException {
+        return this.replay("sendEmail", GEExchangeJournal.requestKey(payload));
+    }
+
+    /**
+     * Serves the recorded bulk email send response for the payload.
+     * @param payload Data to make request with.
+     * @return Response data; if successful, should be empty.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse sendBulkEmail(ESendBulkPayload payload) throws GECommsException {
+        return this.replay("sendBulkEmail", GEExchangeJournal.requestKey(payload));
+    }
+
+    // Reddit
+    /**
+     * Serves the recorded reddit token response for the payload.
+     * @param payload Access data.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse getRedditToken(RTokenPayload payload) throws GECommsException {
+        return this.replay("getRedditToken", GEExchangeJournal.requestKey(payload));
+    }
+
+    /**
+     * Serves the recorded reddit post response for the payload.
+     * @param payload Data to make request with.
+     * @return Response data.
+     * @throws GECommsException If something goes wrong (code or request related).
+     */
+    @Override
+    public GEResponse postReddit(RPostPayload payload) throws GECommsException {
+        return this.replay("postReddit", GEExchangeJournal.requestKey(payload));
+    }
+}
@@ -0,0 +1,193 @@
+package model.comms.util;
+
+import model.comms.exceptions.GETimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Deadline of an operation, which every request made for it has to finish
+ * by. The current deadline is kept per thread, like the current tracing
+ * span: the system starts one for each operation, and the comms manager
+ * and drivers below it bound their requests by what is left of it. It is
+ * carried across executors by wrapping tasks as they are submitted. A
+ * deadline started within another never outlasts it.
+ */
+public final class GEDeadline implements AutoCloseable {
+    // Current deadline of each thread; unset if none
+    private static final ThreadLocal<GEDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String operation; // Operation the deadline is for
+    private final long expiresAtNanos; // System.nanoTime() the deadline passes at
+    private final GEDeadline previous; // Deadline current before this; null if none
+
+    /**
+     * Creates a deadline.
+     * @param operation Operation the deadline is for.
+     * @param expiresAtNanos When the deadline passes, in System.nanoTime().
+     * @param previous Deadline current before this; null if none.
+     */
+    private GEDeadline(String operation, long expiresAtNanos, GEDeadline previous) {
+        this.operation = operation;
+        this.expiresAtNanos = expiresAtNanos;
+        this.previous = previous;
+    }
+
+    // Deadlines
+    /**
+     * Starts a deadline for an operation, and makes it current until closed.
+     * If there already is a current deadline that passes sooner, the new
+     * one passes with it. Use with try-with-resources.
+     * @param operation Name of operation.
+     * @param timeout Longest the operation can take.
+     * @return Deadline started.
+     */
+    public static GEDeadline start(String operation, Duration timeout) {
+        GEDeadline outer = CURRENT.get();
+        long expiresAt = System.nanoTime() + timeout.toNanos();
+
+        if (outer != null && outer.expiresAtNanos - expiresAt < 0) {
+            expiresAt = outer.expiresAtNanos;
+        }
+
+        GEDeadline ret = new GEDeadline(operation, expiresAt, outer);
+        CURRENT.set(ret);
+
+        return ret;
+    }
+
+    /**
+     * Returns the current deadline of the calling thread.
+     * @return Current deadline; null if none.
+     */
+    public static GEDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bounds a timeout by what is left of the current deadline, if any.
+     * @param timeout Timeout to bound.
+     * @return The shorter of the timeout and the time left.
+     * @throws GETimeoutException If the current deadline has already passed.
+     */
+    public static Duration bound(Duration timeout) throws GETimeoutException {
+        GEDeadline deadline = CURRENT.get();
+
+        if (deadline == null) {
+            return timeout;
+        }
+
+        Duration remaining = deadline.remaining();
+
+        if (remaining.isZero()) {
+            throw deadline.expired();
+        }
+
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Throws if the current deadline, if any, has passed.
+     * @throws GETimeoutException If the current deadline has passed.
+     */
+    public static void check() throws GETimeoutException {
+        GEDeadline deadline = CURRENT.get();
+
+        if (deadline != null && deadline.remaining().isZero()) {
+            throw deadline.expired();
+        }
+    }
+
+    /**
+     * Returns the name of the operation the deadline is for.
+     * @return Name of operation.
+     */
+    public String getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     * @return Time left; zero if passed.
+     */
+    public Duration remaining() {
+        long left = this.expiresAtNanos - System.nanoTime();
+        return left > 0 ? Duration.ofNanos(left) : Duration.ZERO;
+    }
+
+    /**
+     * Makes the exception for the deadline having passed.
+     * @return Exception.
+     */
+    public GETimeoutException expired() {
+        return new GETimeoutException("Deadline of " + this.operation + " passed.");
+    }
+
+    /**
+     * Makes the deadline current before this one current again, if this
+     * is still the current one.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+
+        if (this.previous != null) {
+            CURRENT.set(this.previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    // Propagation
+    /**
+     * Runs a task with a given deadline current.
+     * @param deadline Deadline to make current; null for none.
+     * @param task Task to run.
+     * @param <T> Type of task result.
+     * @return Result of task.
+     * @throws Exception If the task throws.
+     */
+    private static <T> T within(GEDeadline deadline, Callable<T> task) throws Exception {
+        GEDeadline outer = CURRENT.get();
+        CURRENT.set(deadline);
+
+        try {
+            return task.call();
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Wraps a task to be run on another thread with the calling thread's
+     * current deadline.
+     * @param task Task to wrap.
+     * @param <T> Type of task result.
+     * @return Wrapped task; the task itself if there is no current deadline.
+     */
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> task) {
+        GEDeadline deadline = CURRENT.get();
+
+        if (deadline == null) {
+            return task;
+        }
+
+        return () -> {
+            try {
+                return within(deadline, task::get);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                // Suppliers can't throw checked exceptions; never reached
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package model.comms.util;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import model.jfr.GEJsonParseEvent;
 
 /**
  * Implementation of a JSON parser.
@@ -20,10 +21,22 @@ public class JSONParserImpl implements JSONParser {
             return null;
         }
 
+        GEJsonParseEvent event = new GEJsonParseEvent();
+        event.begin();
+
         try {
-            return JsonParser.parseString(response).getAsJsonObject();
+            JsonObject ret = JsonParser.parseString(response).getAsJsonObject();
+            event.parsed = true;
+            return ret;
         } catch (JsonParseException e) {
             return null;
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.length = response.length();
+                event.commit();
+            }
         }
     }
 }
@@ -2,6 +2,8 @@ package model.db;
 
 import model.items.GTag;
 
+import java.util.List;
+
 /**
  * Interface for interactions with a database.
  */
@@ -40,4 +42,10 @@ public interface GEDatabase {
      * @return Whether clear was successful or not.
      */
     public boolean clearCachedContent();
+
+    /**
+     * Returns the IDs of all tags that have cached content.
+     * @return Tag IDs, in no particular order. If an error, returns null.
+     */
+    public List<String> getCachedTagIds();
 }
@@ -2,8 +2,11 @@ package model.db;
 
 import model.db.exceptions.GEDatabaseException;
 import model.items.GTag;
+import model.jfr.GEDatabaseEvent;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Implementation of GEDatabase using SQLite.
@@ -52,12 +55,18 @@ public class GEDatabaseSQLite implements GEDatabase {
                 );
                 """;
 
+        GEDatabaseEvent event = new GEDatabaseEvent("setupDB");
+        event.begin();
+
         try (Connection c = DriverManager.getConnection(dbUrl);
              Statement s = c.createStatement()) {
             s.execute(createCacheTable);
+            event.outcome = "ok";
             return true;
         } catch (SQLException e) {
             return false;
+        } finally {
+            event.commit();
         }
     }
 
@@ -95,6 +104,9 @@ public class GEDatabaseSQLite implements GEDatabase {
                 )
                 """;
 
+        GEDatabaseEvent event = new GEDatabaseEvent("cacheContent");
+        event.begin();
+
         try (Connection c = DriverManager.getConnection(dbUrl);
              PreparedStatement s = c.prepareStatement(addQuery)) {
             // Set params
@@ -105,9 +117,12 @@ public class GEDatabaseSQLite implements GEDatabase {
 
             s.execute();
 
+            event.outcome = "ok";
             return true;
         } catch (SQLException e) {
             return false;
+        } finally {
+            event.commit();
         }
     }
 
@@ -138,6 +153,9 @@ public class GEDatabaseSQLite implements GEDatabase {
                 WHERE tag_id = ? AND query = ? AND page = ?;
                 """;
 
+        GEDatabaseEvent event = new GEDatabaseEvent("getCachedContent");
+        event.begin();
+
         try (Connection c = DriverManager.getConnection(dbUrl);
              PreparedStatement s = c.prepareStatement(search)) {
             // Set params
@@ -149,13 +167,18 @@ public class GEDatabaseSQLite implements GEDatabase {
 
             if (res.next()) {
                 // Success! Data is present
-                return res.getString("content");
+                String content = res.getString("content");
+                event.outcome = "hit";
+                return content;
             } else {
                 // No data found
+                event.outcome = "miss";
                 return "";
             }
         } catch (SQLException e) {
             return null;
+        } finally {
+            event.commit();
         }
     }
 
@@ -169,12 +192,51 @@ public class GEDatabaseSQLite implements GEDatabase {
                 DELETE FROM ContentCache;
                 """;
 
+        GEDatabaseEvent event = new GEDatabaseEvent("clearCachedContent");
+        event.begin();
+
         try (Connection c = DriverManager.getConnection(dbUrl);
              Statement s = c.createStatement()) {
             s.execute(clearQuery);
+            event.outcome = "ok";
             return true;
         } catch (SQLException e) {
             return false;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the IDs of all tags that have cached content.
+     * @return Tag IDs, in no particular order. If an error, returns null.
+     */
+    @Override
+    public List<String> getCachedTagIds() {
+        String search =
+                """
+                SELECT DISTINCT tag_id
+                FROM ContentCache;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("getCachedTagIds");
+        event.begin();
+
+        try (Connection c = DriverManager.getConnection(dbUrl);
+             Statement s = c.createStatement()) {
+            ResultSet res = s.executeQuery(search);
+            List<String> ret = new ArrayList<>();
+
+            while (res.next()) {
+                ret.add(res.getString("tag_id"));
+            }
+
+            event.outcome = "ok";
+            return ret;
+        } catch (SQLException e) {
+            return null;
+        } finally {
+            event.commit();
         }
     }
-}
+}
\ No newline at end of file
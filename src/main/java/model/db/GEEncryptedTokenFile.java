@@ -0,0 +1,213 @@
+package model.db;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import model.items.RedditSession;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Implementation of GERedditTokenStore keeping the login in a file,
+ * encrypted with AES-GCM. The key is derived from a secret (e.g. the
+ * Reddit API secret) with PBKDF2 and a random salt, so the file is no
+ * use without the secret; it is also only readable by its owner where
+ * the file system allows. A file that has been tampered with, or was
+ * written with another secret, reads as nothing stored.
+ * @see GERedditTokenStore
+ */
+public class GEEncryptedTokenFile implements GERedditTokenStore {
+    // Version of the file format
+    private static final int VERSION = 1;
+    // PBKDF2 iterations to derive the key with
+    private static final int KEY_ITERATIONS = 65536;
+    // Sizes of key, salt and IV, in bits/bytes
+    private static final int KEY_BITS = 256;
+    private static final int SALT_BYTES = 16;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    // Bound into the encryption, so the data can't be passed off as another file's
+    private static final byte[] ASSOCIATED_DATA = "ge-reddit-token".getBytes(StandardCharsets.UTF_8);
+
+    private Path path; // Path to token file
+    private char[] secret;
+    private SecureRandom random;
+
+    /**
+     * Creates an encrypted token file store. The file is created on the
+     * first save if it doesn't exist.
+     * @param path Path to token file.
+     * @param secret Secret to derive the encryption key from. Cannot be null.
+     */
+    public GEEncryptedTokenFile(String path, String secret) {
+        this.path = Paths.get(path);
+        this.secret = secret.toCharArray();
+        this.random = new SecureRandom();
+    }
+
+    // Encryption
+    /**
+     * Derives the encryption key.
+     * @param salt Salt to derive with.
+     * @return Key.
+     * @throws GeneralSecurityException If key derivation is unavailable.
+     */
+    private SecretKeySpec deriveKey(byte[] salt) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(this.secret, salt, KEY_ITERATIONS, KEY_BITS);
+
+        try {
+            byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                                         .generateSecret(spec)
+                                         .getEncoded();
+            return new SecretKeySpec(key, "AES");
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Makes a cipher for the file.
+     * @param mode Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE.
+     * @param salt Salt to derive the key with.
+     * @param iv IV to use.
+     * @return Cipher.
+     * @throws GeneralSecurityException If encryption is unavailable.
+     */
+    private Cipher cipher(int mode, byte[] salt, byte[] iv) throws GeneralSecurityException {
+        Cipher ret = Cipher.getInstance("AES/GCM/NoPadding");
+        ret.init(mode, this.deriveKey(salt), new GCMParameterSpec(TAG_BITS, iv));
+        ret.updateAAD(ASSOCIATED_DATA);
+
+        return ret;
+    }
+
+    // Store Methods
+    /**
+     * Loads and decrypts the stored login.
+     * @return Stored login; null if nothing stored, or it could not be read
+     *         or decrypted.
+     */
+    @Override
+    public synchronized RedditSession load() {
+        if (!Files.exists(this.path)) {
+            return null;
+        }
+
+        try {
+            JsonObject file = JsonParser.parseString(Files.readString(this.path,
+                                                                      StandardCharsets.UTF_8))
+                                        .getAsJsonObject();
+
+            if (file.get("v").getAsInt() != VERSION) {
+                return null;
+            }
+
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] salt = decoder.decode(file.get("salt").getAsString());
+            byte[] iv = decoder.decode(file.get("iv").getAsString());
+            byte[] data = decoder.decode(file.get("data").getAsString());
+
+            byte[] plain = this.cipher(Cipher.DECRYPT_MODE, salt, iv).doFinal(data);
+            JsonObject session = JsonParser.parseString(new String(plain, StandardCharsets.UTF_8))
+                                           .getAsJsonObject();
+
+            return new RedditSession(session.get("username").getAsString(),
+                                     session.get("token").getAsString(),
+                                     Instant.parse(session.get("expiresAt").getAsString()));
+        } catch (IOException | GeneralSecurityException | JsonParseException |
+                 IllegalStateException | IllegalArgumentException | NullPointerException |
+                 UnsupportedOperationException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Encrypts and stores a login, replacing the file atomically.
+     * @param session Login to store. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public synchronized boolean save(RedditSession session) {
+        if (session == null || session.username() == null ||
+            session.token() == null || session.expiresAt() == null) {
+            return false;
+        }
+
+        JsonObject plain = new JsonObject();
+        plain.add("username", new JsonPrimitive(session.username()));
+        plain.add("token", new JsonPrimitive(session.token()));
+        plain.add("expiresAt", new JsonPrimitive(session.expiresAt().toString()));
+
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] iv = new byte[IV_BYTES];
+        this.random.nextBytes(salt);
+        this.random.nextBytes(iv);
+
+        Path temp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try {
+            byte[] data = this.cipher(Cipher.ENCRYPT_MODE, salt, iv)
+                              .doFinal(plain.toString().getBytes(StandardCharsets.UTF_8));
+
+            Base64.Encoder encoder = Base64.getEncoder();
+            JsonObject file = new JsonObject();
+            file.add("v", new JsonPrimitive(VERSION));
+            file.add("salt", new JsonPrimitive(encoder.encodeToString(salt)));
+            file.add("iv", new JsonPrimitive(encoder.encodeToString(iv)));
+            file.add("data", new JsonPrimitive(encoder.encodeToString(data)));
+
+            Files.deleteIfExists(temp);
+
+            // Owner only, before anything is written to it
+            try {
+                Files.createFile(temp, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString("rw-------")));
+            } catch (UnsupportedOperationException e) {
+                Files.createFile(temp);
+            }
+
+            Files.writeString(temp, file.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, this.path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+
+            return true;
+        } catch (IOException | GeneralSecurityException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ex) {
+                // Nothing more to do; the stored login is unchanged either way
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Removes the token file.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public synchronized boolean clear() {
+        try {
+            Files.deleteIfExists(this.path);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package model.db;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import model.db.exceptions.GEDatabaseException;
+import model.items.GContent;
+import model.items.GTag;
+import model.items.OutboxEntry;
+import model.jfr.GEDatabaseEvent;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Implementation of GEOutboxStore using an SQLite table, which can share
+ * a database file with GEDatabaseSQLite. Sent and failed entries are kept
+ * (marked as such) rather than deleted, as a record of what was sent.
+ * @see GEOutboxStore
+ */
+public class GEOutboxSQLite implements GEOutboxStore {
+    private static final String DB_SUFFIX = "jdbc:sqlite:";
+    // How long to wait for another connection's write to finish (ms)
+    private static final String BUSY_TIMEOUT_MS = "5000";
+    // Statuses of entries
+    private static final String PENDING = "pending";
+    private static final String SENT = "sent";
+    private static final String FAILED = "failed";
+
+    private String dbUrl; // URL to use
+    private Properties dbProps; // Connection properties
+
+    /**
+     * Constructs an outbox store for SQLite, creating its table
+     * if it doesn't exist.
+     * @param path Path to database.
+     * @throws GEDatabaseException If the table cannot be set up (critical error).
+     */
+    public GEOutboxSQLite(String path) {
+        this.dbUrl = DB_SUFFIX + path;
+        this.dbProps = new Properties();
+        this.dbProps.setProperty("busy_timeout", BUSY_TIMEOUT_MS);
+
+        if (!this.setupTable()) {
+            throw new GEDatabaseException(true, "Failed to set up outbox.");
+        }
+    }
+
+    // Core Methods
+    /**
+     * Opens a connection to the database.
+     * @return Connection.
+     * @throws SQLException If a connection cannot be made.
+     */
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(this.dbUrl, this.dbProps);
+    }
+
+    /**
+     * Creates the outbox table (and its index) if it doesn't exist.
+     * @return Whether successful or not.
+     */
+    private boolean setupTable() {
+        String createOutboxTable =
+                """
+                CREATE TABLE IF NOT EXISTS Outbox (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    idem_key TEXT NOT NULL UNIQUE,
+                    kind TEXT NOT NULL,
+                    recipient TEXT,
+                    payload TEXT NOT NULL,
+                    attempts INTEGER NOT NULL,
+                    next_attempt INTEGER NOT NULL,
+                    status TEXT NOT NULL,
+                    last_error TEXT,
+                    batch_key TEXT
+                );
+                """;
+        String createDueIndex =
+                """
+                CREATE INDEX IF NOT EXISTS OutboxDue ON Outbox (status, next_attempt);
+                """;
+        String createBatchIndex =
+                """
+                CREATE INDEX IF NOT EXISTS OutboxBatch ON Outbox (batch_key);
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("setupOutbox");
+        event.begin();
+
+        try (Connection c = this.connect();
+             Statement s = c.createStatement()) {
+            s.execute(createOutboxTable);
+
+            // Tables made before batches were recorded lack the column
+            if (!hasColumn(c, "batch_key")) {
+                s.execute("ALTER TABLE Outbox ADD COLUMN batch_key TEXT;");
+            }
+
+            s.execute(createDueIndex);
+            s.execute(createBatchIndex);
+            event.outcome = "ok";
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns whether the outbox table has a column.
+     * @param c Connection to use.
+     * @param name Name of column.
+     * @return Whether it has the column.
+     * @throws SQLException If the table can't be read.
+     */
+    private static boolean hasColumn(Connection c, String name) throws SQLException {
+        try (Statement s = c.createStatement();
+             ResultSet res = s.executeQuery("PRAGMA table_info(Outbox);")) {
+            while (res.next()) {
+                if (name.equals(res.getString("name"))) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    // Utilities
+    /**
+     * Converts the tag and content of an entry to the JSON stored for it.
+     * @param tag Tag to convert.
+     * @param content Content to convert.
+     * @return JSON form of the payload.
+     */
+    private static String payloadToJson(GTag tag, List<GContent> content) {
+        JsonObject jTag = new JsonObject();
+        jTag.addProperty("id", tag.id());
+        jTag.addProperty("type", tag.type());
+        jTag.addProperty("webTitle", tag.webTitle());
+        jTag.addProperty("webUrl", tag.webUrl());
+        jTag.addProperty("apiUrl", tag.apiUrl());
+
+        JsonArray jContent = new JsonArray();
+
+        for (GContent gc : content) {
+            jContent.add(GEReadingListJournal.contentToJson(gc));
+        }
+
+        JsonObject jo = new JsonObject();
+        jo.add("tag", jTag);
+        jo.add("content", jContent);
+
+        return jo.toString();
+    }
+
+    /**
+     * Returns a string field of JSON.
+     * @param jo JSON to read.
+     * @param name Name of field.
+     * @return Value; null if missing or null.
+     */
+    private static String stringOf(JsonObject jo, String name) {
+        JsonElement je = jo.get(name);
+        return je == null || je.isJsonNull() ? null : je.getAsString();
+    }
+
+    /**
+     * Converts a row of the outbox table back into an entry.
+     * @param res Result set, at the row to convert.
+     * @return Entry.
+     * @throws SQLException If the row can't be read.
+     */
+    private static OutboxEntry rowToEntry(ResultSet res) throws SQLException {
+        JsonObject payload = JsonParser.parseString(res.getString("payload")).getAsJsonObject();
+        JsonObject jTag = payload.getAsJsonObject("tag");
+
+        GTag tag = new GTag(stringOf(jTag, "id"),
+                            stringOf(jTag, "type"),
+                            stringOf(jTag, "webTitle"),
+                            stringOf(jTag, "webUrl"),
+                            stringOf(jTag, "apiUrl"));
+
+        List<GContent> content = new ArrayList<>();
+
+        for (JsonElement je : payload.getAsJsonArray("content")) {
+            content.add(GEReadingListJournal.jsonToContent(je.getAsJsonObject()));
+        }
+
+        return new OutboxEntry(res.getLong("id"),
+                               res.getString("idem_key"),
+                               res.getString("kind"),
+                               res.getString("recipient"),
+                               tag,
+                               content,
+                               res.getInt("attempts"),
+                               Instant.ofEpochMilli(res.getLong("next_attempt")),
+                               res.getString("batch_key"));
+    }
+
+    // Store Methods
+    /**
+     * Adds an entry to the outbox, due straight away, with a new idempotency key.
+     * @param kind What to send; OutboxEntry.EMAIL or OutboxEntry.REDDIT.
+     * @param recipient Email address to send to; null for Reddit posts.
+     * @param tag Tag associated with the content. Cannot be null.
+     * @param content Content to send. Cannot be null.
+     * @return Entry added; null if bad parameters or an error.
+     */
+    @Override
+    public OutboxEntry enqueue(String kind, String recipient, GTag tag, List<GContent> content) {
+        // Error Checking
+        if (kind == null) {
+            return null;
+        } else if (kind.equals(OutboxEntry.EMAIL) && recipient == null) {
+            return null;
+        } else if (tag == null) {
+            return null;
+        } else if (content == null) {
+            return null;
+        }
+
+        String addQuery =
+                """
+                INSERT INTO Outbox (idem_key, kind, recipient, payload, attempts, next_attempt, status)
+                VALUES (?, ?, ?, ?, 0, ?, ?);
+                """;
+
+        String key = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+
+        GEDatabaseEvent event = new GEDatabaseEvent("enqueueOutbox");
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(addQuery, Statement.RETURN_GENERATED_KEYS)) {
+            // Set params
+            s.setString(1, key);
+            s.setString(2, kind);
+            s.setString(3, recipient);
+            s.setString(4, payloadToJson(tag, content));
+            s.setLong(5, now.toEpochMilli());
+            s.setString(6, PENDING);
+
+            s.executeUpdate();
+
+            ResultSet ids = s.getGeneratedKeys();
+
+            if (!ids.next()) {
+                return null;
+            }
+
+            event.outcome = "ok";
+            return new OutboxEntry(ids.getLong(1), key, kind, recipient,
+                                   tag, List.copyOf(content), 0, now, null);
+        } catch (SQLException | NullPointerException e) {
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns pending entries due to be sent, oldest first.
+     * @param now Time to check against.
+     * @param limit Most entries to return.
+     * @return Due entries. If an error, returns null.
+     */
+    @Override
+    public List<OutboxEntry> getDue(Instant now, int limit) {
+        String search =
+                """
+                SELECT *
+                FROM Outbox
+                WHERE status = ? AND next_attempt <= ?
+                ORDER BY id
+                LIMIT ?;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("getDueOutbox");
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(search)) {
+            // Set params
+            s.setString(1, PENDING);
+            s.setLong(2, now.toEpochMilli());
+            s.setInt(3, limit);
+
+            ResultSet res = s.executeQuery();
+            List<OutboxEntry> ret = new ArrayList<>();
+
+            while (res.next()) {
+                ret.add(rowToEntry(res));
+            }
+
+            event.outcome = ret.isEmpty() ? "miss" : "hit";
+            return ret;
+        } catch (SQLException | JsonParseException | IllegalStateException |
+                 ClassCastException | NullPointerException e) {
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the pending entries of a batch of emails.
+     * @param batchKey Idempotency key of the batch.
+     * @return Pending entries of the batch, oldest first. If an error, returns null.
+     */
+    @Override
+    public List<OutboxEntry> getBatch(String batchKey) {
+        String search =
+                """
+                SELECT *
+                FROM Outbox
+                WHERE status = ? AND batch_key = ?
+                ORDER BY id;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("getBatchOutbox");
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(search)) {
+            // Set params
+            s.setString(1, PENDING);
+            s.setString(2, batchKey);
+
+            ResultSet res = s.executeQuery();
+            List<OutboxEntry> ret = new ArrayList<>();
+
+            while (res.next()) {
+                ret.add(rowToEntry(res));
+            }
+
+            event.outcome = ret.isEmpty() ? "miss" : "hit";
+            return ret;
+        } catch (SQLException | JsonParseException | IllegalStateException |
+                 ClassCastException | NullPointerException e) {
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns when the next pending entry is due.
+     * @return When next due; null if nothing pending or an error.
+     */
+    @Override
+    public Instant getNextDue() {
+        String search =
+                """
+                SELECT MIN(next_attempt) AS next_attempt
+                FROM Outbox
+                WHERE status = ?;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("getNextDueOutbox");
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(search)) {
+            s.setString(1, PENDING);
+
+            ResultSet res = s.executeQuery();
+
+            if (res.next()) {
+                long next = res.getLong("next_attempt");
+
+                if (!res.wasNull()) {
+                    event.outcome = "hit";
+                    return Instant.ofEpochMilli(next);
+                }
+            }
+
+            event.outcome = "miss";
+            return null;
+        } catch (SQLException e) {
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Marks an entry as sent, so it is never sent again.
+     * @param id ID of entry.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public boolean markSent(long id) {
+        return this.update("markOutboxSent", id, SENT, null, null, null);
+    }
+
+    /**
+     * Records the batch emails are sent in, so they are retried as that
+     * batch (and only that batch), with the same key.
+     * @param ids IDs of entries in the batch.
+     * @param batchKey Idempotency key of the batch.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public boolean markBatch(List<Long> ids, String batchKey) {
+        if (ids == null || batchKey == null) {
+            return false;
+        }
+
+        String updateQuery =
+                """
+                UPDATE Outbox
+                SET batch_key = ?
+                WHERE id = ? AND status = ?;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent("markOutboxBatch");
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(updateQuery)) {
+            c.setAutoCommit(false);
+
+            for (long id : ids) {
+                s.setString(1, batchKey);
+                s.setLong(2, id);
+                s.setString(3, PENDING);
+                s.addBatch();
+            }
+
+            s.executeBatch();
+            c.commit();
+
+            event.outcome = "ok";
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a failed attempt at sending an entry, leaving it pending.
+     * @param id ID of entry.
+     * @param attempts Failed attempts so far, including this one.
+     * @param nextAttempt When to next try sending it.
+     * @param error Why the attempt failed.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public boolean markRetry(long id, int attempts, Instant nextAttempt, String error) {
+        if (nextAttempt == null) {
+            return false;
+        }
+
+        return this.update("markOutboxRetry", id, PENDING, attempts, nextAttempt, error);
+    }
+
+    /**
+     * Marks an entry as failed, so it is not tried again.
+     * @param id ID of entry.
+     * @param error Why it failed.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public boolean markFailed(long id, String error) {
+        return this.update("markOutboxFailed", id, FAILED, null, null, error);
+    }
+
+    /**
+     * Updates the state of a pending entry. Entries already sent or failed
+     * are left as they are.
+     * @param operation Name of operation, for profiling.
+     * @param id ID of entry.
+     * @param status New status.
+     * @param attempts New number of attempts; null to leave as is.
+     * @param nextAttempt New next attempt time; null to leave as is.
+     * @param error Error to record; null for none.
+     * @return Whether an entry was updated.
+     */
+    private boolean update(String operation,
+                           long id,
+                           String status,
+                           Integer attempts,
+                           Instant nextAttempt,
+                           String error) {
+        String updateQuery =
+                """
+                UPDATE Outbox
+                SET status = ?,
+                    attempts = COALESCE(?, attempts),
+                    next_attempt = COALESCE(?, next_attempt),
+                    last_error = ?
+                WHERE id = ? AND status = ?;
+                """;
+
+        GEDatabaseEvent event = new GEDatabaseEvent(operation);
+        event.begin();
+
+        try (Connection c = this.connect();
+             PreparedStatement s = c.prepareStatement(updateQuery)) {
+            // Set params
+            s.setString(1, status);
+            s.setObject(2, attempts);
+            s.setObject(3, nextAttempt != null ? nextAttempt.toEpochMilli() : null);
+            s.setString(4, error);
+            s.setLong(5, id);
+            s.setString(6, PENDING);
+
+            boolean ret = s.executeUpdate() == 1;
+            event.outcome = ret ? "ok" : "miss";
+
+            return ret;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            event.commit();
+        }
+    }
+}
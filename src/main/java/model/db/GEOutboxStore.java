@@ -0,0 +1,80 @@
+package model.db;
+
+import model.items.GContent;
+import model.items.GTag;
+import model.items.OutboxEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface for durable storage of the outbox; emails and Reddit posts
+ * waiting to be sent. Entries stay pending until marked sent or failed,
+ * so they survive restarts.
+ */
+public interface GEOutboxStore {
+    /**
+     * Adds an entry to the outbox, due straight away, with a new idempotency key.
+     * @param kind What to send; OutboxEntry.EMAIL or OutboxEntry.REDDIT.
+     * @param recipient Email address to send to; null for Reddit posts.
+     * @param tag Tag associated with the content. Cannot be null.
+     * @param content Content to send. Cannot be null.
+     * @return Entry added; null if bad parameters or an error.
+     */
+    public OutboxEntry enqueue(String kind, String recipient, GTag tag, List<GContent> content);
+
+    /**
+     * Returns pending entries due to be sent, oldest first.
+     * @param now Time to check against.
+     * @param limit Most entries to return.
+     * @return Due entries. If an error, returns null.
+     */
+    public List<OutboxEntry> getDue(Instant now, int limit);
+
+    /**
+     * Returns the pending entries of a batch of emails.
+     * @param batchKey Idempotency key of the batch.
+     * @return Pending entries of the batch, oldest first. If an error, returns null.
+     */
+    public List<OutboxEntry> getBatch(String batchKey);
+
+    /**
+     * Returns when the next pending entry is due.
+     * @return When next due; null if nothing pending or an error.
+     */
+    public Instant getNextDue();
+
+    /**
+     * Marks an entry as sent, so it is never sent again.
+     * @param id ID of entry.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean markSent(long id);
+
+    /**
+     * Records the batch emails are sent in, so they are retried as that
+     * batch (and only that batch), with the same key.
+     * @param ids IDs of entries in the batch.
+     * @param batchKey Idempotency key of the batch.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean markBatch(List<Long> ids, String batchKey);
+
+    /**
+     * Records a failed attempt at sending an entry, leaving it pending.
+     * @param id ID of entry.
+     * @param attempts Failed attempts so far, including this one.
+     * @param nextAttempt When to next try sending it.
+     * @param error Why the attempt failed.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean markRetry(long id, int attempts, Instant nextAttempt, String error);
+
+    /**
+     * Marks an entry as failed, so it is not tried again.
+     * @param id ID of entry.
+     * @param error Why it failed.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean markFailed(long id, String error);
+}
@@ -0,0 +1,314 @@
+package model.db;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import model.items.GContent;
+import model.util.GEJournalFiles;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of GEReadingListStore using an append-only journal file.
+ * Each line of the journal is a JSON object recording either an add
+ * (with the full content) or a remove (with just the content ID).
+ * Loading replays the journal from start to finish.
+ * @see GEReadingListStore
+ */
+public class GEReadingListJournal implements GEReadingListStore {
+    // Don't bother compacting journals smaller than this
+    private static final int COMPACT_MIN_RECORDS = 256;
+
+    private Path path; // Path to journal file
+    private BufferedWriter writer; // Open appending writer; null until first needed
+    private int records; // Number of records currently in the journal
+
+    /**
+     * Creates a reading list journal. The file is created on the first
+     * write if it doesn't exist.
+     * @param path Path to journal file.
+     */
+    public GEReadingListJournal(String path) {
+        this.path = Paths.get(path);
+        this.writer = null;
+        this.records = 0;
+    }
+
+    // Utilities
+    /**
+     * Converts content to its JSON form for the journal. Missing (null)
+     * fields are kept as JSON nulls.
+     * @param content Content to convert.
+     * @return JSON form of the content.
+     */
+    static JsonObject contentToJson(GContent content) {
+        JsonObject jo = new JsonObject();
+        jo.addProperty("id", content.id());
+        jo.addProperty("sectionId", content.sectionId());
+        jo.addProperty("sectionName", content.sectionName());
+        jo.addProperty("webPublicationDate", content.webPublicationDate());
+        jo.addProperty("webTitle", content.webTitle());
+        jo.addProperty("webUrl", content.webUrl());
+        jo.addProperty("apiUrl", content.apiUrl());
+        jo.add("pageNum", new JsonPrimitive(content.pageNum()));
+        jo.add("totalPages", new JsonPrimitive(content.totalPages()));
+
+        return jo;
+    }
+
+    /**
+     * Returns a string field of JSON.
+     * @param jo JSON to read.
+     * @param name Name of field.
+     * @return Value; null if null.
+     * @throws NullPointerException If the field is missing.
+     */
+    private static String stringOf(JsonObject jo, String name) {
+        JsonElement je = jo.get(name);
+
+        if (je == null) {
+            throw new NullPointerException("Missing " + name);
+        }
+
+        return je.isJsonNull() ? null : je.getAsString();
+    }
+
+    /**
+     * Converts JSON from the journal back into content.
+     * @param jo JSON to convert.
+     * @return Content.
+     */
+    static GContent jsonToContent(JsonObject jo) {
+        return new GContent(
+                stringOf(jo, "id"),
+                stringOf(jo, "sectionId"),
+                stringOf(jo, "sectionName"),
+                stringOf(jo, "webPublicationDate"),
+                stringOf(jo, "webTitle"),
+                stringOf(jo, "webUrl"),
+                stringOf(jo, "apiUrl"),
+                jo.get("pageNum").getAsInt(),
+                jo.get("totalPages").getAsInt()
+        );
+    }
+
+    /**
+     * Makes an add record.
+     * @param content Content added.
+     * @return Record line.
+     */
+    private static String addRecord(GContent content) {
+        JsonObject record = new JsonObject();
+        record.add("op", new JsonPrimitive("add"));
+        record.add("content", contentToJson(content));
+
+        return record.toString();
+    }
+
+    /**
+     * Appends a single record to the journal. If the journal ends with an
+     * unfinished line, it is ended first, so the record isn't joined onto it.
+     * @param record Record to append.
+     * @return Whether the operation was successful or not.
+     */
+    private boolean append(String record) {
+        try {
+            if (this.writer == null) {
+                boolean torn = GEJournalFiles.endsMidLine(this.path);
+                this.writer = Files.newBufferedWriter(this.path,
+                                                      StandardCharsets.UTF_8,
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.APPEND);
+
+                if (torn) {
+                    this.writer.newLine();
+                }
+            }
+
+            this.writer.write(record);
+            this.writer.newLine();
+            this.writer.flush();
+            this.records++;
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes the writer, if open.
+     */
+    private void closeWriter() {
+        if (this.writer != null) {
+            try {
+                this.writer.close();
+            } catch (IOException e) {
+                // Nothing more to do; writer is unusable either way
+            }
+
+            this.writer = null;
+        }
+    }
+
+    // Store Methods
+    /**
+     * Loads the stored reading list by replaying the journal. Unreadable
+     * records (e.g. a line cut short by a crash) are skipped. If the
+     * journal is mostly stale records, it is compacted afterwards.
+     * @return Stored reading list, in the order items were added.
+     *         Empty list if nothing stored, null if an error occurred.
+     */
+    @Override
+    public synchronized List<GContent> load() {
+        Map<String, GContent> replayed = new LinkedHashMap<>();
+        int count = 0;
+
+        if (Files.exists(this.path)) {
+            try (BufferedReader reader = Files.newBufferedReader(this.path,
+                                                                 StandardCharsets.UTF_8)) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+
+                    count++;
+
+                    try {
+                        JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+                        String op = record.get("op").getAsString();
+
+                        if (op.equals("add")) {
+                            GContent content =
+                                    jsonToContent(record.getAsJsonObject("content"));
+                            replayed.putIfAbsent(content.id(), content);
+                        } else if (op.equals("remove")) {
+                            replayed.remove(record.get("id").getAsString());
+                        }
+                    } catch (JsonParseException | IllegalStateException |
+                             NullPointerException | UnsupportedOperationException e) {
+                        // Bad record; skip it
+                    }
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        this.records = count;
+
+        List<GContent> ret = new ArrayList<>(replayed.values());
+
+        if (this.needsCompaction(ret.size())) {
+            this.compact(ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Records that content was added to the reading list by
+     * appending to the journal.
+     * @param content Content added. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public synchronized boolean recordAdd(GContent content) {
+        if (content == null || content.id() == null) {
+            return false;
+        }
+
+        return this.append(addRecord(content));
+    }
+
+    /**
+     * Records that content was removed from the reading list by
+     * appending to the journal.
+     * @param id ID of content removed. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public synchronized boolean recordRemove(String id) {
+        if (id == null) {
+            return false;
+        }
+
+        JsonObject record = new JsonObject();
+        record.add("op", new JsonPrimitive("remove"));
+        record.add("id", new JsonPrimitive(id));
+
+        return this.append(record.toString());
+    }
+
+    /**
+     * Returns whether the journal has built up enough stale records
+     * that it should be compacted; i.e. it is over a minimum size and
+     * more than half of its records are stale.
+     * @param liveCount Number of items currently in the reading list.
+     * @return Whether compaction should be done.
+     */
+    @Override
+    public synchronized boolean needsCompaction(int liveCount) {
+        return this.records > COMPACT_MIN_RECORDS && this.records > liveCount * 2;
+    }
+
+    /**
+     * Rewrites the journal to contain just an add record for each item
+     * in the given reading list. The new journal is written to a temporary
+     * file first and then moved over the old one, so a failure part way
+     * through leaves the old journal intact.
+     * @param readingList Current reading list. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    @Override
+    public synchronized boolean compact(List<GContent> readingList) {
+        if (readingList == null) {
+            return false;
+        }
+
+        this.closeWriter();
+
+        Path tmp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try (BufferedWriter tmpWriter = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (GContent content : readingList) {
+                tmpWriter.write(addRecord(content));
+                tmpWriter.newLine();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        try {
+            Files.move(tmp, this.path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            return false;
+        }
+
+        this.records = readingList.size();
+
+        return true;
+    }
+
+    /**
+     * Closes the journal file.
+     */
+    @Override
+    public synchronized void close() {
+        this.closeWriter();
+    }
+}
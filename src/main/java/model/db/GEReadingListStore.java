@@ -0,0 +1,53 @@
+package model.db;
+
+import model.items.GContent;
+
+import java.util.List;
+
+/**
+ * Interface for durable storage of the reading list.
+ * Changes are recorded one at a time as they happen, rather than
+ * saving the whole list on every change.
+ */
+public interface GEReadingListStore {
+    /**
+     * Loads the stored reading list.
+     * @return Stored reading list, in the order items were added.
+     *         Empty list if nothing stored, null if an error occurred.
+     */
+    public List<GContent> load();
+
+    /**
+     * Records that content was added to the reading list.
+     * @param content Content added. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean recordAdd(GContent content);
+
+    /**
+     * Records that content was removed from the reading list.
+     * @param id ID of content removed. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean recordRemove(String id);
+
+    /**
+     * Returns whether the store has built up enough stale records
+     * that it should be compacted.
+     * @param liveCount Number of items currently in the reading list.
+     * @return Whether compaction should be done.
+     */
+    public boolean needsCompaction(int liveCount);
+
+    /**
+     * Replaces everything stored with just the given reading list.
+     * @param readingList Current reading list. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean compact(List<GContent> readingList);
+
+    /**
+     * Releases any resources held by the store.
+     */
+    public void close();
+}
@@ -0,0 +1,28 @@
+package model.db;
+
+import model.items.RedditSession;
+
+/**
+ * Interface for durable storage of a Reddit login, so that its access
+ * token can be reused by later sessions until it expires.
+ */
+public interface GERedditTokenStore {
+    /**
+     * Loads the stored login.
+     * @return Stored login; null if nothing stored, or it could not be read.
+     */
+    public RedditSession load();
+
+    /**
+     * Stores a login, replacing any stored before.
+     * @param session Login to store. Cannot be null.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean save(RedditSession session);
+
+    /**
+     * Removes any stored login.
+     * @return Whether the operation was successful or not.
+     */
+    public boolean clear();
+}
@@ -0,0 +1,165 @@
+package model.digest;
+
+import model.items.ESendResult;
+import model.items.GContent;
+import model.items.GTag;
+import model.system.GESystem;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs a digest without any UI: fetches content for every tag/query pair
+ * of a digest spec, and emails each tag's new articles to the recipients.
+ * Requests are made concurrently, with at most the spec's concurrency in
+ * flight at once.
+ */
+public class GEDigestEngine {
+    private GESystem ges;
+    private GEDigestSpec spec;
+    private GEDigestState state;
+    private ExecutorService pool;
+
+    /**
+     * Creates a digest engine.
+     * @param ges System to fetch and send with.
+     * @param spec Digest to run.
+     * @param state State of previous runs of the digest.
+     */
+    public GEDigestEngine(GESystem ges, GEDigestSpec spec, GEDigestState state) {
+        this.ges = ges;
+        this.spec = spec;
+        this.state = state;
+
+        this.pool = Executors.newFixedThreadPool(spec.concurrency(), runnable -> {
+            Thread t = new Thread(runnable);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Makes a tag from just its ID; the only part needed for searching content.
+     * @param id ID of tag.
+     * @return Tag.
+     */
+    private static GTag tagFromId(String id) {
+        return new GTag(id, "", id, "", "");
+    }
+
+    /**
+     * Fetches new content for a tag/query pair. The first page is always
+     * fetched fresh, and any later pages may come from the cache. Stops
+     * early once a page has nothing new, as later pages are older.
+     * @param tag Tag to search.
+     * @param query Query to search.
+     * @param now Time of this run.
+     * @return New content for the pair.
+     */
+    private List<GContent> fetchNew(GTag tag, String query, Instant now) {
+        List<GContent> ret = new ArrayList<>();
+
+        for (int page = 1; page <= this.spec.pages(); page++) {
+            List<GContent> content = this.ges.getContent(tag, query, page, page > 1);
+
+            List<GContent> fresh = content.stream()
+                                          .filter(gc -> this.state.isNew(gc, now))
+                                          .toList();
+            ret.addAll(fresh);
+
+            if (fresh.isEmpty() || content.get(0).totalPages() <= page) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Runs the digest once; fetching all new articles, sending them, and
+     * saving the state. Articles are only marked as sent if at least one
+     * recipient received them, so failed sends are retried next run.
+     * @return Articles sent in this run, grouped by tag ID.
+     * @throws InterruptedException If interrupted while waiting on requests.
+     */
+    public Map<String, List<GContent>> runOnce() throws InterruptedException {
+        Instant now = Instant.now();
+
+        // Fetch every pair concurrently
+        Map<String, List<Future<List<GContent>>>> fetches = new LinkedHashMap<>();
+
+        for (String tagId : this.spec.tags()) {
+            GTag tag = tagFromId(tagId);
+
+            for (String query : this.spec.queries()) {
+                fetches.computeIfAbsent(tagId, k -> new ArrayList<>())
+                       .add(this.pool.submit(() -> this.fetchNew(tag, query, now)));
+            }
+        }
+
+        // Gather per tag, de-duplicating by ID; an article found under
+        // several tags/queries is only sent once, under the first tag
+        Map<String, List<GContent>> perTag = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        for (Map.Entry<String, List<Future<List<GContent>>>> e : fetches.entrySet()) {
+            List<GContent> found = new ArrayList<>();
+
+            for (Future<List<GContent>> f : e.getValue()) {
+                try {
+                    for (GContent gc : f.get()) {
+                        if (seen.add(gc.id())) {
+                            found.add(gc);
+                        }
+                    }
+                } catch (ExecutionException ex) {
+                    // Pair failed; the system has already reported it
+                }
+            }
+
+            if (!found.isEmpty()) {
+                perTag.put(e.getKey(), found);
+            }
+        }
+
+        // Send each tag's articles concurrently
+        Map<String, Future<List<ESendResult>>> sends = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<GContent>> e : perTag.entrySet()) {
+            GTag tag = tagFromId(e.getKey());
+            sends.put(e.getKey(), this.pool.submit(() ->
+                    this.ges.sendBulkEmail(tag, e.getValue(), this.spec.recipients())));
+        }
+
+        Map<String, List<GContent>> sent = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Future<List<ESendResult>>> e : sends.entrySet()) {
+            try {
+                if (e.getValue().get().stream().anyMatch(ESendResult::success)) {
+                    List<GContent> content = perTag.get(e.getKey());
+                    content.forEach(this.state::markSent);
+                    sent.put(e.getKey(), content);
+                }
+            } catch (ExecutionException ex) {
+                // Send failed; the system has already reported it
+            }
+        }
+
+        this.state.forgetOld(now);
+
+        if (!this.state.save()) {
+            System.out.println("Failed to save digest state; " +
+                               "articles sent in this run may be sent again.");
+        }
+
+        return sent;
+    }
+
+    /**
+     * Shuts down the engine's requests pool.
+     */
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+}
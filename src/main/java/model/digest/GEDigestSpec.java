@@ -0,0 +1,110 @@
+package model.digest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specification of a digest to be sent by the headless digest engine.
+ * Every tag is searched with every query.
+ * @param tags IDs of tags to search.
+ * @param queries Queries to search each tag with.
+ * @param recipients Addresses to send the digest to.
+ * @param pages Most pages of content to fetch for each tag/query pair.
+ * @param concurrency Most requests to have in flight at once.
+ * @param intervalMinutes Minutes between runs; 0 means run once.
+ * @param statePath Path to file for keeping track of sent articles between runs.
+ * @param guardianOnline Whether to use the Guardian API online.
+ * @param emailOnline Whether to use SendGrid API online.
+ */
+public record GEDigestSpec(
+        List<String> tags,
+        List<String> queries,
+        List<String> recipients,
+        int pages,
+        int concurrency,
+        long intervalMinutes,
+        String statePath,
+        boolean guardianOnline,
+        boolean emailOnline
+) {
+    /**
+     * Creates a digest spec from JSON of the form:
+     * <pre>
+     * {
+     *     "tags": ["politics/politics", ...],
+     *     "queries": ["", "election", ...],     (optional, default [""])
+     *     "recipients": ["someone@email.com", ...],
+     *     "pages": 1,                           (optional, default 1)
+     *     "concurrency": 8,                     (optional, default 8)
+     *     "intervalMinutes": 60,                (optional, default 0; run once)
+     *     "state": "digest-state.json",         (optional, default digest-state.json)
+     *     "guardian": "online",                 (optional, default offline)
+     *     "email": "online"                     (optional, default offline)
+     * }
+     * </pre>
+     * @param jo JSON to read.
+     * @return Digest spec.
+     * @throws IllegalArgumentException If the JSON is not a valid spec.
+     */
+    public static GEDigestSpec fromJson(JsonObject jo) {
+        if (jo == null) {
+            throw new IllegalArgumentException("Digest spec is not a JSON object.");
+        }
+
+        try {
+            List<String> tags = stringList(jo.getAsJsonArray("tags"));
+            List<String> queries = jo.has("queries") ? stringList(jo.getAsJsonArray("queries"))
+                                                     : List.of("");
+            List<String> recipients = stringList(jo.getAsJsonArray("recipients"));
+
+            int pages = jo.has("pages") ? jo.get("pages").getAsInt() : 1;
+            int concurrency = jo.has("concurrency") ? jo.get("concurrency").getAsInt() : 8;
+            long interval = jo.has("intervalMinutes") ? jo.get("intervalMinutes").getAsLong() : 0;
+            String statePath = jo.has("state") ? jo.get("state").getAsString()
+                                               : "digest-state.json";
+            boolean gOnline = jo.has("guardian") && jo.get("guardian").getAsString()
+                                                      .equals("online");
+            boolean eOnline = jo.has("email") && jo.get("email").getAsString()
+                                                   .equals("online");
+
+            if (tags.isEmpty()) {
+                throw new IllegalArgumentException("Digest spec has no tags.");
+            } else if (queries.isEmpty()) {
+                throw new IllegalArgumentException("Digest spec has an empty queries list.");
+            } else if (recipients.isEmpty()) {
+                throw new IllegalArgumentException("Digest spec has no recipients.");
+            } else if (pages < 1) {
+                throw new IllegalArgumentException("Digest spec pages must be at least 1.");
+            } else if (concurrency < 1) {
+                throw new IllegalArgumentException("Digest spec concurrency must be at least 1.");
+            } else if (interval < 0) {
+                throw new IllegalArgumentException("Digest spec interval cannot be negative.");
+            }
+
+            return new GEDigestSpec(tags, queries, recipients, pages, concurrency,
+                                    interval, statePath, gOnline, eOnline);
+        } catch (IllegalStateException | ClassCastException |
+                 NullPointerException | UnsupportedOperationException e) {
+            throw new IllegalArgumentException("Digest spec is malformed; " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a JSON array of strings.
+     * @param arr Array to read.
+     * @return List of strings.
+     */
+    private static List<String> stringList(JsonArray arr) {
+        List<String> ret = new ArrayList<>(arr.size());
+
+        for (JsonElement je : arr) {
+            ret.add(je.getAsString());
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,159 @@
+package model.digest;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import model.items.GContent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of which articles a digest has already sent, so that
+ * each run only sends new articles. Articles are forgotten once they
+ * are older than the retention period, and articles that old are never
+ * counted as new, so the state stays bounded.
+ */
+public class GEDigestState {
+    /**
+     * How long sent articles are remembered for.
+     */
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    private Path path; // Null if state isn't saved to a file
+    private Map<String, String> sent; // Article ID -> publication date
+
+    /**
+     * Creates a digest state which is saved to the given file.
+     * @param path Path to state file; null to keep state in memory only.
+     */
+    public GEDigestState(String path) {
+        this.path = path != null ? Paths.get(path) : null;
+        this.sent = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads the state from its file. A missing file is treated as a
+     * digest that has never run.
+     * @return Whether load was successful or not.
+     */
+    public boolean load() {
+        this.sent.clear();
+
+        if (this.path == null || !Files.exists(this.path)) {
+            return true;
+        }
+
+        try {
+            JsonObject jo = JsonParser.parseString(Files.readString(this.path,
+                                                                    StandardCharsets.UTF_8))
+                                      .getAsJsonObject();
+
+            for (Map.Entry<String, JsonElement> e : jo.getAsJsonObject("sent").entrySet()) {
+                this.sent.put(e.getKey(), e.getValue().getAsString());
+            }
+
+            return true;
+        } catch (IOException | JsonParseException | IllegalStateException |
+                 NullPointerException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Saves the state to its file. The file is written in full to a temporary
+     * file first and then moved over the old one.
+     * @return Whether save was successful or not.
+     */
+    public boolean save() {
+        if (this.path == null) {
+            return true;
+        }
+
+        JsonObject sentJson = new JsonObject();
+
+        for (Map.Entry<String, String> e : this.sent.entrySet()) {
+            sentJson.add(e.getKey(), new JsonPrimitive(e.getValue()));
+        }
+
+        JsonObject jo = new JsonObject();
+        jo.add("sent", sentJson);
+
+        Path tmp = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try {
+            Files.writeString(tmp, jo.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, this.path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Forgets sent articles older than the retention period; they are
+     * never counted as new, so needn't be remembered.
+     * @param now Current time.
+     */
+    public void forgetOld(Instant now) {
+        Instant cutoff = now.minus(RETENTION);
+        this.sent.values().removeIf(date -> isBefore(date, cutoff));
+    }
+
+    /**
+     * Returns whether content is new; i.e. it hasn't been sent, and isn't
+     * older than the retention period.
+     * @param content Content to check.
+     * @param now Current time.
+     * @return Whether content is new or not.
+     */
+    public boolean isNew(GContent content, Instant now) {
+        return !this.sent.containsKey(content.id()) &&
+               !isBefore(content.webPublicationDate(), now.minus(RETENTION));
+    }
+
+    /**
+     * Marks content as sent.
+     * @param content Content sent.
+     */
+    public void markSent(GContent content) {
+        this.sent.put(content.id(), Objects.requireNonNullElse(content.webPublicationDate(), ""));
+    }
+
+    /**
+     * Returns the number of articles remembered as sent.
+     * @return Number of articles remembered as sent.
+     */
+    public int sentCount() {
+        return this.sent.size();
+    }
+
+    /**
+     * Returns whether a publication date is before the given time.
+     * Dates that can't be read are never counted as before.
+     * @param date Publication date (ISO-8601 format).
+     * @param time Time to compare to.
+     * @return Whether date is before time.
+     */
+    private static boolean isBefore(String date, Instant time) {
+        try {
+            return Instant.parse(date).isBefore(time);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package model.items;
+
+/**
+ * Result of sending an email to a single recipient.
+ * @param recipient Email address of recipient.
+ * @param success Whether the email was sent successfully.
+ * @param message Error message if unsuccessful, null if successful.
+ */
+public record ESendResult(
+        String recipient,
+        boolean success,
+        String message
+) { }
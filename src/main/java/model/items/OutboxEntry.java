@@ -0,0 +1,39 @@
+package model.items;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An email or Reddit post waiting in the outbox to be sent.
+ * @param id ID of the entry in the outbox.
+ * @param key Idempotency key; the same on every attempt at sending it.
+ * @param kind What to send; EMAIL or REDDIT.
+ * @param recipient Email address to send to; null for Reddit posts.
+ * @param tag Tag associated with the content.
+ * @param content List of content to send.
+ * @param attempts Number of failed attempts so far.
+ * @param nextAttempt When it is next due to be sent.
+ * @param batchKey Idempotency key of the batch of emails it was first sent
+ *                 in, which it is always retried in; null if not yet sent,
+ *                 or a Reddit post.
+ */
+public record OutboxEntry(
+        long id,
+        String key,
+        String kind,
+        String recipient,
+        GTag tag,
+        List<GContent> content,
+        int attempts,
+        Instant nextAttempt,
+        String batchKey
+) {
+    /**
+     * Kind of entry sent by email.
+     */
+    public static final String EMAIL = "email";
+    /**
+     * Kind of entry posted to Reddit.
+     */
+    public static final String REDDIT = "reddit";
+}
@@ -0,0 +1,15 @@
+package model.items;
+
+import java.time.Instant;
+
+/**
+ * A Reddit login kept between sessions.
+ * @param username Username the token is for.
+ * @param token Access token.
+ * @param expiresAt When the token expires.
+ */
+public record RedditSession(
+        String username,
+        String token,
+        Instant expiresAt
+) { }
@@ -0,0 +1,46 @@
+package model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for how saturated a bulkhead (a pool of threads
+ * kept for one kind of work) is, recorded every second for each one.
+ */
+@Name("ge.Bulkhead")
+@Label("Bulkhead Saturation")
+@Category({"GE Client", "Concurrency"})
+@Description("Threads busy and work waiting in a bulkhead")
+@Period("1 s")
+@StackTrace(false)
+public class GEBulkheadEvent extends Event {
+    @Label("Bulkhead")
+    @Description("What the bulkhead's threads are kept for")
+    public String name;
+
+    @Label("Threads")
+    public int threads;
+
+    @Label("Active")
+    @Description("Tasks running")
+    public int active;
+
+    @Label("Queued")
+    @Description("Tasks waiting for a thread")
+    public int queued;
+
+    @Label("Completed")
+    @Description("Tasks finished so far")
+    public long completed;
+
+    @Label("Max Wait")
+    @Description("Longest a task has waited for a thread so far")
+    @Timespan(Timespan.NANOSECONDS)
+    public long maxWait;
+}
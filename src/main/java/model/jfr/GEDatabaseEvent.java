@@ -0,0 +1,34 @@
+package model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a database operation.
+ */
+@Name("ge.Database")
+@Label("Database Operation")
+@Category({"GE Client", "Database"})
+@Description("An operation on the content cache database")
+@StackTrace(false)
+public class GEDatabaseEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    @Description("ok, hit, miss or error")
+    public String outcome;
+
+    /**
+     * Creates an event for an operation. Outcome is an error until set otherwise.
+     * @param operation Name of operation.
+     */
+    public GEDatabaseEvent(String operation) {
+        this.operation = operation;
+        this.outcome = "error";
+    }
+}
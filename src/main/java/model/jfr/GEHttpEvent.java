@@ -0,0 +1,39 @@
+package model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for an HTTP request to one of the APIs.
+ * The endpoint is recorded without its query string, which can hold keys.
+ */
+@Name("ge.HttpRequest")
+@Label("HTTP Request")
+@Category({"GE Client", "Comms"})
+@Description("A request to The Guardian, SendGrid or Reddit")
+@StackTrace(false)
+public class GEHttpEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Endpoint")
+    @Description("Host and path requested, without the query string")
+    public String endpoint;
+
+    @Label("Status Code")
+    @Description("Status code of the response; -1 if the request failed")
+    public int statusCode;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Error")
+    @Description("Why the request failed; null if it didn't")
+    public String error;
+}
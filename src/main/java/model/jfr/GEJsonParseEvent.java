@@ -0,0 +1,26 @@
+package model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for parsing an API response into JSON.
+ */
+@Name("ge.JsonParse")
+@Label("JSON Parse")
+@Category({"GE Client", "Comms"})
+@Description("Parsing of an API response")
+@StackTrace(false)
+public class GEJsonParseEvent extends Event {
+    @Label("Length")
+    @Description("Length of the response, in characters")
+    public long length;
+
+    @Label("Parsed")
+    @Description("Whether the response was a JSON object")
+    public boolean parsed;
+}
@@ -0,0 +1,41 @@
+package model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a presenter background task, from when it
+ * starts running in its bulkhead until it finishes.
+ */
+@Name("ge.PresenterTask")
+@Label("Presenter Task")
+@Category({"GE Client", "Presenter"})
+@Description("Background task run for the view")
+@StackTrace(false)
+public class GETaskEvent extends Event {
+    @Label("Task")
+    @Description("What the task does")
+    public String name;
+
+    @Label("Bulkhead")
+    @Description("Bulkhead the task ran in")
+    public String bulkhead;
+
+    @Label("Priority")
+    @Description("Priority the task was queued at")
+    public String priority;
+
+    @Label("Queue Time")
+    @Description("Time spent waiting for a bulkhead thread")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueTime;
+
+    @Label("Cancelled")
+    @Description("Whether the task was cancelled")
+    public boolean cancelled;
+}
@@ -0,0 +1,227 @@
+package model.system;
+
+import model.items.GContent;
+import model.items.GTag;
+import model.trace.GETracer;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Search for content across several tags at once, giving results newest
+ * first. Each tag is searched separately (newest first), and the tags'
+ * results are combined with a k-way merge; each tag keeps a cursor of
+ * its next page, so a tag's next page is only requested once the merge
+ * has used up the tag's current one. Requests for several tags at once
+ * are made concurrently. Articles found under more than one tag are
+ * only given once.
+ */
+public class GEMultiTagSearch {
+    // Orders content newest first; unreadable dates count as oldest
+    private static final Comparator<GContent> NEWEST_FIRST =
+            Comparator.comparing(GEMultiTagSearch::publishedAt).reversed();
+
+    /**
+     * Position of the search within one tag's results.
+     */
+    private static class TagCursor {
+        private GTag tag;
+        private int nextPage; // Next page to request
+        private int totalPages; // Assumed 1 until first page is in
+        private Deque<GContent> buffer; // Requested but not yet merged, newest first
+
+        /**
+         * Creates a cursor at the start of a tag's results.
+         * @param tag Tag.
+         */
+        private TagCursor(GTag tag) {
+            this.tag = tag;
+            this.nextPage = 1;
+            this.totalPages = 1;
+            this.buffer = new ArrayDeque<>();
+        }
+
+        /**
+         * Returns whether the tag has pages not yet requested.
+         * @return Whether the tag has more pages.
+         */
+        private boolean hasMorePages() {
+            return this.nextPage <= this.totalPages;
+        }
+    }
+
+    private BiFunction<GTag, Integer, List<GContent>> fetcher;
+    private ExecutorService pool;
+    private int pageSize;
+
+    private PriorityQueue<TagCursor> merge; // Cursors with buffered content, by newest buffered
+    private List<TagCursor> needFetch; // Cursors whose buffer is empty but have more pages
+    private Set<String> seen; // IDs of content already given
+    private int requests; // Number of page requests made
+
+    /**
+     * Creates a multi-tag search. Nothing is requested until the first page is asked for.
+     * @param tags Tags to search.
+     * @param pageSize Number of articles per page of results.
+     * @param pool Pool to make requests on; its size bounds how many are made at once.
+     * @param fetcher Gets a page of a tag's content, newest first;
+     *                empty list if none or failed.
+     */
+    public GEMultiTagSearch(List<GTag> tags,
+                            int pageSize,
+                            ExecutorService pool,
+                            BiFunction<GTag, Integer, List<GContent>> fetcher) {
+        this.fetcher = fetcher;
+        this.pool = pool;
+        this.pageSize = pageSize;
+
+        this.merge = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.buffer.peekFirst(),
+                                                                         b.buffer.peekFirst()));
+        this.needFetch = new ArrayList<>();
+        this.seen = new HashSet<>();
+        this.requests = 0;
+
+        // Same tag twice would only give duplicates
+        Set<String> tagIds = new HashSet<>();
+
+        for (GTag tag : tags) {
+            if (tag != null && tagIds.add(tag.id())) {
+                this.needFetch.add(new TagCursor(tag));
+            }
+        }
+    }
+
+    /**
+     * Returns when content was published.
+     * @param content Content.
+     * @return Publication time; the epoch if unreadable.
+     */
+    private static Instant publishedAt(GContent content) {
+        try {
+            return Instant.parse(content.webPublicationDate());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    /**
+     * Requests the next page of every cursor that needs one, concurrently,
+     * and puts the cursors with content back into the merge.
+     * @throws InterruptedException If interrupted while waiting on requests;
+     *                              cursors not yet handled are left to fetch again.
+     */
+    private void fetchNeeded() throws InterruptedException {
+        List<Future<List<GContent>>> futures = new ArrayList<>();
+
+        for (TagCursor cursor : this.needFetch) {
+            int page = cursor.nextPage;
+            futures.add(this.pool.submit(GETracer.wrapCallable("fetchTag", "system",
+                    () -> this.fetcher.apply(cursor.tag, page))));
+            this.requests++;
+        }
+
+        int handled = 0;
+
+        try {
+            for (; handled < futures.size(); handled++) {
+                TagCursor cursor = this.needFetch.get(handled);
+                List<GContent> content;
+
+                try {
+                    content = futures.get(handled).get();
+                } catch (ExecutionException e) {
+                    content = List.of();
+                }
+
+                if (content.isEmpty()) {
+                    // No more (or failed); stop requesting this tag
+                    cursor.totalPages = 0;
+                    continue;
+                }
+
+                cursor.totalPages = content.get(0).totalPages();
+                cursor.nextPage++;
+
+                List<GContent> sorted = new ArrayList<>(content);
+                sorted.sort(NEWEST_FIRST);
+                cursor.buffer.addAll(sorted);
+
+                this.merge.add(cursor);
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+
+            // Cursors already handled have moved on a page; only the rest need fetching again
+            this.needFetch.subList(0, handled).clear();
+            throw e;
+        }
+
+        this.needFetch.clear();
+    }
+
+    /**
+     * Returns the next page of results, newest first. Only requests pages
+     * of tags whose content is needed to fill this page.
+     * @return Next page of results; fewer than a page (or empty) once
+     *         every tag's results are used up.
+     * @throws InterruptedException If interrupted while waiting on requests.
+     */
+    public synchronized List<GContent> nextPage() throws InterruptedException {
+        List<GContent> ret = new ArrayList<>();
+
+        while (ret.size() < this.pageSize) {
+            // The newest content may be on a page not yet requested
+            if (!this.needFetch.isEmpty()) {
+                this.fetchNeeded();
+            }
+
+            TagCursor newest = this.merge.poll();
+
+            if (newest == null) {
+                break; // Every tag used up
+            }
+
+            GContent content = newest.buffer.pollFirst();
+
+            if (this.seen.add(content.id())) {
+                ret.add(content);
+            }
+
+            if (!newest.buffer.isEmpty()) {
+                this.merge.add(newest);
+            } else if (newest.hasMorePages()) {
+                this.needFetch.add(newest);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns whether there may be more results.
+     * @return Whether there may be more results.
+     */
+    public synchronized boolean hasMore() {
+        return !this.merge.isEmpty() || !this.needFetch.isEmpty();
+    }
+
+    /**
+     * Returns the number of page requests made so far.
+     * @return Number of page requests made.
+     */
+    public synchronized int getRequestCount() {
+        return this.requests;
+    }
+}
@@ -0,0 +1,292 @@
+package model.system;
+
+import model.comms.drivers.GEComms;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.ESendBulkPayload;
+import model.db.GEOutboxStore;
+import model.items.ESendResult;
+import model.items.GContent;
+import model.items.GTag;
+import model.items.OutboxEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Sends what is due in the outbox. Emails of the same tag and content are
+ * sent together as one bulk email; Reddit posts are made one at a time.
+ * A batch of emails is recorded in the outbox before it is first sent, and
+ * always retried as that same batch with the same key, so emails queued
+ * since never join it.
+ * A send that fails for a reason that may pass (no response, rate
+ * limiting, server errors) is retried later, backing off exponentially
+ * (with jitter) on each attempt; one that fails otherwise, or too many
+ * times, is marked failed and reported. Every attempt at an entry carries
+ * the entry's idempotency key, so a retry after a send that did go
+ * through (but whose response was lost) is not sent again by APIs that
+ * honour the key.
+ */
+public class GEOutboxWorker {
+    /**
+     * Most entries sent in one drain; also the most emails in one batch.
+     */
+    public static final int BATCH_LIMIT = GEComms.MAX_EMAIL_RECIPIENTS;
+    /**
+     * Most attempts at sending an entry before it is marked failed.
+     */
+    public static final int MAX_ATTEMPTS = 8;
+
+    // Backoff after the first failed attempt, doubled on each attempt after
+    private static final long BACKOFF_MS = 2000;
+    // Longest backoff between attempts
+    private static final long MAX_BACKOFF_MS = 10 * 60 * 1000;
+
+    /**
+     * Sends a batch of emails.
+     */
+    public interface EmailSender {
+        /**
+         * Sends the same email separately to each recipient.
+         * @param payload Data to make requests with.
+         * @return Result for each distinct recipient.
+         * @throws GECommsException If something goes wrong before any sending.
+         */
+        List<ESendResult> send(ESendBulkPayload payload) throws GECommsException;
+    }
+
+    /**
+     * Makes a Reddit post.
+     */
+    public interface RedditPoster {
+        /**
+         * Posts to Reddit.
+         * @param tag Tag to post.
+         * @param content Content to post.
+         * @param key Idempotency key of the post.
+         * @return Whether the post was made or not.
+         * @throws GECommsException If something goes wrong.
+         */
+        boolean post(GTag tag, List<GContent> content, String key) throws GECommsException;
+    }
+
+    private GEOutboxStore store;
+    private EmailSender emailSender;
+    private RedditPoster redditPoster;
+    private Consumer<String> onFailed;
+
+    /**
+     * Creates an outbox worker.
+     * @param store Outbox to send from.
+     * @param emailSender Sends emails.
+     * @param redditPoster Makes Reddit posts.
+     * @param onFailed Told a message for each entry given up on.
+     */
+    public GEOutboxWorker(GEOutboxStore store,
+                          EmailSender emailSender,
+                          RedditPoster redditPoster,
+                          Consumer<String> onFailed) {
+        this.store = store;
+        this.emailSender = emailSender;
+        this.redditPoster = redditPoster;
+        this.onFailed = onFailed;
+    }
+
+    // Sending
+    /**
+     * Sends (or tries to send) the entries that are due, up to BATCH_LIMIT.
+     * @return Number of entries tried.
+     */
+    public int drain() {
+        List<OutboxEntry> due = this.store.getDue(Instant.now(), BATCH_LIMIT);
+
+        if (due == null) {
+            return 0;
+        }
+
+        // Group emails already sent by their batch, and new ones by what is sent, keeping order
+        Map<String, List<OutboxEntry>> emails = new LinkedHashMap<>();
+        List<OutboxEntry> posts = new ArrayList<>();
+
+        for (OutboxEntry entry : due) {
+            if (OutboxEntry.EMAIL.equals(entry.kind())) {
+                String group = entry.batchKey() != null ? "batch|" + entry.batchKey()
+                                                        : "new|" + batchOf(entry);
+                emails.computeIfAbsent(group, k -> new ArrayList<>()).add(entry);
+            } else if (OutboxEntry.REDDIT.equals(entry.kind())) {
+                posts.add(entry);
+            } else {
+                this.store.markFailed(entry.id(), "Unknown kind of entry.");
+            }
+        }
+
+        for (List<OutboxEntry> batch : emails.values()) {
+            this.sendEmails(batch);
+        }
+
+        for (OutboxEntry post : posts) {
+            this.sendPost(post);
+        }
+
+        return due.size();
+    }
+
+    /**
+     * Sends a batch of emails of the same tag and content as one bulk email.
+     * A new batch is recorded before sending; a batch sent before is sent
+     * again whole (every entry of it still pending), with its recorded key.
+     * @param due Due entries of the batch.
+     */
+    private void sendEmails(List<OutboxEntry> due) {
+        OutboxEntry first = due.get(0);
+        List<OutboxEntry> batch = due;
+        String key = first.batchKey();
+
+        if (key == null) {
+            key = batchKey(batch);
+            this.store.markBatch(batch.stream().map(OutboxEntry::id).toList(), key);
+        } else {
+            List<OutboxEntry> pending = this.store.getBatch(key);
+
+            if (pending != null && !pending.isEmpty()) {
+                batch = pending;
+            }
+        }
+
+        List<String> recipients = batch.stream().map(OutboxEntry::recipient).toList();
+        List<ESendResult> results;
+
+        // Retried together, so all back off to the same time; by the most attempts of any
+        int attempts = batch.stream().mapToInt(OutboxEntry::attempts).max().orElse(0);
+        Instant next = Instant.now().plusMillis(backoff(attempts + 1));
+
+        try {
+            results = this.emailSender.send(new ESendBulkPayload(recipients,
+                                                                 first.tag(),
+                                                                 first.content(),
+                                                                 key));
+        } catch (GECommsException e) {
+            for (OutboxEntry entry : batch) {
+                this.retry(entry, e.getMsg(), isRetryable(e.getCode()), next);
+            }
+
+            return;
+        }
+
+        Map<String, ESendResult> byRecipient = new HashMap<>();
+
+        for (ESendResult result : results) {
+            byRecipient.put(result.recipient(), result);
+        }
+
+        for (OutboxEntry entry : batch) {
+            ESendResult result = byRecipient.get(entry.recipient());
+
+            if (result != null && result.success()) {
+                this.store.markSent(entry.id());
+            } else {
+                this.retry(entry, result != null ? result.message() : "No result.", true, next);
+            }
+        }
+    }
+
+    /**
+     * Makes a Reddit post.
+     * @param entry Entry to post.
+     */
+    private void sendPost(OutboxEntry entry) {
+        try {
+            if (this.redditPoster.post(entry.tag(), entry.content(), entry.key())) {
+                this.store.markSent(entry.id());
+            } else {
+                this.retry(entry, "Post not made.", true, null);
+            }
+        } catch (GECommsException e) {
+            this.retry(entry, e.getMsg(), isRetryable(e.getCode()), null);
+        }
+    }
+
+    /**
+     * Records a failed attempt at an entry; it is retried after backing off,
+     * or marked failed (and reported) if it can't or has run out of attempts.
+     * @param entry Entry that failed.
+     * @param error Why it failed.
+     * @param retryable Whether the failure may pass.
+     * @param next When to retry; null to back off by the entry's own attempts.
+     */
+    private void retry(OutboxEntry entry, String error, boolean retryable, Instant next) {
+        int attempts = entry.attempts() + 1;
+
+        if (retryable && attempts < MAX_ATTEMPTS) {
+            this.store.markRetry(entry.id(),
+                                 attempts,
+                                 next != null ? next : Instant.now().plusMillis(backoff(attempts)),
+                                 error);
+            return;
+        }
+
+        this.store.markFailed(entry.id(), error);
+
+        if (OutboxEntry.EMAIL.equals(entry.kind())) {
+            this.onFailed.accept("Email to %s not sent: %s".formatted(entry.recipient(), error));
+        } else {
+            this.onFailed.accept("Reddit post for %s not made: %s".formatted(entry.tag(), error));
+        }
+    }
+
+    // Utilities
+    /**
+     * Returns whether a failed request may succeed if tried again; i.e. no
+     * response, timed out, rate limited, or a server error.
+     * @param code Status code of failure; -1 if no response.
+     * @return Whether to retry.
+     */
+    static boolean isRetryable(int code) {
+        return code == -1 || code == 408 || code == 429 || code >= 500;
+    }
+
+    /**
+     * Returns how long to back off before an attempt; exponential in the
+     * attempts so far, with "equal jitter" so retries of entries that
+     * failed together spread out.
+     * @param attempts Failed attempts so far.
+     * @return Milliseconds to back off.
+     */
+    static long backoff(int attempts) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BACKOFF_MS << Math.min(attempts - 1, 30));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Returns what an email sends, so emails sending the same thing can be batched.
+     * @param entry Email entry.
+     * @return Key of what is sent.
+     */
+    private static String batchOf(OutboxEntry entry) {
+        return entry.tag().id() + "|" + entry.content().stream()
+                                             .map(GContent::id)
+                                             .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Makes the idempotency key of a new batch of emails.
+     * @param batch Entries in the batch.
+     * @return Key of the batch; the entry's own key if only one.
+     */
+    private static String batchKey(List<OutboxEntry> batch) {
+        if (batch.size() == 1) {
+            return batch.get(0).key();
+        }
+
+        String keys = batch.stream().map(OutboxEntry::key).collect(Collectors.joining(","));
+        return UUID.nameUUIDFromBytes(keys.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -1,8 +1,14 @@
 package model.system;
 
+import model.catalogue.GETagCatalogue;
+import model.comms.drivers.GEComms;
 import model.comms.manager.GECommsManager;
 import model.comms.payloads.GContentPayload;
+import model.db.GEOutboxStore;
+import model.db.GEReadingListStore;
+import model.db.GERedditTokenStore;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.GContent;
 import model.items.GTag;
 import model.util.SleepModule;
@@ -24,12 +30,22 @@ public interface GESystem {
     // System modules
     /**
      * Injects a new comms manager. If null, the new comms manager will
-     * not be set, and the previous one will be kept.
+     * not be set, and the previous one will be kept; otherwise the
+     * previous one is shut down.
      * @param gecm Comms manager to inject.
      * @return If injection was successful or not.
      */
     public boolean injectNewCommsManager(GECommsManager gecm);
 
+    /**
+     * Injects new comms drivers into the comms manager. If one is null,
+     * the respective old driver is kept.
+     * @param online Online comms driver to inject.
+     * @param offline Offline comms driver to inject.
+     * @return If injection was successful or not (i.e. both were null).
+     */
+    public boolean injectNewDrivers(GEComms online, GEComms offline);
+
     /**
      * Injects a new environment. If null, the new environment will not
      * be set, and the previous one will be kept.
@@ -46,6 +62,45 @@ public interface GESystem {
      */
     public boolean injectNewSleepModule(SleepModule sm);
 
+    /**
+     * Injects a store to persist the reading list with. The current reading
+     * list is replaced with what the store has saved. If null or the store
+     * cannot be loaded, the store will not be set.
+     * @param store Reading list store to inject.
+     * @return If injection was successful or not.
+     */
+    public boolean injectReadingListStore(GEReadingListStore store);
+
+    /**
+     * Injects a store to persist Reddit logins with. If the store has a
+     * login whose token is not about to expire, it is used as though just
+     * authenticated, so no login is needed until it expires. Later
+     * authentications are saved to the store. If null, the store will
+     * not be set.
+     * @param store Reddit token store to inject.
+     * @return If injection was successful or not.
+     */
+    public boolean injectRedditTokenStore(GERedditTokenStore store);
+
+    /**
+     * Injects an outbox for emails and Reddit posts to be queued in and
+     * sent from in the background, retrying failures. Anything already
+     * pending in it (e.g. from before a restart) is sent. If null, the
+     * outbox will not be set.
+     * @param store Outbox store to inject.
+     * @return If injection was successful or not.
+     */
+    public boolean injectOutboxStore(GEOutboxStore store);
+
+    /**
+     * Injects a tag catalogue for tag searches to be answered from. The
+     * catalogue is loaded, and a background job keeps it crawled and up
+     * to date. If null or the catalogue cannot be loaded, it will not be set.
+     * @param catalogue Tag catalogue to inject.
+     * @return If injection was successful or not.
+     */
+    public boolean injectTagCatalogue(GETagCatalogue catalogue);
+
     // System State/Observation
     /**
      * Adds an observer to the system.
@@ -97,9 +152,27 @@ public interface GESystem {
      * Gets tags from The Guardian API.
      * @param query Query to do.
      * @return List of found guardian tags. Empty list if bad parameters or failure.
+     *         No error state is raised if the calling thread was interrupted
+     *         (i.e. the request was cancelled).
      */
     public List<GTag> getTags(String query);
 
+    /**
+     * Returns tags matching the prefix from the tags seen so far,
+     * without making any requests.
+     * @param prefix Prefix to match.
+     * @return Up to a page of matching tags. Empty list if none or prefix blank.
+     */
+    public List<GTag> suggestTags(String prefix);
+
+    /**
+     * Returns whether suggestTags can fully answer a prefix; if not,
+     * a getTags request is needed to get more suggestions.
+     * @param prefix Prefix to check.
+     * @return Whether tags seen so far are enough to answer the prefix.
+     */
+    public boolean canSuggestTagsLocally(String prefix);
+
     /**
      * Returns whether there is cached content for the given
      * tag/query/page combination. Essentially works as pass-through
@@ -126,10 +199,22 @@ public interface GESystem {
      * @param page Page to search on.
      * @param useCache Whether to use cache, if available.
      * @return List of found guardian content with the matching tag.
-     *         Empty list if bad parameters or failure.
+     *         Empty list if bad parameters or failure. No error state is raised
+     *         if the calling thread was interrupted (i.e. the request was cancelled).
      */
     public List<GContent> getContent(GTag tag, String query, int page, boolean useCache);
 
+    /**
+     * Starts a search for content across several tags at once. Pages of
+     * results come newest first, with each article only given once.
+     * Failed requests raise an error state as with getContent, and that
+     * tag's results end there.
+     * @param tags Tags to search.
+     * @param query Query to make.
+     * @return Search to get pages of results from.
+     */
+    public GEMultiTagSearch searchContent(List<GTag> tags, String query);
+
     // Email Operations
     /**
      * Sends an email with the tag and list of content from the Guardian API.
@@ -140,19 +225,44 @@ public interface GESystem {
      */
     public boolean sendEmail(GTag tag, List<GContent> content, String recipient);
 
+    /**
+     * Sends an email with the tag and list of content from the Guardian API
+     * separately to each recipient, using as few requests as possible.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @param recipients Addresses to send email to.
+     * @return Result for each distinct recipient. Empty list if bad parameters
+     *         or failure before any sending.
+     */
+    public List<ESendResult> sendBulkEmail(GTag tag, List<GContent> content, List<String> recipients);
+
     // Reddit Operations
     /**
      * Authenticates the reddit user. When authenticated, the token is saved to the
      * system and a thread is started counting down when the token expires.
      * When this thread finishes (i.e. expiry occurs), it sets the runtimeData
      * "reddit_token" to "INVALIDATED", broadcasts to observers, and then sets
-     * "reddit_token" to null.
+     * "reddit_token" to null. If a Reddit token store is set, the login
+     * is saved to it for later sessions. If token renewal is on, the
+     * credentials are kept (masked) in memory, and the token is renewed in
+     * the background ahead of expiry instead; it is only invalidated if
+     * renewal fails.
      * @param username Username to authentication with.
      * @param password Password to authentication with.
      * @return Whether authentication was successful or not.
      */
     public boolean authenticateReddit(String username, String password);
 
+    /**
+     * Sets how long before a Reddit token expires to renew it in the
+     * background, with the credentials it was got with. Renewal is single
+     * flight; posts that find the token expired wait on the renewal in
+     * progress, rather than making their own. Negative turns renewal off
+     * (the default), and credentials are not kept.
+     * @param seconds Renewal margin in seconds, or negative for none.
+     */
+    public void setRedditRefreshMargin(long seconds);
+
     /**
      * Posts to reddit with the tag and list of content from the Guardian API.
      * @param tag Tag to send.
@@ -161,16 +271,46 @@ public interface GESystem {
      */
     public boolean postReddit(GTag tag, List<GContent> content);
 
+    // Outbox Operations
+    /**
+     * Queues an email in the outbox, to be sent in the background.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @param recipient Address to send email to.
+     * @return Whether queued or not; false if there is no outbox, or
+     *         queueing failed (so the email should be sent directly).
+     */
+    public boolean queueEmail(GTag tag, List<GContent> content, String recipient);
+
+    /**
+     * Queues a Reddit post in the outbox, to be made in the background with
+     * the Reddit login at the time. Requires reddit authentication.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @return Whether queued or not; false if there is no outbox, or
+     *         queueing failed (so the post should be made directly).
+     */
+    public boolean queueRedditPost(GTag tag, List<GContent> content);
+
     // Reading List Operations
     /**
-     * Returns the current article reading list.
+     * Returns a read-only snapshot of the current article reading list.
+     * Later changes to the reading list are not reflected in the snapshot.
      * @return Current article reading list.
      */
     public List<GContent> getReadingList();
 
+    /**
+     * Returns whether the given content is in the reading list.
+     * Content is matched on its ID.
+     * @param content Content to check.
+     * @return Whether content is in the reading list or not.
+     */
+    public boolean isInReadingList(GContent content);
+
     /**
      * Adds an item to the current reading list. Rejected if
-     * null or a duplicate of something already in the list.
+     * null or a duplicate (same ID) of something already in the list.
      * @param content Content to add.
      * @return If add was successful or not.
      */
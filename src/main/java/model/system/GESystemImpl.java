@@ -3,23 +3,46 @@ package model.system;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import model.catalogue.GETagCatalogue;
+import model.catalogue.GETagCrawler;
+import model.comms.drivers.GEComms;
 import model.comms.exceptions.GECommsException;
 import model.comms.manager.GECommsManager;
 import model.comms.manager.GECommsManagerImpl;
 import model.comms.payloads.*;
+import model.comms.util.GEDeadline;
 import model.db.GEDatabase;
+import model.db.GEOutboxStore;
+import model.db.GEReadingListStore;
+import model.db.GERedditTokenStore;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.GContent;
 import model.items.GTag;
+import model.items.OutboxEntry;
+import model.items.RedditSession;
 import model.items.RedditToken;
+import model.trace.GESpan;
+import model.trace.GETracer;
+import model.util.GEBulkhead;
+import model.util.GEMaskedSecret;
+import model.util.GETagIndex;
 import model.util.SleepModule;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static model.system.GERuntimeData.*;
@@ -29,19 +52,63 @@ import static model.system.GERuntimeData.*;
  * @see model.system.GESystem
  */
 public class GESystemImpl implements GESystem {
+    // Number of tags asked for per tag request
+    private static final int TAG_PAGE_SIZE = 10;
+    // How often to check whether the tag catalogue needs crawling
+    private static final long CRAWL_CHECK_MINUTES = 60;
+    // Number of articles asked for per content request
+    private static final int CONTENT_PAGE_SIZE = 10;
+    // Most content requests made at once by multi-tag searches
+    private static final int MULTI_TAG_PARALLELISM = 4;
+    // Stored Reddit tokens with less than this left (seconds) are not reused
+    private static final long REDDIT_TOKEN_REUSE_MARGIN = 300;
+    // Least time between outbox drains scheduled for retries (ms)
+    private static final long OUTBOX_MIN_POLL_MS = 1000;
+    // Longest each operation can take, over all the requests it makes
+    private static final Duration TAGS_DEADLINE = Duration.ofSeconds(20);
+    private static final Duration CONTENT_DEADLINE = Duration.ofSeconds(20);
+    private static final Duration EMAIL_DEADLINE = Duration.ofSeconds(45);
+    private static final Duration BULK_EMAIL_DEADLINE = Duration.ofSeconds(120);
+    private static final Duration REDDIT_AUTH_DEADLINE = Duration.ofSeconds(30);
+    private static final Duration REDDIT_POST_DEADLINE = Duration.ofSeconds(60);
+
     private Environment env;
     private GECommsManager comms;
     private List<GESystemObserver> observers;
     private boolean errorState;
     private String errorMsg;
     private ExecutorService pool;
+    private GEBulkhead searchPool; // For multi-tag searches; kept apart from other work
     private SleepModule sleeper;
 
     // Data to be accessed at runtime/dynamically updated that are
     // not critical. See GERuntimeData for possible values
     private Map<String, String> runtimeData;
 
-    private List<GContent> readingList;
+    // Reading list keyed by content ID; insertion ordered, with all access
+    // synchronised on the map itself
+    private Map<String, GContent> readingList;
+    private GEReadingListStore readingListStore; // Null if reading list isn't persisted
+    private GERedditTokenStore tokenStore; // Null if Reddit logins aren't persisted
+
+    // Reddit token renewal; all guarded by redditLock
+    private final Object redditLock = new Object();
+    private long redditRefreshMargin; // Seconds before expiry to renew; negative for no renewal
+    private GEMaskedSecret redditPassword; // Null unless renewing
+    private long redditGeneration; // Count of tokens used, so stale countdowns know to stop
+    private Future<?> redditExpiry; // Countdown of the current token; null if none
+    private CompletableFuture<Boolean> redditRenewal; // Renewal in progress; null if none
+
+    // Outbox of sends waiting to go; drains guarded by outboxLock
+    private final Object outboxLock = new Object();
+    private GEOutboxStore outboxStore; // Null if sends aren't queued
+    private GEOutboxWorker outboxWorker; // Null if no outbox
+    private ScheduledExecutorService outboxScheduler; // Null if no outbox
+    private ScheduledFuture<?> outboxDrain; // Next drain scheduled; null if none
+
+    // Every tag seen so far, for suggestions without requests
+    private GETagIndex tagIndex;
+    private ScheduledExecutorService crawlScheduler; // Null if no tag catalogue
 
     /**
      * Constructs the system.
@@ -63,11 +130,28 @@ public class GESystemImpl implements GESystem {
             t.setDaemon(true);
             return t;
         });
+        this.searchPool = new GEBulkhead("guardian-search", MULTI_TAG_PARALLELISM);
         this.sleeper = new SleepModule();
 
-        this.runtimeData = new HashMap<>();
+        this.runtimeData = Collections.synchronizedMap(new HashMap<>());
+
+        this.readingList = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.readingListStore = null;
+        this.tokenStore = null;
 
-        this.readingList = new ArrayList<>();
+        this.redditRefreshMargin = -1;
+        this.redditPassword = null;
+        this.redditGeneration = 0;
+        this.redditExpiry = null;
+        this.redditRenewal = null;
+
+        this.outboxStore = null;
+        this.outboxWorker = null;
+        this.outboxScheduler = null;
+        this.outboxDrain = null;
+
+        this.tagIndex = new GETagIndex();
+        this.crawlScheduler = null;
     }
 
     // Getter Methods
@@ -78,19 +162,26 @@ public class GESystemImpl implements GESystem {
      */
     @Override
     public Map<String, String> getRuntimeData() {
-        return new HashMap<>(this.runtimeData);
+        synchronized (this.runtimeData) {
+            return new HashMap<>(this.runtimeData);
+        }
     }
 
     // System modules
     /**
      * Injects a new comms manager. If null, the new comms manager will
-     * not be set, and the previous one will be kept.
+     * not be set, and the previous one will be kept; otherwise the
+     * previous one is shut down.
      * @param gecm Comms manager to inject.
      * @return If injection was successful or not.
      */
     @Override
     public boolean injectNewCommsManager(GECommsManager gecm) {
         if (gecm != null) {
+            if (gecm != this.comms) {
+                this.comms.shutdown();
+            }
+
             this.comms = gecm;
             return true;
         } else {
@@ -98,6 +189,23 @@ public class GESystemImpl implements GESystem {
         }
     }
 
+    /**
+     * Injects new comms drivers into the comms manager. If one is null,
+     * the respective old driver is kept.
+     * @param online Online comms driver to inject.
+     * @param offline Offline comms driver to inject.
+     * @return If injection was successful or not (i.e. both were null).
+     */
+    @Override
+    public boolean injectNewDrivers(GEComms online, GEComms offline) {
+        if (online == null && offline == null) {
+            return false;
+        }
+
+        this.comms.injectNewDrivers(online, offline);
+        return true;
+    }
+
     /**
      * Injects a new environment. If null, the new environment will not
      * be set, and the previous one will be kept.
@@ -130,6 +238,152 @@ public class GESystemImpl implements GESystem {
         }
     }
 
+    /**
+     * Injects a store to persist the reading list with. The current reading
+     * list is replaced with what the store has saved. If null or the store
+     * cannot be loaded, the store will not be set.
+     * @param store Reading list store to inject.
+     * @return If injection was successful or not.
+     */
+    @Override
+    public boolean injectReadingListStore(GEReadingListStore store) {
+        if (store == null) {
+            return false;
+        }
+
+        List<GContent> saved = store.load();
+
+        if (saved == null) {
+            this.screamError("Failed to load saved reading list.");
+            return false;
+        }
+
+        synchronized (this.readingList) {
+            this.readingList.clear();
+
+            for (GContent content : saved) {
+                this.readingList.putIfAbsent(content.id(), content);
+            }
+
+            this.readingListStore = store;
+        }
+
+        return true;
+    }
+
+    /**
+     * Injects a store to persist Reddit logins with. If the store has a
+     * login whose token is not about to expire, it is used as though just
+     * authenticated, so no login is needed until it expires. Later
+     * authentications are saved to the store. If null, the store will
+     * not be set.
+     * @param store Reddit token store to inject.
+     * @return If injection was successful or not.
+     */
+    @Override
+    public boolean injectRedditTokenStore(GERedditTokenStore store) {
+        if (store == null) {
+            return false;
+        }
+
+        this.tokenStore = store;
+
+        RedditSession saved = store.load();
+
+        if (saved != null) {
+            long remaining = Duration.between(Instant.now(), saved.expiresAt()).getSeconds();
+
+            if (remaining > REDDIT_TOKEN_REUSE_MARGIN) {
+                this.runtimeData.put(REDDIT_TOKEN.key, saved.token());
+                this.runtimeData.put(REDDIT_USERNAME.key, saved.username());
+                this.scheduleRedditExpiry(remaining);
+            } else {
+                store.clear();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Injects an outbox for emails and Reddit posts to be queued in and
+     * sent from in the background, retrying failures. Anything already
+     * pending in it (e.g. from before a restart) is sent. If null, the
+     * outbox will not be set.
+     * @param store Outbox store to inject.
+     * @return If injection was successful or not.
+     */
+    @Override
+    public boolean injectOutboxStore(GEOutboxStore store) {
+        if (store == null) {
+            return false;
+        }
+
+        // Replace any previous outbox
+        if (this.outboxScheduler != null) {
+            this.outboxScheduler.shutdownNow();
+        }
+
+        synchronized (this.outboxLock) {
+            this.outboxStore = store;
+            this.outboxWorker = new GEOutboxWorker(store,
+                                                   payload -> this.comms.sendBulkEmail(payload),
+                                                   this::sendRedditPost,
+                                                   this::screamError);
+            this.outboxScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread t = new Thread(runnable);
+                t.setDaemon(true);
+                return t;
+            });
+            this.outboxDrain = null;
+        }
+
+        this.scheduleOutboxDrain(0);
+
+        return true;
+    }
+
+    /**
+     * Injects a tag catalogue for tag searches to be answered from. The
+     * catalogue is loaded, and a background job checks hourly whether it
+     * needs crawling (or an interrupted crawl resuming), and crawls it if so.
+     * If null or the catalogue cannot be loaded, it will not be set.
+     * @param catalogue Tag catalogue to inject.
+     * @return If injection was successful or not.
+     */
+    @Override
+    public boolean injectTagCatalogue(GETagCatalogue catalogue) {
+        if (catalogue == null) {
+            return false;
+        }
+
+        if (!catalogue.load()) {
+            this.screamError("Failed to load tag catalogue.");
+            return false;
+        }
+
+        this.comms.injectTagCatalogue(catalogue);
+
+        // Replace any previous crawl job
+        if (this.crawlScheduler != null) {
+            this.crawlScheduler.shutdownNow();
+        }
+
+        GETagCrawler crawler = new GETagCrawler(this.comms, catalogue, this.sleeper);
+
+        this.crawlScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread t = new Thread(runnable);
+            t.setDaemon(true);
+            return t;
+        });
+        this.crawlScheduler.scheduleWithFixedDelay(crawler::crawlIfDue,
+                                                   0,
+                                                   CRAWL_CHECK_MINUTES,
+                                                   TimeUnit.MINUTES);
+
+        return true;
+    }
+
     // System State/Observation
     /**
      * Adds an observer to the system.
@@ -251,6 +505,39 @@ public class GESystemImpl implements GESystem {
             Thread.currentThread().interrupt();
         }
         /* End of copied code */
+
+        this.searchPool.shutdownNow();
+        this.comms.shutdown();
+
+        // Forget any kept Reddit credentials
+        this.setRedditRefreshMargin(-1);
+
+        if (this.readingListStore != null) {
+            this.readingListStore.close();
+        }
+
+        // Stop any crawl, giving it a moment to checkpoint so it can resume
+        if (this.crawlScheduler != null) {
+            this.crawlScheduler.shutdownNow();
+
+            try {
+                this.crawlScheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Stop sending the outbox, giving a send in progress a moment to be recorded;
+        // anything left is sent next time
+        if (this.outboxScheduler != null) {
+            this.outboxScheduler.shutdownNow();
+
+            try {
+                this.outboxScheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -278,11 +565,15 @@ public class GESystemImpl implements GESystem {
      * Gets tags from The Guardian API.
      * @param query Query to do. Cannot be null.
      * @return List of found guardian tags. Empty list if bad parameters or failure.
+     *         No error state is raised if the calling thread was interrupted
+     *         (i.e. the request was cancelled).
      */
     @Override
     public List<GTag> getTags(String query) {
         // Construct payload and then make request
-        GTagPayload payload = new GTagPayload(query, 1, 10);
+        GTagPayload payload = new GTagPayload(query, 1, TAG_PAGE_SIZE);
+        GESpan span = GETracer.span("getTags", "system");
+        GEDeadline deadline = GEDeadline.start("getTags", TAGS_DEADLINE);
 
         try {
             JsonObject data = this.comms.getTags(payload).getAsJsonObject("response");
@@ -301,14 +592,47 @@ public class GESystemImpl implements GESystem {
                 ));
             }
 
+            // Remember tags for later suggestions
+            this.tagIndex.addAll(ret);
+            this.tagIndex.markFetched(query);
+
             return ret;
         } catch (GECommsException | IllegalStateException | NullPointerException e) {
-            // Set error state, return empty
-            this.screamError("Tag getting error: " + e.getMessage());
+            // Set error state, return empty; unless cancelled, which isn't an error
+            if (!Thread.currentThread().isInterrupted()) {
+                this.screamError("Tag getting error: " + e.getMessage());
+            }
+
+            span.attribute("error", e.getMessage());
             return new ArrayList<>();
+        } finally {
+            deadline.close();
+            span.close();
         }
     }
 
+    /**
+     * Returns tags matching the prefix from the tags seen so far,
+     * without making any requests.
+     * @param prefix Prefix to match.
+     * @return Up to a page of matching tags. Empty list if none or prefix blank.
+     */
+    @Override
+    public List<GTag> suggestTags(String prefix) {
+        return this.tagIndex.lookup(prefix, TAG_PAGE_SIZE);
+    }
+
+    /**
+     * Returns whether suggestTags can fully answer a prefix; i.e. the
+     * prefix was already requested, or enough tags seen so far match it.
+     * @param prefix Prefix to check.
+     * @return Whether tags seen so far are enough to answer the prefix.
+     */
+    @Override
+    public boolean canSuggestTagsLocally(String prefix) {
+        return this.tagIndex.canAnswer(prefix, TAG_PAGE_SIZE);
+    }
+
     /**
      * Returns whether there is cached content for the given
      * tag/query/page combination. Essentially works as pass-through
@@ -322,7 +646,7 @@ public class GESystemImpl implements GESystem {
     @Override
     public boolean isCachedContent(GTag tag, String query, int page) {
         // Construct a payload, and send it
-        GContentPayload payload = new GContentPayload(tag, query, page, 10);
+        GContentPayload payload = new GContentPayload(tag, query, page, CONTENT_PAGE_SIZE);
         return this.comms.isContentCached(payload);
     }
 
@@ -346,12 +670,46 @@ public class GESystemImpl implements GESystem {
      * @param page Page to search on.
      * @param useCache Whether to use cache, if available.
      * @return List of found guardian content with the matching tag.
-     *         Empty list if bad parameters or failure.
+     *         Empty list if bad parameters or failure. No error state is raised
+     *         if the calling thread was interrupted (i.e. the request was cancelled).
      */
     @Override
     public List<GContent> getContent(GTag tag, String query, int page, boolean useCache) {
         // Construct payload and then make request
-        GContentPayload payload = new GContentPayload(tag, query, page, 10);
+        GContentPayload payload = new GContentPayload(tag, query, page, CONTENT_PAGE_SIZE);
+
+        return this.fetchContent(payload, useCache);
+    }
+
+    /**
+     * Starts a search for content across several tags at once. Pages of
+     * results come newest first, with each article only given once.
+     * Failed requests raise an error state as with getContent, and that
+     * tag's results end there.
+     * @param tags Tags to search.
+     * @param query Query to make.
+     * @return Search to get pages of results from.
+     */
+    @Override
+    public GEMultiTagSearch searchContent(List<GTag> tags, String query) {
+        return new GEMultiTagSearch(tags, CONTENT_PAGE_SIZE, this.searchPool, (tag, page) ->
+                this.fetchContent(new GContentPayload(tag, query, page,
+                                                      CONTENT_PAGE_SIZE, "newest"),
+                                  false));
+    }
+
+    /**
+     * Requests content and parses it.
+     * @param payload Payload of request.
+     * @param useCache Whether to use cache, if available.
+     * @return List of found guardian content. Empty list if failure. No error
+     *         state is raised if the calling thread was interrupted.
+     */
+    private List<GContent> fetchContent(GContentPayload payload, boolean useCache) {
+        GESpan span = GETracer.span("getContent", "system")
+                              .attribute("tag", payload.tag() == null ? null : payload.tag().id())
+                              .attribute("page", payload.page());
+        GEDeadline deadline = GEDeadline.start("getContent", CONTENT_DEADLINE);
 
         try {
             JsonObject data = this.comms.getContent(payload, useCache)
@@ -380,9 +738,16 @@ public class GESystemImpl implements GESystem {
 
             return ret;
         } catch (GECommsException | IllegalStateException | NullPointerException e) {
-            // Set error state, return empty
-            this.screamError("Content getting error: " + e.getMessage());
+            // Set error state, return empty; unless cancelled, which isn't an error
+            if (!Thread.currentThread().isInterrupted()) {
+                this.screamError("Content getting error: " + e.getMessage());
+            }
+
+            span.attribute("error", e.getMessage());
             return new ArrayList<>();
+        } finally {
+            deadline.close();
+            span.close();
         }
     }
 
@@ -398,13 +763,61 @@ public class GESystemImpl implements GESystem {
     public boolean sendEmail(GTag tag, List<GContent> content, String recipient) {
         // Construct Payload and make request
         ESendPayload payload = new ESendPayload(recipient, tag, content);
+        GESpan span = GETracer.span("sendEmail", "system");
+        GEDeadline deadline = GEDeadline.start("sendEmail", EMAIL_DEADLINE);
 
         try {
             return this.comms.sendEmail(payload);
         } catch (GECommsException e) {
             this.screamError("Email sending error: " + e.getMessage());
+            span.attribute("error", e.getMessage());
             return false;
+        } finally {
+            deadline.close();
+            span.close();
+        }
+    }
+
+    /**
+     * Sends an email with the tag and list of content from the Guardian API
+     * separately to each recipient, using as few requests as possible.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @param recipients Addresses to send email to.
+     * @return Result for each distinct recipient. Empty list if bad parameters
+     *         or failure before any sending.
+     */
+    @Override
+    public List<ESendResult> sendBulkEmail(GTag tag,
+                                           List<GContent> content,
+                                           List<String> recipients) {
+        // Construct Payload and make request
+        ESendBulkPayload payload = new ESendBulkPayload(recipients, tag, content);
+
+        List<ESendResult> results;
+        GESpan span = GETracer.span("sendBulkEmail", "system");
+        GEDeadline deadline = GEDeadline.start("sendBulkEmail", BULK_EMAIL_DEADLINE);
+
+        try {
+            results = this.comms.sendBulkEmail(payload);
+        } catch (GECommsException e) {
+            this.screamError("Email sending error: " + e.getMessage());
+            span.attribute("error", e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            deadline.close();
+            span.close();
         }
+
+        // Report failures all at once rather than per recipient
+        List<ESendResult> failed = results.stream().filter(r -> !r.success()).toList();
+
+        if (!failed.isEmpty()) {
+            this.screamError("Email sending error: failed to send to %d of %d recipients; %s"
+                             .formatted(failed.size(), results.size(), failed.get(0).message()));
+        }
+
+        return results;
     }
 
     // Reddit Operations
@@ -413,7 +826,11 @@ public class GESystemImpl implements GESystem {
      * system and a thread is started counting down when the token expires.
      * When this thread finishes (i.e. expiry occurs), it sets the runtimeData
      * "reddit_token" to "INVALIDATED", broadcasts to observers, and then sets
-     * "reddit_token" to null.
+     * "reddit_token" to null. If a Reddit token store is set, the login
+     * is saved to it for later sessions. If token renewal is on, the
+     * credentials are kept (masked) in memory, and the token is renewed in
+     * the background ahead of expiry instead; it is only invalidated if
+     * renewal fails.
      * @param username Username to authentication with.
      * @param password Password to authentication with.
      * @return Whether authentication was successful or not.
@@ -423,89 +840,474 @@ public class GESystemImpl implements GESystem {
         // Construct payload, make request
         RTokenPayload payload = new RTokenPayload(username, password);
         RedditToken token;
+        GESpan span = GETracer.span("authenticateReddit", "system");
+        GEDeadline deadline = GEDeadline.start("authenticateReddit", REDDIT_AUTH_DEADLINE);
 
         try {
             token = this.comms.getRedditToken(payload);
         } catch (GECommsException e) {
             this.screamError("Error Authenticating for Reddit: " + e.getMessage());
+            span.attribute("error", e.getMessage());
             return false;
+        } finally {
+            deadline.close();
+            span.close();
+        }
+
+        // Keep credentials to renew with, replacing any kept before
+        synchronized (this.redditLock) {
+            if (this.redditPassword != null) {
+                this.redditPassword.clear();
+                this.redditPassword = null;
+            }
+
+            if (this.redditRefreshMargin >= 0) {
+                this.redditPassword = new GEMaskedSecret(password);
+            }
         }
 
-        // Save data
+        this.useRedditToken(username, token);
+
+        return true;
+    }
+
+    /**
+     * Sets how long before a Reddit token expires to renew it in the
+     * background, with the credentials it was got with. Renewal is single
+     * flight; posts that find the token expired wait on the renewal in
+     * progress, rather than making their own. Negative turns renewal off
+     * (the default), and credentials are not kept.
+     * @param seconds Renewal margin in seconds, or negative for none.
+     */
+    @Override
+    public void setRedditRefreshMargin(long seconds) {
+        synchronized (this.redditLock) {
+            this.redditRefreshMargin = seconds;
+
+            if (seconds < 0 && this.redditPassword != null) {
+                this.redditPassword.clear();
+                this.redditPassword = null;
+            }
+        }
+    }
+
+    /**
+     * Starts using a Reddit token: saves it to the system (and token store,
+     * if any), and schedules its renewal or invalidation.
+     * @param username Username the token is for.
+     * @param token Token to use.
+     */
+    private void useRedditToken(String username, RedditToken token) {
         this.runtimeData.put(REDDIT_TOKEN.key, token.token());
         this.runtimeData.put(REDDIT_USERNAME.key, username);
 
-        // Start up invalidation thread
-        RedditToken finalToken = token;
-        Runnable invalidator = () -> {
-            this.sleeper.sleep(finalToken.expiry() * 1000L);
+        // Keep for later sessions; if that fails, only this session has it
+        if (this.tokenStore != null) {
+            this.tokenStore.save(new RedditSession(username,
+                                                   token.token(),
+                                                   Instant.now().plusSeconds(token.expiry())));
+        }
+
+        this.scheduleRedditExpiry(token.expiry());
+    }
 
-            // Invalidate, update observers
-            this.runtimeData.put(REDDIT_TOKEN.key, "INVALIDATED");
-            this.broadcast();
-            this.runtimeData.put(REDDIT_TOKEN.key, null);
-        };
+    /**
+     * Starts a thread counting down until the Reddit token expires,
+     * replacing any started for an earlier token. If the token can be
+     * renewed, it is renewed the renewal margin before expiry (or half way,
+     * for short lived tokens), and the new token gets its own countdown.
+     * Otherwise (or if renewal fails), when it expires "reddit_token" is
+     * set to "INVALIDATED", observers are broadcast to, and then it is set
+     * to null.
+     * @param expiry Seconds until the token expires.
+     */
+    private void scheduleRedditExpiry(long expiry) {
+        synchronized (this.redditLock) {
+            long generation = ++this.redditGeneration;
 
-        this.pool.execute(invalidator);
+            if (this.redditExpiry != null) {
+                this.redditExpiry.cancel(true);
+            }
 
-        return true;
+            Runnable invalidator = () -> {
+                long waited = 0;
+
+                if (this.canRenewReddit()) {
+                    waited = Math.max(expiry - this.redditRefreshMargin, expiry / 2);
+                    this.sleeper.sleep(waited * 1000L);
+
+                    // New token has its own countdown
+                    if (!this.isRedditGeneration(generation) || this.renewRedditToken()) {
+                        return;
+                    }
+                }
+
+                this.sleeper.sleep((expiry - waited) * 1000L);
+
+                // Superseded by a newer token while waiting
+                if (!this.isRedditGeneration(generation)) {
+                    return;
+                }
+
+                // Invalidate, update observers
+                this.runtimeData.put(REDDIT_TOKEN.key, "INVALIDATED");
+                this.broadcast();
+                this.runtimeData.put(REDDIT_TOKEN.key, null);
+            };
+
+            this.redditExpiry = this.pool.submit(invalidator);
+        }
+    }
+
+    /**
+     * Returns whether the current Reddit token is the given one.
+     * @param generation Count of the token, from when it was scheduled.
+     * @return Whether no newer token has been scheduled.
+     */
+    private boolean isRedditGeneration(long generation) {
+        synchronized (this.redditLock) {
+            return this.redditGeneration == generation;
+        }
+    }
+
+    /**
+     * Returns whether the Reddit token can be renewed without the user.
+     * @return Whether renewal is on and credentials are kept.
+     */
+    private boolean canRenewReddit() {
+        synchronized (this.redditLock) {
+            return this.redditRefreshMargin >= 0 && this.redditPassword != null;
+        }
+    }
+
+    /**
+     * Renews the Reddit token with the kept credentials. Single flight;
+     * if a renewal is already in progress, waits for it instead of
+     * making another. Failure raises no error state, as it happens in the
+     * background; the token is invalidated when it expires as usual.
+     * @return Whether the token was renewed.
+     */
+    private boolean renewRedditToken() {
+        CompletableFuture<Boolean> flight;
+        boolean leader = false;
+
+        synchronized (this.redditLock) {
+            if (this.redditRenewal == null) {
+                this.redditRenewal = new CompletableFuture<>();
+                leader = true;
+            }
+
+            flight = this.redditRenewal;
+        }
+
+        if (!leader) {
+            return flight.join();
+        }
+
+        boolean renewed = false;
+
+        try {
+            String username = this.runtimeData.get(REDDIT_USERNAME.key);
+            String password;
+
+            synchronized (this.redditLock) {
+                password = this.redditPassword != null ? this.redditPassword.reveal() : null;
+            }
+
+            if (username != null && password != null) {
+                GESpan span = GETracer.span("renewRedditToken", "system");
+                GEDeadline deadline = GEDeadline.start("renewRedditToken", REDDIT_AUTH_DEADLINE);
+
+                try {
+                    this.useRedditToken(username,
+                                        this.comms.getRedditToken(new RTokenPayload(username,
+                                                                                    password)));
+                    renewed = true;
+                } catch (GECommsException e) {
+                    // Left to expire
+                    span.attribute("error", e.getMessage());
+                } finally {
+                    deadline.close();
+                    span.close();
+                }
+            }
+        } finally {
+            synchronized (this.redditLock) {
+                this.redditRenewal = null;
+            }
+
+            flight.complete(renewed);
+        }
+
+        return renewed;
     }
 
     /**
      * Posts to reddit with the tag and list of content from the Guardian API.
-     * Requires reddit authentication.
+     * Requires reddit authentication. If the token has expired or is
+     * rejected and can be renewed, it is renewed (once) and the post made
+     * with the new token.
      * @param tag Tag to send.
      * @param content Content to send.
      * @return Whether send was successful or not.
      */
     @Override
     public boolean postReddit(GTag tag, List<GContent> content) {
-        // Construct Payload and make request
-        RPostPayload postPayload = new RPostPayload(this.getRuntimeData().get(REDDIT_USERNAME.key),
-                                                    this.getRuntimeData().get(REDDIT_TOKEN.key),
-                                                    tag,
-                                                    content);
+        GESpan span = GETracer.span("postReddit", "system");
+        GEDeadline deadline = GEDeadline.start("postReddit", REDDIT_POST_DEADLINE);
 
         try {
-            return this.comms.postReddit(postPayload);
+            return this.sendRedditPost(tag, content, null);
         } catch (GECommsException e) {
             this.screamError("Reddit posting error: " + e.getMessage());
+            span.attribute("error", e.getMessage());
             return false;
+        } finally {
+            deadline.close();
+            span.close();
+        }
+    }
+
+    /**
+     * Posts to reddit, renewing the token first if it has expired, and
+     * once more if it is rejected (if it can be renewed). A rejected
+     * token is forgotten, so the next post logs in again.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @param key Idempotency key of the post; null for none.
+     * @return Whether send was successful or not.
+     * @throws GECommsException If the post fails.
+     */
+    private boolean sendRedditPost(GTag tag,
+                                   List<GContent> content,
+                                   String key) throws GECommsException {
+        String token = this.runtimeData.get(REDDIT_TOKEN.key);
+
+        // Expired before renewal could happen; renew now
+        if ((token == null || token.equals("INVALIDATED")) && this.canRenewReddit()) {
+            this.renewRedditToken();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            // Construct Payload and make request
+            RPostPayload postPayload = new RPostPayload(
+                    this.getRuntimeData().get(REDDIT_USERNAME.key),
+                    this.getRuntimeData().get(REDDIT_TOKEN.key),
+                    tag,
+                    content,
+                    key);
+
+            try {
+                return this.comms.postReddit(postPayload);
+            } catch (GECommsException e) {
+                if (e.getCode() != 401) {
+                    throw e;
+                }
+
+                // Token was revoked; forget it so the next post logs in again
+                this.runtimeData.put(REDDIT_TOKEN.key, null);
+
+                if (this.tokenStore != null) {
+                    this.tokenStore.clear();
+                }
+
+                // Try again with a renewed token, if one can be had
+                if (attempt > 1 || !this.canRenewReddit() || !this.renewRedditToken()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Outbox Operations
+    /**
+     * Queues an email in the outbox, to be sent in the background.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @param recipient Address to send email to.
+     * @return Whether queued or not; false if there is no outbox, or
+     *         queueing failed (so the email should be sent directly).
+     */
+    @Override
+    public boolean queueEmail(GTag tag, List<GContent> content, String recipient) {
+        return this.enqueue(OutboxEntry.EMAIL, recipient, tag, content);
+    }
+
+    /**
+     * Queues a Reddit post in the outbox, to be made in the background with
+     * the Reddit login at the time. Requires reddit authentication.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @return Whether queued or not; false if there is no outbox, or
+     *         queueing failed (so the post should be made directly).
+     */
+    @Override
+    public boolean queueRedditPost(GTag tag, List<GContent> content) {
+        return this.enqueue(OutboxEntry.REDDIT, null, tag, content);
+    }
+
+    /**
+     * Adds an entry to the outbox and wakes the outbox worker.
+     * @param kind What to send.
+     * @param recipient Email address to send to; null for Reddit posts.
+     * @param tag Tag to send.
+     * @param content Content to send.
+     * @return Whether queued or not.
+     */
+    private boolean enqueue(String kind, String recipient, GTag tag, List<GContent> content) {
+        if (this.outboxStore == null) {
+            return false;
+        }
+
+        if (this.outboxStore.enqueue(kind, recipient, tag, content) == null) {
+            return false;
+        }
+
+        this.scheduleOutboxDrain(0);
+
+        return true;
+    }
+
+    /**
+     * Schedules the outbox to be drained, unless a drain is already
+     * scheduled sooner.
+     * @param delayMs Milliseconds until the drain.
+     */
+    private void scheduleOutboxDrain(long delayMs) {
+        synchronized (this.outboxLock) {
+            if (this.outboxDrain != null) {
+                if (this.outboxDrain.getDelay(TimeUnit.MILLISECONDS) <= delayMs) {
+                    return;
+                }
+
+                this.outboxDrain.cancel(false);
+            }
+
+            this.outboxDrain = this.outboxScheduler.schedule(this::drainOutbox,
+                                                             delayMs,
+                                                             TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends everything due in the outbox, then schedules the next drain for
+     * when the next entry is due (if any).
+     */
+    private void drainOutbox() {
+        // Entries queued from now on need a drain of their own
+        synchronized (this.outboxLock) {
+            this.outboxDrain = null;
+        }
+
+        while (this.outboxWorker.drain() == GEOutboxWorker.BATCH_LIMIT &&
+               !Thread.currentThread().isInterrupted()) {
+            // Full batch; there may be more due
+        }
+
+        Instant next = this.outboxStore.getNextDue();
+
+        if (next != null && !Thread.currentThread().isInterrupted()) {
+            this.scheduleOutboxDrain(Math.max(OUTBOX_MIN_POLL_MS,
+                                              Duration.between(Instant.now(), next).toMillis()));
         }
     }
 
     // Reading List Operations
     /**
-     * Returns the current article reading list.
+     * Returns a read-only snapshot of the current article reading list,
+     * in the order items were added.
      * @return Current article reading list.
      */
     @Override
     public List<GContent> getReadingList() {
-        return this.readingList;
+        synchronized (this.readingList) {
+            return List.copyOf(this.readingList.values());
+        }
+    }
+
+    /**
+     * Returns whether the given content is in the reading list.
+     * Content is matched on its ID.
+     * @param content Content to check.
+     * @return Whether content is in the reading list or not.
+     */
+    @Override
+    public boolean isInReadingList(GContent content) {
+        if (content == null || content.id() == null) {
+            return false;
+        }
+
+        return this.readingList.containsKey(content.id());
     }
 
     /**
      * Adds an item to the current reading list. Rejected if
-     * null or a duplicate of something already in the list.
+     * null or a duplicate (same ID) of something already in the list.
+     * If a reading list store is set, the add is recorded to it.
      * @param content Content to add.
      * @return If add was successful or not.
      */
     @Override
     public boolean addToReadingList(GContent content) {
-        if (content == null || this.readingList.contains(content)) {
+        if (content == null || content.id() == null) {
             return false;
-        } else {
-            return this.readingList.add(content);
         }
+
+        boolean saved = true;
+
+        synchronized (this.readingList) {
+            if (this.readingList.putIfAbsent(content.id(), content) != null) {
+                return false;
+            }
+
+            if (this.readingListStore != null) {
+                saved = this.readingListStore.recordAdd(content);
+            }
+        }
+
+        if (!saved) {
+            this.screamError("Failed to save reading list change; " +
+                             "it will be lost when the application closes.");
+        }
+
+        return true;
     }
 
     /**
      * Removes an item from the current reading list.
+     * Content is matched on its ID.
+     * If a reading list store is set, the removal is recorded to it,
+     * compacting the store if it has too many stale records.
      * @param content Content to remove.
      * @return If remove succeeded or not.
      */
     @Override
     public boolean removeFromReadingList(GContent content) {
-        return this.readingList.remove(content);
+        if (content == null || content.id() == null) {
+            return false;
+        }
+
+        boolean saved = true;
+
+        synchronized (this.readingList) {
+            if (this.readingList.remove(content.id()) == null) {
+                return false;
+            }
+
+            if (this.readingListStore != null) {
+                saved = this.readingListStore.recordRemove(content.id());
+
+                if (saved && this.readingListStore.needsCompaction(this.readingList.size())) {
+                    saved = this.readingListStore.compact(List.copyOf(this.readingList.values()));
+                }
+            }
+        }
+
+        if (!saved) {
+            this.screamError("Failed to save reading list change; " +
+                             "it will be lost when the application closes.");
+        }
+
+        return true;
     }
 }
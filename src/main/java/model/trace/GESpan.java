@@ -0,0 +1,198 @@
+package model.trace;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A timed stage of a traced user action. Spans of one action share a
+ * trace ID, and each (other than the root) has a parent span. Closing a
+ * span ends it and makes its parent the current span of its thread again.
+ * When not tracing, the spans given are a no-op span that records nothing.
+ * @see GETracer
+ */
+public class GESpan implements AutoCloseable {
+    // Span that records nothing, for when not tracing
+    static final GESpan NOOP = new GESpan(null, null, null, null, null, 0, null, null);
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentId; // Null for the root span of a trace
+    private final String name;
+    private final String layer;
+    private final long startNanos;
+    private final Thread startThread; // Thread the span started on
+    private final GESpan previous; // Current span of the thread before this one; null if none
+    private final Map<String, Object> attributes;
+    private final AtomicBoolean ended;
+    private volatile long endNanos;
+    private volatile Thread thread; // Thread the span ended on
+
+    /**
+     * Creates a span.
+     * @param traceId ID of trace.
+     * @param spanId ID of span.
+     * @param parentId ID of parent span; null if root.
+     * @param name Name of stage.
+     * @param layer Layer of the application the stage is in.
+     * @param startNanos When the stage started (System.nanoTime()).
+     * @param startThread Thread the stage started on.
+     * @param previous Span to make current again when closed; null if none.
+     */
+    GESpan(String traceId,
+           String spanId,
+           String parentId,
+           String name,
+           String layer,
+           long startNanos,
+           Thread startThread,
+           GESpan previous) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.layer = layer;
+        this.startNanos = startNanos;
+        this.startThread = startThread;
+        this.previous = previous;
+        this.attributes = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.ended = new AtomicBoolean(false);
+    }
+
+    // Getters
+    /**
+     * Returns whether the span records anything.
+     * @return False if this is the no-op span.
+     */
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    /**
+     * Returns the ID of the trace the span is in.
+     * @return Trace ID.
+     */
+    public String getTraceId() {
+        return this.traceId;
+    }
+
+    /**
+     * Returns the ID of the span.
+     * @return Span ID.
+     */
+    public String getSpanId() {
+        return this.spanId;
+    }
+
+    /**
+     * Returns the ID of the parent span.
+     * @return Parent span ID; null if this is the root span.
+     */
+    public String getParentId() {
+        return this.parentId;
+    }
+
+    /**
+     * Returns the name of the stage.
+     * @return Name of stage.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the layer of the application the stage is in.
+     * @return Layer of stage.
+     */
+    public String getLayer() {
+        return this.layer;
+    }
+
+    /**
+     * Returns when the stage started.
+     * @return Start time (System.nanoTime()).
+     */
+    public long getStartNanos() {
+        return this.startNanos;
+    }
+
+    /**
+     * Returns how long the stage took.
+     * @return Duration in nanoseconds; -1 if not ended.
+     */
+    public long getDurationNanos() {
+        return this.ended.get() ? this.endNanos - this.startNanos : -1;
+    }
+
+    /**
+     * Returns the thread the span started on.
+     * @return Thread.
+     */
+    public Thread getStartThread() {
+        return this.startThread;
+    }
+
+    /**
+     * Returns the thread the span ended on.
+     * @return Thread; null if not ended.
+     */
+    public Thread getThread() {
+        return this.thread;
+    }
+
+    /**
+     * Returns a copy of the span's attributes.
+     * @return Attributes, in the order set.
+     */
+    public Map<String, Object> getAttributes() {
+        synchronized (this.attributes) {
+            return new LinkedHashMap<>(this.attributes);
+        }
+    }
+
+    // Span Operations
+    /**
+     * Sets an attribute of the span, e.g. a status code.
+     * Does nothing on the no-op span.
+     * @param key Name of attribute.
+     * @param value Value of attribute.
+     * @return This span.
+     */
+    public GESpan attribute(String key, Object value) {
+        if (this.isRecording() && key != null) {
+            this.attributes.put(key, value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Ends the span and exports it, without changing the current span.
+     * Used for spans that end on another thread to the one they started
+     * on. Only the first end counts.
+     */
+    public void end() {
+        if (!this.isRecording() || !this.ended.compareAndSet(false, true)) {
+            return;
+        }
+
+        this.endNanos = System.nanoTime();
+        this.thread = Thread.currentThread();
+
+        GETracer.export(this);
+    }
+
+    /**
+     * Ends the span, and makes the span current before it current again.
+     */
+    @Override
+    public void close() {
+        if (!this.isRecording()) {
+            return;
+        }
+
+        this.end();
+        GETracer.restore(this, this.previous);
+    }
+}
@@ -0,0 +1,196 @@
+package model.trace;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes finished spans to a file in the Trace Event Format (JSON array
+ * form), as read by Perfetto (ui.perfetto.dev) and chrome://tracing.
+ * A span that starts and ends on the same thread is a complete ("X")
+ * event on that thread. Root spans, and spans that start on one thread
+ * and end on another (e.g. queue waits), would overlap other spans of
+ * a thread, so are async ("b"/"e") events with the span ID as their ID
+ * instead. Each has its layer as the category and its trace/span/parent
+ * IDs and attributes as arguments. Events are written as they finish,
+ * and the file stays readable if the application stops without closing it.
+ */
+public class GETraceExporter {
+    private Path path; // Path to trace file
+    private BufferedWriter writer; // Open writer; null until first needed, or if closed
+    private boolean closed;
+    private boolean first; // Whether no events are written yet
+    private Set<Long> namedThreads; // Threads given a name in the file
+
+    // Wall clock time at a point of System.nanoTime(), to timestamp events with
+    private long originMicros;
+    private long originNanos;
+
+    /**
+     * Creates a trace exporter. The file is replaced on the first write.
+     * @param path Path to trace file.
+     */
+    public GETraceExporter(String path) {
+        this.path = Paths.get(path);
+        this.writer = null;
+        this.closed = false;
+        this.first = true;
+        this.namedThreads = new HashSet<>();
+
+        Instant now = Instant.now();
+        this.originNanos = System.nanoTime();
+        this.originMicros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+    }
+
+    /**
+     * Writes a finished span to the file.
+     * @param span Span to write. Cannot be null, and must have ended.
+     * @return Whether the operation was successful or not.
+     */
+    public synchronized boolean export(GESpan span) {
+        if (span == null || this.closed || span.getDurationNanos() < 0) {
+            return false;
+        }
+
+        long tid = span.getThread().getId();
+
+        JsonObject args = new JsonObject();
+        args.add("traceId", new JsonPrimitive(span.getTraceId()));
+        args.add("spanId", new JsonPrimitive(span.getSpanId()));
+
+        if (span.getParentId() != null) {
+            args.add("parentId", new JsonPrimitive(span.getParentId()));
+        }
+
+        for (Map.Entry<String, Object> e : span.getAttributes().entrySet()) {
+            args.add(e.getKey(), new JsonPrimitive(String.valueOf(e.getValue())));
+        }
+
+        long start = this.toMicros(span.getStartNanos());
+        long duration = span.getDurationNanos() / 1000;
+        boolean async = span.getParentId() == null || span.getStartThread() != span.getThread();
+
+        JsonObject event = this.event(span, async ? "b" : "X", start, tid);
+        JsonObject end = null;
+
+        if (async) {
+            end = this.event(span, "e", start + duration, tid);
+        } else {
+            event.add("dur", new JsonPrimitive(duration));
+        }
+
+        event.add("args", args);
+
+        try {
+            if (this.writer == null) {
+                this.writer = Files.newBufferedWriter(this.path,
+                                                      StandardCharsets.UTF_8,
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                      StandardOpenOption.WRITE);
+                this.writer.write("[");
+            }
+
+            // Name each thread once, so viewers show thread names
+            if (this.namedThreads.add(tid)) {
+                JsonObject nameArgs = new JsonObject();
+                nameArgs.add("name", new JsonPrimitive(span.getThread().getName()));
+
+                JsonObject meta = new JsonObject();
+                meta.add("name", new JsonPrimitive("thread_name"));
+                meta.add("ph", new JsonPrimitive("M"));
+                meta.add("pid", new JsonPrimitive(1));
+                meta.add("tid", new JsonPrimitive(tid));
+                meta.add("args", nameArgs);
+
+                this.write(meta);
+            }
+
+            this.write(event);
+
+            if (end != null) {
+                this.write(end);
+            }
+
+            this.writer.flush();
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Makes an event of a span, without its arguments.
+     * @param span Span of event.
+     * @param phase Phase of event ("X" for complete, "b"/"e" for async begin/end).
+     * @param ts Time of event, in microseconds since the epoch.
+     * @param tid ID of thread of event.
+     * @return Event.
+     */
+    private JsonObject event(GESpan span, String phase, long ts, long tid) {
+        JsonObject ret = new JsonObject();
+        ret.add("name", new JsonPrimitive(span.getName()));
+        ret.add("cat", new JsonPrimitive(span.getLayer()));
+        ret.add("ph", new JsonPrimitive(phase));
+
+        if (!phase.equals("X")) {
+            ret.add("id", new JsonPrimitive(span.getSpanId()));
+        }
+
+        ret.add("ts", new JsonPrimitive(ts));
+        ret.add("pid", new JsonPrimitive(1));
+        ret.add("tid", new JsonPrimitive(tid));
+
+        return ret;
+    }
+
+    /**
+     * Writes an event to the file, after a separator if not the first.
+     * @param event Event to write.
+     * @throws IOException If writing fails.
+     */
+    private void write(JsonObject event) throws IOException {
+        this.writer.write(this.first ? "\n" : ",\n");
+        this.writer.write(event.toString());
+        this.first = false;
+    }
+
+    /**
+     * Converts a System.nanoTime() to wall clock microseconds.
+     * @param nanos Time to convert.
+     * @return Microseconds since the epoch.
+     */
+    private long toMicros(long nanos) {
+        return this.originMicros + (nanos - this.originNanos) / 1000;
+    }
+
+    /**
+     * Finishes and closes the trace file. Spans finished after are dropped.
+     */
+    public synchronized void close() {
+        this.closed = true;
+
+        if (this.writer != null) {
+            try {
+                this.writer.write("\n]\n");
+                this.writer.close();
+            } catch (IOException e) {
+                // Nothing more to do; viewers accept the file without the end
+            }
+
+            this.writer = null;
+        }
+    }
+}
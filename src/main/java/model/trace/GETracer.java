@@ -0,0 +1,281 @@
+package model.trace;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Lightweight tracing of user actions through the application layers.
+ * Each user action starts a trace; the stages it goes through (queue
+ * waits, cache probes, network requests, parsing, rendering) are spans
+ * of that trace, each timed and linked to the span it happened within.
+ * The current span is kept per thread, and carried across executors by
+ * wrapping tasks as they are submitted. Finished spans are given to the
+ * trace exporter; with no exporter set, tracing is off and every span
+ * is a no-op span.
+ */
+public final class GETracer {
+    // Current span of each thread; unset if none
+    private static final ThreadLocal<GESpan> CURRENT = new ThreadLocal<>();
+
+    private static volatile GETraceExporter exporter = null; // Null if not tracing
+
+    private GETracer() {
+    }
+
+    // Tracer State
+    /**
+     * Sets the exporter finished spans are given to, turning tracing
+     * on; or turns tracing off if null. Any previous exporter is not closed.
+     * @param e Exporter to use, or null for no tracing.
+     */
+    public static void setExporter(GETraceExporter e) {
+        exporter = e;
+    }
+
+    /**
+     * Returns whether tracing is on.
+     * @return Whether an exporter is set.
+     */
+    public static boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * Returns the current span of the calling thread.
+     * @return Current span; the no-op span if none.
+     */
+    public static GESpan current() {
+        GESpan ret = CURRENT.get();
+        return ret != null ? ret : GESpan.NOOP;
+    }
+
+    // Spans
+    /**
+     * Starts a new trace for a user action. The root span is not made
+     * current; hand it to wrap for the work done for the action, and
+     * end it when the action is done.
+     * @param name Name of action.
+     * @param layer Layer the action started in.
+     * @return Root span of the trace; the no-op span if not tracing.
+     */
+    public static GESpan startTrace(String name, String layer) {
+        if (!isEnabled()) {
+            return GESpan.NOOP;
+        }
+
+        return new GESpan(newId(16), newId(8), null, name, layer, System.nanoTime(),
+                          Thread.currentThread(), null);
+    }
+
+    /**
+     * Starts a span within the current span, and makes it current until
+     * closed. Use with try-with-resources.
+     * @param name Name of stage.
+     * @param layer Layer of the application the stage is in.
+     * @return Span started; the no-op span if the thread isn't in a trace.
+     */
+    public static GESpan span(String name, String layer) {
+        return start(current(), name, layer, System.nanoTime(), Thread.currentThread());
+    }
+
+    /**
+     * Starts a child span and makes it current.
+     * @param parent Parent span.
+     * @param name Name of stage.
+     * @param layer Layer of the application the stage is in.
+     * @param startNanos When the stage started.
+     * @param startThread Thread the stage started on.
+     * @return Span started; the no-op span if the parent is.
+     */
+    private static GESpan start(GESpan parent,
+                                String name,
+                                String layer,
+                                long startNanos,
+                                Thread startThread) {
+        if (!parent.isRecording()) {
+            return GESpan.NOOP;
+        }
+
+        GESpan ret = new GESpan(parent.getTraceId(),
+                                newId(8),
+                                parent.getSpanId(),
+                                name,
+                                layer,
+                                startNanos,
+                                startThread,
+                                CURRENT.get());
+        CURRENT.set(ret);
+
+        return ret;
+    }
+
+    /**
+     * Makes a span current again after another has closed, if the closed
+     * span is still the current one.
+     * @param closed Span closed.
+     * @param previous Span to make current; null for none.
+     */
+    static void restore(GESpan closed, GESpan previous) {
+        if (CURRENT.get() != closed) {
+            return;
+        }
+
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Gives a finished span to the exporter, if any.
+     * @param span Finished span.
+     */
+    static void export(GESpan span) {
+        GETraceExporter e = exporter;
+
+        if (e != null) {
+            e.export(span);
+        }
+    }
+
+    /**
+     * Makes a random hex ID.
+     * @param bytes Length of ID in bytes.
+     * @return ID.
+     */
+    private static String newId(int bytes) {
+        StringBuilder sb = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < bytes; i++) {
+            sb.append(String.format("%02x", random.nextInt(256)));
+        }
+
+        return sb.toString();
+    }
+
+    // Propagation
+    /**
+     * Wraps a task to be run on another thread in the calling thread's
+     * current span. When run, the time it waited is recorded as a
+     * "name queue" span, and it runs in a "name" span.
+     * @param name Name of task.
+     * @param layer Layer of the application the task is in.
+     * @param task Task to wrap.
+     * @return Wrapped task; the task itself if the thread isn't in a trace.
+     */
+    public static Runnable wrap(String name, String layer, Runnable task) {
+        return wrap(current(), name, layer, task);
+    }
+
+    /**
+     * Wraps a task to be run on another thread in a given span.
+     * @param parent Span to run the task in.
+     * @param name Name of task.
+     * @param layer Layer of the application the task is in.
+     * @param task Task to wrap.
+     * @return Wrapped task; the task itself if the span is the no-op span.
+     * @see #wrap(String, String, Runnable)
+     */
+    public static Runnable wrap(GESpan parent, String name, String layer, Runnable task) {
+        if (!parent.isRecording()) {
+            return task;
+        }
+
+        long submitted = System.nanoTime();
+        Thread submitter = Thread.currentThread();
+
+        return () -> {
+            GESpan span = enter(parent, name, layer, submitted, submitter);
+
+            try {
+                task.run();
+            } finally {
+                span.close();
+            }
+        };
+    }
+
+    /**
+     * Wraps a task to be run on another thread in the calling thread's
+     * current span.
+     * @param name Name of task.
+     * @param layer Layer of the application the task is in.
+     * @param task Task to wrap.
+     * @param <T> Type of task result.
+     * @return Wrapped task; the task itself if the thread isn't in a trace.
+     * @see #wrap(String, String, Runnable)
+     */
+    public static <T> Callable<T> wrapCallable(String name, String layer, Callable<T> task) {
+        GESpan parent = current();
+
+        if (!parent.isRecording()) {
+            return task;
+        }
+
+        long submitted = System.nanoTime();
+        Thread submitter = Thread.currentThread();
+
+        return () -> {
+            GESpan span = enter(parent, name, layer, submitted, submitter);
+
+            try {
+                return task.call();
+            } finally {
+                span.close();
+            }
+        };
+    }
+
+    /**
+     * Wraps a task to be run on another thread in the calling thread's
+     * current span.
+     * @param name Name of task.
+     * @param layer Layer of the application the task is in.
+     * @param task Task to wrap.
+     * @param <T> Type of task result.
+     * @return Wrapped task; the task itself if the thread isn't in a trace.
+     * @see #wrap(String, String, Runnable)
+     */
+    public static <T> Supplier<T> wrapSupplier(String name, String layer, Supplier<T> task) {
+        GESpan parent = current();
+
+        if (!parent.isRecording()) {
+            return task;
+        }
+
+        long submitted = System.nanoTime();
+        Thread submitter = Thread.currentThread();
+
+        return () -> {
+            GESpan span = enter(parent, name, layer, submitted, submitter);
+
+            try {
+                return task.get();
+            } finally {
+                span.close();
+            }
+        };
+    }
+
+    /**
+     * Records how long a wrapped task waited, and starts its span.
+     * @param parent Span the task was submitted in.
+     * @param name Name of task.
+     * @param layer Layer of the application the task is in.
+     * @param submitted When the task was submitted.
+     * @param submitter Thread the task was submitted on.
+     * @return Span of the task, made current.
+     */
+    private static GESpan enter(GESpan parent,
+                                String name,
+                                String layer,
+                                long submitted,
+                                Thread submitter) {
+        start(parent, name + " queue", layer, submitted, submitter).close();
+
+        return start(parent, name, layer, System.nanoTime(), Thread.currentThread());
+    }
+}
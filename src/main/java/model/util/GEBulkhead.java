@@ -0,0 +1,541 @@
+package model.util;
+
+import jdk.jfr.FlightRecorder;
+import model.jfr.GEBulkheadEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A pool of threads kept for one kind of work (e.g. searches of one API,
+ * or sends to another), so that work held up elsewhere can't take its
+ * threads, nor work held up here take theirs. How saturated it is
+ * (threads busy, work waiting, how long work waited) is kept, and
+ * recorded to the flight recorder every second while the bulkhead is open.
+ * <p>
+ * Work is queued by priority rather than first come first served: a
+ * free thread takes interactive work (a click) before sends, and sends
+ * before background work (e.g. prefetching), however long the others
+ * have been waiting. So that a click never waits on background work
+ * already running, background work is never given the last free thread.
+ * Lower priority work still gets its turn once it has waited long enough
+ * ("aged"): it then goes ahead of newer work of the priorities above it,
+ * except interactive work, which it only goes ahead of once in every few
+ * tasks. Work of the same priority is run in the order given.
+ * All methods are thread safe.
+ */
+public class GEBulkhead extends AbstractExecutorService {
+    /**
+     * Priority of work, highest first.
+     */
+    public enum Priority {
+        /**
+         * Work a user is waiting on, e.g. a search.
+         */
+        INTERACTIVE,
+        /**
+         * Sends a user asked for, e.g. an email.
+         */
+        SEND,
+        /**
+         * Work nobody is waiting on yet, e.g. prefetching.
+         */
+        BACKGROUND
+    }
+
+    /**
+     * Snapshot of how saturated a bulkhead is.
+     * @param name Name of bulkhead.
+     * @param threads Number of threads.
+     * @param active Tasks running.
+     * @param queued Tasks waiting for a thread.
+     * @param peakQueued Most tasks that have waited at once.
+     * @param completed Tasks finished.
+     * @param totalWaitNanos Total time finished and running tasks waited for a thread.
+     * @param maxWaitNanos Longest a task has waited for a thread.
+     */
+    public record Stats(
+            String name,
+            int threads,
+            int active,
+            int queued,
+            int peakQueued,
+            long completed,
+            long totalWaitNanos,
+            long maxWaitNanos
+    ) {
+        /**
+         * Returns the share of threads busy.
+         * @return Utilisation, from 0 to 1.
+         */
+        public double utilisation() {
+            return this.threads == 0 ? 0 : (double) this.active / this.threads;
+        }
+    }
+
+    /**
+     * A task waiting for a thread.
+     * @param task Task to run.
+     * @param priority Priority of task.
+     * @param queuedAt Time the task was queued at, by the bulkhead's clock.
+     */
+    private record Waiting(Runnable task, Priority priority, long queuedAt) { }
+
+    // How long lower priority work waits before it is aged (ms)
+    static final long AGING_MS = 2000;
+    // Interactive tasks run in a row, while aged work waits, before aged work is let in
+    private static final int INTERACTIVE_BURST = 4;
+
+    // Open bulkheads, for recording saturation
+    private static final Set<GEBulkhead> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+        FlightRecorder.addPeriodicEvent(GEBulkheadEvent.class, GEBulkhead::recordAll);
+    }
+
+    private final String name;
+    private final int threads;
+    private final LongSupplier clock; // Nanosecond time source; System.nanoTime() unless testing
+
+    // All state below is guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition(); // Work queued or finished, or shut down
+    private final Condition terminated = this.lock.newCondition();
+    private final Map<Priority, ArrayDeque<Waiting>> waiting = new EnumMap<>(Priority.class);
+    private final List<Thread> workers = new ArrayList<>(); // Started as needed
+    private int alive; // Workers not yet exited
+    private int interactiveStreak; // Interactive tasks run in a row while aged work waited
+    private boolean shutdown;
+    private boolean stopping; // Shut down now; waiting tasks dropped, running ones interrupted
+
+    private int active;
+    private int queued;
+    private int peakQueued;
+    private long completed;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * Creates a bulkhead of daemon threads, started as work comes in.
+     * @param name Name of bulkhead; also names its threads.
+     * @param threads Number of threads; at least 1.
+     */
+    public GEBulkhead(String name, int threads) {
+        this(name, threads, System::nanoTime);
+    }
+
+    /**
+     * Creates a bulkhead of daemon threads, started as work comes in, that
+     * times how long work waits (and so when it has aged) with a given clock.
+     * @param name Name of bulkhead; also names its threads.
+     * @param threads Number of threads; at least 1.
+     * @param clock Nanosecond time source, like System.nanoTime().
+     */
+    GEBulkhead(String name, int threads, LongSupplier clock) {
+        this.name = name;
+        this.threads = Math.max(1, threads);
+        this.clock = clock;
+
+        for (Priority priority : Priority.values()) {
+            this.waiting.put(priority, new ArrayDeque<>());
+        }
+
+        OPEN.add(this);
+    }
+
+    // Execution
+    /**
+     * Runs an interactive task on one of the bulkhead's threads once one is free.
+     * @param task Task to run.
+     * @throws RejectedExecutionException If the bulkhead is shut down.
+     */
+    @Override
+    public void execute(Runnable task) {
+        this.execute(Priority.INTERACTIVE, task);
+    }
+
+    /**
+     * Runs a task on one of the bulkhead's threads once one is free, ahead
+     * of any lower priority work waiting.
+     * @param priority Priority of task.
+     * @param task Task to run.
+     * @throws RejectedExecutionException If the bulkhead is shut down.
+     */
+    public void execute(Priority priority, Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+
+        this.lock.lock();
+
+        try {
+            if (this.shutdown) {
+                throw new RejectedExecutionException("Bulkhead " + this.name + " is shut down.");
+            }
+
+            this.waiting.get(priority).addLast(new Waiting(task, priority, this.clock.getAsLong()));
+            this.queued++;
+            this.peakQueued = Math.max(this.peakQueued, this.queued);
+
+            // Start another thread if all started are busy
+            if (this.workers.size() < this.threads && this.workers.size() - this.active < this.queued) {
+                this.startWorker();
+            }
+
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Starts a worker thread. Must hold lock.
+     */
+    private void startWorker() {
+        Thread t = new Thread(this::work);
+        t.setName(this.name + "-" + (this.workers.size() + 1));
+        t.setDaemon(true);
+
+        this.workers.add(t);
+        this.alive++;
+        t.start();
+    }
+
+    /**
+     * Runs tasks as they come, until shut down with nothing left waiting
+     * (or shut down now).
+     */
+    private void work() {
+        try {
+            while (true) {
+                Waiting next = this.take();
+
+                if (next == null) {
+                    return;
+                }
+
+                try {
+                    next.task().run();
+                } catch (RuntimeException | Error e) {
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, e);
+                } finally {
+                    this.finished();
+                }
+            }
+        } finally {
+            this.lock.lock();
+
+            try {
+                if (--this.alive == 0 && this.shutdown) {
+                    this.terminated.signalAll();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits for the next task this thread can run.
+     * @return Task to run; null if the thread should exit.
+     */
+    private Waiting take() {
+        this.lock.lock();
+
+        try {
+            while (true) {
+                if (this.stopping) {
+                    return null;
+                }
+
+                // A cancelled task's interrupt is not for the next one
+                Thread.interrupted();
+
+                long now = this.clock.getAsLong();
+                Waiting next = this.next(now);
+
+                if (next != null) {
+                    long waited = now - next.queuedAt();
+                    this.queued--;
+                    this.active++;
+                    this.totalWaitNanos += waited;
+                    this.maxWaitNanos = Math.max(this.maxWaitNanos, waited);
+
+                    return next;
+                }
+
+                if (this.shutdown && this.queued == 0) {
+                    return null;
+                }
+
+                try {
+                    this.changed.await();
+                } catch (InterruptedException e) {
+                    // Only shutting down now interrupts idle threads; checked above
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Records a task as finished.
+     */
+    private void finished() {
+        this.lock.lock();
+
+        try {
+            this.active--;
+            this.completed++;
+
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the task to run next off its queue. Must hold lock.
+     * @param now Current time, by the bulkhead's clock.
+     * @return Task to run next; null if none can run.
+     */
+    private Waiting next(long now) {
+        ArrayDeque<Waiting> interactive = this.waiting.get(Priority.INTERACTIVE);
+        ArrayDeque<Waiting> sends = this.waiting.get(Priority.SEND);
+        ArrayDeque<Waiting> background = this.waiting.get(Priority.BACKGROUND);
+
+        // Background work never takes the last free thread, so one is always
+        // left for a click; unless there is only the one thread
+        boolean backgroundAllowed = this.threads == 1 || this.active < this.threads - 1;
+        Waiting send = sends.peekFirst();
+        Waiting back = backgroundAllowed ? background.peekFirst() : null;
+
+        // Of the lower priority work, aged work (oldest first) goes ahead of sends
+        Waiting aged = null;
+
+        if (send != null && this.isAged(send, now)) {
+            aged = send;
+        }
+
+        if (back != null && this.isAged(back, now) &&
+            (aged == null || back.queuedAt() - aged.queuedAt() < 0)) {
+            aged = back;
+        }
+
+        if (!interactive.isEmpty()) {
+            if (aged == null) {
+                this.interactiveStreak = 0;
+                return interactive.pollFirst();
+            } else if (this.interactiveStreak < INTERACTIVE_BURST) {
+                this.interactiveStreak++;
+                return interactive.pollFirst();
+            }
+        }
+
+        this.interactiveStreak = 0;
+
+        if (aged != null) {
+            return this.waiting.get(aged.priority()).pollFirst();
+        } else if (send != null) {
+            return sends.pollFirst();
+        } else if (back != null) {
+            return background.pollFirst();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns whether a task has waited long enough to be aged.
+     * @param task Waiting task.
+     * @param now Current time, by the bulkhead's clock.
+     * @return Whether aged.
+     */
+    private boolean isAged(Waiting task, long now) {
+        return now - task.queuedAt() >= TimeUnit.MILLISECONDS.toNanos(AGING_MS);
+    }
+
+    // Saturation
+    /**
+     * Returns the name of the bulkhead.
+     * @return Name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns how saturated the bulkhead is right now.
+     * @return Snapshot of saturation.
+     */
+    public Stats getStats() {
+        this.lock.lock();
+
+        try {
+            return new Stats(this.name,
+                             this.threads,
+                             this.active,
+                             this.queued,
+                             this.peakQueued,
+                             this.completed,
+                             this.totalWaitNanos,
+                             this.maxWaitNanos);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Records the saturation of every open bulkhead to the flight recorder.
+     */
+    private static void recordAll() {
+        for (GEBulkhead bulkhead : OPEN) {
+            GEBulkheadEvent event = new GEBulkheadEvent();
+
+            if (!event.shouldCommit()) {
+                return;
+            }
+
+            Stats stats = bulkhead.getStats();
+            event.name = stats.name();
+            event.threads = stats.threads();
+            event.active = stats.active();
+            event.queued = stats.queued();
+            event.completed = stats.completed();
+            event.maxWait = stats.maxWaitNanos();
+            event.commit();
+        }
+    }
+
+    // Lifecycle
+    /**
+     * Stops taking tasks; those already taken are still run.
+     */
+    @Override
+    public void shutdown() {
+        OPEN.remove(this);
+        this.lock.lock();
+
+        try {
+            this.shutdown = true;
+            this.changed.signalAll();
+
+            if (this.alive == 0) {
+                this.terminated.signalAll();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops taking tasks, interrupts those running, and drops those waiting.
+     * @return Tasks that were waiting.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        OPEN.remove(this);
+        this.lock.lock();
+
+        try {
+            this.shutdown = true;
+            this.stopping = true;
+
+            List<Runnable> ret = new ArrayList<>();
+
+            for (ArrayDeque<Waiting> queue : this.waiting.values()) {
+                for (Waiting w : queue) {
+                    ret.add(w.task());
+                }
+
+                queue.clear();
+            }
+
+            this.queued = 0;
+
+            for (Thread t : this.workers) {
+                t.interrupt();
+            }
+
+            this.changed.signalAll();
+
+            if (this.alive == 0) {
+                this.terminated.signalAll();
+            }
+
+            return ret;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the bulkhead has been shut down.
+     * @return Whether shut down.
+     */
+    @Override
+    public boolean isShutdown() {
+        this.lock.lock();
+
+        try {
+            return this.shutdown;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the bulkhead has been shut down and all its tasks have finished.
+     * @return Whether terminated.
+     */
+    @Override
+    public boolean isTerminated() {
+        this.lock.lock();
+
+        try {
+            return this.shutdown && this.alive == 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for all tasks to finish after a shutdown.
+     * @param timeout Longest to wait.
+     * @param unit Unit of timeout.
+     * @return Whether terminated, rather than timing out.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lock();
+
+        try {
+            while (!this.shutdown || this.alive > 0) {
+                if (nanos <= 0) {
+                    return false;
+                }
+
+                nanos = this.terminated.awaitNanos(nanos);
+            }
+
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package model.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helpers for append-only journal files of one record per line.
+ */
+public final class GEJournalFiles {
+    private GEJournalFiles() {
+    }
+
+    /**
+     * Returns whether a journal file ends part way through a line (e.g. a
+     * record cut short by a crash), rather than after a newline.
+     * @param path Path to journal file.
+     * @return Whether the last line is unfinished; false if no file or empty.
+     * @throws IOException If the file can't be read.
+     */
+    public static boolean endsMidLine(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return false;
+            }
+
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1);
+            channel.read(last);
+
+            return last.get(0) != '\n';
+        }
+    }
+}
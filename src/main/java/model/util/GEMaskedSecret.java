@@ -0,0 +1,65 @@
+package model.util;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * A secret (e.g. a password) kept in memory only masked with a random
+ * one-time pad, so it can't be read straight out of a heap dump or
+ * swapped memory, and wiped when no longer needed. It is only unmasked
+ * for the moment it is used.
+ * All methods are thread safe.
+ */
+public class GEMaskedSecret {
+    private char[] masked; // Null once cleared
+    private char[] pad;
+
+    /**
+     * Masks a secret.
+     * @param secret Secret to keep. Cannot be null.
+     */
+    public GEMaskedSecret(String secret) {
+        SecureRandom random = new SecureRandom();
+
+        this.masked = new char[secret.length()];
+        this.pad = new char[secret.length()];
+
+        for (int i = 0; i < secret.length(); i++) {
+            this.pad[i] = (char) random.nextInt(Character.MAX_VALUE + 1);
+            this.masked[i] = (char) (secret.charAt(i) ^ this.pad[i]);
+        }
+    }
+
+    /**
+     * Unmasks the secret.
+     * @return Secret; null if cleared.
+     */
+    public synchronized String reveal() {
+        if (this.masked == null) {
+            return null;
+        }
+
+        char[] plain = new char[this.masked.length];
+
+        for (int i = 0; i < plain.length; i++) {
+            plain[i] = (char) (this.masked[i] ^ this.pad[i]);
+        }
+
+        String ret = new String(plain);
+        Arrays.fill(plain, '\0');
+
+        return ret;
+    }
+
+    /**
+     * Wipes the secret. It can't be revealed after.
+     */
+    public synchronized void clear() {
+        if (this.masked != null) {
+            Arrays.fill(this.masked, '\0');
+            Arrays.fill(this.pad, '\0');
+            this.masked = null;
+            this.pad = null;
+        }
+    }
+}
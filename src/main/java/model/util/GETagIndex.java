@@ -0,0 +1,152 @@
+package model.util;
+
+import model.items.GTag;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory prefix index of tags. Each tag is indexed under its full ID,
+ * each part of its ID (split on '/' and '-'), its title, and each word of
+ * its title, so that a prefix of any of those finds the tag. Terms are
+ * kept in a sorted map, so a prefix lookup is a range scan.
+ * Also remembers which queries have already been fetched from the API,
+ * as the index can fully answer those.
+ * All methods are thread safe.
+ */
+public class GETagIndex {
+    private NavigableMap<String, Map<String, GTag>> terms; // Term -> tags with that term, by ID
+    private Set<String> tagIds; // IDs of all tags indexed
+    private Set<String> fetched; // Queries already fetched from the API, normalised
+
+    /**
+     * Creates an empty tag index.
+     */
+    public GETagIndex() {
+        this.terms = new TreeMap<>();
+        this.tagIds = new HashSet<>();
+        this.fetched = new HashSet<>();
+    }
+
+    /**
+     * Normalises a query/term for indexing and lookup.
+     * @param s String to normalise.
+     * @return Normalised string; empty if null.
+     */
+    private static String normalise(String s) {
+        return s == null ? "" : s.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns all terms a tag should be indexed under.
+     * @param tag Tag to get terms of.
+     * @return Terms of tag.
+     */
+    private static Set<String> termsOf(GTag tag) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        String id = normalise(tag.id());
+        ret.add(id);
+
+        for (String part : id.split("[/\\-]")) {
+            ret.add(part);
+        }
+
+        String title = normalise(tag.webTitle());
+        ret.add(title);
+
+        for (String word : title.split("\\s+")) {
+            ret.add(word);
+        }
+
+        ret.remove("");
+
+        return ret;
+    }
+
+    /**
+     * Adds tags to the index. Tags already indexed are replaced.
+     * @param tags Tags to add.
+     */
+    public synchronized void addAll(List<GTag> tags) {
+        for (GTag tag : tags) {
+            if (tag == null || tag.id() == null) {
+                continue;
+            }
+
+            for (String term : termsOf(tag)) {
+                this.terms.computeIfAbsent(term, k -> new LinkedHashMap<>()).put(tag.id(), tag);
+            }
+
+            this.tagIds.add(tag.id());
+        }
+    }
+
+    /**
+     * Records that a query has been fetched from the API, and that
+     * its results have been added to the index.
+     * @param query Query fetched.
+     */
+    public synchronized void markFetched(String query) {
+        this.fetched.add(normalise(query));
+    }
+
+    /**
+     * Returns tags with a term starting with the given prefix. Tags are
+     * ordered by their matching term, so shorter/closer matches come first.
+     * @param prefix Prefix to look up.
+     * @param limit Maximum number of tags to return.
+     * @return Matching tags. Empty list if prefix is blank.
+     */
+    public synchronized List<GTag> lookup(String prefix, int limit) {
+        String p = normalise(prefix);
+        Map<String, GTag> found = new LinkedHashMap<>();
+
+        if (p.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        for (Map<String, GTag> tags : this.terms.subMap(p, true,
+                                                        p + Character.MAX_VALUE, true)
+                                                .values()) {
+            for (GTag tag : tags.values()) {
+                found.putIfAbsent(tag.id(), tag);
+
+                if (found.size() >= limit) {
+                    return new ArrayList<>(found.values());
+                }
+            }
+        }
+
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Returns whether the index can answer a prefix without asking the API;
+     * i.e. the prefix has already been fetched, or the index already has
+     * at least the limit's worth of matches.
+     * @param prefix Prefix to check.
+     * @param limit Number of matches wanted.
+     * @return Whether the index can answer the prefix.
+     */
+    public synchronized boolean canAnswer(String prefix, int limit) {
+        return this.fetched.contains(normalise(prefix)) ||
+               this.lookup(prefix, limit).size() >= limit;
+    }
+
+    /**
+     * Returns the number of distinct tags indexed.
+     * @return Number of tags indexed.
+     */
+    public synchronized int size() {
+        return this.tagIds.size();
+    }
+}
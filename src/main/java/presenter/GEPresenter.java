@@ -1,6 +1,7 @@
 package presenter;
 
 import javafx.application.HostServices;
+import javafx.collections.ObservableSet;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.stage.Stage;
@@ -11,6 +12,8 @@ import model.system.GESystemObserver;
 import view.scenes.GEScene;
 
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Manages view functionalities, including access to the model
@@ -71,7 +74,8 @@ public interface GEPresenter extends GESystemObserver {
     public HostServices getHostServices();
 
     /**
-     * Sets the scene of the stage.
+     * Sets the scene of the stage. Scenes may keep their Scene between
+     * uses, in which case switching back to one shows it as it was left.
      * @param scene Scene to set.
      */
     public void setScene(GEScene scene);
@@ -93,6 +97,8 @@ public interface GEPresenter extends GESystemObserver {
     /**
      * Uses concurrency to get tags based on the query,
      * and then display them in the specified location.
+     * Starting a new search for the same location cancels the previous
+     * one, and its results are never displayed.
      * @param location ListView to display results.
      * @param query Query for search.
      * @param preRequest Operation to do before the request.
@@ -103,6 +109,22 @@ public interface GEPresenter extends GESystemObserver {
                                 GEPresenterObserver preRequest,
                                 GEPresenterObserver postRequest);
 
+    /**
+     * Shows as-you-type tag suggestions for a prefix in the specified location.
+     * Tags seen so far are shown straight away; if they can't fully answer the
+     * prefix, a tag request is made once typing pauses, and its results shown.
+     * Each new prefix supersedes any pending/in-flight request for an older one.
+     * Must be called on the FX thread.
+     * @param location ListView to display suggestions.
+     * @param prefix Prefix typed so far.
+     * @param preRequest Operation to do before a request, if one is made.
+     * @param postRequest Operation to do after a request, if one is made.
+     */
+    public void suggestTags(ListView<GTag> location,
+                            String prefix,
+                            GEPresenterObserver preRequest,
+                            GEPresenterObserver postRequest);
+
     /**
      * Requests that the model clear the cache.
      * @see GESystem#clearCache()
@@ -113,6 +135,8 @@ public interface GEPresenter extends GESystemObserver {
      * Uses concurrency to get content based on the tag/query/page combo, displaying
      * to the location after finishing.
      * Implicitly tries to use the cache.
+     * Starting a new search for the same location cancels the previous
+     * one, and its results are never displayed.
      * @param location Location to display results.
      * @param tag Tag for search.
      * @param query Query for search.
@@ -127,9 +151,31 @@ public interface GEPresenter extends GESystemObserver {
                                    GEPresenterObserver preRequest,
                                    GEPresenterObserver postRequest);
 
+    /**
+     * Uses concurrency to load a page of content in the background, for views
+     * that manage their own list (e.g. infinite scrolling). Never asks about
+     * the cache; cached pages are used if available.
+     * @param tag Tag for search.
+     * @param query Query for search.
+     * @param page Page for search.
+     * @param ahead Whether the page is loaded ahead of being needed (e.g. while
+     *              scrolling towards it); if so, it waits behind searches.
+     * @param onLoaded Called on the FX thread with the page's content; empty
+     *                 if none or failed. Not called if the load is cancelled.
+     * @return Future of the load, to cancel it with.
+     */
+    public Future<?> loadContentPage(GTag tag,
+                                     String query,
+                                     int page,
+                                     boolean ahead,
+                                     Consumer<List<GContent>> onLoaded);
+
     // Email
     /**
-     * Uses concurrency to make an email send request.
+     * Uses concurrency to make an email send request. If the system has an
+     * outbox, the email is queued there to be sent in the background, and
+     * the indicator shows it queued straight away; otherwise it is sent
+     * directly.
      * @param tag Tag of content being sent.
      * @param content Content to send.
      * @param recipient Recipient to send to.
@@ -147,7 +193,9 @@ public interface GEPresenter extends GESystemObserver {
     // Reddit
     /**
      * Posts to reddit as a background task, modifying
-     * indicator when done to notify of results.
+     * indicator when done to notify of results. Once authenticated, the
+     * post is queued in the system's outbox if it has one, to be made in
+     * the background; otherwise it is made directly.
      * @param tag Tag to send.
      * @param content Content to send.
      * @param indicator Indicator to modify when done.
@@ -162,11 +210,26 @@ public interface GEPresenter extends GESystemObserver {
 
     // Reading List
     /**
-     * Returns the current article reading list from the system.
+     * Returns a read-only snapshot of the article reading list from the system.
      * @return Current article reading list.
      */
     public List<GContent> getReadingList();
 
+    /**
+     * Asks the system whether the given content is in the reading list.
+     * @param content Content to check.
+     * @return Whether content is in the reading list or not.
+     */
+    public boolean isInReadingList(GContent content);
+
+    /**
+     * Returns an observable set of the IDs of content in the reading list,
+     * kept up to date as content is added/removed through the presenter.
+     * Should only be used on the FX thread.
+     * @return Observable set of reading list content IDs.
+     */
+    public ObservableSet<String> getReadingListIds();
+
     /**
      * Passes content to the system for it to add to the reading list.
      * @param content Content to add.
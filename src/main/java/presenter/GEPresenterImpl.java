@@ -1,33 +1,60 @@
 package presenter;
 
+import javafx.animation.PauseTransition;
 import javafx.application.HostServices;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ObservableSet;
 import javafx.concurrent.Task;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import model.items.GContent;
 import model.items.GTag;
+import model.jfr.GETaskEvent;
 import model.system.GERuntimeData;
 import model.system.GESystem;
 import model.system.GESystemObserver;
+import model.trace.GESpan;
+import model.trace.GETracer;
+import model.util.GEBulkhead;
 import view.scenes.GEScene;
 import view.util.GEViewDialogs;
 
-import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Implementation of a view manager.
  * @see GEPresenter
  */
 public class GEPresenterImpl implements GESystemObserver, GEPresenter {
+    // Longest to wait on the user to answer a dialog before giving up
+    private static final long DIALOG_TIMEOUT_MINUTES = 10;
+
+    // How long typing must pause for before a tag suggestion request is made
+    private static final long SUGGEST_DEBOUNCE_MILLIS = 300;
+    // Shortest prefix a tag suggestion request is made for
+    private static final int SUGGEST_MIN_CHARS = 2;
+    // Most tag suggestions shown at once
+    private static final int SUGGEST_MAX = 10;
+
+    // Threads kept for each kind of work, so work held up on one API can't
+    // hold up the others: requests to The Guardian (searches ahead of pages
+    // loaded ahead of scrolling), and sends to each of SendGrid and Reddit
+    // (which can include waiting on the Reddit login dialog)
+    private static final int GUARDIAN_THREADS = 3;
+    private static final int SENDGRID_SEND_THREADS = 1;
+    private static final int REDDIT_SEND_THREADS = 1;
+
     private Stage stage;
     private GESystem ges;
     private double xRes;
@@ -35,7 +62,23 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
     private HostServices hs;
 
     // Concurrency
-    private ExecutorService pool;
+    private GEBulkhead guardian;
+    private GEBulkhead sendgridSends;
+    private GEBulkhead redditSends;
+
+    // Latest search task for each view; only accessed on the FX thread.
+    // Starting a new search for a view cancels the previous one, and results
+    // of any task that is no longer the latest are dropped
+    private Map<ListView<?>, Task<?>> latestSearches;
+
+    // Tag suggestion request waiting for typing to pause; null if none.
+    // Only accessed on the FX thread
+    private PauseTransition pendingSuggestion;
+
+    // IDs of reading list content for the view to observe; null until first needed
+    private ObservableSet<String> readingListIds;
+
+    private GEScene currentScene; // Null until a scene is set
 
     /**
      * Creates a view manager.
@@ -50,11 +93,11 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
         this.yRes = DEFAULT_Y;
         this.hs = hs;
 
-        this.pool = Executors.newFixedThreadPool(2, runnable -> {
-            Thread t = new Thread(runnable);
-            t.setDaemon(true);
-            return t;
-        });
+        this.guardian = new GEBulkhead("guardian", GUARDIAN_THREADS);
+        this.sendgridSends = new GEBulkhead("sendgrid-send", SENDGRID_SEND_THREADS);
+        this.redditSends = new GEBulkhead("reddit-send", REDDIT_SEND_THREADS);
+        this.latestSearches = new WeakHashMap<>();
+        this.currentScene = null;
 
         // Add an observer to notify when reddit token is invalidated
         GESystemObserver redditInvalidationObserver = () -> {
@@ -133,21 +176,25 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
     }
 
     /**
-     * Sets the scene of the stage.
+     * Sets the scene of the stage. Scenes may keep their Scene between
+     * uses, in which case switching back to one shows it as it was left.
+     * The current theme (stylesheets) is carried over to the new scene.
      * @param scene Scene to set.
      */
     @Override
     public void setScene(GEScene scene) {
-        // Save old stylesheets to apply to new scene if applicable
-        ObservableList<String> prevSceneStyle = null;
+        // Save old stylesheets to apply to new scene if applicable; copied, as
+        // the new scene may be the same Scene
+        List<String> prevSceneStyle = null;
 
         if (this.getStage().getScene() != null) {
-            prevSceneStyle = this.getStage().getScene().getStylesheets();
+            prevSceneStyle = List.copyOf(this.getStage().getScene().getStylesheets());
         }
 
         // Switch
         this.getStage().setScene(scene.makeScene(this));
         this.getStage().setTitle(scene.getTitle());
+        this.currentScene = scene;
 
         // Apply previous scene style
         if (prevSceneStyle != null) {
@@ -171,27 +218,134 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
 
     /**
      * Runs appropriate shutdown procedure.
-     * In this implementation, this involves shutting down the
-     * thread pool.
+     * In this implementation, this involves disposing the current
+     * scene and shutting down the bulkheads.
      */
     @Override
     public void shutdown() {
-        /* Code copied from https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutorService.html */
-        pool.shutdown();
+        if (this.currentScene != null) {
+            this.currentScene.dispose();
+        }
+
+        for (GEBulkhead pool : List.of(this.guardian, this.sendgridSends, this.redditSends)) {
+            pool.shutdown();
+        }
 
-        try {
-            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+        for (GEBulkhead pool : List.of(this.guardian, this.sendgridSends, this.redditSends)) {
+            /* Code copied from https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutorService.html */
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    pool.shutdownNow();
+
+                    if (pool.awaitTermination(60, TimeUnit.SECONDS)) {
+                        System.out.println("Pool did not terminate!");
+                    }
+                }
+            } catch (InterruptedException e) {
                 pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            /* End of copied code */
+        }
+    }
+
+    /**
+     * Starts a search task for a view, cancelling (and so aborting the
+     * request of) any previous search for the same view.
+     * Must be called on the FX thread.
+     * @param location View the search is for.
+     * @param name Name of the task, for flight recordings.
+     * @param task Search task.
+     */
+    private void startSearch(ListView<?> location, String name, Task<?> task) {
+        Task<?> prev = this.latestSearches.put(location, task);
 
-                if (pool.awaitTermination(60, TimeUnit.SECONDS)) {
-                    System.out.println("Pool did not terminate!");
+        if (prev != null) {
+            prev.cancel(true);
+        }
+
+        this.execute(name, this.guardian, GEBulkhead.Priority.INTERACTIVE, task);
+    }
+
+    /**
+     * Runs a task in a bulkhead, recording it as a flight recorder
+     * event along with how long it waited for a thread. The task is a user
+     * action, so if tracing, it starts a new trace. It runs ahead of any
+     * lower priority work waiting in the bulkhead.
+     * @param name Name of the task.
+     * @param bulkhead Bulkhead to run it in.
+     * @param priority Priority of the task.
+     * @param task Task to run.
+     */
+    private void execute(String name,
+                         GEBulkhead bulkhead,
+                         GEBulkhead.Priority priority,
+                         Task<?> task) {
+        long submitted = System.nanoTime();
+        GESpan action = GETracer.startTrace(name, "presenter")
+                                .attribute("bulkhead", bulkhead.getName())
+                                .attribute("priority", priority.name());
+
+        Runnable traced = GETracer.wrap(action, "task", "presenter", () -> {
+            long started = System.nanoTime();
+            GETaskEvent event = new GETaskEvent();
+            event.begin();
+
+            try {
+                task.run();
+            } finally {
+                event.end();
+
+                if (event.shouldCommit()) {
+                    event.name = name;
+                    event.bulkhead = bulkhead.getName();
+                    event.priority = priority.name();
+                    event.queueTime = started - submitted;
+                    event.cancelled = task.isCancelled();
+                    event.commit();
                 }
             }
-        } catch (InterruptedException e) {
-            pool.shutdownNow();
-            Thread.currentThread().interrupt();
+        });
+
+        bulkhead.execute(priority, () -> {
+            try {
+                traced.run();
+            } finally {
+                action.attribute("cancelled", task.isCancelled()).end();
+            }
+        });
+    }
+
+    /**
+     * Runs an update of the view on the FX thread. If called within a
+     * trace, the update is traced as its render stage.
+     * @param update Update to run.
+     */
+    private static void runLater(Runnable update) {
+        Platform.runLater(GETracer.wrap("render", "presenter", update));
+    }
+
+    /**
+     * Returns whether a task is the latest search for a view; i.e.
+     * whether its results should be shown.
+     * Must be called on the FX thread.
+     * @param location View the search is for.
+     * @param task Search task.
+     * @return Whether task is the latest search for the view.
+     */
+    private boolean isLatestSearch(ListView<?> location, Task<?> task) {
+        return this.latestSearches.get(location) == task;
+    }
+
+    /**
+     * Cancels any tag suggestion request still waiting for typing to pause.
+     * Must be called on the FX thread.
+     */
+    private void cancelPendingSuggestion() {
+        if (this.pendingSuggestion != null) {
+            this.pendingSuggestion.stop();
+            this.pendingSuggestion = null;
         }
-        /* End of copied code */
     }
 
     // Model Interactions
@@ -199,6 +353,8 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
     /**
      * Uses concurrency to get tags based on the query,
      * and then display them in the specified location.
+     * Starting a new search for the same location cancels the previous
+     * one, and its results are never displayed.
      * @param location ListView to display results.
      * @param query Query for search.
      * @param preRequest Operation to do before the request.
@@ -209,10 +365,18 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
                                 String query,
                                 GEPresenterObserver preRequest,
                                 GEPresenterObserver postRequest) {
+        // A full search supersedes any suggestions waiting to be requested
+        this.cancelPendingSuggestion();
+
         Task<Boolean> task = new Task<Boolean>() {
             @Override
             protected Boolean call() {
-                Platform.runLater(() -> {
+                runLater(() -> {
+                    // Drop if superseded by a newer search
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
                     // Hide listview while its being worked on
                     location.setVisible(false);
 
@@ -222,7 +386,12 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
 
                 List<GTag> tags = getModel().getTags(query);
 
-                Platform.runLater(() -> {
+                runLater(() -> {
+                    // Drop if superseded by a newer search
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
                     location.setItems(FXCollections.observableList(tags));
 
                     // Reveal results, if any
@@ -238,7 +407,112 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
             }
         };
 
-        pool.execute(task);
+        this.startSearch(location, "tags", task);
+    }
+
+    /**
+     * Shows as-you-type tag suggestions for a prefix in the specified location.
+     * Tags seen so far are shown straight away; if they can't fully answer the
+     * prefix, a tag request is made once typing pauses, and its results shown.
+     * Each new prefix supersedes any pending/in-flight request for an older one.
+     * Must be called on the FX thread.
+     * @param location ListView to display suggestions.
+     * @param prefix Prefix typed so far.
+     * @param preRequest Operation to do before a request, if one is made.
+     * @param postRequest Operation to do after a request, if one is made.
+     */
+    @Override
+    public void suggestTags(ListView<GTag> location,
+                            String prefix,
+                            GEPresenterObserver preRequest,
+                            GEPresenterObserver postRequest) {
+        // Supersede requests for older prefixes
+        this.cancelPendingSuggestion();
+
+        Task<?> prev = this.latestSearches.remove(location);
+
+        if (prev != null) {
+            prev.cancel(true);
+            postRequest.update();
+        }
+
+        if (prefix == null || prefix.isBlank()) {
+            location.setVisible(false);
+            return;
+        }
+
+        // Show what's known straight away
+        List<GTag> known = this.getModel().suggestTags(prefix);
+        boolean answered = prefix.strip().length() < SUGGEST_MIN_CHARS ||
+                           this.getModel().canSuggestTagsLocally(prefix);
+
+        if (!known.isEmpty() || answered) {
+            location.setItems(FXCollections.observableList(known));
+            location.setVisible(!known.isEmpty());
+        } else {
+            // Nothing to show yet; hide stale suggestions until request is done
+            location.setVisible(false);
+        }
+
+        if (answered) {
+            return;
+        }
+
+        // Otherwise request more once typing pauses
+        Task<Boolean> task = new Task<Boolean>() {
+            @Override
+            protected Boolean call() {
+                runLater(() -> {
+                    // Drop if superseded by a newer prefix
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
+                    preRequest.update();
+                });
+
+                // Requested tags first, then any other known matches
+                Map<String, GTag> suggestions = new LinkedHashMap<>();
+
+                for (GTag tag : getModel().getTags(prefix)) {
+                    suggestions.putIfAbsent(tag.id(), tag);
+                }
+
+                for (GTag tag : getModel().suggestTags(prefix)) {
+                    suggestions.putIfAbsent(tag.id(), tag);
+                }
+
+                List<GTag> shown = suggestions.values()
+                                              .stream()
+                                              .limit(SUGGEST_MAX)
+                                              .toList();
+
+                runLater(() -> {
+                    // Drop if superseded by a newer prefix
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
+                    latestSearches.remove(location);
+
+                    location.setItems(FXCollections.observableList(shown));
+                    location.setVisible(!shown.isEmpty());
+
+                    postRequest.update();
+                });
+
+                return true;
+            }
+        };
+
+        PauseTransition wait = new PauseTransition(Duration.millis(SUGGEST_DEBOUNCE_MILLIS));
+        wait.setOnFinished(event -> {
+            this.pendingSuggestion = null;
+            this.startSearch(location, "suggestTags", task);
+        });
+
+        this.pendingSuggestion = wait;
+        wait.play();
     }
 
     /**
@@ -254,6 +528,8 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
      * Uses concurrency to get content based on the tag/query/page combo, displaying
      * to the location after finishing.
      * Implicitly tries to use the cache.
+     * Starting a new search for the same location cancels the previous
+     * one, and its results are never displayed.
      * @param location Location to display results.
      * @param tag Tag for search.
      * @param query Query for search.
@@ -275,7 +551,12 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
             protected Boolean call() throws Exception {
                 List<GContent> content;
 
-                Platform.runLater(() -> {
+                runLater(() -> {
+                    // Drop if superseded by a newer search
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
                     // Hide listview while working
                     location.setVisible(false);
 
@@ -283,24 +564,34 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
                     preRequest.update();
                 });
 
-                if (getModel().isCachedContent(tag, query, page)) {
-                    Boolean[] useCache = new Boolean[]{null};
+                // Don't ask about the cache for a search that was already superseded
+                if (isCancelled()) {
+                    return false;
+                }
 
-                    Platform.runLater(() -> {
-                        useCache[0] = GEViewDialogs.useCacheDialog(tag, query, page, p);
-                    });
+                if (getModel().isCachedContent(tag, query, page)) {
+                    boolean useCache;
 
                     // Wait for decision
-                    while (useCache[0] == null) {
-                        Thread.sleep(1);
+                    try {
+                        useCache = GEUIHandshake.askAndAwait(
+                                () -> GEViewDialogs.useCacheDialog(tag, query, page, p),
+                                DIALOG_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+                    } catch (TimeoutException e) {
+                        useCache = false; // No decision; default to fresh data
                     }
 
-                    content = getModel().getContent(tag, query, page, useCache[0]);
+                    content = getModel().getContent(tag, query, page, useCache);
                 } else {
                     content = getModel().getContent(tag, query, page, true);
                 }
 
-                Platform.runLater(() -> {
+                runLater(() -> {
+                    // Drop if superseded by a newer search
+                    if (!isLatestSearch(location, this)) {
+                        return;
+                    }
+
                     location.setItems(FXCollections.observableList(content));
 
                     // Reveal results, if any
@@ -316,12 +607,60 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
             }
         };
 
-        pool.execute(task);
+        this.startSearch(location, "content", task);
+    }
+
+    /**
+     * Uses concurrency to load a page of content in the background, for views
+     * that manage their own list (e.g. infinite scrolling). Never asks about
+     * the cache; cached pages are used if available.
+     * @param tag Tag for search.
+     * @param query Query for search.
+     * @param page Page for search.
+     * @param ahead Whether the page is loaded ahead of being needed (e.g. while
+     *              scrolling towards it); if so, it waits behind searches.
+     * @param onLoaded Called on the FX thread with the page's content; empty
+     *                 if none or failed. Not called if the load is cancelled.
+     * @return Future of the load, to cancel it with.
+     */
+    @Override
+    public Future<?> loadContentPage(GTag tag,
+                                     String query,
+                                     int page,
+                                     boolean ahead,
+                                     Consumer<List<GContent>> onLoaded) {
+        Task<Boolean> task = new Task<Boolean>() {
+            @Override
+            protected Boolean call() {
+                List<GContent> content = getModel().getContent(tag, query, page, true);
+
+                runLater(() -> {
+                    // Drop if cancelled
+                    if (isCancelled()) {
+                        return;
+                    }
+
+                    onLoaded.accept(content);
+                });
+
+                return true;
+            }
+        };
+
+        this.execute("contentPage",
+                     this.guardian,
+                     ahead ? GEBulkhead.Priority.BACKGROUND : GEBulkhead.Priority.INTERACTIVE,
+                     task);
+
+        return task;
     }
 
     // Email
     /**
-     * Uses concurrency to make an email send request.
+     * Uses concurrency to make an email send request. If the system has an
+     * outbox, the email is queued there to be sent in the background, and
+     * the indicator shows it queued straight away; otherwise it is sent
+     * directly.
      * @param tag Tag of content being sent.
      * @param content Content to send.
      * @param recipient Recipient to send to.
@@ -339,7 +678,7 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
         Task<Boolean> task = new Task<Boolean>() {
             @Override
             protected Boolean call() {
-                Platform.runLater(() -> {
+                runLater(() -> {
                     // Hide indicator while working
                     indicator.setVisible(false);
 
@@ -347,11 +686,14 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
                     preRequest.update();
                 });
 
-                boolean success = getModel().sendEmail(tag, content, recipient);
+                boolean queued = getModel().queueEmail(tag, content, recipient);
+                boolean success = queued || getModel().sendEmail(tag, content, recipient);
 
-                Platform.runLater(() -> {
+                runLater(() -> {
                     // Set label based on result
-                    if (success) {
+                    if (queued) {
+                        indicator.setText("Email queued, sending in the background");
+                    } else if (success) {
                         indicator.setText("Success sending email!");
                     } else {
                         indicator.setText("Failure, email not sent");
@@ -368,13 +710,15 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
             }
         };
 
-        pool.execute(task);
+        this.execute("email", this.sendgridSends, GEBulkhead.Priority.SEND, task);
     }
 
     // Reddit
     /**
      * Posts to reddit as a background task, modifying
-     * indicator when done to notify of results.
+     * indicator when done to notify of results. Once authenticated, the
+     * post is queued in the system's outbox if it has one, to be made in
+     * the background; otherwise it is made directly.
      * @param tag Tag to send.
      * @param content Content to send.
      * @param indicator Indicator to modify when done.
@@ -391,7 +735,7 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
         Task<Boolean> task = new Task<Boolean>() {
             @Override
             protected Boolean call() throws Exception {
-                Platform.runLater(() -> {
+                runLater(() -> {
                     // Hide indicator while working
                     indicator.setVisible(false);
 
@@ -403,41 +747,46 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
 
                 // Authenticate if needed
                 if (getModel().getRuntimeData().get(GERuntimeData.REDDIT_TOKEN.key) == null) {
-                    List<Map<String, String>> loginDetails = new ArrayList<>();
-                    loginDetails.add(null);
-
-                    Platform.runLater(() -> {
-                        loginDetails.set(0, GEViewDialogs.login("Reddit", p));
-                    });
+                    Map<String, String> loginDetails;
 
                     // Wait for decision
-                    while (loginDetails.get(0) == null) {
-                        Thread.sleep(1);
+                    try {
+                        loginDetails = GEUIHandshake.askAndAwait(
+                                () -> GEViewDialogs.login("Reddit", p),
+                                DIALOG_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+                    } catch (TimeoutException e) {
+                        loginDetails = Map.of("cancelled", "yes"); // No decision; treat as cancelled
                     }
 
                     // Check for cancelled; if not, login
-                    if (loginDetails.get(0).get("cancelled").equals("no")) {
+                    if (loginDetails.get("cancelled").equals("no")) {
                         authSuccess = getModel().authenticateReddit(
-                                loginDetails.get(0).get("username"),
-                                loginDetails.get(0).get("password")
+                                loginDetails.get("username"),
+                                loginDetails.get("password")
                         );
                     } else {
                         authSuccess = false;
                     }
                 }
 
+                boolean queued = false;
                 boolean postSuccess;
 
-                // If successfully authenticated, post
+                // If successfully authenticated, queue or post
                 if (authSuccess) {
-                    postSuccess = getModel().postReddit(tag, content);
+                    queued = getModel().queueRedditPost(tag, content);
+                    postSuccess = queued || getModel().postReddit(tag, content);
                 } else {
                     postSuccess = false;
                 }
 
-                Platform.runLater(() -> {
+                boolean wasQueued = queued;
+
+                runLater(() -> {
                     // Set label based on result
-                    if (postSuccess) {
+                    if (wasQueued) {
+                        indicator.setText("Post queued, posting in the background");
+                    } else if (postSuccess) {
                         indicator.setText("Success posting to Reddit!");
                     } else {
                         indicator.setText("Failure, post not made");
@@ -454,12 +803,12 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
             }
         };
 
-        pool.execute(task);
+        this.execute("redditPost", this.redditSends, GEBulkhead.Priority.SEND, task);
     }
 
     // Reading List
     /**
-     * Returns the current article reading list from the system.
+     * Returns a read-only snapshot of the article reading list from the system.
      * @return Current article reading list.
      */
     @Override
@@ -467,6 +816,36 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
         return this.getModel().getReadingList();
     }
 
+    /**
+     * Asks the system whether the given content is in the reading list.
+     * @param content Content to check.
+     * @return Whether content is in the reading list or not.
+     */
+    @Override
+    public boolean isInReadingList(GContent content) {
+        return this.getModel().isInReadingList(content);
+    }
+
+    /**
+     * Returns an observable set of the IDs of content in the reading list,
+     * kept up to date as content is added/removed through the presenter.
+     * Created from the system's reading list on first use.
+     * Should only be used on the FX thread.
+     * @return Observable set of reading list content IDs.
+     */
+    @Override
+    public ObservableSet<String> getReadingListIds() {
+        if (this.readingListIds == null) {
+            this.readingListIds = FXCollections.observableSet(new HashSet<>());
+
+            for (GContent content : this.getModel().getReadingList()) {
+                this.readingListIds.add(content.id());
+            }
+        }
+
+        return this.readingListIds;
+    }
+
     /**
      * Passes content to the system for it to add to the reading list.
      * @param content Content to add.
@@ -474,7 +853,13 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
      */
     @Override
     public boolean addToReadingList(GContent content) {
-        return this.getModel().addToReadingList(content);
+        boolean added = this.getModel().addToReadingList(content);
+
+        if (added && this.readingListIds != null) {
+            this.readingListIds.add(content.id());
+        }
+
+        return added;
     }
 
     /**
@@ -484,6 +869,12 @@ public class GEPresenterImpl implements GESystemObserver, GEPresenter {
      */
     @Override
     public boolean removeFromReadingList(GContent content) {
-        return this.getModel().removeFromReadingList(content);
+        boolean removed = this.getModel().removeFromReadingList(content);
+
+        if (removed && this.readingListIds != null) {
+            this.readingListIds.remove(content.id());
+        }
+
+        return removed;
     }
 }
@@ -0,0 +1,58 @@
+package presenter;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Allows background work to ask something of the UI (e.g. show a dialog)
+ * and wait for the answer. The worker thread is parked while waiting rather
+ * than spinning, and the answer is safely handed over between threads.
+ */
+public class GEUIHandshake {
+    /**
+     * Runs the question on the FX thread, waiting for its answer. If the wait
+     * ends early (interrupt or timeout) before the question has been asked,
+     * it is never asked. Must not be called on the FX thread.
+     * @param question What to run on the FX thread; its return value is the answer.
+     * @param timeout Longest time to wait for an answer.
+     * @param unit Unit of timeout.
+     * @param <T> Type of answer.
+     * @return The answer.
+     * @throws InterruptedException If interrupted (i.e. cancelled) while waiting.
+     * @throws TimeoutException If no answer was given in time.
+     */
+    public static <T> T askAndAwait(Supplier<T> question,
+                                    long timeout,
+                                    TimeUnit unit) throws InterruptedException,
+                                                          TimeoutException {
+        CompletableFuture<T> answer = new CompletableFuture<>();
+
+        Platform.runLater(() -> {
+            // Waiter already gave up; don't bother asking
+            if (answer.isDone()) {
+                return;
+            }
+
+            try {
+                answer.complete(question.get());
+            } catch (RuntimeException e) {
+                answer.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return answer.get(timeout, unit);
+        } catch (InterruptedException | TimeoutException e) {
+            answer.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
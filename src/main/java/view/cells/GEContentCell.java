@@ -0,0 +1,131 @@
+package view.cells;
+
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import javafx.collections.WeakSetChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.TextAlignment;
+import model.items.GContent;
+import presenter.GEPresenter;
+
+/**
+ * List cell for displaying content. The cell's nodes are built once, and
+ * only their text and state change as the cell is reused for different items.
+ */
+public class GEContentCell extends ListCell<GContent> {
+    private VBox result;
+    private Label title;
+    private Label info;
+    private Button readingListAction; // Add or remove, depending on status
+
+    private ObservableSet<String> readingListIds;
+    private SetChangeListener<String> readingListListener; // Kept so weak listener isn't lost
+
+    /**
+     * Creates a content cell.
+     * @param listView List the cell is in.
+     * @param p Presenter to use.
+     */
+    public GEContentCell(ListView<GContent> listView, GEPresenter p) {
+        this.readingListIds = p.getReadingListIds();
+
+        // Create box for results, sized relative to list
+        this.result = new VBox(12);
+        this.result.getStyleClass().add("resultBox");
+        this.result.minWidthProperty().bind(listView.widthProperty().multiply(0.9));
+        this.result.minHeightProperty().bind(listView.heightProperty().multiply(0.2));
+        this.result.maxWidthProperty().bind(listView.widthProperty().multiply(0.9));
+        this.result.maxHeightProperty().bind(listView.heightProperty().multiply(0.35));
+
+        // Title + Info
+        this.title = new Label();
+        this.title.setWrapText(true);
+        this.title.setTextAlignment(TextAlignment.CENTER);
+
+        this.info = new Label();
+
+        // Reading List status + actions
+        this.readingListAction = new Button();
+        this.readingListAction.setOnAction(event -> {
+            GContent item = this.getItem();
+
+            if (item == null) {
+                return;
+            }
+
+            // Button text updates through the membership listener
+            if (this.readingListIds.contains(item.id())) {
+                p.removeFromReadingList(item);
+            } else {
+                p.addToReadingList(item);
+            }
+        });
+
+        // Opening in Browser
+        Button openBrowser = new Button("Open in browser");
+        openBrowser.setOnAction(event -> {
+            GContent item = this.getItem();
+
+            if (item != null) {
+                p.getHostServices().showDocument(item.webUrl());
+            }
+        });
+
+        HBox buttons = new HBox(12);
+        buttons.getChildren().addAll(this.readingListAction, openBrowser);
+        buttons.setAlignment(Pos.CENTER);
+
+        this.result.setPadding(new Insets(12));
+        this.result.setAlignment(Pos.CENTER);
+        this.result.getChildren().addAll(this.title, this.info, buttons);
+
+        this.setAlignment(Pos.CENTER);
+
+        // Update reading list button when this cell's item is added/removed
+        this.readingListListener = change -> {
+            GContent item = this.getItem();
+            String changedId = change.wasAdded() ? change.getElementAdded()
+                                                 : change.getElementRemoved();
+
+            if (item != null && item.id().equals(changedId)) {
+                this.updateReadingListAction(item);
+            }
+        };
+        this.readingListIds.addListener(new WeakSetChangeListener<>(this.readingListListener));
+    }
+
+    /**
+     * Sets the reading list button to match whether the item is in the reading list.
+     * @param item Item of the cell.
+     */
+    private void updateReadingListAction(GContent item) {
+        if (this.readingListIds.contains(item.id())) {
+            this.readingListAction.setText("Remove from reading list");
+        } else {
+            this.readingListAction.setText("Add to reading list");
+        }
+    }
+
+    @Override
+    protected void updateItem(GContent item, boolean empty) {
+        super.updateItem(item, empty);
+
+        if (empty || item == null) {
+            this.setText("");
+            this.setGraphic(null);
+        } else {
+            this.title.setText(item.webTitle());
+            this.info.setText(item.sectionName() + " - " + item.webPublicationDate());
+            this.updateReadingListAction(item);
+
+            this.setGraphic(this.result);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package view.cells;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.VBox;
+import model.items.GTag;
+
+/**
+ * List cell for displaying tags. The cell's nodes are built once, and
+ * only their text changes as the cell is reused for different items.
+ */
+public class GETagCell extends ListCell<GTag> {
+    private VBox result;
+    private Label id;
+
+    /**
+     * Creates a tag cell.
+     * @param listView List the cell is in.
+     */
+    public GETagCell(ListView<GTag> listView) {
+        // Create box for results, sized relative to list
+        this.result = new VBox(12);
+        this.result.getStyleClass().add("resultBox");
+        this.result.minWidthProperty().bind(listView.widthProperty().multiply(0.9));
+        this.result.minHeightProperty().bind(listView.heightProperty().multiply(0.15));
+        this.result.maxWidthProperty().bind(listView.widthProperty().multiply(0.9));
+        this.result.maxHeightProperty().bind(listView.heightProperty().multiply(0.1));
+
+        this.id = new Label();
+
+        this.result.setPadding(new Insets(12));
+        this.result.setAlignment(Pos.CENTER);
+        this.result.getChildren().addAll(this.id);
+
+        this.setAlignment(Pos.CENTER);
+    }
+
+    @Override
+    protected void updateItem(GTag item, boolean empty) {
+        super.updateItem(item, empty);
+
+        if (empty || item == null) {
+            this.setText("");
+            this.setGraphic(null);
+        } else {
+            this.id.setText(item.id());
+            this.setGraphic(this.result);
+        }
+    }
+}
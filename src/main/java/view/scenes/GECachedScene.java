@@ -0,0 +1,69 @@
+package view.scenes;
+
+import javafx.scene.Scene;
+import presenter.GEPresenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base for scenes that build their Scene once and keep it, so returning
+ * to a scene is instant and keeps its state (e.g. searches and results).
+ * Subclasses build the Scene in buildScene, and register anything that
+ * needs releasing when the scene is discarded as a dispose hook.
+ */
+public abstract class GECachedScene implements GEScene {
+    private Scene scene; // Null until first made, or once disposed
+    private List<Runnable> disposeHooks;
+
+    /**
+     * Initialises a cached scene; the Scene itself is built on first use.
+     */
+    protected GECachedScene() {
+        this.scene = null;
+        this.disposeHooks = new ArrayList<>();
+    }
+
+    /**
+     * Builds the scene's Scene. Only called once, unless disposed.
+     * @param p Presenter to use.
+     * @return Built Scene.
+     */
+    protected abstract Scene buildScene(GEPresenter p);
+
+    /**
+     * Registers something to run when the scene is disposed.
+     * @param hook Operation to run on dispose.
+     */
+    protected void addDisposeHook(Runnable hook) {
+        this.disposeHooks.add(hook);
+    }
+
+    /**
+     * Returns the scene's Scene, building it on first use.
+     * @param p Presenter to use.
+     * @return The scene's Scene.
+     */
+    @Override
+    public Scene makeScene(GEPresenter p) {
+        if (this.scene == null) {
+            this.scene = this.buildScene(p);
+        }
+
+        return this.scene;
+    }
+
+    /**
+     * Runs dispose hooks (most recently added first) and drops the built
+     * Scene; if used again, it is built anew.
+     */
+    @Override
+    public void dispose() {
+        for (int i = this.disposeHooks.size() - 1; i >= 0; i--) {
+            this.disposeHooks.get(i).run();
+        }
+
+        this.disposeHooks.clear();
+        this.scene = null;
+    }
+}
@@ -14,8 +14,15 @@ public interface GEScene {
     public String getTitle();
 
     /**
-     * Constructs the scene.
+     * Returns the scene's Scene, constructing it if needed. Scenes may keep
+     * and return the same Scene each time, keeping its state.
      * @param p Presenter to use.
      */
     public Scene makeScene(GEPresenter p);
+
+    /**
+     * Releases anything held by the scene (e.g. animations, loads in
+     * progress). Called once the scene is no longer going to be shown.
+     */
+    public void dispose();
 }
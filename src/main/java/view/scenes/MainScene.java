@@ -7,7 +7,6 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -17,19 +16,25 @@ import model.items.GContent;
 import model.items.GTag;
 import presenter.GEPresenter;
 import presenter.GEPresenterObserver;
+import view.util.GEInfiniteScroll;
+import view.util.GESpinner;
 import view.util.GEViewCommon;
 import view.util.GEViewDialogs;
 import view.util.GEViewLists;
 import java.util.ArrayList;
 
 /**
- * Scene containing all main functionality.
+ * Scene containing all main functionality. Built once and kept, so
+ * searches and results are still there when coming back to it.
  */
-public class MainScene implements GEScene {
+public class MainScene extends GECachedScene {
     // For content navigation/selection
     private Integer[] currPage; // Single element array to act as pointer
     private Integer[] totalPages; // Single element array to act as pointer
 
+    // Releases the current content search's resources; null if none
+    private Runnable contentSearchDisposer;
+
     /**
      * Initialises a main scene.
      */
@@ -37,6 +42,17 @@ public class MainScene implements GEScene {
         // Initialise page numbers to be placeholders for now
         this.currPage = new Integer[]{-1};
         this.totalPages = new Integer[]{-1};
+        this.contentSearchDisposer = null;
+    }
+
+    /**
+     * Releases the current content search's resources, if any.
+     */
+    private void disposeContentSearch() {
+        if (this.contentSearchDisposer != null) {
+            this.contentSearchDisposer.run();
+            this.contentSearchDisposer = null;
+        }
     }
 
     // Utility Drawing Methods
@@ -63,8 +79,9 @@ public class MainScene implements GEScene {
         searchBar.getChildren().addAll(searchField, searchButton);
 
         // Spinner for loading
-        ImageView spinner = GEViewCommon.spinner(p);
+        GESpinner spinner = GEViewCommon.spinner(p);
         spinner.setDisable(true);
+        this.addDisposeHook(spinner::dispose);
 
         // Autocomplete results
         ObservableList<GTag> suggestions = FXCollections.observableList(new ArrayList<>());
@@ -89,8 +106,19 @@ public class MainScene implements GEScene {
             searchButton.setDisable(false);
         };
 
+        // As-you-type suggestions; spinner only, so typing isn't interrupted
+        GEPresenterObserver preSuggest = () -> spinner.setDisable(false);
+        GEPresenterObserver postSuggest = () -> spinner.setDisable(true);
+
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
+            emptyIndicator.setVisible(false); // Hide empty indicator
+
+            p.suggestTags(suggestionsView, newValue, preSuggest, postSuggest);
+        });
+
         searchField.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.ENTER)) {
+                this.disposeContentSearch();
                 contentBox.getChildren().clear(); // Clear out content search
                 emptyIndicator.setVisible(false); // Hide empty indicator
 
@@ -102,6 +130,7 @@ public class MainScene implements GEScene {
         });
 
         searchButton.setOnAction(event -> {
+            this.disposeContentSearch();
             contentBox.getChildren().clear(); // Clear out content search
             emptyIndicator.setVisible(false); // Hide empty indicator
 
@@ -122,6 +151,7 @@ public class MainScene implements GEScene {
 
             // Generate content search box for this tag
             GTag tag = suggestionsView.getSelectionModel().getSelectedItem();
+            this.disposeContentSearch();
             contentBox.getChildren().setAll(this.genContentSearch(p, tag));
 
             // Hide tag suggestions
@@ -153,8 +183,10 @@ public class MainScene implements GEScene {
 
         Button searchButton = new Button("Search Content");
 
+        CheckBox infiniteToggle = new CheckBox("Infinite scroll");
+
         searchBar.setAlignment(Pos.CENTER);
-        searchBar.getChildren().addAll(searchField, searchButton);
+        searchBar.getChildren().addAll(searchField, searchButton, infiniteToggle);
 
         // Results + Page Nav + Send email
         VBox resultsView = new VBox(12);
@@ -164,7 +196,7 @@ public class MainScene implements GEScene {
         resultsView.managedProperty().bind(resultsView.visibleProperty());
         /* End of copied code */
 
-        ImageView spinnerContent = GEViewCommon.spinner(p);
+        GESpinner spinnerContent = GEViewCommon.spinner(p);
         spinnerContent.setDisable(true);
 
         // Results
@@ -191,11 +223,14 @@ public class MainScene implements GEScene {
 
         pageNav.setAlignment(Pos.CENTER);
         pageNav.getChildren().addAll(pageBack, pageLabel, pageForwards);
+        // No pages to navigate when infinitely scrolling
+        pageNav.visibleProperty().bind(infiniteToggle.selectedProperty().not());
+        pageNav.managedProperty().bind(pageNav.visibleProperty());
 
         // Email + Reddit
         HBox emailRedditItems = new HBox(12);
 
-        ImageView spinnerEmailReddit = GEViewCommon.spinner(p);
+        GESpinner spinnerEmailReddit = GEViewCommon.spinner(p);
         spinnerEmailReddit.setDisable(true);
 
         Label emailRedditStatus = new Label("");
@@ -315,34 +350,40 @@ public class MainScene implements GEScene {
             totalPages[0] = reqTotalPages;
         };
 
-        searchField.setOnKeyPressed(event -> {
-            if (event.getCode().equals(KeyCode.ENTER)) {
-                emptyIndicator.setVisible(false); // Hide empty indicator
+        // Infinite scroll; only the spinner shows loading, so scrolling isn't interrupted
+        GEInfiniteScroll infiniteScroll = new GEInfiniteScroll(
+                resultsList,
+                p,
+                () -> spinnerContent.setDisable(false),
+                () -> spinnerContent.setDisable(true));
+
+        Runnable search = () -> {
+            emptyIndicator.setVisible(false); // Hide empty indicator
 
-                // Get data
+            // Get data
+            if (infiniteToggle.isSelected()) {
+                infiniteScroll.start(tag, searchField.getText());
+            } else {
+                infiniteScroll.cancel();
                 p.setContentViewList(resultsList,
                                       tag,
                                       searchField.getText(),
                                       1,
                                       preSearch,
                                       postSearch);
+            }
 
-                resultsView.setVisible(true); // Show results items
+            resultsView.setVisible(true); // Show results items
+        };
+
+        searchField.setOnKeyPressed(event -> {
+            if (event.getCode().equals(KeyCode.ENTER)) {
+                search.run();
             }
         });
 
         searchButton.setOnAction(event -> {
-            emptyIndicator.setVisible(false); // Hide empty indicator
-
-            // Get data
-            p.setContentViewList(resultsList,
-                                  tag,
-                                  searchField.getText(),
-                                  1,
-                                  preSearch,
-                                  postSearch);
-
-            resultsView.setVisible(true); // Show results items
+            search.run();
         });
 
         // Page switch logic
@@ -381,6 +422,12 @@ public class MainScene implements GEScene {
             postRedditButton.setDisable(resultsList.getItems().size() == 0);
         });
 
+        this.contentSearchDisposer = () -> {
+            infiniteScroll.cancel();
+            spinnerContent.dispose();
+            spinnerEmailReddit.dispose();
+        };
+
         return content;
     }
 
@@ -399,7 +446,7 @@ public class MainScene implements GEScene {
      * @param p Presenter to use.
      */
     @Override
-    public Scene makeScene(GEPresenter p) {
+    protected Scene buildScene(GEPresenter p) {
         // Setup
         BorderPane root = new BorderPane();
         Scene scene = new Scene(root, p.getXResolution(), p.getYResolution());
@@ -421,6 +468,7 @@ public class MainScene implements GEScene {
 
         // Tag search gen will handle content search gen too
         VBox tagSearch = this.genTagSearch(p);
+        this.addDisposeHook(this::disposeContentSearch);
 
         Button readingListAccess = new Button("Articles to Read");
         readingListAccess.setOnAction(event -> {
@@ -15,7 +15,11 @@ import presenter.GEPresenter;
 import view.util.GEViewCommon;
 import view.util.GEViewLists;
 
-public class ReadingListScene implements GEScene {
+/**
+ * Scene showing the reading list. Made fresh each time it is opened,
+ * and disposed when going back.
+ */
+public class ReadingListScene extends GECachedScene {
     private GEScene prev; // Keep reference to previous scene
 
     /**
@@ -40,7 +44,7 @@ public class ReadingListScene implements GEScene {
      * @param p Presenter to use.
      */
     @Override
-    public Scene makeScene(GEPresenter p) {
+    protected Scene buildScene(GEPresenter p) {
         // Setup
         BorderPane root = new BorderPane();
         Scene scene = new Scene(root, p.getXResolution(), p.getYResolution());
@@ -67,6 +71,7 @@ public class ReadingListScene implements GEScene {
         Button back = new Button("Back");
         back.setOnAction(event -> {
             p.setScene(prev);
+            this.dispose(); // Not coming back to this one
         });
 
         center.setAlignment(Pos.CENTER);
@@ -0,0 +1,245 @@
+package view.util;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.skin.VirtualFlow;
+import model.items.GContent;
+import model.items.GTag;
+import presenter.GEPresenter;
+import presenter.GEPresenterObserver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Infinite scrolling of content search results in a list. Pages are loaded
+ * in the background as the view nears either end of what's loaded, and
+ * only a window of pages around the view is kept; pages far from the view
+ * are dropped, and loaded again if scrolled back to. Pages are added to
+ * and removed from the list's items in place, so only the affected rows
+ * are redrawn.
+ * All methods must be called on the FX thread.
+ */
+public class GEInfiniteScroll {
+    // Most pages kept loaded at once
+    private static final int PAGES_KEPT = 5;
+    // How many items from the end of what's loaded to start loading more
+    private static final int LOAD_AHEAD = 5;
+
+    private ListView<GContent> list;
+    private GEPresenter p;
+    private GEPresenterObserver preLoad;
+    private GEPresenterObserver postLoad;
+
+    private ObservableList<GContent> items; // Loaded items; the list's items once shown
+    private Deque<Integer> pageSizes; // Sizes of loaded pages, in order
+    private GTag tag;
+    private String query;
+    private int firstPage; // Page number of first loaded page
+    private int lastPage; // Page number of last loaded page; 0 if none
+    private int totalPages;
+    private Future<?> loading; // Load in progress; null if none
+    private VirtualFlow<?> flow; // Null until list has a skin
+
+    /**
+     * Sets up infinite scrolling for a list. Nothing is loaded until a
+     * search is started.
+     * @param list List to show results in.
+     * @param p Presenter to load content with.
+     * @param preLoad Operation to do before each page load.
+     * @param postLoad Operation to do after each page load.
+     */
+    public GEInfiniteScroll(ListView<GContent> list,
+                            GEPresenter p,
+                            GEPresenterObserver preLoad,
+                            GEPresenterObserver postLoad) {
+        this.list = list;
+        this.p = p;
+        this.preLoad = preLoad;
+        this.postLoad = postLoad;
+
+        this.items = FXCollections.observableArrayList();
+        this.pageSizes = new ArrayDeque<>();
+        this.loading = null;
+        this.flow = null;
+
+        // Watch scrolling once the list's flow exists
+        this.list.skinProperty().addListener(observable -> this.attachFlow());
+        this.attachFlow();
+    }
+
+    /**
+     * Finds the list's virtual flow and watches its scroll position.
+     */
+    private void attachFlow() {
+        if (this.flow != null) {
+            return;
+        }
+
+        Node node = this.list.lookup(".virtual-flow");
+
+        if (node instanceof VirtualFlow<?> vf) {
+            this.flow = vf;
+            this.flow.positionProperty().addListener(observable -> this.checkEdges());
+        }
+    }
+
+    /**
+     * Starts a new search, replacing any previous results and cancelling
+     * any load in progress.
+     * @param tag Tag for search.
+     * @param query Query for search.
+     */
+    public void start(GTag tag, String query) {
+        this.cancel();
+
+        this.tag = tag;
+        this.query = query;
+        this.items = FXCollections.observableArrayList();
+        this.pageSizes.clear();
+        this.firstPage = 1;
+        this.lastPage = 0;
+        this.totalPages = 1;
+
+        // Hide list until first page is in
+        this.list.setVisible(false);
+
+        this.load(1, true, false);
+    }
+
+    /**
+     * Cancels any load in progress.
+     */
+    public void cancel() {
+        if (this.loading != null) {
+            this.loading.cancel(true);
+            this.loading = null;
+            this.postLoad.update();
+        }
+    }
+
+    /**
+     * Returns whether this is showing results in its list; i.e. a search
+     * was started and the list hasn't been given other items since.
+     * @return Whether showing results.
+     */
+    private boolean isShowing() {
+        return this.list.getItems() == this.items;
+    }
+
+    /**
+     * Loads more if the view is near either end of what's loaded.
+     */
+    private void checkEdges() {
+        if (this.flow == null || this.loading != null || !this.isShowing() ||
+            this.items.isEmpty()) {
+            return;
+        }
+
+        IndexedCell<?> first = this.flow.getFirstVisibleCell();
+        IndexedCell<?> last = this.flow.getLastVisibleCell();
+
+        if (last != null &&
+            last.getIndex() >= this.items.size() - LOAD_AHEAD &&
+            this.lastPage < this.totalPages) {
+            this.load(this.lastPage + 1, true, true);
+        } else if (first != null &&
+                   first.getIndex() < LOAD_AHEAD &&
+                   this.firstPage > 1) {
+            this.load(this.firstPage - 1, false, true);
+        }
+    }
+
+    /**
+     * Returns the index of the first visible item.
+     * @return Index of first visible item; 0 if unknown.
+     */
+    private int firstVisibleIndex() {
+        IndexedCell<?> first = this.flow != null ? this.flow.getFirstVisibleCell() : null;
+        return first != null ? first.getIndex() : 0;
+    }
+
+    /**
+     * Loads a page in the background, adding it to one end of the list.
+     * @param page Page to load.
+     * @param atEnd Whether to add to the end (else the start).
+     * @param ahead Whether loading ahead of scrolling (else starting a search).
+     */
+    private void load(int page, boolean atEnd, boolean ahead) {
+        this.preLoad.update();
+
+        this.loading = this.p.loadContentPage(this.tag, this.query, page, ahead, content -> {
+            this.loading = null;
+            this.postLoad.update();
+
+            if (page == 1 && atEnd) {
+                this.showFirstPage(content);
+            } else if (!content.isEmpty()) {
+                this.addPage(content, page, atEnd);
+            }
+        });
+    }
+
+    /**
+     * Shows the first page of a search.
+     * @param content Content of first page.
+     */
+    private void showFirstPage(List<GContent> content) {
+        this.items.setAll(content);
+
+        if (!content.isEmpty()) {
+            this.pageSizes.addLast(content.size());
+            this.lastPage = 1;
+            this.totalPages = content.get(0).totalPages();
+        }
+
+        // Setting new items also lets listeners (e.g. empty indicator) see the results
+        this.list.setItems(this.items);
+        this.list.setVisible(!content.isEmpty());
+        this.list.scrollTo(0);
+    }
+
+    /**
+     * Adds a loaded page to one end of the list, then drops a page from the
+     * other end if too many are kept. The view is kept on the same items.
+     * @param content Content of page.
+     * @param page Page number.
+     * @param atEnd Whether to add to the end (else the start).
+     */
+    private void addPage(List<GContent> content, int page, boolean atEnd) {
+        int top = this.firstVisibleIndex();
+        this.totalPages = content.get(0).totalPages();
+
+        if (atEnd) {
+            this.items.addAll(content);
+            this.pageSizes.addLast(content.size());
+            this.lastPage = page;
+
+            if (this.pageSizes.size() > PAGES_KEPT) {
+                int dropped = this.pageSizes.removeFirst();
+                this.items.remove(0, dropped);
+                this.firstPage++;
+                this.list.scrollTo(Math.max(top - dropped, 0));
+            }
+        } else {
+            this.items.addAll(0, content);
+            this.pageSizes.addFirst(content.size());
+            this.firstPage = page;
+            this.list.scrollTo(top + content.size());
+
+            if (this.pageSizes.size() > PAGES_KEPT) {
+                int dropped = this.pageSizes.removeLast();
+                this.items.remove(this.items.size() - dropped, this.items.size());
+                this.lastPage--;
+            }
+        }
+
+        // Load on if still near an edge (e.g. a tall view)
+        this.checkEdges();
+    }
+}
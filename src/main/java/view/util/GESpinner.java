@@ -0,0 +1,146 @@
+package view.util;
+
+import javafx.animation.Animation;
+import javafx.animation.RotateTransition;
+import javafx.beans.InvalidationListener;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Animated loading spinner. All spinners share one image, and each
+ * spinner only animates while it is actually on screen; i.e. visible,
+ * in a scene, and that scene is in a showing window. A spinner is
+ * invisible (and not accounted for in layout) while disabled.
+ */
+public class GESpinner extends ImageView {
+    private static Image image; // Shared by all spinners; loaded on first use
+
+    private RotateTransition anim;
+    private InvalidationListener updater; // Re-checks whether to animate
+    private Scene watchedScene; // Scene whose window is being watched, if any
+    private Window watchedWindow; // Window whose showing is being watched, if any
+    private boolean disposed;
+
+    /**
+     * Creates a spinner.
+     * @param height Height to display spinner at.
+     */
+    public GESpinner(double height) {
+        super(sharedImage());
+
+        this.setPreserveRatio(true);
+        this.setFitHeight(height);
+
+        // Animate spinning
+        this.anim = new RotateTransition(Duration.millis(1000), this);
+        this.anim.setFromAngle(0);
+        this.anim.setToAngle(360);
+        this.anim.setCycleCount(Animation.INDEFINITE);
+
+        // Make spinner invisible when disabled
+        this.visibleProperty().bind(this.disableProperty().not());
+        this.managedProperty().bind(this.disableProperty().not());
+
+        // Only animate when on screen
+        this.updater = observable -> this.update();
+        this.visibleProperty().addListener(this.updater);
+        this.sceneProperty().addListener(this.updater);
+
+        this.disposed = false;
+        this.update();
+    }
+
+    /**
+     * Returns the shared spinner image, loading it if not yet loaded.
+     * @return Spinner image.
+     */
+    private static synchronized Image sharedImage() {
+        if (image == null) {
+            image = new Image("loadspinner.png");
+        }
+
+        return image;
+    }
+
+    /**
+     * Follows the spinner's scene and window, and plays or pauses the
+     * animation depending on whether the spinner is on screen.
+     */
+    private void update() {
+        if (this.disposed) {
+            return;
+        }
+
+        // Watch the current scene's window
+        Scene scene = this.getScene();
+
+        if (scene != this.watchedScene) {
+            if (this.watchedScene != null) {
+                this.watchedScene.windowProperty().removeListener(this.updater);
+            }
+
+            this.watchedScene = scene;
+
+            if (scene != null) {
+                scene.windowProperty().addListener(this.updater);
+            }
+        }
+
+        // Watch whether the current window is showing
+        Window window = scene != null ? scene.getWindow() : null;
+
+        if (window != this.watchedWindow) {
+            if (this.watchedWindow != null) {
+                this.watchedWindow.showingProperty().removeListener(this.updater);
+            }
+
+            this.watchedWindow = window;
+
+            if (window != null) {
+                window.showingProperty().addListener(this.updater);
+            }
+        }
+
+        boolean onScreen = this.isVisible() && window != null && window.isShowing();
+
+        if (onScreen && this.anim.getStatus() != Animation.Status.RUNNING) {
+            this.anim.play();
+        } else if (!onScreen && this.anim.getStatus() == Animation.Status.RUNNING) {
+            this.anim.pause();
+        }
+    }
+
+    /**
+     * Returns whether the spinner is currently animating.
+     * @return Whether the spinner is animating or not.
+     */
+    public boolean isAnimating() {
+        return this.anim.getStatus() == Animation.Status.RUNNING;
+    }
+
+    /**
+     * Stops the spinner for good and stops watching its scene and window.
+     * Spinners stop by themselves when their scene is replaced, so this
+     * is only needed to release a spinner early.
+     */
+    public void dispose() {
+        this.disposed = true;
+        this.anim.stop();
+
+        this.visibleProperty().removeListener(this.updater);
+        this.sceneProperty().removeListener(this.updater);
+
+        if (this.watchedScene != null) {
+            this.watchedScene.windowProperty().removeListener(this.updater);
+            this.watchedScene = null;
+        }
+
+        if (this.watchedWindow != null) {
+            this.watchedWindow.showingProperty().removeListener(this.updater);
+            this.watchedWindow = null;
+        }
+    }
+}
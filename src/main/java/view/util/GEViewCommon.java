@@ -1,12 +1,7 @@
 package view.util;
 
-import javafx.animation.Animation;
-import javafx.animation.RotateTransition;
 import javafx.application.Platform;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.util.Duration;
 import presenter.GEPresenter;
 
 /**
@@ -74,29 +69,12 @@ public class GEViewCommon {
     }
 
     /**
-     * Makes an animated spinner.
+     * Makes an animated spinner, which only animates while on screen.
      * @param p Presenter to interact with.
      * @return An animated spinner.
      */
-    public static ImageView spinner(GEPresenter p) {
-        Image img = new Image("loadspinner.png");
-        ImageView spinner = new ImageView(img);
-
-        spinner.setPreserveRatio(true);
-        spinner.setFitHeight(p.getXResolution() * 0.05);
-
-        // Animate spinning
-        RotateTransition anim = new RotateTransition(Duration.millis(1000), spinner);
-        anim.setFromAngle(0);
-        anim.setToAngle(360);
-        anim.setCycleCount(Animation.INDEFINITE);
-        anim.play();
-
-        // Make spinner invisible when disabled
-        spinner.visibleProperty().bind(spinner.disableProperty().not());
-        spinner.managedProperty().bind(spinner.disableProperty().not());
-
-        return spinner;
+    public static GESpinner spinner(GEPresenter p) {
+        return new GESpinner(p.getXResolution() * 0.05);
     }
 
     /**
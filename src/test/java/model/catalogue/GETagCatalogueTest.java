@@ -0,0 +1,164 @@
+package model.catalogue;
+
+import model.items.GTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the local tag catalogue.
+ */
+public class GETagCatalogueTest {
+    private GETagCatalogue fixture;
+    private Path cataloguePath;
+
+    // Dummy objects
+    private GTag dummyTag1;
+    private GTag dummyTag2;
+    private GTag dummyTag3;
+
+    @TempDir
+    Path tempDir;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        // Dummy setup
+        dummyTag1 = new GTag("world/antarctica", "keyword", "Antarctica",
+                             "weburl", "apiurl");
+        dummyTag2 = new GTag("environment/emperor-penguins", "keyword", "Emperor penguins",
+                             "weburl", "apiurl");
+        dummyTag3 = new GTag("tv/pingu", "keyword", "Pingu\tthe penguin",
+                             "weburl", "apiurl");
+
+        // Fixture setup
+        cataloguePath = tempDir.resolve("tags.catalogue");
+        fixture = new GETagCatalogue(cataloguePath.toString());
+    }
+
+    // Tests
+    /**
+     * Tests that a missing catalogue loads as empty, never crawled, and due a crawl.
+     */
+    @Test
+    public void loadMissingTest() {
+        assertTrue(fixture.load());
+        assertEquals(0, fixture.size());
+        assertFalse(fixture.isFresh(Instant.now()));
+        assertTrue(fixture.isCrawlDue(Instant.now()));
+    }
+
+    /**
+     * Tests that a finished crawl is fresh, searchable, and survives a reload.
+     */
+    @Test
+    public void crawlAndReloadTest() {
+        Instant now = Instant.now();
+
+        assertEquals(1, fixture.startCrawl());
+        fixture.addPage(List.of(dummyTag1, dummyTag2), 2);
+        fixture.addPage(List.of(dummyTag3), 1);
+        assertTrue(fixture.finishCrawl(now));
+
+        assertTrue(fixture.isFresh(now));
+        assertFalse(fixture.isCrawlDue(now));
+        assertTrue(fixture.isCrawlDue(now.plus(GETagCatalogue.REFRESH_AGE)));
+        assertFalse(fixture.isFresh(now.plus(GETagCatalogue.MAX_AGE)));
+
+        // New catalogue from same file
+        GETagCatalogue reloaded = new GETagCatalogue(cataloguePath.toString());
+        assertTrue(reloaded.load());
+        assertEquals(3, reloaded.size());
+        assertTrue(reloaded.isFresh(now));
+        assertThat(reloaded.search("antarc"), contains(dummyTag1));
+        // Tab in title is stored as a space
+        assertThat(reloaded.search("pingu").get(0).webTitle(), equalTo("Pingu the penguin"));
+    }
+
+    /**
+     * Tests that an interrupted crawl resumes from its last checkpoint,
+     * and isn't searchable until checkpointed.
+     */
+    @Test
+    public void resumeTest() {
+        fixture.startCrawl();
+        fixture.addPage(List.of(dummyTag1), 2);
+        assertThat(fixture.search("antarctica"), empty());
+
+        assertTrue(fixture.checkpoint());
+        assertThat(fixture.search("antarctica"), contains(dummyTag1));
+
+        // "Restart" mid crawl
+        GETagCatalogue reloaded = new GETagCatalogue(cataloguePath.toString());
+        assertTrue(reloaded.load());
+        assertTrue(reloaded.isCrawlDue(Instant.now()));
+        assertFalse(reloaded.isFresh(Instant.now()));
+        assertEquals(2, reloaded.startCrawl());
+    }
+
+    /**
+     * Tests that a finished crawl drops tags the crawl didn't see.
+     */
+    @Test
+    public void refreshDropsOldTagsTest() {
+        Instant now = Instant.now();
+
+        fixture.startCrawl();
+        fixture.addPage(List.of(dummyTag1, dummyTag2), 1);
+        fixture.finishCrawl(now);
+
+        // Second crawl no longer sees tag 1
+        fixture.startCrawl();
+        fixture.addPage(List.of(dummyTag2, dummyTag3), 1);
+        fixture.finishCrawl(now.plus(Duration.ofDays(1)));
+
+        assertEquals(2, fixture.size());
+        assertThat(fixture.search("antarctica"), empty());
+    }
+
+    /**
+     * Tests that searches match prefixes and small typos, rank closer
+     * matches first, and that blank searches match nothing.
+     */
+    @Test
+    public void searchTest() {
+        fixture.startCrawl();
+        fixture.addPage(List.of(dummyTag1, dummyTag2, dummyTag3), 1);
+        fixture.finishCrawl(Instant.now());
+
+        // Prefix of a word in title or ID
+        assertThat(fixture.search("Emper"), contains(dummyTag2));
+        assertThat(fixture.search("environment"), contains(dummyTag2));
+        // Small typo
+        assertThat(fixture.search("antartica"), contains(dummyTag1));
+        // Both penguin tags, shorter title first
+        assertThat(fixture.search("penguin").get(0), equalTo(dummyTag2));
+        assertThat(fixture.search("penguin"), hasSize(2));
+        // Nothing
+        assertThat(fixture.search(""), empty());
+        assertThat(fixture.search("walrus"), empty());
+    }
+
+    /**
+     * Tests that a file that isn't a catalogue fails to load.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void loadCorruptTest() throws IOException {
+        Files.writeString(cataloguePath, "not a catalogue", StandardCharsets.UTF_8);
+
+        assertFalse(fixture.load());
+    }
+}
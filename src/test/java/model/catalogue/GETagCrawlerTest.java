@@ -0,0 +1,155 @@
+package model.catalogue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.comms.exceptions.GECommsException;
+import model.comms.manager.GECommsManager;
+import model.util.SleepModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests crawling the tags endpoint into a tag catalogue.
+ */
+public class GETagCrawlerTest {
+    private GETagCrawler fixture;
+    private GETagCatalogue catalogue;
+
+    // Mocks + Dummy objects
+    private GECommsManager mockComms;
+    private SleepModule mockSleeper;
+    private JsonObject page1;
+    private JsonObject page2;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Makes a single tag page response.
+     * @param id ID of the tag on the page.
+     * @param pages Total number of pages.
+     * @return Page response.
+     */
+    private static JsonObject tagPage(String id, int pages) {
+        return JsonParser.parseString(
+                """
+                {
+                    "response": {
+                        "status": "ok",
+                        "pages": %d,
+                        "results": [
+                            {
+                                "id": "%s",
+                                "type": "keyword",
+                                "webTitle": "%s",
+                                "webUrl": "weburl",
+                                "apiUrl": "apiurl"
+                            }
+                        ]
+                    }
+                }
+                """.formatted(pages, id, id)).getAsJsonObject();
+    }
+
+    // Setup
+    @BeforeEach
+    public void setup() throws GECommsException {
+        // Dummy setup
+        page1 = tagPage("antarctica", 2);
+        page2 = tagPage("penguins", 2);
+
+        // Mock setup
+        mockComms = mock(GECommsManager.class);
+        when(mockComms.listTags(1, GETagCrawler.PAGE_SIZE)).thenReturn(page1);
+        when(mockComms.listTags(2, GETagCrawler.PAGE_SIZE)).thenReturn(page2);
+
+        mockSleeper = mock(SleepModule.class);
+        when(mockSleeper.sleep(anyLong())).thenReturn(true);
+
+        // Fixture setup
+        catalogue = new GETagCatalogue(tempDir.resolve("tags.catalogue").toString());
+        catalogue.load();
+        fixture = new GETagCrawler(mockComms, catalogue, mockSleeper);
+    }
+
+    // Tests
+    /**
+     * Tests that a crawl requests every page, pacing requests, and
+     * leaves the catalogue fresh with every tag.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void crawlTest() throws GECommsException {
+        assertTrue(fixture.crawl());
+
+        verify(mockComms).listTags(1, GETagCrawler.PAGE_SIZE);
+        verify(mockComms).listTags(2, GETagCrawler.PAGE_SIZE);
+        verify(mockSleeper, atLeastOnce()).sleep(anyLong());
+
+        assertEquals(2, catalogue.size());
+        assertTrue(catalogue.isFresh(Instant.now()));
+
+        // Not due again straight away
+        assertTrue(fixture.crawlIfDue());
+        verify(mockComms, times(1)).listTags(1, GETagCrawler.PAGE_SIZE);
+    }
+
+    /**
+     * Tests that a rate limited request is retried after backing off.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void crawlRateLimitedTest() throws GECommsException {
+        when(mockComms.listTags(2, GETagCrawler.PAGE_SIZE))
+                .thenThrow(new GECommsException(429, "Too many penguins"))
+                .thenReturn(page2);
+
+        assertTrue(fixture.crawl());
+
+        verify(mockComms, times(2)).listTags(2, GETagCrawler.PAGE_SIZE);
+        assertEquals(2, catalogue.size());
+    }
+
+    /**
+     * Tests that a failed crawl keeps its progress, and the next crawl
+     * resumes from the failed page.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void crawlResumeTest() throws GECommsException {
+        when(mockComms.listTags(2, GETagCrawler.PAGE_SIZE))
+                .thenThrow(new GECommsException(500, "Iceberg hit the server"))
+                .thenReturn(page2);
+
+        assertFalse(fixture.crawl());
+        assertFalse(catalogue.isFresh(Instant.now()));
+        assertEquals(1, catalogue.size()); // First page kept
+
+        // Resumes from page 2
+        assertTrue(fixture.crawlIfDue());
+        verify(mockComms, times(1)).listTags(1, GETagCrawler.PAGE_SIZE);
+        verify(mockComms, times(2)).listTags(2, GETagCrawler.PAGE_SIZE);
+        assertEquals(2, catalogue.size());
+        assertTrue(catalogue.isFresh(Instant.now()));
+    }
+
+    /**
+     * Tests that a crawl interrupted while pacing stops and keeps its progress.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void crawlInterruptedTest() throws GECommsException {
+        when(mockSleeper.sleep(anyLong())).thenReturn(false);
+
+        assertFalse(fixture.crawl());
+        verify(mockComms, never()).listTags(2, GETagCrawler.PAGE_SIZE);
+        assertEquals(1, catalogue.size());
+    }
+}
@@ -0,0 +1,155 @@
+package model.comms.drivers;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.catalogue.GETagCatalogue;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.ESendPayload;
+import model.comms.payloads.GContentPayload;
+import model.comms.payloads.GTagPayload;
+import model.db.GEDatabase;
+import model.items.GTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the cache-backed offline driver.
+ */
+public class GECachedCommsTest {
+    private GEComms fixture;
+
+    // Mocks + Dummy objects
+    private GEDatabase mockDB;
+    private GETagCatalogue mockCatalogue;
+    private GEComms mockOthers;
+    private GTag dummyTag;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        dummyTag = new GTag("places/snow", "keyword", "Snowy Places",
+                            "https://en.wikipedia.org/wiki/Penguin",
+                            "https://en.wikipedia.org/wiki/Penguin");
+
+        // Mock setup
+        mockDB = mock(GEDatabase.class);
+        when(mockDB.getCachedTagIds()).thenReturn(List.of("animals/penguins", "places/snow"));
+        when(mockDB.getCachedContent(any(), any(), anyInt())).thenReturn("");
+
+        mockCatalogue = mock(GETagCatalogue.class);
+        when(mockCatalogue.search(anyString())).thenReturn(List.of());
+
+        mockOthers = mock(GEComms.class);
+
+        // Fixture setup
+        fixture = new GECachedComms(mockDB, mockCatalogue, mockOthers);
+    }
+
+    // Tests
+    /**
+     * Tests cached content is returned as is.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testContentHit() throws GECommsException {
+        when(mockDB.getCachedContent(dummyTag, "penguins", 2)).thenReturn("{\"response\": {}}");
+
+        GEResponse ret = fixture.getContent(new GContentPayload(dummyTag, "penguins", 2, 10));
+
+        assertEquals(200, ret.statusCode());
+        assertThat(ret.body(), equalTo("{\"response\": {}}"));
+    }
+
+    /**
+     * Tests content not cached is not found.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testContentMiss() throws GECommsException {
+        GEResponse ret = fixture.getContent(new GContentPayload(dummyTag, "penguins", 1, 10));
+
+        assertEquals(404, ret.statusCode());
+        JsonObject body = JsonParser.parseString(ret.body()).getAsJsonObject();
+        assertThat(body.getAsJsonObject("response").get("status").getAsString(), equalTo("error"));
+    }
+
+    /**
+     * Tests a database failure is an error rather than a miss.
+     */
+    @Test
+    public void testContentDBFail() {
+        when(mockDB.getCachedContent(any(), any(), anyInt())).thenReturn(null);
+
+        assertThrows(GECommsException.class,
+                     () -> fixture.getContent(new GContentPayload(dummyTag, "penguins", 1, 10)));
+    }
+
+    /**
+     * Tests tags are found in the catalogue first, then in the tags with
+     * cached content, without duplicates.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testTags() throws GECommsException {
+        when(mockCatalogue.search("snow")).thenReturn(List.of(dummyTag));
+
+        GEResponse ret = fixture.getTags(new GTagPayload("Snow", 1, 10));
+
+        assertEquals(200, ret.statusCode());
+        JsonObject response = JsonParser.parseString(ret.body())
+                                        .getAsJsonObject()
+                                        .getAsJsonObject("response");
+        assertEquals(1, response.get("total").getAsInt());
+        assertThat(response.getAsJsonArray("results").get(0).getAsJsonObject()
+                           .get("webTitle").getAsString(),
+                   equalTo("Snowy Places"));
+    }
+
+    /**
+     * Tests tags only known from cached content are still found.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testTagsFromCachedContent() throws GECommsException {
+        GEResponse ret = fixture.getTags(new GTagPayload("penguin", 1, 10));
+
+        assertEquals(200, ret.statusCode());
+        JsonObject response = JsonParser.parseString(ret.body())
+                                        .getAsJsonObject()
+                                        .getAsJsonObject("response");
+        assertThat(response.getAsJsonArray("results").get(0).getAsJsonObject()
+                           .get("id").getAsString(),
+                   equalTo("animals/penguins"));
+    }
+
+    /**
+     * Tests tags not saved are not found.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testTagsMiss() throws GECommsException {
+        GEResponse ret = fixture.getTags(new GTagPayload("blizzard", 1, 10));
+
+        assertEquals(404, ret.statusCode());
+    }
+
+    /**
+     * Tests email requests are passed to the other driver.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testOthersUsed() throws GECommsException {
+        ESendPayload payload = new ESendPayload("pingu@antarctica.com", dummyTag, List.of());
+        fixture.sendEmail(payload);
+
+        verify(mockOthers).sendEmail(payload);
+    }
+}
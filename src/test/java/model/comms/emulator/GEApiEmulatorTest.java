@@ -0,0 +1,244 @@
+package model.comms.emulator;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import model.comms.drivers.GEApiTimeouts;
+import model.comms.drivers.GEOnlineComms;
+import model.comms.drivers.GEResponse;
+import model.comms.exceptions.GECommsException;
+import model.comms.exceptions.GETimeoutException;
+import model.comms.payloads.GContentPayload;
+import model.comms.payloads.GTagPayload;
+import model.comms.payloads.RPostPayload;
+import model.comms.util.GEDeadline;
+import model.items.GTag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the local API emulator through the real online driver.
+ */
+public class GEApiEmulatorTest {
+    private GEApiEmulator fixture;
+
+    // Dummy objects
+    private GTag penguinTag = new GTag("world/penguins", "keyword", "Penguins",
+                                       "https://www.theguardian.com/world/penguins",
+                                       "https://content.guardianapis.com/world/penguins");
+
+    // Setup
+    /**
+     * Starts an emulator and makes an online driver for it.
+     * @param settings Settings to emulate with.
+     * @return Online driver using the emulator.
+     */
+    private GEOnlineComms startEmulator(GEEmulatorSettings settings) {
+        fixture = new GEApiEmulator(settings);
+        String base = fixture.start(0);
+        assertNotNull(base);
+
+        return new GEOnlineComms(base, base, base, base);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (fixture != null) {
+            fixture.stop();
+        }
+    }
+
+    /**
+     * Parses the response object out of a Guardian response.
+     * @param response Response.
+     * @return Response object.
+     */
+    private static JsonObject responseOf(GEResponse response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonObject("response");
+    }
+
+    // Tests
+    /**
+     * Tests tag searches are answered and paged.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testTags() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings());
+
+        GEResponse ret = comms.getTags(new GTagPayload("penguin", 1, 3));
+        JsonObject response = responseOf(ret);
+
+        assertEquals(200, ret.statusCode());
+        assertEquals(3, response.getAsJsonArray("results").size());
+        assertThat(response.get("pages").getAsInt(), greaterThan(1));
+        assertThat(response.getAsJsonArray("results").get(0).getAsJsonObject()
+                           .get("id").getAsString(),
+                   containsString("penguins"));
+    }
+
+    /**
+     * Tests content is given newest (or oldest) first, and pages past the end are an error.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testContent() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings());
+
+        JsonObject newest = responseOf(comms.getContent(
+                new GContentPayload(penguinTag, "", 1, 10, "newest")));
+        JsonObject oldest = responseOf(comms.getContent(
+                new GContentPayload(penguinTag, "", 1, 10, "oldest")));
+
+        String newestDate = newest.getAsJsonArray("results").get(0).getAsJsonObject()
+                                  .get("webPublicationDate").getAsString();
+        String oldestDate = oldest.getAsJsonArray("results").get(0).getAsJsonObject()
+                                  .get("webPublicationDate").getAsString();
+        assertThat(newestDate, greaterThan(oldestDate));
+        assertEquals(10, newest.get("pages").getAsInt());
+
+        GEResponse beyond = comms.getContent(new GContentPayload(penguinTag, "", 11, 10));
+        assertEquals(400, beyond.statusCode());
+    }
+
+    /**
+     * Tests posting to Reddit is accepted with a token.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testRedditPost() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings());
+
+        GEResponse ret = comms.postReddit(new RPostPayload("pingu", "pingu's token",
+                                                           penguinTag, List.of()));
+
+        assertEquals(200, ret.statusCode());
+        assertThat(ret.body(), containsString("\"data\""));
+    }
+
+    /**
+     * Tests a retried post with the same idempotency key isn't posted again.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testIdempotentPost() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings());
+
+        GEResponse first = comms.postReddit(new RPostPayload("pingu", "pingu's token",
+                                                             penguinTag, List.of(), "noot"));
+        GEResponse retry = comms.postReddit(new RPostPayload("pingu", "pingu's token",
+                                                             penguinTag, List.of(), "noot"));
+        GEResponse other = comms.postReddit(new RPostPayload("pingu", "pingu's token",
+                                                             penguinTag, List.of(), "noot noot"));
+
+        assertEquals(first.body(), retry.body());
+        assertNotEquals(first.body(), other.body());
+    }
+
+    /**
+     * Tests token requests without client credentials are challenged, like Reddit.
+     * @throws IOException Ignore this.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testTokenChallenge() throws IOException, InterruptedException {
+        startEmulator(new GEEmulatorSettings());
+
+        HttpResponse<String> res = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(fixture.getBaseUrl() + "/api/v1/access_token"))
+                           .POST(HttpRequest.BodyPublishers.ofString("grant_type=password"))
+                           .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(401, res.statusCode());
+        assertTrue(res.headers().firstValue("WWW-Authenticate").isPresent());
+    }
+
+    /**
+     * Tests requests over the rate limit are rejected.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testRateLimit() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings(0, 0, 0, 2, 10, 10, 2, 0));
+
+        assertEquals(200, comms.getTags(new GTagPayload("snow", 1, 10)).statusCode());
+        assertEquals(200, comms.getTags(new GTagPayload("snow", 1, 10)).statusCode());
+        assertEquals(429, comms.getTags(new GTagPayload("snow", 1, 10)).statusCode());
+        assertEquals(3, fixture.getRequestCount());
+    }
+
+    /**
+     * Tests the error rate makes requests fail.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testErrorRate() throws GECommsException {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings(0, 0, 1, 0, 10, 10, 2, 0));
+
+        assertEquals(500, comms.getTags(new GTagPayload("snow", 1, 10)).statusCode());
+    }
+
+    /**
+     * Tests a response slower than the request timeout is given up on
+     * with a timeout error.
+     */
+    @Test
+    public void testRequestTimeout() {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings(2000, 0, 0, 0, 10, 10, 2, 0));
+        assertTrue(comms.setTimeouts(GEApiTimeouts.ofMillis(1000, 200),
+                                     GEApiTimeouts.ofMillis(1000, 200),
+                                     GEApiTimeouts.ofMillis(1000, 200)));
+
+        long start = System.nanoTime();
+        GETimeoutException e = assertThrows(GETimeoutException.class,
+                () -> comms.getTags(new GTagPayload("snow", 1, 10)));
+
+        assertEquals(-1, e.getCode());
+        assertThat(Duration.ofNanos(System.nanoTime() - start), lessThan(Duration.ofMillis(1500)));
+    }
+
+    /**
+     * Tests a request is cut short by the current deadline, and not
+     * made at all once it has passed.
+     */
+    @Test
+    public void testDeadline() {
+        GEOnlineComms comms = startEmulator(new GEEmulatorSettings(2000, 0, 0, 0, 10, 10, 2, 0));
+
+        try (GEDeadline deadline = GEDeadline.start("getTags", Duration.ofMillis(200))) {
+            long start = System.nanoTime();
+            assertThrows(GETimeoutException.class,
+                    () -> comms.getTags(new GTagPayload("snow", 1, 10)));
+            assertThat(Duration.ofNanos(System.nanoTime() - start), lessThan(Duration.ofMillis(1500)));
+            assertEquals(Duration.ZERO, deadline.remaining());
+
+            assertThrows(GETimeoutException.class,
+                    () -> comms.getTags(new GTagPayload("snow", 1, 10)));
+        }
+
+        assertEquals(1, fixture.getRequestCount());
+    }
+
+    /**
+     * Tests setting timeouts rejects null.
+     */
+    @Test
+    public void testSetTimeoutsNull() {
+        GEOnlineComms comms = new GEOnlineComms();
+
+        assertFalse(comms.setTimeouts(null, GEOnlineComms.SENDGRID_TIMEOUTS,
+                                      GEOnlineComms.REDDIT_TIMEOUTS));
+    }
+}
@@ -1,17 +1,22 @@
 package model.comms.manager;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import model.comms.drivers.GEComms;
 import model.comms.drivers.GEResponse;
 import model.comms.exceptions.GECommsException;
+import model.comms.payloads.ESendBulkPayload;
 import model.comms.payloads.ESendPayload;
 import model.comms.util.JSONParser;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.GContent;
 import model.items.GTag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -146,4 +151,96 @@ public class GECommsManagerEmailTest {
         fixture.setOnline(false, false, false);
         assertDoesNotThrow(() -> fixture.sendEmail(dummyPayload));
     }
+
+    /**
+     * Tests that bulk sending packs recipients into as few requests as possible,
+     * de-duplicating them and giving a result for each.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void sendBulkEmailBatchingTest() throws GECommsException {
+        // Setup
+        when(mockOfflineComms.sendBulkEmail(ArgumentMatchers.any(ESendBulkPayload.class)))
+                .thenReturn(mockResponse);
+
+        List<String> recipients = new ArrayList<>();
+
+        for (int i = 0; i < GEComms.MAX_EMAIL_RECIPIENTS * 2 + 5; i++) {
+            recipients.add("penguin" + i + "@antarctica");
+        }
+
+        recipients.add("penguin0@antarctica"); // Duplicate
+
+        List<ESendResult> results = fixture.sendBulkEmail(
+                new ESendBulkPayload(recipients, dummyPayload.tag(), dummyPayload.content()));
+
+        // One result per distinct recipient, all successful, in order
+        assertEquals(GEComms.MAX_EMAIL_RECIPIENTS * 2 + 5, results.size());
+        assertTrue(results.stream().allMatch(ESendResult::success));
+        assertEquals("penguin0@antarctica", results.get(0).recipient());
+
+        // Three requests, none over the limit
+        ArgumentCaptor<ESendBulkPayload> captor = ArgumentCaptor.forClass(ESendBulkPayload.class);
+        verify(mockOfflineComms, times(3)).sendBulkEmail(captor.capture());
+
+        for (ESendBulkPayload batch : captor.getAllValues()) {
+            assertTrue(batch.recipients().size() <= GEComms.MAX_EMAIL_RECIPIENTS);
+        }
+    }
+
+    /**
+     * Tests that a failed bulk request only fails the recipients in that request.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void sendBulkEmailPartialFailTest() throws GECommsException {
+        // Setup; first batch fails
+        String failBody = "{\"errors\": [{\"message\": \"too many fish\"}]}";
+        GEResponse failResponse = new GEResponse(failBody, 500);
+        when(mockParser.parseResponse(failBody))
+                .thenReturn(JsonParser.parseString(failBody).getAsJsonObject());
+        when(mockOfflineComms.sendBulkEmail(ArgumentMatchers.any(ESendBulkPayload.class)))
+                .thenAnswer(invocation -> {
+                    ESendBulkPayload batch = invocation.getArgument(0);
+                    return batch.recipients().contains("seal0") ? failResponse : mockResponse;
+                });
+
+        List<String> recipients = new ArrayList<>();
+
+        for (int i = 0; i < GEComms.MAX_EMAIL_RECIPIENTS + 1; i++) {
+            recipients.add("seal" + i);
+        }
+
+        recipients.add(1, " "); // Blank
+
+        List<ESendResult> results = fixture.sendBulkEmail(
+                new ESendBulkPayload(recipients, dummyPayload.tag(), dummyPayload.content()));
+
+        assertEquals(GEComms.MAX_EMAIL_RECIPIENTS + 2, results.size());
+        // Results in the order recipients were given
+        assertEquals(recipients, results.stream().map(ESendResult::recipient).toList());
+        // Whole first batch and the blank recipient fail
+        assertEquals(GEComms.MAX_EMAIL_RECIPIENTS + 1,
+                     results.stream().filter(r -> !r.success()).count());
+        assertTrue(results.get(0).message().contains("too many fish"));
+        assertTrue(results.stream()
+                          .filter(r -> r.recipient().equals("seal" + GEComms.MAX_EMAIL_RECIPIENTS))
+                          .allMatch(ESendResult::success));
+        assertFalse(results.get(1).success());
+    }
+
+    /**
+     * Tests bulk sending with a bad payload or without environment variables.
+     */
+    @Test
+    public void sendBulkEmailInvalidTest() {
+        assertThrows(GECommsException.class, () -> fixture.sendBulkEmail(null));
+        assertThrows(GECommsException.class, () -> fixture.sendBulkEmail(
+                new ESendBulkPayload(null, dummyPayload.tag(), dummyPayload.content())));
+
+        fixture.setOnline(false, true, false);
+        when(mockEnv.getenv("SENDGRID_API_KEY")).thenReturn(null);
+        assertThrows(GECommsException.class, () -> fixture.sendBulkEmail(
+                new ESendBulkPayload(List.of("walrus"), dummyPayload.tag(), dummyPayload.content())));
+    }
 }
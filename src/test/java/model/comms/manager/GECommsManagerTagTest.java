@@ -2,15 +2,19 @@ package model.comms.manager;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import model.catalogue.GETagCatalogue;
 import model.comms.drivers.GEComms;
 import model.comms.drivers.GEResponse;
 import model.comms.exceptions.GECommsException;
 import model.comms.payloads.GTagPayload;
 import model.comms.util.JSONParser;
 import model.env.Environment;
+import model.items.GTag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import java.time.Instant;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
@@ -137,4 +141,68 @@ public class GECommsManagerTagTest {
         fixture.setOnline(false, false, false);
         assertDoesNotThrow(() -> fixture.getTags(dummyPayload));
     }
+
+    /**
+     * Tests that a fresh tag catalogue answers tag searches instead of the API,
+     * in the same form as the API's responses.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void getTagsFromCatalogueTest() throws GECommsException {
+        // Setup
+        GETagCatalogue mockCatalogue = mock(GETagCatalogue.class);
+        when(mockCatalogue.isFresh(ArgumentMatchers.any(Instant.class))).thenReturn(true);
+        when(mockCatalogue.search("igloos")).thenReturn(List.of(
+                new GTag("antarctica/igloos", "keyword", "Igloos", "weburl", "apiurl")
+        ));
+
+        fixture.setOnline(true, false, false);
+        fixture.injectTagCatalogue(mockCatalogue);
+
+        // Answered by catalogue
+        JsonObject ret = fixture.getTags(dummyPayload).getAsJsonObject("response");
+
+        assertEquals(1, ret.get("total").getAsInt());
+        assertEquals(1, ret.get("pages").getAsInt());
+        assertEquals("antarctica/igloos",
+                     ret.getAsJsonArray("results").get(0).getAsJsonObject().get("id").getAsString());
+        verify(mockOnlineComms, never()).getTags(ArgumentMatchers.any(GTagPayload.class));
+
+        // Listing tags always uses the API
+        assertThat(fixture.listTags(1, 200), equalTo(dummyJson));
+        verify(mockOnlineComms).getTags(ArgumentMatchers.any(GTagPayload.class));
+    }
+
+    /**
+     * Tests that a stale tag catalogue isn't used.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void getTagsStaleCatalogueTest() throws GECommsException {
+        // Setup
+        GETagCatalogue mockCatalogue = mock(GETagCatalogue.class);
+        when(mockCatalogue.isFresh(ArgumentMatchers.any(Instant.class))).thenReturn(false);
+
+        fixture.setOnline(true, false, false);
+        fixture.injectTagCatalogue(mockCatalogue);
+
+        assertThat(fixture.getTags(dummyPayload), equalTo(dummyJson));
+        verify(mockOnlineComms).getTags(ArgumentMatchers.any(GTagPayload.class));
+        verify(mockCatalogue, never()).search(ArgumentMatchers.anyString());
+    }
+
+    /**
+     * Tests that a rate limited response (with its message at the top level)
+     * gives an exception with the rate limited code.
+     */
+    @Test
+    public void getTagsRateLimitedTest() {
+        // Setup
+        dummyJson.add("message", new JsonPrimitive("API rate limit exceeded"));
+        when(mockResponse.statusCode()).thenReturn(429);
+
+        GECommsException e = assertThrows(GECommsException.class,
+                                          () -> fixture.getTags(dummyPayload));
+        assertEquals(429, e.getCode());
+    }
 }
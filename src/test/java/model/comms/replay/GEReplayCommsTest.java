@@ -0,0 +1,181 @@
+package model.comms.replay;
+
+import model.comms.drivers.GEComms;
+import model.comms.drivers.GEResponse;
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.GContentPayload;
+import model.comms.payloads.GTagPayload;
+import model.comms.payloads.RTokenPayload;
+import model.items.GTag;
+import model.util.SleepModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests recording exchanges to a journal and replaying them.
+ */
+public class GEReplayCommsTest {
+    @TempDir
+    Path tempDir;
+
+    // Mocks + Dummy objects
+    private GEComms mockOnline;
+    private SleepModule mockSleeper;
+    private GEExchangeJournal journal;
+    private GTag dummyTag;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        mockOnline = mock(GEComms.class);
+        mockSleeper = mock(SleepModule.class);
+        when(mockSleeper.sleep(anyLong())).thenReturn(true);
+
+        journal = new GEExchangeJournal(tempDir.resolve("traffic.journal").toString());
+
+        dummyTag = new GTag("places/snow", "keyword", "Snowy Places",
+                            "https://en.wikipedia.org/wiki/Penguin",
+                            "https://en.wikipedia.org/wiki/Penguin");
+    }
+
+    // Tests
+    /**
+     * Tests recorded responses are passed through, and served back the same when replayed.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testRecordReplay() throws GECommsException {
+        GContentPayload payload = new GContentPayload(dummyTag, "penguins", 1, 10);
+        when(mockOnline.getContent(payload)).thenReturn(new GEResponse("{\"pingu\": 1}", 200));
+
+        GEComms recorder = new GERecordingComms(mockOnline, journal);
+        assertThat(recorder.getContent(payload).body(), equalTo("{\"pingu\": 1}"));
+        journal.close();
+
+        GEComms fixture = new GEReplayComms(journal.load(), 0, mockSleeper);
+        GEResponse ret = fixture.getContent(new GContentPayload(dummyTag, "penguins", 1, 10));
+
+        assertEquals(200, ret.statusCode());
+        assertThat(ret.body(), equalTo("{\"pingu\": 1}"));
+
+        // Zero latency scale means no sleeping
+        verify(mockSleeper, never()).sleep(anyLong());
+    }
+
+    /**
+     * Tests a request recorded several times gets its responses in order,
+     * then keeps getting the last.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testRepeatedRequests() throws GECommsException {
+        GTagPayload payload = new GTagPayload("snow", 1, 10);
+        String key = GEExchangeJournal.requestKey(payload);
+
+        GEComms fixture = new GEReplayComms(List.of(
+                new GEExchange("getTags", key, 429, 0, "slow down", false),
+                new GEExchange("getTags", key, 200, 0, "{}", false)
+        ), 1, mockSleeper);
+
+        assertEquals(429, fixture.getTags(payload).statusCode());
+        assertEquals(200, fixture.getTags(payload).statusCode());
+        assertEquals(200, fixture.getTags(payload).statusCode());
+    }
+
+    /**
+     * Tests recorded latency is reproduced, scaled.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testLatencyScaled() throws GECommsException {
+        GTagPayload payload = new GTagPayload("snow", 1, 10);
+
+        GEComms fixture = new GEReplayComms(List.of(
+                new GEExchange("getTags", GEExchangeJournal.requestKey(payload),
+                               200, 300000, "{}", false)
+        ), 0.5, mockSleeper);
+
+        fixture.getTags(payload);
+        verify(mockSleeper).sleep(150);
+    }
+
+    /**
+     * Tests recorded failures are thrown again, and unrecorded requests are not found.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testFailuresAndMisses() throws GECommsException {
+        GTagPayload payload = new GTagPayload("snow", 1, 10);
+        when(mockOnline.getTags(payload)).thenThrow(new GECommsException(-1, "blizzard"));
+
+        GEComms recorder = new GERecordingComms(mockOnline, journal);
+        assertThrows(GECommsException.class, () -> recorder.getTags(payload));
+        journal.close();
+
+        GEComms fixture = new GEReplayComms(journal.load(), 0, mockSleeper);
+        GECommsException e = assertThrows(GECommsException.class, () -> fixture.getTags(payload));
+        assertEquals(-1, e.getCode());
+        assertThat(e.getMsg(), equalTo("blizzard"));
+
+        assertEquals(404, fixture.getTags(new GTagPayload("penguins", 1, 10)).statusCode());
+    }
+
+    /**
+     * Tests Reddit access tokens and passwords are kept out of the journal.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testTokenRedacted() throws GECommsException {
+        RTokenPayload payload = new RTokenPayload("pingu", "noot noot");
+        when(mockOnline.getRedditToken(payload))
+                .thenReturn(new GEResponse("{\"access_token\": \"pingu's key\"}", 200));
+
+        GEComms recorder = new GERecordingComms(mockOnline, journal);
+        recorder.getRedditToken(payload);
+        journal.close();
+
+        GEExchange recorded = journal.load().get(0);
+        assertThat(recorded.body(), not(containsString("pingu's key")));
+        assertThat(recorded.request(), not(containsString("noot noot")));
+    }
+
+    /**
+     * Tests a record cut short by a crash is skipped, and exchanges appended after it are kept.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void testTornRecord() throws IOException {
+        Path path = tempDir.resolve("traffic.journal");
+        GEExchange first = new GEExchange("getTags", "snow", 200, 1000, "{}", false);
+        GEExchange second = new GEExchange("getTags", "ice", 200, 2000, "{}", false);
+
+        journal.append(first);
+        journal.close();
+        Files.writeString(path, "{\"m\":\"getTa", StandardCharsets.UTF_8,
+                          StandardOpenOption.APPEND);
+
+        GEExchangeJournal reopened = new GEExchangeJournal(path.toString());
+        assertThat(reopened.load(), contains(first));
+        reopened.append(second);
+        reopened.close();
+
+        assertThat(new GEExchangeJournal(path.toString()).load(), contains(first, second));
+    }
+}
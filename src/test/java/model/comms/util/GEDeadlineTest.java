@@ -0,0 +1,105 @@
+package model.comms.util;
+
+import model.comms.exceptions.GETimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests operation deadlines, nesting and propagation across threads.
+ */
+public class GEDeadlineTest {
+    private ExecutorService pool;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void teardown() {
+        pool.shutdownNow();
+    }
+
+    // Tests
+    /**
+     * Tests timeouts are unbounded with no deadline.
+     * @throws GETimeoutException Ignore this.
+     */
+    @Test
+    public void testNoDeadline() throws GETimeoutException {
+        assertNull(GEDeadline.current());
+        assertEquals(Duration.ofSeconds(5), GEDeadline.bound(Duration.ofSeconds(5)));
+        GEDeadline.check();
+    }
+
+    /**
+     * Tests timeouts are bounded by what is left of the deadline.
+     * @throws GETimeoutException Ignore this.
+     */
+    @Test
+    public void testBound() throws GETimeoutException {
+        try (GEDeadline deadline = GEDeadline.start("getTags", Duration.ofSeconds(2))) {
+            assertSame(deadline, GEDeadline.current());
+            assertThat(GEDeadline.bound(Duration.ofSeconds(5)),
+                       lessThanOrEqualTo(Duration.ofSeconds(2)));
+            assertEquals(Duration.ofMillis(100), GEDeadline.bound(Duration.ofMillis(100)));
+        }
+
+        assertNull(GEDeadline.current());
+    }
+
+    /**
+     * Tests a passed deadline throws, naming the operation.
+     */
+    @Test
+    public void testExpired() {
+        try (GEDeadline deadline = GEDeadline.start("sendEmail", Duration.ZERO)) {
+            assertEquals(Duration.ZERO, deadline.remaining());
+
+            GETimeoutException e = assertThrows(GETimeoutException.class, GEDeadline::check);
+            assertThat(e.getMessage(), containsString("sendEmail"));
+            assertThrows(GETimeoutException.class, () -> GEDeadline.bound(Duration.ofSeconds(1)));
+        }
+    }
+
+    /**
+     * Tests a deadline started within another never outlasts it, and closing
+     * it makes the other current again.
+     */
+    @Test
+    public void testNesting() {
+        try (GEDeadline outer = GEDeadline.start("postReddit", Duration.ofSeconds(1))) {
+            try (GEDeadline inner = GEDeadline.start("renewRedditToken", Duration.ofSeconds(30))) {
+                assertThat(inner.remaining(), lessThanOrEqualTo(Duration.ofSeconds(1)));
+            }
+
+            assertSame(outer, GEDeadline.current());
+        }
+    }
+
+    /**
+     * Tests wrapped tasks run with the deadline they were submitted with,
+     * and the worker thread is left without one after.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testPropagated() throws Exception {
+        try (GEDeadline deadline = GEDeadline.start("sendBulkEmail", Duration.ofSeconds(2))) {
+            assertSame(deadline, CompletableFuture.supplyAsync(
+                    GEDeadline.wrapSupplier(GEDeadline::current), pool).get());
+        }
+
+        assertNull(pool.submit(GEDeadline::current).get());
+    }
+}
@@ -3,16 +3,30 @@ package model.comms.util;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Tests JSON parser modules.
  */
 public class JSONParserTest {
+    @TempDir
+    Path tempDir;
+
     private JSONParser fixture;
 
     // Setup
@@ -65,4 +79,26 @@ public class JSONParserTest {
         String bad = "!ha}cke r :}{}}guy!!";
         assertNull(fixture.parseResponse(bad));
     }
+
+    /**
+     * Tests parses are recorded as flight recorder events.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void recordedTest() throws IOException {
+        Path file = tempDir.resolve("parse.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("ge.JsonParse");
+            recording.start();
+            fixture.parseResponse("!ha}cke r :}{}}guy!!");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        assertEquals(20, events.get(0).getLong("length"));
+        assertFalse(events.get(0).getBoolean("parsed"));
+    }
 }
@@ -0,0 +1,114 @@
+package model.db;
+
+import model.items.RedditSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the encrypted file Reddit token store.
+ */
+public class GEEncryptedTokenFileTest {
+    private GEEncryptedTokenFile fixture;
+    private Path tokenPath;
+
+    // Dummy objects
+    private RedditSession dummySession;
+
+    @TempDir
+    Path tempDir;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        dummySession = new RedditSession("pingu", "pingu's fish token",
+                                         Instant.parse("2030-01-01T00:00:00Z"));
+
+        tokenPath = tempDir.resolve("reddit.token");
+        fixture = new GEEncryptedTokenFile(tokenPath.toString(), "seal's karma stash");
+    }
+
+    // Tests
+    /**
+     * Tests that a missing file loads as nothing stored.
+     */
+    @Test
+    public void loadMissingTest() {
+        assertNull(fixture.load());
+    }
+
+    /**
+     * Tests that a saved login is loaded back by a new store, and the
+     * token isn't in the file in plain text.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void saveLoadTest() throws IOException {
+        assertTrue(fixture.save(dummySession));
+
+        GEEncryptedTokenFile reopened =
+                new GEEncryptedTokenFile(tokenPath.toString(), "seal's karma stash");
+        assertEquals(dummySession, reopened.load());
+
+        String file = Files.readString(tokenPath, StandardCharsets.UTF_8);
+        assertThat(file, not(containsString("fish token")));
+        assertThat(file, not(containsString("pingu")));
+    }
+
+    /**
+     * Tests that a file can't be read with another secret.
+     */
+    @Test
+    public void wrongSecretTest() {
+        assertTrue(fixture.save(dummySession));
+
+        GEEncryptedTokenFile other = new GEEncryptedTokenFile(tokenPath.toString(), "robby's secret");
+        assertNull(other.load());
+    }
+
+    /**
+     * Tests that a tampered with file reads as nothing stored.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void tamperedTest() throws IOException {
+        assertTrue(fixture.save(dummySession));
+
+        String file = Files.readString(tokenPath, StandardCharsets.UTF_8);
+        int data = file.indexOf("\"data\":\"") + 8;
+        char swapped = file.charAt(data) == 'A' ? 'B' : 'A';
+        Files.writeString(tokenPath,
+                          file.substring(0, data) + swapped + file.substring(data + 1),
+                          StandardCharsets.UTF_8);
+
+        assertNull(fixture.load());
+    }
+
+    /**
+     * Tests that saving replaces the stored login, and clearing removes it.
+     */
+    @Test
+    public void replaceClearTest() {
+        RedditSession newer = new RedditSession("pingu", "fresh fish",
+                                                Instant.parse("2031-01-01T00:00:00Z"));
+
+        assertTrue(fixture.save(dummySession));
+        assertTrue(fixture.save(newer));
+        assertEquals(newer, fixture.load());
+
+        assertTrue(fixture.clear());
+        assertNull(fixture.load());
+        assertFalse(Files.exists(tokenPath));
+    }
+}
@@ -0,0 +1,175 @@
+package model.db;
+
+import model.items.GContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the journal-based reading list store.
+ */
+public class GEReadingListJournalTest {
+    private GEReadingListJournal fixture;
+    private Path journalPath;
+
+    // Dummy objects
+    private GContent dummyContent1;
+    private GContent dummyContent2;
+
+    @TempDir
+    Path tempDir;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        // Dummy setup
+        dummyContent1 = new GContent("pingu", "penguins", "Penguins",
+                                     "2014-02-17T12:05:47Z", "Pingu goes fishing",
+                                     "weburl", "apiurl", 1, 2);
+        dummyContent2 = new GContent("robby", "seals", "Seals",
+                                     "2014-02-18T12:05:47Z", "Robby & the iceberg;",
+                                     "weburl", "apiurl", 2, 2);
+
+        // Fixture setup
+        journalPath = tempDir.resolve("readinglist.journal");
+        fixture = new GEReadingListJournal(journalPath.toString());
+    }
+
+    // Tests
+    /**
+     * Tests that a missing journal loads as an empty reading list.
+     */
+    @Test
+    public void loadMissingTest() {
+        assertThat(fixture.load(), empty());
+    }
+
+    /**
+     * Tests that adds and removes are replayed in order by a new journal
+     * on the same file.
+     */
+    @Test
+    public void replayTest() {
+        assertTrue(fixture.recordAdd(dummyContent1));
+        assertTrue(fixture.recordAdd(dummyContent2));
+        assertTrue(fixture.recordRemove(dummyContent1.id()));
+        assertTrue(fixture.recordAdd(dummyContent1));
+        fixture.close();
+
+        GEReadingListJournal reopened = new GEReadingListJournal(journalPath.toString());
+        assertThat(reopened.load(), contains(dummyContent2, dummyContent1));
+        reopened.close();
+    }
+
+    /**
+     * Tests that invalid records are rejected.
+     */
+    @Test
+    public void invalidRecordTest() {
+        assertFalse(fixture.recordAdd(null));
+        assertFalse(fixture.recordRemove(null));
+    }
+
+    /**
+     * Tests that a record cut short (e.g. by a crash) is skipped on replay.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void truncatedRecordTest() throws IOException {
+        assertTrue(fixture.recordAdd(dummyContent1));
+        fixture.close();
+
+        Files.writeString(journalPath, "{\"op\":\"add\",\"content\":{\"id\":\"rob",
+                          StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        GEReadingListJournal reopened = new GEReadingListJournal(journalPath.toString());
+        assertThat(reopened.load(), contains(dummyContent1));
+
+        // Records added after the cut short one are kept
+        assertTrue(reopened.recordAdd(dummyContent2));
+        reopened.close();
+
+        GEReadingListJournal again = new GEReadingListJournal(journalPath.toString());
+        assertThat(again.load(), contains(dummyContent1, dummyContent2));
+        again.close();
+    }
+
+    /**
+     * Tests that content with missing fields is stored and loaded back as is.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void nullFieldsTest() throws IOException {
+        GContent sparse = new GContent("penguins/colony", null, null, null,
+                                       "Colony census", null, null, 1, 1);
+
+        assertTrue(fixture.recordAdd(sparse));
+        fixture.close();
+
+        GEReadingListJournal reopened = new GEReadingListJournal(journalPath.toString());
+        assertThat(reopened.load(), contains(sparse));
+        reopened.close();
+    }
+
+    /**
+     * Tests that compaction keeps only live items, and that compaction is only
+     * asked for once the journal is mostly stale records.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void compactionTest() throws IOException {
+        assertFalse(fixture.needsCompaction(0));
+
+        // Build up lots of stale records
+        for (int i = 0; i < 200; i++) {
+            assertTrue(fixture.recordAdd(dummyContent1));
+            assertTrue(fixture.recordRemove(dummyContent1.id()));
+        }
+        assertTrue(fixture.recordAdd(dummyContent2));
+
+        assertTrue(fixture.needsCompaction(1));
+
+        // Compact and check only live items remain
+        assertTrue(fixture.compact(List.of(dummyContent2)));
+        assertFalse(fixture.needsCompaction(1));
+        assertThat(Files.readAllLines(journalPath), hasSize(1));
+
+        // Appending still works after compaction
+        assertTrue(fixture.recordAdd(dummyContent1));
+        fixture.close();
+
+        GEReadingListJournal reopened = new GEReadingListJournal(journalPath.toString());
+        assertThat(reopened.load(), contains(dummyContent2, dummyContent1));
+        reopened.close();
+    }
+
+    /**
+     * Tests that loading a mostly stale journal compacts it.
+     * @throws IOException Ignore this.
+     */
+    @Test
+    public void loadCompactsTest() throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            lines.add("{\"op\":\"remove\",\"id\":\"nothing here\"}");
+        }
+
+        Files.write(journalPath, lines, StandardCharsets.UTF_8);
+
+        assertThat(fixture.load(), empty());
+        assertThat(Files.readAllLines(journalPath), empty());
+    }
+}
@@ -0,0 +1,163 @@
+package model.digest;
+
+import com.google.gson.JsonParser;
+import model.items.ESendResult;
+import model.items.GContent;
+import model.items.GTag;
+import model.system.GESystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the headless digest engine and its spec/state.
+ */
+public class GEDigestEngineTest {
+    private GEDigestEngine fixture;
+
+    // Mocks + Dummy objects
+    private GESystem mockSystem;
+    private GEDigestSpec dummySpec;
+    private GEDigestState state;
+    private Path statePath;
+
+    private GContent dummyFresh;
+    private GContent dummyShared;
+    private GContent dummyAncient;
+
+    @TempDir
+    Path tempDir;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        // Dummy setup
+        String recent = Instant.now().minus(Duration.ofHours(1)).toString();
+        String ancient = Instant.now().minus(Duration.ofDays(365)).toString();
+
+        dummyFresh = new GContent("fresh-fish", "food", "Food", recent,
+                                  "Fresh fish", "web", "api", 1, 1);
+        dummyShared = new GContent("shared-ice", "places", "Places", recent,
+                                   "Ice everywhere", "web", "api", 1, 1);
+        dummyAncient = new GContent("ancient-penguin", "history", "History", ancient,
+                                    "The first penguin", "web", "api", 1, 1);
+
+        dummySpec = new GEDigestSpec(List.of("food", "places"), List.of("", "cold"),
+                                     List.of("pingu@igloo", "pinga@igloo"),
+                                     1, 4, 0, null, false, false);
+
+        // Mock setup
+        mockSystem = mock(GESystem.class);
+        when(mockSystem.getContent(argThat(t -> t != null && t.id().equals("food")),
+                                   anyString(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(dummyFresh, dummyShared, dummyAncient));
+        when(mockSystem.getContent(argThat(t -> t != null && t.id().equals("places")),
+                                   anyString(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(dummyShared));
+        when(mockSystem.sendBulkEmail(any(GTag.class), anyList(), anyList()))
+                .thenReturn(List.of(new ESendResult("pingu@igloo", true, null)));
+
+        // Fixture setup
+        statePath = tempDir.resolve("digest-state.json");
+        state = new GEDigestState(statePath.toString());
+        fixture = new GEDigestEngine(mockSystem, dummySpec, state);
+    }
+
+    @AfterEach
+    public void teardown() {
+        fixture.shutdown();
+    }
+
+    // Tests
+    /**
+     * Tests that a run fetches every tag/query pair, and sends each new
+     * article once.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void runOnceTest() throws InterruptedException {
+        Map<String, List<GContent>> sent = fixture.runOnce();
+
+        // Every pair fetched, with first page fresh
+        verify(mockSystem, times(4)).getContent(any(GTag.class), anyString(), eq(1), eq(false));
+
+        // Shared article only sent under first tag, ancient article not sent
+        assertThat(sent.keySet(), contains("food"));
+        assertThat(sent.get("food"), contains(dummyFresh, dummyShared));
+        verify(mockSystem, times(1)).sendBulkEmail(any(GTag.class), anyList(),
+                                                   eq(dummySpec.recipients()));
+    }
+
+    /**
+     * Tests that a second run (even after restart) only sends articles not
+     * sent before.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void incrementalRunTest() throws InterruptedException {
+        fixture.runOnce();
+        fixture.shutdown();
+
+        // "Restart" from the saved state
+        GEDigestState reloaded = new GEDigestState(statePath.toString());
+        assertTrue(reloaded.load());
+        assertEquals(2, reloaded.sentCount());
+
+        fixture = new GEDigestEngine(mockSystem, dummySpec, reloaded);
+        assertTrue(fixture.runOnce().isEmpty());
+        verify(mockSystem, times(1)).sendBulkEmail(any(GTag.class), anyList(), anyList());
+    }
+
+    /**
+     * Tests that articles are not marked as sent if nobody received them.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void failedSendTest() throws InterruptedException {
+        when(mockSystem.sendBulkEmail(any(GTag.class), anyList(), anyList()))
+                .thenReturn(List.of(new ESendResult("pingu@igloo", false, "melted")));
+
+        assertTrue(fixture.runOnce().isEmpty());
+        assertEquals(0, state.sentCount());
+    }
+
+    /**
+     * Tests reading digest specs.
+     */
+    @Test
+    public void specTest() {
+        GEDigestSpec spec = GEDigestSpec.fromJson(JsonParser.parseString(
+                "{\"tags\": [\"food\"], \"recipients\": [\"pingu@igloo\"]," +
+                " \"intervalMinutes\": 30, \"guardian\": \"online\"}").getAsJsonObject());
+
+        assertThat(spec.tags(), contains("food"));
+        assertThat(spec.queries(), contains(""));
+        assertEquals(1, spec.pages());
+        assertEquals(30, spec.intervalMinutes());
+        assertTrue(spec.guardianOnline());
+        assertFalse(spec.emailOnline());
+
+        // Missing/invalid fields
+        assertThrows(IllegalArgumentException.class, () -> GEDigestSpec.fromJson(null));
+        assertThrows(IllegalArgumentException.class, () -> GEDigestSpec.fromJson(
+                JsonParser.parseString("{\"tags\": [\"food\"]}").getAsJsonObject()));
+        assertThrows(IllegalArgumentException.class, () -> GEDigestSpec.fromJson(
+                JsonParser.parseString("{\"tags\": [], \"recipients\": [\"a\"]}")
+                          .getAsJsonObject()));
+        assertThrows(IllegalArgumentException.class, () -> GEDigestSpec.fromJson(
+                JsonParser.parseString("{\"tags\": [\"a\"], \"recipients\": [\"a\"]," +
+                                       " \"concurrency\": 0}").getAsJsonObject()));
+    }
+}
@@ -0,0 +1,224 @@
+package model.system;
+
+import model.items.GContent;
+import model.items.GTag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests searching content across several tags at once.
+ */
+public class GEMultiTagSearchTest {
+    private ExecutorService pool;
+
+    // Dummy objects
+    private GTag penguinTag;
+    private GTag snowTag;
+    private Map<String, List<List<GContent>>> pages; // Tag ID -> that tag's pages
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        this.pool = Executors.newFixedThreadPool(2);
+
+        this.penguinTag = new GTag("animals/penguins", "keyword", "Penguins",
+                                   "https://en.wikipedia.org/wiki/Penguin",
+                                   "https://en.wikipedia.org/wiki/Penguin");
+        this.snowTag = new GTag("places/snow", "keyword", "Snowy Places",
+                                "https://en.wikipedia.org/wiki/Snow",
+                                "https://en.wikipedia.org/wiki/Snow");
+        this.pages = new HashMap<>();
+    }
+
+    @AfterEach
+    public void teardown() {
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * Makes dummy content published on the given day of January.
+     * @param id Content ID.
+     * @param day Day published.
+     * @param totalPages Total pages of the content's tag.
+     * @return Dummy content.
+     */
+    private static GContent dummyContent(String id, int day, int totalPages) {
+        return new GContent(id, "antarctica", "Antarctica",
+                            String.format("2022-01-%02dT00:00:00Z", day),
+                            "Pingu's day " + day,
+                            "https://www.youtube.com/watch?v=aYNXqKaZWR4",
+                            "https://www.youtube.com/watch?v=aYNXqKaZWR4",
+                            1,
+                            totalPages);
+    }
+
+    /**
+     * Makes a search over the given tags, fetching from the dummy pages.
+     * @param tags Tags to search.
+     * @param pageSize Results per page.
+     * @return Search.
+     */
+    private GEMultiTagSearch search(List<GTag> tags, int pageSize) {
+        return new GEMultiTagSearch(tags, pageSize, this.pool, (tag, page) -> {
+            List<List<GContent>> tagPages = this.pages.getOrDefault(tag.id(), List.of());
+            return page <= tagPages.size() ? tagPages.get(page - 1) : List.of();
+        });
+    }
+
+    /**
+     * Returns the IDs of content.
+     * @param content Content.
+     * @return IDs.
+     */
+    private static List<String> ids(List<GContent> content) {
+        List<String> ret = new ArrayList<>();
+        content.forEach(c -> ret.add(c.id()));
+        return ret;
+    }
+
+    // Tests
+    /**
+     * Tests that results are merged newest first, and that a tag's next
+     * page is only requested once its current one is used up.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testMergeOrder() throws InterruptedException {
+        this.pages.put("animals/penguins", List.of(
+                List.of(dummyContent("p10", 10, 2), dummyContent("p8", 8, 2)),
+                List.of(dummyContent("p6", 6, 2), dummyContent("p4", 4, 2))
+        ));
+        this.pages.put("places/snow", List.of(
+                List.of(dummyContent("s9", 9, 2), dummyContent("s7", 7, 2)),
+                List.of(dummyContent("s5", 5, 2))
+        ));
+
+        GEMultiTagSearch fixture = this.search(List.of(this.penguinTag, this.snowTag), 3);
+
+        // First page only needs each tag's first page
+        assertThat(ids(fixture.nextPage()), contains("p10", "s9", "p8"));
+        assertEquals(2, fixture.getRequestCount());
+
+        assertThat(ids(fixture.nextPage()), contains("s7", "p6", "s5"));
+        assertEquals(4, fixture.getRequestCount());
+
+        assertThat(ids(fixture.nextPage()), contains("p4"));
+        assertFalse(fixture.hasMore());
+        assertThat(fixture.nextPage(), empty());
+        assertEquals(4, fixture.getRequestCount());
+    }
+
+    /**
+     * Tests that content found under more than one tag is only given once.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testDuplicatesGivenOnce() throws InterruptedException {
+        this.pages.put("animals/penguins", List.of(
+                List.of(dummyContent("shared", 5, 1), dummyContent("p3", 3, 1))
+        ));
+        this.pages.put("places/snow", List.of(
+                List.of(dummyContent("shared", 5, 1), dummyContent("s2", 2, 1))
+        ));
+
+        GEMultiTagSearch fixture = this.search(List.of(this.penguinTag, this.snowTag,
+                                                       this.snowTag), 10);
+
+        assertThat(ids(fixture.nextPage()), contains("shared", "p3", "s2"));
+
+        // Repeated tag only searched once
+        assertEquals(2, fixture.getRequestCount());
+    }
+
+    /**
+     * Tests that a tag with no results (or a failure) doesn't stop the others.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testFailedTag() throws InterruptedException {
+        this.pages.put("places/snow", List.of(
+                List.of(dummyContent("s9", 9, 1), dummyContent("s7", 7, 1))
+        ));
+
+        GEMultiTagSearch fixture = this.search(List.of(this.penguinTag, this.snowTag), 10);
+
+        assertThat(ids(fixture.nextPage()), contains("s9", "s7"));
+        assertFalse(fixture.hasMore());
+    }
+
+    /**
+     * Tests that a search interrupted partway through fetching carries on
+     * where it left off, without fetching a tag's page twice or giving
+     * content twice.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testInterruptedFetch() throws InterruptedException {
+        this.pages.put("animals/penguins", List.of(
+                List.of(dummyContent("p10", 10, 2), dummyContent("p8", 8, 2)),
+                List.of(dummyContent("p6", 6, 2))
+        ));
+        this.pages.put("places/snow", List.of(
+                List.of(dummyContent("s9", 9, 1), dummyContent("s7", 7, 1))
+        ));
+
+        // One thread, so penguins' page is in before snow's is asked for
+        this.pool.shutdownNow();
+        this.pool = Executors.newSingleThreadExecutor();
+
+        Thread searcher = Thread.currentThread();
+        AtomicInteger snowAsks = new AtomicInteger();
+        CountDownLatch never = new CountDownLatch(1);
+
+        GEMultiTagSearch fixture = new GEMultiTagSearch(List.of(this.penguinTag, this.snowTag), 10,
+                                                        this.pool, (tag, page) -> {
+            if (tag == this.snowTag && snowAsks.getAndIncrement() == 0) {
+                // Interrupt the search once it waits on snow's first page, the
+                // only page not yet in; by then it has handled penguins' page
+                long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+                while (!(LockSupport.getBlocker(searcher) instanceof Future<?> f && !f.isDone()) &&
+                       System.nanoTime() < giveUp) {
+                    Thread.onSpinWait();
+                }
+
+                searcher.interrupt();
+
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    return List.of(); // Cancelled
+                }
+            }
+
+            List<List<GContent>> tagPages = this.pages.get(tag.id());
+            return page <= tagPages.size() ? tagPages.get(page - 1) : List.of();
+        });
+
+        assertThrows(InterruptedException.class, fixture::nextPage);
+        assertTrue(fixture.hasMore());
+
+        // Penguins' first page kept; only snow's asked for again
+        assertThat(ids(fixture.nextPage()), contains("p10", "s9", "p8", "s7", "p6"));
+        assertEquals(2, snowAsks.get());
+        assertEquals(4, fixture.getRequestCount());
+        assertFalse(fixture.hasMore());
+    }
+}
@@ -0,0 +1,273 @@
+package model.system;
+
+import model.comms.exceptions.GECommsException;
+import model.comms.payloads.ESendBulkPayload;
+import model.db.GEOutboxStore;
+import model.items.ESendResult;
+import model.items.GContent;
+import model.items.GTag;
+import model.items.OutboxEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests sending the outbox: batching, retrying and giving up.
+ */
+public class GEOutboxWorkerTest {
+    private GEOutboxWorker fixture;
+
+    // Mocks + Dummy objects
+    private GEOutboxStore mockStore;
+    private GEOutboxWorker.EmailSender mockSender;
+    private GEOutboxWorker.RedditPoster mockPoster;
+    private Consumer<String> mockOnFailed;
+
+    private GTag snowTag;
+    private GTag iceTag;
+    private List<GContent> dummyContent;
+
+    // Setup
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        mockStore = mock(GEOutboxStore.class);
+        mockSender = mock(GEOutboxWorker.EmailSender.class);
+        mockPoster = mock(GEOutboxWorker.RedditPoster.class);
+        mockOnFailed = mock(Consumer.class);
+
+        snowTag = new GTag("places/snow", "keyword", "Snowy Places",
+                "https://en.wikipedia.org/wiki/Penguin",
+                "https://en.wikipedia.org/wiki/Penguin");
+        iceTag = new GTag("places/ice", "keyword", "Icy Places",
+                "https://en.wikipedia.org/wiki/Seal",
+                "https://en.wikipedia.org/wiki/Seal");
+        dummyContent = List.of(new GContent("pingu",
+                "people/pingu",
+                "Pingu",
+                "sometime this year",
+                "The Great Pingu",
+                "https://en.wikipedia.org/wiki/Penguin",
+                "https://en.wikipedia.org/wiki/Penguin",
+                1,
+                10));
+
+        fixture = new GEOutboxWorker(mockStore, mockSender, mockPoster, mockOnFailed);
+    }
+
+    /**
+     * Makes an email entry, not yet sent.
+     * @param id ID of entry.
+     * @param recipient Recipient.
+     * @param tag Tag.
+     * @return Entry.
+     */
+    private OutboxEntry email(long id, String recipient, GTag tag) {
+        return new OutboxEntry(id, "key-" + id, OutboxEntry.EMAIL, recipient,
+                               tag, dummyContent, 0, Instant.now(), null);
+    }
+
+    /**
+     * Makes an email entry sent before in a batch.
+     * @param id ID of entry.
+     * @param recipient Recipient.
+     * @param attempts Failed attempts so far.
+     * @param batchKey Key of batch.
+     * @return Entry.
+     */
+    private OutboxEntry email(long id, String recipient, int attempts, String batchKey) {
+        return new OutboxEntry(id, "key-" + id, OutboxEntry.EMAIL, recipient,
+                               snowTag, dummyContent, attempts, Instant.now(), batchKey);
+    }
+
+    /**
+     * Makes a Reddit post entry.
+     * @param id ID of entry.
+     * @param attempts Failed attempts so far.
+     * @return Entry.
+     */
+    private OutboxEntry post(long id, int attempts) {
+        return new OutboxEntry(id, "key-" + id, OutboxEntry.REDDIT, null,
+                               snowTag, dummyContent, attempts, Instant.now(), null);
+    }
+
+    /**
+     * Makes the outbox have the given entries due.
+     * @param entries Due entries.
+     */
+    private void due(OutboxEntry... entries) {
+        when(mockStore.getDue(any(Instant.class), anyInt())).thenReturn(List.of(entries));
+    }
+
+    // Tests
+    /**
+     * Tests emails sending the same thing go as one bulk email, and are marked sent.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void batchedTest() throws GECommsException {
+        due(email(1, "walrus", snowTag), email(2, "seal", iceTag), email(3, "orca", snowTag));
+        when(mockSender.send(any(ESendBulkPayload.class))).thenAnswer(invocation -> {
+            ESendBulkPayload payload = invocation.getArgument(0);
+            return payload.recipients().stream()
+                          .map(r -> new ESendResult(r, true, null))
+                          .toList();
+        });
+
+        assertEquals(3, fixture.drain());
+
+        verify(mockSender).send(argThat(payload ->
+                payload.recipients().equals(List.of("walrus", "orca")) &&
+                payload.tag().equals(snowTag)));
+        verify(mockSender).send(argThat(payload ->
+                payload.recipients().equals(List.of("seal")) &&
+                payload.idempotencyKey().equals("key-2")));
+        verify(mockStore).markBatch(eq(List.of(1L, 3L)), anyString());
+        verify(mockStore).markBatch(List.of(2L), "key-2");
+        verify(mockStore).markSent(1);
+        verify(mockStore).markSent(2);
+        verify(mockStore).markSent(3);
+    }
+
+    /**
+     * Tests a batch sent before is sent again whole with its key, without
+     * emails queued since joining it.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void retriedBatchTest() throws GECommsException {
+        due(email(1, "walrus", 1, "floe"), email(3, "narwhal", snowTag));
+        when(mockStore.getBatch("floe"))
+                .thenReturn(List.of(email(1, "walrus", 1, "floe"), email(2, "orca", 1, "floe")));
+        when(mockSender.send(any(ESendBulkPayload.class))).thenReturn(List.of());
+
+        fixture.drain();
+
+        verify(mockSender).send(argThat(payload ->
+                payload.recipients().equals(List.of("walrus", "orca")) &&
+                payload.idempotencyKey().equals("floe")));
+        verify(mockSender).send(argThat(payload ->
+                payload.recipients().equals(List.of("narwhal")) &&
+                payload.idempotencyKey().equals("key-3")));
+        verify(mockStore, never()).markBatch(eq(List.of(1L, 2L)), anyString());
+    }
+
+    /**
+     * Tests a failed batch backs off by the most attempts of its entries, all
+     * to the same time, while each counts its own attempts.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void batchBackoffTest() throws GECommsException {
+        due(email(1, "walrus", 3, "floe"));
+        when(mockStore.getBatch("floe"))
+                .thenReturn(List.of(email(1, "walrus", 3, "floe"), email(2, "orca", 0, "floe")));
+        when(mockSender.send(any(ESendBulkPayload.class)))
+                .thenThrow(new GECommsException(429, "Too many fish."));
+
+        Instant before = Instant.now();
+        fixture.drain();
+
+        // Fourth attempt backs off between 8 and 16 seconds
+        ArgumentCaptor<Instant> first = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> second = ArgumentCaptor.forClass(Instant.class);
+        verify(mockStore).markRetry(eq(1L), eq(4), first.capture(), eq("Too many fish."));
+        verify(mockStore).markRetry(eq(2L), eq(1), second.capture(), eq("Too many fish."));
+        assertEquals(first.getValue(), second.getValue());
+        assertFalse(first.getValue().isBefore(before.plusMillis(8000)));
+        assertFalse(first.getValue().isAfter(Instant.now().plusMillis(16000)));
+    }
+
+    /**
+     * Tests only the recipients that failed in a batch are retried.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void partialBatchTest() throws GECommsException {
+        due(email(1, "walrus", snowTag), email(2, "orca", snowTag));
+        when(mockSender.send(any(ESendBulkPayload.class)))
+                .thenReturn(List.of(new ESendResult("walrus", true, null),
+                                    new ESendResult("orca", false, "too wet")));
+
+        fixture.drain();
+
+        verify(mockStore).markSent(1);
+        verify(mockStore).markRetry(eq(2L), eq(1), any(Instant.class), eq("too wet"));
+    }
+
+    /**
+     * Tests a post failing for a reason that may pass is retried later, backing off,
+     * with the same key.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void retryTest() throws GECommsException {
+        due(post(1, 2));
+        when(mockPoster.post(any(), any(), any()))
+                .thenThrow(new GECommsException(503, "Reddit is napping."));
+
+        Instant before = Instant.now();
+        fixture.drain();
+
+        // Third attempt backs off between 4 and 8 seconds
+        verify(mockPoster).post(snowTag, dummyContent, "key-1");
+        verify(mockStore).markRetry(eq(1L), eq(3), argThat(next ->
+                !next.isBefore(before.plusMillis(4000)) &&
+                !next.isAfter(Instant.now().plusMillis(8000))), eq("Reddit is napping."));
+        verify(mockStore, never()).markFailed(anyLong(), any());
+        verifyNoInteractions(mockOnFailed);
+    }
+
+    /**
+     * Tests a post failing for a reason that won't pass isn't retried, and is reported.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void permanentFailureTest() throws GECommsException {
+        due(post(1, 0));
+        when(mockPoster.post(any(), any(), any()))
+                .thenThrow(new GECommsException(403, "Not allowed in the igloo."));
+
+        fixture.drain();
+
+        verify(mockStore).markFailed(1, "Not allowed in the igloo.");
+        verify(mockStore, never()).markRetry(anyLong(), anyInt(), any(), any());
+        verify(mockOnFailed).accept(contains("Not allowed in the igloo."));
+    }
+
+    /**
+     * Tests an entry is given up on after its last attempt.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void lastAttemptTest() throws GECommsException {
+        due(post(1, GEOutboxWorker.MAX_ATTEMPTS - 1));
+        when(mockPoster.post(any(), any(), any()))
+                .thenThrow(new GECommsException(-1, "No response."));
+
+        fixture.drain();
+
+        verify(mockStore).markFailed(1, "No response.");
+        verify(mockOnFailed).accept(anyString());
+    }
+
+    /**
+     * Tests which failures are retried.
+     */
+    @Test
+    public void retryableTest() {
+        assertTrue(GEOutboxWorker.isRetryable(-1));
+        assertTrue(GEOutboxWorker.isRetryable(429));
+        assertTrue(GEOutboxWorker.isRetryable(502));
+        assertFalse(GEOutboxWorker.isRetryable(400));
+        assertFalse(GEOutboxWorker.isRetryable(401));
+    }
+}
@@ -17,6 +17,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -173,4 +174,21 @@ public class GESystemContentTest {
         assertNotEquals(preMsg, fixture.getErrorMessage());
         verify(mockObserver).update();
     }
+
+    /**
+     * Tests multi-tag searching asks for content newest first, without the cache.
+     * @throws GECommsException Ignore this.
+     * @throws InterruptedException Ignore this.
+     */
+    @Test
+    public void testSearchContent() throws GECommsException, InterruptedException {
+        GEMultiTagSearch search = fixture.searchContent(List.of(dummyTag), "query");
+        List<GContent> ret = search.nextPage();
+
+        verify(mockComms).getContent(argThat(payload -> "newest".equals(payload.orderBy())),
+                                     eq(false));
+
+        // Same article twice in the response is only given once
+        assertEquals(1, ret.size());
+    }
 }
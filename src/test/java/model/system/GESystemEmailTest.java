@@ -2,14 +2,19 @@ package model.system;
 
 import model.comms.exceptions.GECommsException;
 import model.comms.manager.GECommsManager;
+import model.comms.payloads.ESendBulkPayload;
 import model.comms.payloads.ESendPayload;
 import model.db.GEDatabase;
+import model.db.GEOutboxStore;
 import model.env.Environment;
+import model.items.ESendResult;
 import model.items.GContent;
 import model.items.GTag;
+import model.items.OutboxEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import java.time.Instant;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -101,4 +106,75 @@ public class GESystemEmailTest {
         assertNotEquals(preMsg, fixture.getErrorMessage());
         verify(mockObserver).update();
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests bulk email sending, including an error event when any recipient fails.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testSendBulkEmail() throws GECommsException {
+        // Setup
+        List<ESendResult> results = List.of(new ESendResult("walrus", true, null),
+                                            new ESendResult("seal", false, "too wet"));
+        when(mockComms.sendBulkEmail(ArgumentMatchers.any(ESendBulkPayload.class)))
+                .thenReturn(results);
+        fixture.addObserver(mockObserver);
+
+        String preMsg = fixture.getErrorMessage();
+        assertEquals(results, fixture.sendBulkEmail(dummyTag, List.of(dummyContent),
+                                                    List.of("walrus", "seal")));
+        assertNotEquals(preMsg, fixture.getErrorMessage());
+        verify(mockObserver).update();
+    }
+
+    /**
+     * Tests bulk email sending when nothing could be sent.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testSendBulkEmailFail() throws GECommsException {
+        when(mockComms.sendBulkEmail(ArgumentMatchers.any(ESendBulkPayload.class)))
+                .thenThrow(GECommsException.class);
+        fixture.addObserver(mockObserver);
+
+        assertTrue(fixture.sendBulkEmail(dummyTag, List.of(dummyContent),
+                                         List.of("walrus")).isEmpty());
+        verify(mockObserver).update();
+    }
+
+    /**
+     * Tests a queued email is sent in the background, with its idempotency key.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testQueueEmail() throws GECommsException {
+        // Setup
+        OutboxEntry entry = new OutboxEntry(1, "igloo-1", OutboxEntry.EMAIL, "walrus",
+                                            dummyTag, List.of(dummyContent), 0, Instant.now(), null);
+        GEOutboxStore mockStore = mock(GEOutboxStore.class);
+        when(mockStore.getDue(ArgumentMatchers.any(Instant.class), ArgumentMatchers.anyInt()))
+                .thenReturn(List.of(entry))
+                .thenReturn(List.of());
+        when(mockStore.enqueue(OutboxEntry.EMAIL, "walrus", dummyTag, List.of(dummyContent)))
+                .thenReturn(entry);
+        when(mockComms.sendBulkEmail(ArgumentMatchers.any(ESendBulkPayload.class)))
+                .thenReturn(List.of(new ESendResult("walrus", true, null)));
+
+        assertTrue(fixture.injectOutboxStore(mockStore));
+        assertTrue(fixture.queueEmail(dummyTag, List.of(dummyContent), "walrus"));
+
+        // Sent in the background, then marked sent
+        verify(mockComms, timeout(1000)).sendBulkEmail(ArgumentMatchers.argThat(payload ->
+                payload.recipients().equals(List.of("walrus")) &&
+                payload.idempotencyKey().equals("igloo-1")));
+        verify(mockStore, timeout(1000)).markSent(1);
+    }
+
+    /**
+     * Tests emails aren't queued without an outbox, so are sent directly instead.
+     */
+    @Test
+    public void testQueueEmailNoOutbox() {
+        assertFalse(fixture.queueEmail(dummyTag, List.of(dummyContent), "walrus"));
+    }
+}
@@ -0,0 +1,375 @@
+package model.system;
+
+import model.comms.drivers.GEComms;
+import model.comms.drivers.GEDummyComms;
+import model.comms.drivers.GEOnlineComms;
+import model.comms.emulator.GEApiEmulator;
+import model.comms.emulator.GEEmulatorSettings;
+import model.comms.manager.GECommsManagerImpl;
+import model.comms.replay.GEExchange;
+import model.comms.replay.GEExchangeJournal;
+import model.comms.replay.GEReplayComms;
+import model.env.Environment;
+import model.items.GContent;
+import model.items.GTag;
+import model.util.SleepModule;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Load test harness for the model layer. Drives a number of simulated
+ * users at once through scripted flows against one GESystemImpl: Reddit
+ * login, then repeatedly tag search, content paging, reading list add,
+ * email send and Reddit post. The system is wired to the dummy driver,
+ * a replay of recorded traffic, or the local API emulator.
+ * Reports throughput, latency percentiles and errors per operation.
+ * Run with the loadTest Gradle task, e.g.
+ * {@code gradle loadTest --args="driver=emulator users=32 iterations=20 latencyMs=50"}.
+ * Arguments (all optional, as key=value):
+ * <ul>
+ *     <li>driver: dummy (default), replay or emulator</li>
+ *     <li>users: simulated users (default 16)</li>
+ *     <li>iterations: flows per user (default 10)</li>
+ *     <li>pages: content pages per flow (default 3)</li>
+ *     <li>thinkMs: pause between a user's operations (default 0)</li>
+ *     <li>delayMs: dummy driver delay (default 0)</li>
+ *     <li>journal, latencyScale: journal to replay and latency scale (default 1)</li>
+ *     <li>latencyMs, jitterMs, errorRate, rateLimit: emulator behaviour</li>
+ * </ul>
+ */
+public class GESystemLoadHarness {
+    // Queries users search tags with
+    private static final String[] QUERIES = {"penguin", "snow", "ice", "whale", "seal"};
+    // Tag to use if a tag search finds nothing
+    private static final GTag FALLBACK_TAG = new GTag("world/penguins", "keyword", "Penguins",
+                                                      "https://www.theguardian.com/world/penguins",
+                                                      "https://content.guardianapis.com/world/penguins");
+    // Operations, in report order
+    private static final List<String> OPERATIONS = List.of("redditLogin", "tagSearch", "contentPage",
+                                                           "readingListAdd", "sendEmail", "redditPost");
+
+    /**
+     * Latencies and errors of one operation, across all users.
+     */
+    private static class OpStats {
+        private List<Long> latencies = new ArrayList<>(); // Nanoseconds
+        private int errors = 0;
+
+        /**
+         * Records one run of the operation.
+         * @param nanos Time taken.
+         * @param ok Whether it succeeded.
+         */
+        private synchronized void record(long nanos, boolean ok) {
+            this.latencies.add(nanos);
+
+            if (!ok) {
+                this.errors++;
+            }
+        }
+
+        /**
+         * Returns a latency percentile (nearest rank).
+         * @param sorted Sorted latencies.
+         * @param pct Percentile, 0-100.
+         * @return Latency in milliseconds.
+         */
+        private static double percentile(List<Long> sorted, double pct) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+
+            int rank = (int) Math.ceil(pct / 100 * sorted.size());
+            return sorted.get(Math.max(rank - 1, 0)) / 1e6;
+        }
+    }
+
+    private Map<String, OpStats> stats;
+    private GESystem ges;
+    private int pages;
+    private long thinkMs;
+
+    /**
+     * Creates a harness over a system.
+     * @param ges System to drive.
+     * @param pages Content pages per flow.
+     * @param thinkMs Pause between a user's operations.
+     */
+    private GESystemLoadHarness(GESystem ges, int pages, long thinkMs) {
+        this.ges = ges;
+        this.pages = pages;
+        this.thinkMs = thinkMs;
+        this.stats = new LinkedHashMap<>();
+
+        for (String op : OPERATIONS) {
+            this.stats.put(op, new OpStats());
+        }
+    }
+
+    /**
+     * Times an operation.
+     * @param op Name of operation.
+     * @param operation Operation; gives whether it succeeded.
+     */
+    private void time(String op, BooleanSupplier operation) {
+        long start = System.nanoTime();
+        boolean ok;
+
+        try {
+            ok = operation.getAsBoolean();
+        } catch (RuntimeException e) {
+            ok = false;
+        }
+
+        this.stats.get(op).record(System.nanoTime() - start, ok);
+
+        if (this.thinkMs > 0) {
+            try {
+                Thread.sleep(this.thinkMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs one simulated user's flows.
+     * @param user User number.
+     * @param iterations Number of flows.
+     */
+    private void runUser(int user, int iterations) {
+        String recipient = "pingu" + user + "@antarctica.com";
+
+        this.time("redditLogin", () -> this.ges.authenticateReddit("pingu" + user, "noot noot"));
+
+        for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+            String query = QUERIES[(user + i) % QUERIES.length];
+            List<List<GTag>> found = new ArrayList<>(1);
+            List<GContent> content = new ArrayList<>();
+
+            this.time("tagSearch", () -> {
+                List<GTag> tags = this.ges.getTags(query);
+                found.add(tags);
+                return tags != null && !tags.isEmpty();
+            });
+
+            GTag tag = found.get(0) != null && !found.get(0).isEmpty() ?
+                       found.get(0).get(i % found.get(0).size()) :
+                       FALLBACK_TAG;
+
+            for (int page = 1; page <= this.pages; page++) {
+                int p = page;
+                this.time("contentPage", () -> {
+                    List<GContent> ret = this.ges.getContent(tag, "", p, true);
+
+                    if (p == 1) {
+                        content.addAll(ret);
+                    }
+
+                    return !ret.isEmpty();
+                });
+            }
+
+            // Other users may add the same article; only check it ends up there
+            this.time("readingListAdd", () -> {
+                if (content.isEmpty()) {
+                    return false;
+                }
+
+                this.ges.addToReadingList(content.get(0));
+                return this.ges.isInReadingList(content.get(0));
+            });
+
+            this.time("sendEmail", () -> this.ges.sendEmail(tag, content, recipient));
+            this.time("redditPost", () -> this.ges.postReddit(tag, content));
+        }
+    }
+
+    /**
+     * Runs all users at once and waits for them to finish.
+     * @param users Number of users.
+     * @param iterations Flows per user.
+     * @return Wall time taken, in nanoseconds.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private long run(int users, int iterations) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        CountDownLatch go = new CountDownLatch(1);
+
+        for (int u = 0; u < users; u++) {
+            int user = u;
+            pool.submit(() -> {
+                go.await();
+                this.runUser(user, iterations);
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        go.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.DAYS);
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Makes the report.
+     * @param wallNanos Wall time of the run.
+     * @return Report.
+     */
+    private String report(long wallNanos) {
+        double seconds = wallNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        int totalOps = 0;
+        int totalErrors = 0;
+
+        sb.append("%-15s %8s %9s %9s %9s %9s %9s %7s%n".formatted(
+                "operation", "count", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors"));
+
+        for (Map.Entry<String, OpStats> e : this.stats.entrySet()) {
+            List<Long> sorted = new ArrayList<>(e.getValue().latencies);
+            Collections.sort(sorted);
+
+            sb.append("%-15s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7d%n".formatted(
+                    e.getKey(),
+                    sorted.size(),
+                    sorted.size() / seconds,
+                    OpStats.percentile(sorted, 50),
+                    OpStats.percentile(sorted, 95),
+                    OpStats.percentile(sorted, 99),
+                    OpStats.percentile(sorted, 100),
+                    e.getValue().errors));
+
+            totalOps += sorted.size();
+            totalErrors += e.getValue().errors;
+        }
+
+        sb.append("%nTotal: %d operations in %.2f s (%.1f ops/s), %d errors%n".formatted(
+                totalOps, seconds, totalOps / seconds, totalErrors));
+
+        return sb.toString();
+    }
+
+    /**
+     * Parses key=value arguments.
+     * @param args Arguments.
+     * @return Parsed arguments.
+     */
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> ret = new HashMap<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+
+            if (eq > 0) {
+                ret.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+
+        return ret;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        String driver = opts.getOrDefault("driver", "dummy");
+        int users = Integer.parseInt(opts.getOrDefault("users", "16"));
+        int iterations = Integer.parseInt(opts.getOrDefault("iterations", "10"));
+
+        // Wire the comms; every API is "online" unless using the dummy driver
+        boolean online = !driver.equals("dummy");
+        GECommsManagerImpl comms = new GECommsManagerImpl(online, online, online);
+        GEApiEmulator emulator = null;
+
+        // Placeholder keys for any not set; the emulator and replays don't check them
+        comms.injectNewEnvironment(new Environment() {
+            @Override
+            public String getenv(String name) {
+                String value = System.getenv(name);
+                return value != null ? value : "loadtest";
+            }
+        });
+
+        switch (driver) {
+            case "dummy" -> comms.injectNewDrivers(null, new GEDummyComms(
+                    Long.parseLong(opts.getOrDefault("delayMs", "0"))));
+            case "replay" -> {
+                List<GEExchange> recorded =
+                        new GEExchangeJournal(opts.getOrDefault("journal", "traffic.journal")).load();
+
+                if (recorded == null) {
+                    System.out.println("Could not read the journal!");
+                    return;
+                }
+
+                GEComms replay = new GEReplayComms(recorded,
+                        Double.parseDouble(opts.getOrDefault("latencyScale", "1")),
+                        new SleepModule());
+                comms.injectNewDrivers(replay, replay);
+            }
+            case "emulator" -> {
+                emulator = new GEApiEmulator(new GEEmulatorSettings(
+                        Long.parseLong(opts.getOrDefault("latencyMs", "0")),
+                        Long.parseLong(opts.getOrDefault("jitterMs", "0")),
+                        Double.parseDouble(opts.getOrDefault("errorRate", "0")),
+                        Integer.parseInt(opts.getOrDefault("rateLimit", "0")),
+                        500,
+                        100,
+                        Math.max(users, 8),
+                        0));
+                String base = emulator.start(0);
+
+                if (base == null) {
+                    System.out.println("Could not start the emulator!");
+                    return;
+                }
+
+                comms.injectNewDrivers(new GEOnlineComms(base, base, base, base), null);
+            }
+            default -> {
+                System.out.println(driver + " is not a valid driver!");
+                return;
+            }
+        }
+
+        GESystemImpl ges = new GESystemImpl(online, online, online, null);
+        ges.injectNewCommsManager(comms);
+
+        GESystemLoadHarness harness = new GESystemLoadHarness(
+                ges,
+                Integer.parseInt(opts.getOrDefault("pages", "3")),
+                Long.parseLong(opts.getOrDefault("thinkMs", "0")));
+
+        // Dummy sends print what they would send; keep that out of the report
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long wall;
+
+        try {
+            wall = harness.run(users, iterations);
+        } finally {
+            System.setOut(out);
+        }
+
+        System.out.printf("%d users x %d iterations, driver %s%n%n", users, iterations, driver);
+        System.out.print(harness.report(wall));
+
+        ges.shutdown();
+
+        if (emulator != null) {
+            emulator.stop();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import model.comms.manager.GECommsManager;
 import model.comms.payloads.GContentPayload;
 import model.comms.payloads.GTagPayload;
 import model.db.GEDatabase;
+import model.db.GEReadingListStore;
 import model.env.Environment;
 import model.items.GContent;
 import model.items.GTag;
@@ -12,7 +13,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -114,6 +118,14 @@ public class GESystemMiscTest {
         // Verify it is used
         fixture.getTags("fresh communicator");
         verify(newComms).getTags(ArgumentMatchers.any(GTagPayload.class));
+
+        // Replaced comms manager shut down, as is the last on shutdown
+        GECommsManager newerComms = mock(GECommsManager.class);
+        assertTrue(fixture.injectNewCommsManager(newerComms));
+        verify(newComms).shutdown();
+
+        fixture.shutdown();
+        verify(newerComms).shutdown();
     }
 
     /**
@@ -221,4 +233,101 @@ public class GESystemMiscTest {
         assertFalse(fixture.removeFromReadingList(dummyContent2));
         assertThat(fixture.getReadingList(), containsInAnyOrder(dummyContent1));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests reading list membership checks and that reading list snapshots
+     * keep insertion order and are not affected by later changes.
+     */
+    @Test
+    public void readingListSnapshotTest() {
+        // Setup
+        GContent dummyContent1 = new GContent("pingu", "penguins", "Penguins", "today",
+                                              "Pingu goes fishing", "web", "api", 1, 2);
+        GContent dummyContent2 = new GContent("pinga", "penguins", "Penguins", "today",
+                                              "Pinga goes sledding", "web", "api", 1, 2);
+        // Same article found on a different page
+        GContent dummyContent1Page2 = new GContent("pingu", "penguins", "Penguins", "today",
+                                                   "Pingu goes fishing", "web", "api", 2, 2);
+
+        // Membership
+        assertFalse(fixture.isInReadingList(dummyContent1));
+        assertFalse(fixture.isInReadingList(null));
+
+        assertTrue(fixture.addToReadingList(dummyContent1));
+        assertTrue(fixture.addToReadingList(dummyContent2));
+        assertTrue(fixture.isInReadingList(dummyContent1));
+        assertTrue(fixture.isInReadingList(dummyContent1Page2));
+
+        // Same ID counts as a duplicate
+        assertFalse(fixture.addToReadingList(dummyContent1Page2));
+
+        // Snapshot keeps insertion order and is read only
+        List<GContent> snapshot = fixture.getReadingList();
+        assertThat(snapshot, contains(dummyContent1, dummyContent2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(dummyContent1));
+
+        // Later changes don't affect snapshot
+        assertTrue(fixture.removeFromReadingList(dummyContent1Page2));
+        assertFalse(fixture.isInReadingList(dummyContent1));
+        assertThat(snapshot, contains(dummyContent1, dummyContent2));
+        assertThat(fixture.getReadingList(), contains(dummyContent2));
+    }
+
+    /**
+     * Tests that a reading list store is loaded on injection and
+     * has reading list changes recorded to it.
+     */
+    @Test
+    public void readingListStoreTest() {
+        // Setup
+        GContent saved = new GContent("pingu", "penguins", "Penguins", "today",
+                                      "Pingu goes fishing", "web", "api", 1, 2);
+        GContent added = new GContent("pinga", "penguins", "Penguins", "today",
+                                      "Pinga goes sledding", "web", "api", 1, 2);
+
+        GEReadingListStore mockStore = mock(GEReadingListStore.class);
+        when(mockStore.load()).thenReturn(List.of(saved));
+        when(mockStore.recordAdd(any(GContent.class))).thenReturn(true);
+        when(mockStore.recordRemove(anyString())).thenReturn(true);
+
+        // Invalid injection (null)
+        assertFalse(fixture.injectReadingListStore(null));
+
+        // Valid injection; saved list loaded
+        assertTrue(fixture.injectReadingListStore(mockStore));
+        assertThat(fixture.getReadingList(), contains(saved));
+
+        // Changes recorded
+        assertTrue(fixture.addToReadingList(added));
+        verify(mockStore).recordAdd(added);
+
+        assertTrue(fixture.removeFromReadingList(saved));
+        verify(mockStore).recordRemove(saved.id());
+
+        // Rejected changes not recorded
+        assertFalse(fixture.addToReadingList(added));
+        assertFalse(fixture.removeFromReadingList(saved));
+        verify(mockStore, times(1)).recordAdd(any(GContent.class));
+        verify(mockStore, times(1)).recordRemove(anyString());
+
+        // Store closed on shutdown
+        fixture.shutdown();
+        verify(mockStore).close();
+    }
+
+    /**
+     * Tests that a reading list store that fails to load is rejected
+     * with an error event.
+     */
+    @Test
+    public void readingListStoreFailTest() {
+        GEReadingListStore mockStore = mock(GEReadingListStore.class);
+        when(mockStore.load()).thenReturn(null);
+        fixture.addObserver(mockObserver);
+
+        String preMsg = fixture.getErrorMessage();
+        assertFalse(fixture.injectReadingListStore(mockStore));
+        assertNotEquals(preMsg, fixture.getErrorMessage());
+        verify(mockObserver).update();
+    }
+}
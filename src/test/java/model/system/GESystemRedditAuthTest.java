@@ -2,20 +2,31 @@ package model.system;
 
 import model.comms.exceptions.GECommsException;
 import model.comms.manager.GECommsManager;
+import model.comms.payloads.RPostPayload;
 import model.comms.payloads.RTokenPayload;
 import model.db.GEDatabase;
+import model.db.GERedditTokenStore;
 import model.env.Environment;
 import model.items.GContent;
 import model.items.GTag;
+import model.items.RedditSession;
 import model.items.RedditToken;
 import model.util.SleepModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +41,7 @@ public class GESystemRedditAuthTest {
     private GEDatabase mockDB;
     private GESystemObserver mockObserver;
     private SleepModule mockSleeper;
+    private GERedditTokenStore mockStore;
 
     private GTag dummyTag;
     private GContent dummyContent;
@@ -76,6 +88,10 @@ public class GESystemRedditAuthTest {
 
         mockSleeper = mock(SleepModule.class);
 
+        mockStore = mock(GERedditTokenStore.class);
+        when(mockStore.save(any(RedditSession.class))).thenReturn(true);
+        when(mockStore.clear()).thenReturn(true);
+
         // Fixture setup
         fixture = new GESystemImpl(false, false, false, mockDB);
         fixture.injectNewCommsManager(mockComms);
@@ -150,4 +166,203 @@ public class GESystemRedditAuthTest {
         assertNotEquals(preMsg, fixture.getErrorMessage());
         verify(mockObserver).update();
     }
+
+    /**
+     * Tests authenticating saves the login to the token store, expiring
+     * when the token does.
+     */
+    @Test
+    public void authRedditSavedTest() {
+        fixture.injectRedditTokenStore(mockStore);
+
+        Instant before = Instant.now();
+        assertTrue(fixture.authenticateReddit("seal", "treat baker"));
+
+        verify(mockStore).save(argThat(session ->
+                session.username().equals("seal") &&
+                session.token().equals("cookies") &&
+                !session.expiresAt().isBefore(before.plusSeconds(86400))));
+    }
+
+    /**
+     * Tests a stored login is reused without authenticating, and is
+     * invalidated when it expires.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void storedTokenReusedTest() throws GECommsException {
+        // Hold the countdown until checked, so the token isn't invalidated early
+        CountDownLatch expire = new CountDownLatch(1);
+        when(mockSleeper.sleep(anyLong())).thenAnswer(invocation -> expire.await(5, TimeUnit.SECONDS));
+        fixture.injectNewSleepModule(mockSleeper);
+        when(mockStore.load()).thenReturn(new RedditSession("seal", "stored cookie",
+                                                            Instant.now().plusSeconds(3600)));
+
+        assertTrue(fixture.injectRedditTokenStore(mockStore));
+
+        assertThat(fixture.getRuntimeData()
+                          .get(GERuntimeData.REDDIT_USERNAME.key), equalTo("seal"));
+        assertThat(fixture.getRuntimeData()
+                          .get(GERuntimeData.REDDIT_TOKEN.key), equalTo("stored cookie"));
+        verify(mockComms, never()).getRedditToken(any(RTokenPayload.class));
+
+        // Invalidated after what is left of the hour
+        verify(mockSleeper, timeout(1000)).sleep(longThat(ms -> ms > 3500 * 1000 && ms <= 3600 * 1000));
+        fixture.addObserver(mockObserver);
+        expire.countDown();
+
+        verify(mockObserver, timeout(1000)).update();
+    }
+
+    /**
+     * Tests a stored login about to expire is not reused, and is removed.
+     */
+    @Test
+    public void storedTokenExpiringTest() {
+        when(mockStore.load()).thenReturn(new RedditSession("seal", "stale cookie",
+                                                            Instant.now().plusSeconds(30)));
+
+        assertTrue(fixture.injectRedditTokenStore(mockStore));
+
+        assertNull(fixture.getRuntimeData().get(GERuntimeData.REDDIT_TOKEN.key));
+        verify(mockStore).clear();
+    }
+
+    /**
+     * Makes the sleeper return straight away for one length of sleep, and
+     * really sleep for any other (so later tokens don't expire mid test).
+     * @param ms Milliseconds of the sleep to skip.
+     */
+    private void skipSleep(long ms) {
+        when(mockSleeper.sleep(anyLong())).thenAnswer(invocation -> {
+            long wait = invocation.getArgument(0);
+
+            if (wait == ms) {
+                return true;
+            }
+
+            try {
+                Thread.sleep(wait);
+                return true;
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        fixture.injectNewSleepModule(mockSleeper);
+    }
+
+    /**
+     * Tests the token is renewed the margin before it expires, without it
+     * ever being invalidated.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void tokenRenewedTest() throws GECommsException {
+        // Setup
+        skipSleep(100 * 1000);
+        when(mockComms.getRedditToken(any(RTokenPayload.class)))
+                .thenReturn(new RedditToken("elusive cookie", 123))
+                .thenReturn(new RedditToken("fresh cookie", 3600));
+        fixture.addObserver(mockObserver);
+        fixture.setRedditRefreshMargin(23);
+
+        assertTrue(fixture.authenticateReddit("seal", "treat baker"));
+
+        // Renewed with the same login
+        verify(mockComms, timeout(1000).times(2)).getRedditToken(argThat(payload ->
+                payload.username().equals("seal") && payload.password().equals("treat baker")));
+        verify(mockSleeper, timeout(1000)).sleep(3577 * 1000);
+
+        assertThat(fixture.getRuntimeData()
+                          .get(GERuntimeData.REDDIT_TOKEN.key), equalTo("fresh cookie"));
+        verify(mockObserver, never()).update();
+    }
+
+    /**
+     * Tests a failed renewal falls back to invalidating at expiry.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void tokenRenewFailTest() throws GECommsException {
+        // Setup
+        fixture.injectNewSleepModule(mockSleeper);
+        when(mockComms.getRedditToken(any(RTokenPayload.class)))
+                .thenReturn(new RedditToken("elusive cookie", 123))
+                .thenThrow(new GECommsException(500, "Reddit is napping."));
+        fixture.addObserver(mockObserver);
+        fixture.setRedditRefreshMargin(23);
+
+        assertTrue(fixture.authenticateReddit("seal", "treat baker"));
+
+        // Renewal tried at 100s, invalidated for the remaining 23s
+        verify(mockSleeper, timeout(1000)).sleep(100 * 1000);
+        verify(mockSleeper, timeout(1000)).sleep(23 * 1000);
+        verify(mockObserver, timeout(1000)).update();
+        assertNull(fixture.getRuntimeData().get(GERuntimeData.REDDIT_TOKEN.key));
+    }
+
+    /**
+     * Tests concurrent posts with a revoked token renew it only once, and
+     * both post with the renewed token.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void tokenRenewSingleFlightTest() throws Exception {
+        // Setup; no background renewal during the test
+        skipSleep(-1);
+        fixture.setRedditRefreshMargin(23);
+        assertTrue(fixture.authenticateReddit("seal", "treat baker"));
+
+        Thread[] posters = new Thread[2];
+        boolean[] results = new boolean[2];
+        AtomicInteger renewals = new AtomicInteger();
+
+        // Renewal held until the other poster is waiting on it
+        when(mockComms.getRedditToken(any(RTokenPayload.class))).thenAnswer(invocation -> {
+            renewals.incrementAndGet();
+            Thread other = Thread.currentThread() == posters[0] ? posters[1] : posters[0];
+            long deadline = System.currentTimeMillis() + 1000;
+
+            while (other.getState() != Thread.State.WAITING &&
+                   System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            return new RedditToken("fresh cookie", 3600);
+        });
+
+        // Both posters get a 401 for the old token
+        CountDownLatch stale = new CountDownLatch(2);
+        when(mockComms.postReddit(any(RPostPayload.class))).thenAnswer(invocation -> {
+            RPostPayload payload = invocation.getArgument(0);
+
+            if ("cookies".equals(payload.token())) {
+                stale.countDown();
+                stale.await(1, TimeUnit.SECONDS);
+                throw new GECommsException(401, "Error posting to Reddit.");
+            }
+
+            return true;
+        });
+
+        for (int i = 0; i < posters.length; i++) {
+            int poster = i;
+            posters[i] = new Thread(() ->
+                    results[poster] = fixture.postReddit(dummyTag, List.of(dummyContent)));
+        }
+
+        for (Thread poster : posters) {
+            poster.start();
+        }
+
+        for (Thread poster : posters) {
+            poster.join(2000);
+        }
+
+        assertEquals(1, renewals.get());
+        assertTrue(results[0]);
+        assertTrue(results[1]);
+        verify(mockComms, times(2)).postReddit(argThat(payload ->
+                payload != null && "fresh cookie".equals(payload.token())));
+    }
 }
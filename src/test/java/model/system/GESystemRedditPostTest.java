@@ -5,6 +5,7 @@ import model.comms.manager.GECommsManager;
 import model.comms.payloads.RPostPayload;
 import model.comms.payloads.RTokenPayload;
 import model.db.GEDatabase;
+import model.db.GERedditTokenStore;
 import model.env.Environment;
 import model.items.GContent;
 import model.items.GTag;
@@ -111,4 +112,21 @@ public class GESystemRedditPostTest {
         assertNotEquals(preMsg, fixture.getErrorMessage());
         verify(mockObserver).update();
     }
+
+    /**
+     * Tests a rejected token is forgotten, so the next post logs in again.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void postRedditRevokedTest() throws GECommsException {
+        GERedditTokenStore mockStore = mock(GERedditTokenStore.class);
+        fixture.injectRedditTokenStore(mockStore);
+        when(mockComms.postReddit(any(RPostPayload.class)))
+                .thenThrow(new GECommsException(401, "Error posting to Reddit."));
+
+        assertFalse(fixture.postReddit(dummyTag, List.of(dummyContent)));
+
+        assertNull(fixture.getRuntimeData().get(GERuntimeData.REDDIT_TOKEN.key));
+        verify(mockStore).clear();
+    }
 }
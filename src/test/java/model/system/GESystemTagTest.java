@@ -14,6 +14,8 @@ import org.mockito.ArgumentMatchers;
 import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -125,4 +127,43 @@ public class GESystemTagTest {
         assertNotEquals(preMsg, fixture.getErrorMessage());
         verify(mockObserver).update();
     }
+
+    /**
+     * Tests that tags found by tag getting are suggested afterwards without
+     * further requests, and that the query is then answered locally.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testSuggestTags() throws GECommsException {
+        // Nothing seen yet
+        assertThat(fixture.suggestTags("foot"), empty());
+        assertFalse(fixture.canSuggestTagsLocally("igloo"));
+
+        fixture.getTags("igloo");
+
+        // Found by prefix, with no more requests
+        assertThat(fixture.suggestTags("foot"), containsInAnyOrder(
+                new GTag("katine/football",
+                        "keyword",
+                        "Football",
+                        "http://www.theguardian.com/katine/football",
+                        "http://beta.content.guardianapis.com/katine/football")
+        ));
+        assertTrue(fixture.canSuggestTagsLocally("igloo"));
+        verify(mockComms, times(1)).getTags(ArgumentMatchers.any(GTagPayload.class));
+    }
+
+    /**
+     * Tests that a failed tag getting isn't remembered as answered.
+     * @throws GECommsException Ignore this.
+     */
+    @Test
+    public void testSuggestTagsFail() throws GECommsException {
+        when(mockComms.getTags(ArgumentMatchers.any(GTagPayload.class)))
+                .thenThrow(GECommsException.class);
+
+        fixture.getTags("no network in antarctica");
+
+        assertFalse(fixture.canSuggestTagsLocally("no network in antarctica"));
+    }
 }
@@ -0,0 +1,199 @@
+package model.trace;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests tracing spans across threads and exporting them.
+ */
+public class GETracerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private GETraceExporter exporter;
+    private ExecutorService pool;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        file = tempDir.resolve("trace.json");
+        exporter = new GETraceExporter(file.toString());
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void teardown() {
+        GETracer.setExporter(null);
+        exporter.close();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Reads the events of the trace file that start spans (complete or
+     * async begin events), keyed by name.
+     * @return Events by name.
+     * @throws IOException Ignore this.
+     */
+    private Map<String, JsonObject> readSpans() throws IOException {
+        JsonArray events = JsonParser.parseString(Files.readString(file)).getAsJsonArray();
+        Map<String, JsonObject> ret = new HashMap<>();
+
+        for (JsonElement je : events) {
+            JsonObject event = je.getAsJsonObject();
+            String phase = event.get("ph").getAsString();
+
+            if (phase.equals("X") || phase.equals("b")) {
+                ret.put(event.get("name").getAsString(), event);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns an argument of an event.
+     * @param event Event.
+     * @param name Name of argument.
+     * @return Argument; null if none.
+     */
+    private static String arg(JsonObject event, String name) {
+        JsonElement ret = event.getAsJsonObject("args").get(name);
+        return ret == null ? null : ret.getAsString();
+    }
+
+    // Tests
+    /**
+     * Tests spans made on other threads join the trace they were submitted in,
+     * with queue waits recorded, and are written to the file.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testPropagated() throws Exception {
+        GETracer.setExporter(exporter);
+
+        GESpan root = GETracer.startTrace("tags", "presenter");
+
+        pool.submit(GETracer.wrap(root, "task", "presenter", () -> {
+            try (GESpan span = GETracer.span("network", "comms")) {
+                span.attribute("status", 200);
+            }
+        })).get();
+
+        root.end();
+        exporter.close();
+
+        Map<String, JsonObject> spans = readSpans();
+        String traceId = arg(spans.get("tags"), "traceId");
+        String rootId = arg(spans.get("tags"), "spanId");
+        String taskId = arg(spans.get("task"), "spanId");
+
+        assertNull(arg(spans.get("tags"), "parentId"));
+        assertEquals(rootId, arg(spans.get("task queue"), "parentId"));
+        assertEquals(rootId, arg(spans.get("task"), "parentId"));
+        assertEquals(taskId, arg(spans.get("network"), "parentId"));
+        assertEquals("200", arg(spans.get("network"), "status"));
+        assertEquals("comms", spans.get("network").get("cat").getAsString());
+
+        for (JsonObject span : spans.values()) {
+            assertEquals(traceId, arg(span, "traceId"));
+        }
+
+        // Root and queue waits span threads, so are async; the rest are on their own thread
+        assertEquals("b", spans.get("tags").get("ph").getAsString());
+        assertEquals("b", spans.get("task queue").get("ph").getAsString());
+        assertEquals("X", spans.get("task").get("ph").getAsString());
+        assertEquals("X", spans.get("network").get("ph").getAsString());
+    }
+
+    /**
+     * Tests async spans are written as begin and end events with the same ID.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testAsyncEvents() throws Exception {
+        GETracer.setExporter(exporter);
+
+        GESpan root = GETracer.startTrace("email", "presenter");
+        pool.submit(() -> root.end()).get();
+        exporter.close();
+
+        JsonArray events = JsonParser.parseString(Files.readString(file)).getAsJsonArray();
+        JsonObject begin = null;
+        JsonObject end = null;
+
+        for (JsonElement je : events) {
+            JsonObject event = je.getAsJsonObject();
+
+            if (event.get("ph").getAsString().equals("b")) {
+                begin = event;
+            } else if (event.get("ph").getAsString().equals("e")) {
+                end = event;
+            }
+        }
+
+        assertNotNull(begin);
+        assertNotNull(end);
+        assertEquals(root.getSpanId(), begin.get("id").getAsString());
+        assertEquals(begin.get("id"), end.get("id"));
+        assertEquals(begin.get("cat"), end.get("cat"));
+        assertEquals(begin.get("ts").getAsLong() + root.getDurationNanos() / 1000,
+                     end.get("ts").getAsLong());
+    }
+
+    /**
+     * Tests closing a span makes the span it was started in current again.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testNesting() throws Exception {
+        GETracer.setExporter(exporter);
+
+        GESpan root = GETracer.startTrace("content", "presenter");
+
+        Future<?> ret = pool.submit(GETracer.wrap(root, "task", "presenter", () -> {
+            GESpan task = GETracer.current();
+
+            try (GESpan probe = GETracer.span("cache probe", "comms")) {
+                assertSame(probe, GETracer.current());
+            }
+
+            assertSame(task, GETracer.current());
+        }));
+        ret.get();
+
+        assertFalse(GETracer.current().isRecording());
+    }
+
+    /**
+     * Tests nothing is traced with no exporter, and tasks are not wrapped.
+     */
+    @Test
+    public void testDisabled() {
+        GESpan root = GETracer.startTrace("tags", "presenter");
+        Runnable task = () -> { };
+
+        assertFalse(root.isRecording());
+        assertFalse(GETracer.span("network", "comms").isRecording());
+        assertSame(task, GETracer.wrap(root, "task", "presenter", task));
+        assertSame(task, GETracer.wrap("render", "presenter", task));
+        assertFalse(Files.exists(file));
+    }
+}
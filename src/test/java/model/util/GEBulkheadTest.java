@@ -0,0 +1,237 @@
+package model.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests bulkheads keep work apart, run it by priority, and report how
+ * saturated they are.
+ */
+public class GEBulkheadTest {
+    private GEBulkhead reads;
+    private GEBulkhead sends;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        reads = new GEBulkhead("penguin-read", 2);
+        sends = new GEBulkhead("seal-send", 1);
+    }
+
+    @AfterEach
+    public void teardown() {
+        reads.shutdownNow();
+        sends.shutdownNow();
+    }
+
+    // Tests
+    /**
+     * Tests work held up in one bulkhead doesn't hold up another.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testIsolated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Take every thread of the send bulkhead, and queue behind them
+        sends.execute(() -> await(release));
+        sends.execute(() -> await(release));
+
+        Future<String> read = reads.submit(() -> "penguins");
+
+        assertEquals("penguins", read.get(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    /**
+     * Tests saturation is counted: threads busy, work waiting, and work done.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testStats() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        sends.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<?> waiting = sends.submit(() -> { });
+
+        GEBulkhead.Stats busy = sends.getStats();
+        assertEquals("seal-send", busy.name());
+        assertEquals(1, busy.threads());
+        assertEquals(1, busy.active());
+        assertEquals(1, busy.queued());
+        assertEquals(1.0, busy.utilisation());
+
+        release.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+        sends.shutdown();
+        assertTrue(sends.awaitTermination(5, TimeUnit.SECONDS));
+
+        GEBulkhead.Stats done = sends.getStats();
+        assertEquals(0, done.active());
+        assertEquals(0, done.queued());
+        assertEquals(1, done.peakQueued());
+        assertEquals(2, done.completed());
+        assertTrue(done.maxWaitNanos() > 0);
+        assertTrue(done.totalWaitNanos() >= done.maxWaitNanos());
+    }
+
+    /**
+     * Tests waiting work runs highest priority first, whatever order it came in.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testPriority() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = this.block(sends);
+
+        sends.execute(GEBulkhead.Priority.BACKGROUND, () -> order.add("prefetch"));
+        sends.execute(GEBulkhead.Priority.SEND, () -> order.add("email"));
+        sends.execute(GEBulkhead.Priority.INTERACTIVE, () -> order.add("search"));
+        sends.execute(GEBulkhead.Priority.INTERACTIVE, () -> order.add("scroll"));
+
+        release.countDown();
+        sends.shutdown();
+        assertTrue(sends.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("search", "scroll", "email", "prefetch"), order);
+    }
+
+    /**
+     * Tests background work never takes the last free thread, so a click
+     * doesn't wait on it.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testBackgroundReserve() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+
+        reads.execute(GEBulkhead.Priority.BACKGROUND, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        reads.execute(GEBulkhead.Priority.BACKGROUND, second::countDown);
+
+        assertFalse(second.await(200, TimeUnit.MILLISECONDS));
+        assertEquals("penguins", reads.submit(() -> "penguins").get(1, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests lower priority work that has waited long enough goes ahead of
+     * newer higher priority work, so it isn't starved.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testAging() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong now = new AtomicLong();
+        GEBulkhead fixture = new GEBulkhead("walrus-send", 1, now::get);
+
+        try {
+            CountDownLatch release = this.block(fixture);
+
+            fixture.execute(GEBulkhead.Priority.BACKGROUND, () -> order.add("prefetch"));
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(GEBulkhead.AGING_MS + 1));
+            fixture.execute(GEBulkhead.Priority.SEND, () -> order.add("email"));
+            fixture.execute(GEBulkhead.Priority.INTERACTIVE, () -> order.add("search"));
+
+            release.countDown();
+            fixture.shutdown();
+            assertTrue(fixture.awaitTermination(5, TimeUnit.SECONDS));
+
+            assertEquals(List.of("search", "prefetch", "email"), order);
+        } finally {
+            fixture.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests cancelling a running task interrupts it.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testCancel() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        Future<?> task = reads.submit(() -> {
+            started.countDown();
+
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        task.cancel(true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests nothing more is taken once shut down.
+     */
+    @Test
+    public void testShutdown() {
+        reads.shutdown();
+
+        assertTrue(reads.isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> reads.execute(() -> { }));
+        assertEquals(0, reads.getStats().queued());
+    }
+
+    /**
+     * Takes a thread of a bulkhead until released.
+     * @param bulkhead Bulkhead to block.
+     * @return Latch to release the thread with.
+     * @throws InterruptedException Ignore this.
+     */
+    private CountDownLatch block(GEBulkhead bulkhead) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        bulkhead.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        return release;
+    }
+
+    /**
+     * Waits on a latch, ignoring interrupts.
+     * @param latch Latch to wait on.
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package model.util;
+
+import model.items.GTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the in-memory tag prefix index.
+ */
+public class GETagIndexTest {
+    private GETagIndex fixture;
+
+    // Dummy objects
+    private GTag dummyTag1;
+    private GTag dummyTag2;
+    private GTag dummyTag3;
+
+    // Setup
+    @BeforeEach
+    public void setup() {
+        // Dummy setup
+        dummyTag1 = new GTag("world/antarctica", "keyword", "Antarctica",
+                             "weburl", "apiurl");
+        dummyTag2 = new GTag("environment/emperor-penguins", "keyword", "Emperor penguins",
+                             "weburl", "apiurl");
+        dummyTag3 = new GTag("tv/pingu", "keyword", "Pingu",
+                             "weburl", "apiurl");
+
+        // Fixture setup
+        fixture = new GETagIndex();
+        fixture.addAll(List.of(dummyTag1, dummyTag2, dummyTag3));
+    }
+
+    // Tests
+    /**
+     * Tests that tags are found by a prefix of their ID, any part of their
+     * ID, or any word of their title, ignoring case.
+     */
+    @Test
+    public void lookupTest() {
+        assertThat(fixture.lookup("world/ant", 10), contains(dummyTag1));
+        assertThat(fixture.lookup("Pengu", 10), contains(dummyTag2));
+        assertThat(fixture.lookup("emperor pen", 10), contains(dummyTag2));
+        assertThat(fixture.lookup("p", 10), containsInAnyOrder(dummyTag2, dummyTag3));
+        assertThat(fixture.lookup("walrus", 10), empty());
+    }
+
+    /**
+     * Tests that blank prefixes match nothing, and that lookups are limited.
+     */
+    @Test
+    public void lookupBlankAndLimitTest() {
+        assertThat(fixture.lookup("", 10), empty());
+        assertThat(fixture.lookup("   ", 10), empty());
+        assertThat(fixture.lookup(null, 10), empty());
+        assertThat(fixture.lookup("p", 1), hasSize(1));
+    }
+
+    /**
+     * Tests that re-adding a tag replaces it rather than duplicating it.
+     */
+    @Test
+    public void addDuplicateTest() {
+        fixture.addAll(List.of(dummyTag3));
+
+        assertEquals(3, fixture.size());
+        assertThat(fixture.lookup("pingu", 10), contains(dummyTag3));
+    }
+
+    /**
+     * Tests that the index can answer prefixes that were fetched, or that
+     * have enough matches, but not others.
+     */
+    @Test
+    public void canAnswerTest() {
+        // Not fetched, and too few matches
+        assertFalse(fixture.canAnswer("pingu", 10));
+
+        // Fetched (in a different case)
+        fixture.markFetched("PINGU ");
+        assertTrue(fixture.canAnswer("pingu", 10));
+
+        // Enough matches
+        List<GTag> many = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            many.add(new GTag("colony/igloo-" + i, "keyword", "Igloo " + i,
+                              "weburl", "apiurl"));
+        }
+
+        fixture.addAll(many);
+        assertTrue(fixture.canAnswer("igl", 10));
+    }
+}
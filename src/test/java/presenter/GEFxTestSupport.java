@@ -0,0 +1,72 @@
+package presenter;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Starts the FX toolkit for tests, and runs test code on the FX thread.
+ * Tests using it are skipped if there is no display for the toolkit.
+ */
+class GEFxTestSupport {
+    private static boolean started = false;
+    private static String unavailable = null; // Why the toolkit couldn't start; null if it could
+
+    /**
+     * Starts the FX toolkit, if not already started by an earlier test.
+     * Skips the calling tests if it can't be started (e.g. no display).
+     */
+    static synchronized void startToolkit() {
+        if (!started && unavailable == null) {
+            try {
+                Platform.startup(() -> {});
+
+                // Keep the toolkit running between test classes
+                Platform.setImplicitExit(false);
+                started = true;
+            } catch (UnsupportedOperationException e) {
+                unavailable = e.getMessage();
+            }
+        }
+
+        assumeTrue(unavailable == null, "No display for the FX toolkit: " + unavailable);
+    }
+
+    /**
+     * Runs code on the FX thread, waiting for it to finish. Anything already
+     * queued to run on the FX thread has run by the time this returns.
+     * @param code Code to run.
+     * @param <T> Type of result.
+     * @return Result of the code.
+     * @throws Exception If the code fails, or takes over 5 seconds.
+     */
+    static <T> T callOnFx(Supplier<T> code) throws Exception {
+        CompletableFuture<T> ret = new CompletableFuture<>();
+
+        Platform.runLater(() -> {
+            try {
+                ret.complete(code.get());
+            } catch (RuntimeException e) {
+                ret.completeExceptionally(e);
+            }
+        });
+
+        return ret.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs code on the FX thread, waiting for it to finish.
+     * @param code Code to run.
+     * @throws Exception If the code fails, or takes over 5 seconds.
+     */
+    static void runOnFx(Runnable code) throws Exception {
+        callOnFx(() -> {
+            code.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package presenter;
+
+import javafx.scene.control.ListView;
+import model.items.GTag;
+import model.system.GESystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static presenter.GEFxTestSupport.*;
+
+/**
+ * Tests that searches from the presenter are superseded by newer ones,
+ * and that tag suggestions wait for typing to pause.
+ */
+public class GEPresenterImplSearchTest {
+    private GESystem mockSystem;
+    private GEPresenterImpl fixture;
+    private ListView<GTag> location;
+
+    // Dummy objects
+    private GTag penguinTag;
+    private GTag sealTag;
+
+    // Setup
+    @BeforeAll
+    public static void startFx() {
+        startToolkit();
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        this.mockSystem = mock(GESystem.class);
+        this.fixture = new GEPresenterImpl(null, this.mockSystem, null);
+        this.location = callOnFx(ListView::new);
+
+        this.penguinTag = new GTag("animals/penguins", "keyword", "Penguins",
+                                   "https://en.wikipedia.org/wiki/Penguin",
+                                   "https://en.wikipedia.org/wiki/Penguin");
+        this.sealTag = new GTag("animals/seals", "keyword", "Seals",
+                                "https://en.wikipedia.org/wiki/Pinniped",
+                                "https://en.wikipedia.org/wiki/Pinniped");
+    }
+
+    @AfterEach
+    public void teardown() {
+        this.fixture.shutdown();
+    }
+
+    // Tests
+    /**
+     * Tests that a search superseded by a newer one for the same view never
+     * shows its results, even if they come in after the newer search's.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testSupersededSearchDropped() throws Exception {
+        // Penguin search held until the seal search is done
+        CompletableFuture<Void> penguinRelease = new CompletableFuture<>();
+        CountDownLatch penguinStarted = new CountDownLatch(1);
+        when(this.mockSystem.getTags("penguin")).thenAnswer(invocation -> {
+            penguinStarted.countDown();
+            penguinRelease.join(); // Ignores the cancel's interrupt, like a slow request
+            return List.of(this.penguinTag);
+        });
+        when(this.mockSystem.getTags("seal")).thenReturn(List.of(this.sealTag));
+
+        GEPresenterObserver penguinPost = mock(GEPresenterObserver.class);
+        CountDownLatch sealDone = new CountDownLatch(1);
+
+        runOnFx(() -> this.fixture.setTagsViewList(this.location, "penguin", () -> {}, penguinPost));
+        assertTrue(penguinStarted.await(5, TimeUnit.SECONDS));
+        runOnFx(() -> this.fixture.setTagsViewList(this.location, "seal", () -> {},
+                                                   sealDone::countDown));
+        assertTrue(sealDone.await(5, TimeUnit.SECONDS));
+
+        // Let the superseded search finish, and its results reach the FX thread
+        penguinRelease.complete(null);
+        this.fixture.shutdown();
+        runOnFx(() -> {});
+
+        assertThat(callOnFx(this.location::getItems), contains(this.sealTag));
+        verify(penguinPost, never()).update();
+    }
+
+    /**
+     * Tests that tags are only requested once typing pauses, and only for
+     * the last prefix typed.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testSuggestionsDebounced() throws Exception {
+        when(this.mockSystem.suggestTags(anyString())).thenReturn(List.of());
+        when(this.mockSystem.canSuggestTagsLocally(anyString())).thenReturn(false);
+        when(this.mockSystem.getTags("pengu")).thenReturn(List.of(this.penguinTag));
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Each key faster than the debounce, but typing takes longer than it
+        for (String prefix : List.of("pe", "pen", "peng", "pengu")) {
+            runOnFx(() -> this.fixture.suggestTags(this.location, prefix, () -> {}, done::countDown));
+            Thread.sleep(150);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertThat(callOnFx(this.location::getItems), contains(this.penguinTag));
+        verify(this.mockSystem, times(1)).getTags(anyString());
+        verify(this.mockSystem).getTags("pengu");
+    }
+
+    /**
+     * Tests that a prefix the known tags can fully answer is never requested.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testSuggestionsAnsweredLocally() throws Exception {
+        when(this.mockSystem.suggestTags("seal")).thenReturn(List.of(this.sealTag));
+        when(this.mockSystem.canSuggestTagsLocally("seal")).thenReturn(true);
+
+        runOnFx(() -> this.fixture.suggestTags(this.location, "seal", () -> {}, () -> {}));
+
+        assertThat(callOnFx(this.location::getItems), contains(this.sealTag));
+        assertTrue(callOnFx(this.location::isVisible));
+        verify(this.mockSystem, never()).getTags(anyString());
+    }
+}
@@ -0,0 +1,121 @@
+package presenter;
+
+import javafx.application.Platform;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static presenter.GEFxTestSupport.*;
+
+/**
+ * Tests handing questions to the FX thread and waiting for the answer.
+ */
+public class GEUIHandshakeTest {
+    private CountDownLatch fxFree; // Counted down to let a held FX thread go
+    private AtomicBoolean asked;
+
+    // Setup
+    @BeforeAll
+    public static void startFx() {
+        startToolkit();
+    }
+
+    @BeforeEach
+    public void setup() {
+        this.fxFree = new CountDownLatch(0);
+        this.asked = new AtomicBoolean(false);
+    }
+
+    @AfterEach
+    public void teardown() {
+        this.fxFree.countDown();
+    }
+
+    /**
+     * Keeps the FX thread busy until the test lets it go, so questions
+     * wait to be asked.
+     */
+    private void holdFxThread() {
+        this.fxFree = new CountDownLatch(1);
+        CountDownLatch held = this.fxFree;
+
+        Platform.runLater(() -> {
+            try {
+                held.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    // Tests
+    /**
+     * Tests the question is asked on the FX thread, and its answer given back.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testAnswer() throws Exception {
+        String answer = GEUIHandshake.askAndAwait(() -> {
+            this.asked.set(Platform.isFxApplicationThread());
+            return "fish";
+        }, 5, TimeUnit.SECONDS);
+
+        assertEquals("fish", answer);
+        assertTrue(this.asked.get());
+    }
+
+    /**
+     * Tests an exception thrown by the question is thrown to the waiter.
+     */
+    @Test
+    public void testQuestionFails() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                GEUIHandshake.askAndAwait(() -> {
+                    throw new IllegalArgumentException("no fish");
+                }, 5, TimeUnit.SECONDS));
+
+        assertEquals("no fish", e.getMessage());
+    }
+
+    /**
+     * Tests a wait that times out before the question is asked gives up,
+     * and the question is then never asked.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        this.holdFxThread();
+
+        assertThrows(TimeoutException.class, () ->
+                GEUIHandshake.askAndAwait(() -> this.asked.getAndSet(true), 100, TimeUnit.MILLISECONDS));
+
+        this.fxFree.countDown();
+        runOnFx(() -> {}); // Question's turn on the FX thread has passed
+        assertFalse(this.asked.get());
+    }
+
+    /**
+     * Tests a wait that is interrupted (i.e. cancelled) before the question
+     * is asked gives up, and the question is then never asked.
+     * @throws Exception Ignore this.
+     */
+    @Test
+    public void testInterrupted() throws Exception {
+        this.holdFxThread();
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () ->
+                GEUIHandshake.askAndAwait(() -> this.asked.getAndSet(true), 5, TimeUnit.SECONDS));
+
+        this.fxFree.countDown();
+        runOnFx(() -> {});
+        assertFalse(this.asked.get());
+    }
+}
@@ -0,0 +1,124 @@
+package view.cells;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
+import javafx.scene.Scene;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import javafx.util.Callback;
+import model.items.GContent;
+import presenter.GEPresenter;
+import view.util.GEViewLists;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark for scrolling a content list of 10k synthetic items.
+ * Reports time and memory allocated per scroll step, and how many cells
+ * were created in total (which should stay at around one screen's worth).
+ * Needs a display; run with the scrollBenchmark Gradle task.
+ */
+public class GEContentCellScrollBenchmark {
+    private static final int ITEMS = 10000;
+    private static final int WARMUP_STEPS = 500;
+    private static final int STEPS = 2000;
+
+    /**
+     * Scrolls through the list, laying it out after each step.
+     * @param list List to scroll.
+     * @param steps Number of steps to scroll.
+     */
+    private static void scroll(ListView<GContent> list, int steps) {
+        for (int i = 0; i < steps; i++) {
+            // Mix of small and large jumps, like scrolling and dragging the bar
+            int index = (i % 2 == 0) ? (i * 3) % ITEMS : (i * 997) % ITEMS;
+            list.scrollTo(index);
+            list.layout();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        // Synthetic data; every third item is in the reading list
+        List<GContent> content = new ArrayList<>(ITEMS);
+        ObservableSet<String> readingListIds = FXCollections.observableSet(new HashSet<>());
+
+        for (int i = 0; i < ITEMS; i++) {
+            GContent gc = new GContent("synthetic/" + i, "section", "Section " + (i % 20),
+                                       "2022-01-01T00:00:00Z", "Synthetic article number " + i,
+                                       "https://example.com/" + i, "https://example.com/" + i,
+                                       1, 1);
+            content.add(gc);
+
+            if (i % 3 == 0) {
+                readingListIds.add(gc.id());
+            }
+        }
+
+        GEPresenter p = mock(GEPresenter.class);
+        when(p.getReadingListIds()).thenReturn(readingListIds);
+        when(p.getXResolution()).thenReturn(GEPresenter.DEFAULT_X);
+        when(p.getYResolution()).thenReturn(GEPresenter.DEFAULT_Y);
+
+        CompletableFuture<String> report = new CompletableFuture<>();
+
+        Platform.runLater(() -> {
+            ListView<GContent> list = GEViewLists.contentList(content, p);
+
+            // Count cells made
+            int[] cellsMade = new int[]{0};
+            Callback<ListView<GContent>, ListCell<GContent>> factory = list.getCellFactory();
+            list.setCellFactory(lv -> {
+                cellsMade[0]++;
+                return factory.call(lv);
+            });
+
+            Stage stage = new Stage();
+            stage.setScene(new Scene(new StackPane(list),
+                                     GEPresenter.DEFAULT_X,
+                                     GEPresenter.DEFAULT_Y));
+            stage.show();
+
+            scroll(list, WARMUP_STEPS);
+
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long fxThread = Thread.currentThread().getId();
+
+            long bytesBefore = threads.getThreadAllocatedBytes(fxThread);
+            long start = System.nanoTime();
+
+            scroll(list, STEPS);
+
+            long elapsed = System.nanoTime() - start;
+            long bytes = threads.getThreadAllocatedBytes(fxThread) - bytesBefore;
+
+            stage.close();
+
+            report.complete(("Scrolled %d items in %d steps\n" +
+                             "  %.3f ms per step\n" +
+                             "  %.1f KB allocated per step\n" +
+                             "  %d cells created in total")
+                            .formatted(ITEMS, STEPS,
+                                       elapsed / 1e6 / STEPS,
+                                       bytes / 1024.0 / STEPS,
+                                       cellsMade[0]));
+        });
+
+        System.out.println(report.get());
+        Platform.exit();
+    }
+}